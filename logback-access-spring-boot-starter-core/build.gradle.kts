@@ -5,6 +5,7 @@ plugins {
     // released artifact's dependencies, not the example apps' test dependencies.
     alias(libs.plugins.cyclonedx)
     alias(libs.plugins.detekt)
+    alias(libs.plugins.jmh)
     alias(libs.plugins.spotless)
     `java-library`
 }
@@ -28,6 +29,9 @@ dependencies {
     // Runtime requirement for Spring Boot constructor binding of the @ConfigurationProperties
     // data class. Not part of the public compile surface, so it is not an api dependency.
     implementation(libs.kotlin.reflect)
+    // PathPatternParser for the path-pattern URL filters. Every Spring MVC or WebFlux application
+    // already has spring-web, and it is only loaded when path patterns are configured.
+    compileOnly(libs.spring.web)
 
     // Generates META-INF/spring-configuration-metadata.json for logback.access.* so consumers get
     // IDE auto-completion and property documentation. The Spring Boot configuration processor is a
@@ -60,6 +64,21 @@ tasks.jar {
     }
 }
 
+// Benchmarks exercise internal matchers directly, so the jmh compilation is associated with
+// main to see internal declarations, as in the starter module.
+// Run with ./gradlew :logback-access-spring-boot-starter-core:jmh -Pjmh.includes=<BenchmarkClass>
+kotlin {
+    target.compilations.named("jmh") {
+        associateWith(target.compilations.getByName("main"))
+    }
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    profilers = listOf("gc")
+    includes = providers.gradleProperty("jmh.includes").map { listOf(it) }.orElse(emptyList())
+}
+
 spotless {
     kotlin {
         ktlint()
@@ -79,6 +98,7 @@ testing {
                 implementation(libs.kotest.assertions.core)
                 implementation(libs.mockk)
                 implementation(libs.spring.test)
+                implementation(libs.spring.web)
             }
         }
     }
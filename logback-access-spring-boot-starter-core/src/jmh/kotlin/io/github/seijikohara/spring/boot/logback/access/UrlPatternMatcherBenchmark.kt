@@ -0,0 +1,81 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares URL exclusion with a growing number of patterns.
+ *
+ * `regexLoop` is the previous implementation, one [Regex.containsMatchIn] per pattern;
+ * `compiled` is [UrlPatternMatcher]. The pattern set mirrors a typical exclusion list: anchored
+ * prefixes for static assets and probes, extension suffixes, a few unanchored literals, and one
+ * true regex per eight patterns. Each operation matches [URIS] (mostly API calls that match no
+ * pattern, the worst case for the loop), so results are per eight URIs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class UrlPatternMatcherBenchmark {
+    @Param("4", "16", "32", "64")
+    var patternCount: Int = 0
+
+    private lateinit var regexes: List<Regex>
+    private lateinit var matcher: UrlPatternMatcher
+
+    @Setup
+    fun setUp() {
+        val patterns = (0 until patternCount).map(::pattern)
+        regexes = patterns.map(::Regex)
+        matcher = UrlPatternMatcher.compile(patterns, "exclude")
+    }
+
+    @Benchmark
+    fun regexLoop(blackhole: Blackhole) {
+        URIS.forEach { uri -> blackhole.consume(regexes.any { it.containsMatchIn(uri) }) }
+    }
+
+    @Benchmark
+    fun compiled(blackhole: Blackhole) {
+        URIS.forEach { uri -> blackhole.consume(matcher.containsMatchIn(uri)) }
+    }
+
+    private companion object {
+        val URIS =
+            listOf(
+                "/api/v1/orders/12345/items",
+                "/api/v1/customers/987/addresses",
+                "/api/v2/search",
+                "/checkout/confirm",
+                "/static/js/app.3f2a1c.js",
+                "/actuator/health",
+                "/api/v1/products/sku-1234",
+                "/graphql",
+            )
+
+        fun pattern(index: Int): String =
+            when (index % 8) {
+                0 -> "^/static/bundle$index/"
+                1 -> "^/actuator/probe$index"
+                2 -> "\\.ext$index$"
+                3 -> "/internal-$index/"
+                4 -> "^/assets/v$index/.*"
+                5 -> "^/metrics/$index$"
+                6 -> "/favicon-$index\\.ico$"
+                else -> "^/legacy/$index/[0-9]+/view"
+            }
+    }
+}
@@ -0,0 +1,239 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.access.common.spi.IAccessEvent.NA
+import ch.qos.logback.access.common.spi.IAccessEvent.SENTINEL
+import io.github.oshai.kotlinlogging.KotlinLogging
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.AggregationProperties
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.atomic.AtomicReferenceArray
+import java.util.concurrent.atomic.LongAccumulator
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Folds the requests of the routes configured in [AggregationProperties] into per-window summaries.
+ *
+ * Each route keeps a [ConcurrentHashMap] from method to a table of accumulators indexed by status
+ * code, and each accumulator holds [LongAdder] counters, so concurrent requests on the same key
+ * update separate cells instead of contending on one. Once a key exists, [aggregate] only reads the
+ * request's own method string as map key and allocates nothing.
+ *
+ * Every [AggregationProperties.window], [flush] resets the counters and hands one summary event per
+ * key that saw traffic to the sink passed to [start]. A summary carries the method, the route name
+ * as request URI and route, the status, the total bytes as content length, and the mean latency as elapsed
+ * time; the other figures are request attributes named after [COUNT_ATTRIBUTE] and its siblings.
+ * Counters are reset one by one, so a request recorded during a flush may be reported with the
+ * next window.
+ */
+internal class AccessAggregator(
+    properties: AggregationProperties,
+) : AutoCloseable {
+    private val routes: Array<Route> =
+        properties.routes
+            .map { Route(it.urlPattern.toValidRegex("aggregation"), it.name?.takeIf(String::isNotBlank) ?: it.urlPattern) }
+            .toTypedArray()
+
+    private val windowMillis: Long =
+        properties.window.toMillis().also { require(it > 0) { "Invalid aggregation window: ${properties.window}" } }
+
+    private var scheduler: ScheduledExecutorService? = null
+
+    private var sink: (IAccessEvent) -> Unit = {}
+
+    private var windowStart: Long = System.currentTimeMillis()
+
+    /** Records [request] and returns true if it belongs to an aggregated route, in which case it must not be logged. */
+    fun aggregate(request: AccessRequestView): Boolean {
+        val route = routeOf(request)
+        route?.record(request)
+        return route != null
+    }
+
+    /** Returns true if [request] belongs to an aggregated route, without recording it. */
+    fun covers(request: AccessRequestView): Boolean = routeOf(request) != null
+
+    private fun routeOf(request: AccessRequestView): Route? {
+        val uri = request.requestURI ?: NA
+        return routes.firstOrNull { it.pattern.containsMatchIn(uri) }
+    }
+
+    /** Starts emitting the summaries of each window to [sink] on a daemon thread. */
+    fun start(sink: (IAccessEvent) -> Unit) {
+        this.sink = sink
+        windowStart = System.currentTimeMillis()
+        scheduler =
+            Executors
+                .newSingleThreadScheduledExecutor { Thread.ofPlatform().name(THREAD_NAME).daemon(true).unstarted(it) }
+                .also { it.scheduleAtFixedRate(::flush, windowMillis, windowMillis, MILLISECONDS) }
+    }
+
+    /** Emits a summary for every key recorded since the previous flush and resets the counters. */
+    @Synchronized
+    @Suppress("TooGenericExceptionCaught")
+    fun flush() {
+        val start = windowStart
+        val end = System.currentTimeMillis()
+        windowStart = end
+        try {
+            routes.forEach { route ->
+                route.methods.forEach { (method, statuses) ->
+                    for (status in 0..<statuses.length()) {
+                        statuses[status]?.drain()?.let { sink(it.toEvent(route.name, method, status, start, end)) }
+                    }
+                }
+            }
+        } catch (e: Exception) {
+            logger.error(e) { "Failed to emit access log summaries" }
+        }
+    }
+
+    /** Stops the timer and emits the summaries of the current, partial window. */
+    override fun close() {
+        scheduler?.shutdown()
+        flush()
+    }
+
+    private class Route(
+        val pattern: Regex,
+        val name: String,
+    ) {
+        val methods = ConcurrentHashMap<String, AtomicReferenceArray<Accumulator?>>()
+
+        fun record(request: AccessRequestView) {
+            val statuses = statusesFor(request.method ?: NA)
+            val status = request.statusCode.coerceIn(0, STATUS_LIMIT - 1)
+            val accumulator = statuses[status] ?: Accumulator().let { statuses.compareAndExchange(status, null, it) ?: it }
+            accumulator.record(request.elapsedTime, request.contentLength)
+        }
+
+        /** Caps the distinct methods per route, so clients sending arbitrary methods cannot grow the map without bound. */
+        private fun statusesFor(method: String): AtomicReferenceArray<Accumulator?> =
+            methods[method]
+                ?: methods.computeIfAbsent(if (methods.size < MAX_METHODS) method else OTHER_METHOD) {
+                    AtomicReferenceArray(STATUS_LIMIT)
+                }
+    }
+
+    /** Counters of one key. Latencies are counted in the buckets bounded by [LATENCY_BOUNDS], plus an overflow bucket. */
+    private class Accumulator {
+        private val count = LongAdder()
+        private val bytes = LongAdder()
+        private val elapsedTotal = LongAdder()
+        private val elapsedMax = LongAccumulator({ a, b -> maxOf(a, b) }, 0L)
+        private val buckets = Array(LATENCY_BOUNDS.size + 1) { LongAdder() }
+
+        fun record(
+            elapsedTime: Long,
+            contentLength: Long,
+        ) {
+            count.increment()
+            if (contentLength > 0) bytes.add(contentLength)
+            val elapsed = elapsedTime.coerceAtLeast(0)
+            elapsedTotal.add(elapsed)
+            elapsedMax.accumulate(elapsed)
+            val bucket = LATENCY_BOUNDS.indexOfFirst { elapsed <= it }
+            buckets[if (bucket < 0) LATENCY_BOUNDS.size else bucket].increment()
+        }
+
+        /** Returns the counts since the previous call and resets them, or null when no request was recorded. */
+        fun drain(): Summary? =
+            count.sumThenReset().takeIf { it > 0 }?.let { total ->
+                Summary(
+                    count = total,
+                    bytes = bytes.sumThenReset(),
+                    elapsedTotal = elapsedTotal.sumThenReset(),
+                    elapsedMax = elapsedMax.getThenReset(),
+                    buckets = LongArray(buckets.size) { buckets[it].sumThenReset() },
+                )
+            }
+    }
+
+    private class Summary(
+        val count: Long,
+        val bytes: Long,
+        val elapsedTotal: Long,
+        val elapsedMax: Long,
+        val buckets: LongArray,
+    ) {
+        fun toEvent(
+            route: String,
+            method: String,
+            status: Int,
+            windowStart: Long,
+            windowEnd: Long,
+        ): IAccessEvent =
+            LogbackAccessEvent(
+                AccessEventData(
+                    timeStamp = windowEnd,
+                    elapsedTime = elapsedTotal / count,
+                    sequenceNumber = null,
+                    threadName = Thread.currentThread().name,
+                    serverName = null,
+                    localPort = SENTINEL,
+                    remoteAddr = null,
+                    remoteHost = null,
+                    remoteUser = null,
+                    protocol = NA,
+                    method = method,
+                    requestURI = route,
+                    queryString = "",
+                    requestURL = "$method $route",
+                    requestHeaderMap = emptyMap(),
+                    cookieMap = emptyMap(),
+                    requestParameterMap = emptyMap(),
+                    attributeMap =
+                        mapOf(
+                            COUNT_ATTRIBUTE to "$count",
+                            BYTES_ATTRIBUTE to "$bytes",
+                            ELAPSED_MAX_ATTRIBUTE to "$elapsedMax",
+                            HISTOGRAM_ATTRIBUTE to histogram(),
+                            WINDOW_START_ATTRIBUTE to "$windowStart",
+                        ),
+                    sessionID = null,
+                    requestContent = null,
+                    statusCode = status,
+                    responseHeaderMap = emptyMap(),
+                    contentLength = bytes,
+                    responseContent = null,
+                    route = route,
+                ),
+            )
+
+        /** Formats the latency buckets as `5=3,10=1,...,+Inf=0`, each key being the bucket's upper bound in milliseconds. */
+        private fun histogram(): String =
+            buckets.indices.joinToString(",") { index ->
+                "${LATENCY_BOUNDS.getOrNull(index) ?: "+Inf"}=${buckets[index]}"
+            }
+    }
+
+    companion object {
+        /** Request attribute holding the number of requests a summary covers. */
+        const val COUNT_ATTRIBUTE: String = "aggregate.count"
+
+        /** Request attribute holding the response body bytes sent by the requests a summary covers. */
+        const val BYTES_ATTRIBUTE: String = "aggregate.bytes"
+
+        /** Request attribute holding the longest elapsed time, in milliseconds, of the requests a summary covers. */
+        const val ELAPSED_MAX_ATTRIBUTE: String = "aggregate.elapsedMax"
+
+        /** Request attribute holding the latency histogram of a summary, formatted as described on `histogram`. */
+        const val HISTOGRAM_ATTRIBUTE: String = "aggregate.histogram"
+
+        /** Request attribute holding the start of a summary's window, in epoch milliseconds. */
+        const val WINDOW_START_ATTRIBUTE: String = "aggregate.windowStart"
+
+        /** Method key used once a route has seen [MAX_METHODS] distinct methods. */
+        const val OTHER_METHOD: String = "OTHER"
+
+        private val logger = KotlinLogging.logger {}
+
+        private val LATENCY_BOUNDS = longArrayOf(5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000)
+
+        private const val THREAD_NAME = "logback-access-aggregator"
+        private const val STATUS_LIMIT = 1000
+        private const val MAX_METHODS = 32
+    }
+}
@@ -52,7 +52,10 @@ public data class AccessEventData(
     val attributeMap: Map<String, String>,
     /** Session ID if a session exists, or null. */
     val sessionID: String?,
-    /** Request body content if captured by TeeFilter, or null. Always null on Jetty (TeeFilter not supported). */
+    /**
+     * Request body content as text, or null. Takes precedence over [capturedRequestContent].
+     * The built-in extractors leave it null and store the captured bytes instead.
+     */
     val requestContent: String?,
     /** HTTP response status code. */
     val statusCode: Int,
@@ -60,8 +63,17 @@ public data class AccessEventData(
     val responseHeaderMap: Map<String, String>,
     /** Number of bytes written in the response body. */
     val contentLength: Long,
-    /** Response body content if captured by TeeFilter, or null. Always null on Jetty (TeeFilter not supported). */
+    /** Response body content as text, or null. Takes precedence over [capturedResponseContent], like [requestContent]. */
     val responseContent: String?,
+    /**
+     * Handler pattern the request was routed with (e.g. "/api/users/{id}"), the URI normalized by
+     * [RouteResolver] when no handler matched, or null when neither is available.
+     */
+    val route: String? = null,
+    /** Request body captured by the tee filter or the Jetty body capture handler, decoded when first read, or null. */
+    val capturedRequestContent: CapturedContent? = null,
+    /** Response body captured by the tee filter or the Jetty body capture handler, decoded when first read, or null. */
+    val capturedResponseContent: CapturedContent? = null,
 ) : Serializable {
     /**
      * Array-backed parameter map for [ch.qos.logback.access.common.spi.IAccessEvent] compatibility.
@@ -72,11 +84,39 @@ public data class AccessEventData(
     internal val requestParameterArrayMap: Map<String, Array<String>>
         get() = requestParameterMap.mapValues { (_, values) -> values.toTypedArray() }
 
+    /**
+     * Writes captured bodies as decoded [requestContent] and [responseContent], so the serialized
+     * form reads the same as that of snapshots which held only text.
+     */
+    @Suppress("unused") // Called by Java serialization.
+    private fun writeReplace(): Any =
+        if (capturedRequestContent == null && capturedResponseContent == null) {
+            this
+        } else {
+            copy(
+                requestContent = requestContent ?: capturedRequestContent?.decode(),
+                responseContent = responseContent ?: capturedResponseContent?.decode(),
+                capturedRequestContent = null,
+                capturedResponseContent = null,
+            )
+        }
+
     public companion object {
         private const val serialVersionUID: Long = 1L
 
         /** Request attribute key for the remote user set by the security filter. */
         public const val REMOTE_USER_ATTR: String =
             "io.github.seijikohara.spring.boot.logback.access.remoteUser"
+
+        /**
+         * Request attribute key for a route set by the application or the WebFlux route filter.
+         * Takes precedence over [MVC_ROUTE_ATTR].
+         */
+        public const val ROUTE_ATTR: String =
+            "io.github.seijikohara.spring.boot.logback.access.route"
+
+        /** Request attribute key under which Spring MVC stores the best-matching handler pattern. */
+        public const val MVC_ROUTE_ATTR: String =
+            "org.springframework.web.servlet.HandlerMapping.bestMatchingPattern"
     }
 }
@@ -0,0 +1,61 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+
+/**
+ * Typed predicate over access log fields, compiled once from an expression such as
+ * `status >= 500 || elapsed > 1000 || header('User-Agent') ~ 'kube-probe'`.
+ *
+ * Comparisons are combined with `&&`, `||`, `!`, and parentheses. Numeric fields (`status`,
+ * `elapsed` in milliseconds, `contentLength`) are compared with `==`, `!=`, `<`, `<=`, `>`, and
+ * `>=`. Text fields (`method`, `uri`, `remoteAddr`, `protocol`, `query`) and the lookups
+ * `header('name')`, `responseHeader('name')`, `cookie('name')`, and `param('name')` are compared
+ * with `==` and `!=`, or with `~` and `!~` against a quoted regular expression that is searched for
+ * anywhere in the value. A missing value equals nothing and matches no pattern. Type errors are
+ * reported by [compile], never during evaluation.
+ *
+ * Every comparison is compiled into its own [Condition], so evaluation neither walks a syntax tree
+ * nor boxes numbers. When all fields read are available on an [AccessRequestView] (`status`,
+ * `elapsed`, `method`, `uri`, and `header`), [isCheap] is true and the expression can be tested on
+ * the live request before any event data is extracted.
+ *
+ * `remoteAddr` is the client address the event logs as `%a`, after any forwarded-header
+ * resolution by the server, so it always reads the extracted event. Filtering by the connection
+ * peer is what the client CIDR lists are for.
+ */
+internal class AccessExpression private constructor(
+    val source: String,
+    private val onView: Condition<AccessRequestView>?,
+    private val onEvent: Condition<IAccessEvent>,
+    /** Optional event fields the expression reads when it is tested on an extracted event. */
+    val capturePlan: CapturePlan,
+) {
+    /** Whether [test] can be called with an [AccessRequestView]. */
+    val isCheap: Boolean
+        get() = onView != null
+
+    /** Tests the live request; only valid when [isCheap]. */
+    fun test(request: AccessRequestView): Boolean = checkNotNull(onView) { "'$source' reads fields of extracted events" }.test(request)
+
+    /** Tests an extracted event. */
+    fun test(event: IAccessEvent): Boolean = onEvent.test(event)
+
+    override fun toString(): String = "AccessExpression($source)"
+
+    companion object {
+        /**
+         * Parses, type-checks, and compiles [source].
+         *
+         * @throws IllegalArgumentException if [source] is not a valid expression
+         */
+        fun compile(source: String): AccessExpression {
+            val node = AccessExpressionParser.parse(source)
+            return AccessExpression(
+                source = source,
+                onView = if (node.isCheap) node.compile(ViewTarget) else null,
+                onEvent = node.compile(EventTarget),
+                capturePlan = node.capturePlan,
+            )
+        }
+    }
+}
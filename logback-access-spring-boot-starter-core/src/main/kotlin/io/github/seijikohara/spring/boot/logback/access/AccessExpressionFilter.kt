@@ -0,0 +1,57 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.core.filter.AbstractMatcherFilter
+import ch.qos.logback.core.spi.FilterReply
+
+/**
+ * Logback filter that tests access events against a typed expression, without a scripting engine.
+ *
+ * ```xml
+ * <filter class="io.github.seijikohara.spring.boot.logback.access.AccessExpressionFilter">
+ *   <expression>status &lt; 400 &amp;&amp; header('User-Agent') ~ 'kube-probe'</expression>
+ *   <onMatch>DENY</onMatch>
+ * </filter>
+ * ```
+ *
+ * The expression language is described on [AccessExpression]. It is compiled when the filter
+ * starts; an invalid expression is reported as a configuration error and leaves the filter
+ * stopped. A matching event gets the `onMatch` reply and any other event the `onMismatch`
+ * reply, both NEUTRAL unless configured.
+ *
+ * Other filters make the context capture every optional field because they may read any of
+ * them; this filter only adds the fields its expression reads to the [CapturePlan].
+ */
+public class AccessExpressionFilter : AbstractMatcherFilter<IAccessEvent>() {
+    /** Expression source, set from the `<expression>` element. */
+    public var expression: String? = null
+
+    private var compiled: AccessExpression? = null
+
+    /** Optional event fields read by the expression; none until the filter has started. */
+    internal val capturePlan: CapturePlan
+        get() = compiled?.capturePlan ?: CapturePlan.NONE
+
+    override fun start() {
+        val source = expression
+        if (source.isNullOrBlank()) {
+            addError("No expression set for filter '$name'")
+            return
+        }
+        try {
+            compiled = AccessExpression.compile(source)
+            super.start()
+        } catch (e: IllegalArgumentException) {
+            addError(e.message, e)
+        }
+    }
+
+    override fun decide(event: IAccessEvent): FilterReply {
+        val current = compiled
+        return when {
+            !isStarted || current == null -> FilterReply.NEUTRAL
+            current.test(event) -> onMatch
+            else -> onMismatch
+        }
+    }
+}
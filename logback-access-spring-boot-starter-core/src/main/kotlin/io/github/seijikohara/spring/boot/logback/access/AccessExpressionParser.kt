@@ -0,0 +1,210 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import java.util.regex.PatternSyntaxException
+
+/**
+ * Recursive-descent parser for [AccessExpression] sources.
+ *
+ * Grammar, from lowest to highest precedence:
+ * ```
+ * or         := and ('||' and)*
+ * and        := unary ('&&' unary)*
+ * unary      := '!' unary | '(' or ')' | comparison
+ * comparison := operand operator operand
+ * operand    := number | string | field | function '(' string ')'
+ * ```
+ * Strings are enclosed in single or double quotes and have no escapes, so regular expressions
+ * can be written as they are; use the other quote character to include one. Operand types are
+ * checked while parsing, and every error names the offending position.
+ */
+internal class AccessExpressionParser private constructor(
+    private val source: String,
+) {
+    private val tokens: List<Token> = tokenize(source)
+    private var position = 0
+
+    private fun parseOr(): ExpressionNode {
+        var node = parseAnd()
+        while (accept("||")) node = OrNode(node, parseAnd())
+        return node
+    }
+
+    private fun parseAnd(): ExpressionNode {
+        var node = parseUnary()
+        while (accept("&&")) node = AndNode(node, parseUnary())
+        return node
+    }
+
+    private fun parseUnary(): ExpressionNode =
+        when {
+            accept("!") -> NotNode(parseUnary())
+            accept("(") -> parseOr().also { expect(")") }
+            else -> parseComparison()
+        }
+
+    private fun parseComparison(): ExpressionNode {
+        val left = parseOperand()
+        val token = next()
+        val operator =
+            ComparisonOperator.entries.find { token.type == TokenType.SYMBOL && it.symbol == token.text }
+                ?: fail("expected a comparison operator but found '${token.text}'", token)
+        return comparison(left, operator, parseOperand(), token)
+    }
+
+    private fun comparison(
+        left: Operand,
+        operator: ComparisonOperator,
+        right: Operand,
+        token: Token,
+    ): ExpressionNode =
+        when {
+            operator == ComparisonOperator.MATCH || operator == ComparisonOperator.NOT_MATCH -> {
+                if (left !is TextOperand || right !is TextLiteral) {
+                    fail("'${operator.symbol}' needs a text value on the left and a quoted pattern on the right", token)
+                }
+                val pattern =
+                    try {
+                        Regex(right.value)
+                    } catch (e: PatternSyntaxException) {
+                        fail("invalid pattern '${right.value}'", token, e)
+                    }
+                PatternMatch(left, pattern, operator == ComparisonOperator.NOT_MATCH)
+            }
+
+            left is NumberOperand && right is NumberOperand -> {
+                NumberComparison(left, operator, right)
+            }
+
+            left is TextOperand && right is TextOperand -> {
+                if (operator != ComparisonOperator.EQ && operator != ComparisonOperator.NE) {
+                    fail("'${operator.symbol}' cannot compare text", token)
+                }
+                TextComparison(left, operator == ComparisonOperator.NE, right)
+            }
+
+            else -> {
+                fail("cannot compare a number with text", token)
+            }
+        }
+
+    private fun parseOperand(): Operand {
+        val token = next()
+        return when (token.type) {
+            TokenType.NUMBER -> NumberLiteral(token.text.toLongOrNull() ?: fail("number '${token.text}' is too large", token))
+            TokenType.STRING -> TextLiteral(token.text)
+            TokenType.IDENTIFIER -> parseField(token)
+            else -> fail("expected a field, number or quoted string but found '${token.text}'", token)
+        }
+    }
+
+    private fun parseField(token: Token): Operand {
+        val keyed = KeyedField.entries.find { it.functionName == token.text }
+        return if (keyed != null) {
+            expect("(")
+            val key = next()
+            if (key.type != TokenType.STRING) fail("expected a quoted name but found '${key.text}'", key)
+            expect(")")
+            KeyedOperand(keyed, key.text)
+        } else {
+            NumberField.entries.find { it.fieldName == token.text }?.let(::NumberFieldOperand)
+                ?: TextField.entries.find { it.fieldName == token.text }?.let(::TextFieldOperand)
+                ?: fail("unknown field '${token.text}'", token)
+        }
+    }
+
+    private fun accept(symbol: String): Boolean {
+        val token = tokens[position]
+        val matches = token.type == TokenType.SYMBOL && token.text == symbol
+        if (matches) position++
+        return matches
+    }
+
+    private fun expect(symbol: String) {
+        if (!accept(symbol)) fail("expected '$symbol' but found '${tokens[position].text}'", tokens[position])
+    }
+
+    private fun next(): Token = tokens[position].also { if (it.type != TokenType.END) position++ }
+
+    private fun fail(
+        problem: String,
+        token: Token,
+        cause: Throwable? = null,
+    ): Nothing = throw IllegalArgumentException("Invalid access expression '$source': $problem at position ${token.position + 1}", cause)
+
+    private enum class TokenType { IDENTIFIER, NUMBER, STRING, SYMBOL, END }
+
+    private class Token(
+        val type: TokenType,
+        val text: String,
+        val position: Int,
+    )
+
+    companion object {
+        /** Operators and parentheses, longest first so `<=` is not read as `<`. */
+        private val SYMBOLS = listOf("||", "&&", "==", "!=", "<=", ">=", "!~", "<", ">", "~", "!", "(", ")")
+
+        /**
+         * Parses and type-checks [source].
+         *
+         * @throws IllegalArgumentException if [source] is not a valid expression
+         */
+        fun parse(source: String): ExpressionNode =
+            AccessExpressionParser(source).run {
+                val node = parseOr()
+                val rest = tokens[position]
+                if (rest.type != TokenType.END) fail("unexpected '${rest.text}'", rest)
+                node
+            }
+
+        private fun tokenize(source: String): List<Token> {
+            val tokens = mutableListOf<Token>()
+            var index = 0
+            while (index < source.length) {
+                val start = index
+                val char = source[index]
+                when {
+                    char.isWhitespace() -> {
+                        index++
+                    }
+
+                    char.isLetter() -> {
+                        index = source.scan(index) { it.isLetterOrDigit() }
+                        tokens += Token(TokenType.IDENTIFIER, source.substring(start, index), start)
+                    }
+
+                    char.isDigit() -> {
+                        index = source.scan(index) { it.isDigit() }
+                        tokens += Token(TokenType.NUMBER, source.substring(start, index), start)
+                    }
+
+                    char == '\'' || char == '"' -> {
+                        val end = source.indexOf(char, start + 1)
+                        require(end > 0) { "Invalid access expression '$source': unterminated string at position ${start + 1}" }
+                        tokens += Token(TokenType.STRING, source.substring(start + 1, end), start)
+                        index = end + 1
+                    }
+
+                    else -> {
+                        val symbol =
+                            requireNotNull(SYMBOLS.find { source.startsWith(it, start) }) {
+                                "Invalid access expression '$source': unexpected '$char' at position ${start + 1}"
+                            }
+                        tokens += Token(TokenType.SYMBOL, symbol, start)
+                        index += symbol.length
+                    }
+                }
+            }
+            return tokens + Token(TokenType.END, "end of expression", source.length)
+        }
+
+        /** Index of the first character from [from] on that does not satisfy [predicate]. */
+        private inline fun String.scan(
+            from: Int,
+            predicate: (Char) -> Boolean,
+        ): Int {
+            var index = from
+            while (index < length && predicate(this[index])) index++
+            return index
+        }
+    }
+}
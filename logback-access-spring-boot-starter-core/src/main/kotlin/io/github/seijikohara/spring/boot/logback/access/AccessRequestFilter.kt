@@ -0,0 +1,169 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.access.common.spi.IAccessEvent.NA
+import org.springframework.http.server.PathContainer
+
+/**
+ * Checks [LogbackAccessContext.shouldLog] runs on the live request, compiled once from
+ * [LogbackAccessProperties]: client CIDRs, header rules, URL and path patterns, filter expressions,
+ * and sampling, in that order so that the cheapest checks reject a request first. A request that
+ * passes the filters and belongs to an aggregated route is handed to [aggregator] before sampling
+ * and rejected, since it is only reported through the aggregator's summaries.
+ *
+ * A filter expression that reads fields only known once the event is extracted cannot run on
+ * the live request; [acceptsEvent] tests it on the built event instead, and [capturePlan] lists
+ * the fields it needs. While such an expression is configured, requests of aggregated routes
+ * skip sampling and are extracted, and [acceptsEvent] hands them to [aggregator] once the
+ * expression has accepted them, so a route is never counted with requests the filters drop.
+ */
+internal class AccessRequestFilter(
+    properties: LogbackAccessProperties,
+    private val aggregator: AccessAggregator? = null,
+) {
+    /** Include client CIDRs compiled into a prefix trie. Empty lists are normalized like [includePatterns]. */
+    private val includeClients: CidrMatcher? =
+        properties.filter.includeClientCidrs
+            ?.takeIf { it.isNotEmpty() }
+            ?.let { CidrMatcher.compile(it, "include") }
+
+    /** Exclude client CIDRs compiled into a prefix trie. Empty lists are normalized like [includePatterns]. */
+    private val excludeClients: CidrMatcher? =
+        properties.filter.excludeClientCidrs
+            ?.takeIf { it.isNotEmpty() }
+            ?.let { CidrMatcher.compile(it, "exclude") }
+
+    /** Include header rules grouped by header name. Empty lists are normalized like [includePatterns]. */
+    private val includeHeaders: HeaderMatcher? =
+        properties.filter.includeHeaders
+            ?.takeIf { it.isNotEmpty() }
+            ?.let { HeaderMatcher.compile(it, "include") }
+
+    /** Exclude header rules grouped by header name. Empty lists are normalized like [includePatterns]. */
+    private val excludeHeaders: HeaderMatcher? =
+        properties.filter.excludeHeaders
+            ?.takeIf { it.isNotEmpty() }
+            ?.let { HeaderMatcher.compile(it, "exclude") }
+
+    /**
+     * Include URL patterns compiled into a single [UrlPatternMatcher], so a request is checked
+     * against all of them in one pass instead of one regex per pattern.
+     *
+     * An empty list is normalized to null (no filtering): relaxed binding produces an
+     * empty, non-null list from an empty property value, and matching against an empty
+     * list would silently drop every event.
+     */
+    private val includePatterns: UrlPatternMatcher? =
+        properties.filter.includeUrlPatterns
+            ?.takeIf { it.isNotEmpty() }
+            ?.let { UrlPatternMatcher.compile(it, "include") }
+
+    /** Exclude URL patterns compiled like [includePatterns]. Empty lists are normalized the same way. */
+    private val excludePatterns: UrlPatternMatcher? =
+        properties.filter.excludeUrlPatterns
+            ?.takeIf { it.isNotEmpty() }
+            ?.let { UrlPatternMatcher.compile(it, "exclude") }
+
+    /** Include path patterns grouped by leading segment. Empty lists are normalized like [includePatterns]. */
+    private val includePaths: PathPatternIndex? =
+        properties.filter.includePathPatterns
+            ?.takeIf { it.isNotEmpty() }
+            ?.let { PathPatternIndex.compile(it, "include") }
+
+    /** Exclude path patterns grouped by leading segment. Empty lists are normalized like [includePatterns]. */
+    private val excludePaths: PathPatternIndex? =
+        properties.filter.excludePathPatterns
+            ?.takeIf { it.isNotEmpty() }
+            ?.let { PathPatternIndex.compile(it, "exclude") }
+
+    /** Expression a request must match to be logged; a blank value is normalized to null. */
+    private val includeExpression: AccessExpression? =
+        properties.filter.includeExpression
+            ?.takeIf { it.isNotBlank() }
+            ?.let { AccessExpression.compile(it) }
+
+    /** Expression that drops a matching request; a blank value is normalized to null. */
+    private val excludeExpression: AccessExpression? =
+        properties.filter.excludeExpression
+            ?.takeIf { it.isNotBlank() }
+            ?.let { AccessExpression.compile(it) }
+
+    /** Sampling stage applied after the other checks, or null when every accepted request is logged. */
+    private val sampler: AccessSampler? = properties.sampling.takeIf { it.enabled }?.let(::AccessSampler)
+
+    /** Whether an expression is tested by [acceptsEvent], so that aggregation has to wait for the event. */
+    private val aggregatesOnEvent: Boolean = listOfNotNull(includeExpression, excludeExpression).any { !it.isCheap }
+
+    /** Optional event fields read by the expressions [acceptsEvent] tests. */
+    val capturePlan: CapturePlan =
+        listOfNotNull(includeExpression, excludeExpression)
+            .filterNot { it.isCheap }
+            .fold(CapturePlan.NONE) { plan, expression -> plan + expression.capturePlan }
+
+    /** Returns true if [request] passes every check that can run before extraction. */
+    fun accepts(request: AccessRequestView): Boolean =
+        isClientLogged(request.remoteAddr) &&
+            (includeHeaders == null || includeHeaders.matches(request)) &&
+            (excludeHeaders == null || !excludeHeaders.matches(request)) &&
+            isUriLogged(request.requestURI ?: NA) &&
+            (includeExpression == null || !includeExpression.isCheap || includeExpression.test(request)) &&
+            (excludeExpression == null || !excludeExpression.isCheap || !excludeExpression.test(request)) &&
+            passesAggregationAndSampling(request)
+
+    /**
+     * Returns true if [event] passes the filter expressions that need extracted fields and is not
+     * counted by [aggregator] instead.
+     */
+    fun acceptsEvent(event: IAccessEvent): Boolean =
+        (includeExpression == null || includeExpression.isCheap || includeExpression.test(event)) &&
+            (excludeExpression == null || excludeExpression.isCheap || !excludeExpression.test(event)) &&
+            (aggregator == null || !aggregatesOnEvent || !aggregator.aggregate(EventRequestView(event)))
+
+    /**
+     * Hands [request] to [aggregator] if it belongs to an aggregated route, rejecting it, or samples it otherwise.
+     * While [aggregatesOnEvent], an aggregated request is only recognized here and counted by [acceptsEvent].
+     */
+    private fun passesAggregationAndSampling(request: AccessRequestView): Boolean =
+        when {
+            aggregator == null -> sampler == null || sampler.shouldSample(request)
+            aggregatesOnEvent && aggregator.covers(request) -> true
+            !aggregatesOnEvent && aggregator.aggregate(request) -> false
+            else -> sampler == null || sampler.shouldSample(request)
+        }
+
+    /**
+     * Checks the raw client address against the include/exclude CIDRs. An unknown address is in
+     * no range, so it is dropped when include CIDRs are configured.
+     */
+    private fun isClientLogged(remoteAddr: String?): Boolean =
+        (includeClients == null || (remoteAddr != null && includeClients.matches(remoteAddr))) &&
+            (excludeClients == null || remoteAddr == null || !excludeClients.matches(remoteAddr))
+
+    /**
+     * Determines whether the request URI should be logged based on include/exclude patterns.
+     *
+     * The URI is parsed into a [PathContainer] only when path patterns are configured, once for
+     * both the include and the exclude path patterns.
+     */
+    private fun isUriLogged(uri: String): Boolean {
+        val path = if (includePaths != null || excludePaths != null) PathPatternIndex.parse(uri) else null
+        return matchesIncludePatterns(uri, path) && !matchesExcludePatterns(uri, path)
+    }
+
+    /** Returns true if URI matches at least one include URL or path pattern, or no include patterns are specified. */
+    private fun matchesIncludePatterns(
+        uri: String,
+        path: PathContainer?,
+    ): Boolean =
+        (includePatterns == null && includePaths == null) ||
+            (includePatterns != null && includePatterns.containsMatchIn(uri)) ||
+            (includePaths != null && path != null && includePaths.matches(path))
+
+    /** Returns true if URI matches any exclude URL or path pattern. */
+    private fun matchesExcludePatterns(
+        uri: String,
+        path: PathContainer?,
+    ): Boolean =
+        (excludePatterns != null && excludePatterns.containsMatchIn(uri)) ||
+            (excludePaths != null && path != null && excludePaths.matches(path))
+}
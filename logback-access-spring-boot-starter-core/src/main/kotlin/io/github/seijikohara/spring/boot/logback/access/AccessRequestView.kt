@@ -0,0 +1,39 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * Read-only view over a live server request/response pair, used for decisions taken
+ * before an [AccessEventData] snapshot is built.
+ *
+ * Implementations read straight from the server's native request objects and must not
+ * copy or parse anything beyond the accessed value, so a request rejected by
+ * [LogbackAccessContext.shouldLog] costs no more than the values the decision inspected.
+ * A view is only valid for the duration of the server's access-log callback.
+ */
+public interface AccessRequestView {
+    /** Request URI path without query string, or null when the request was rejected before parsing. */
+    public val requestURI: String?
+
+    /** HTTP method, or null when the request was rejected before parsing. */
+    public val method: String?
+
+    /** HTTP response status code. */
+    public val statusCode: Int
+
+    /** Time taken to process the request in milliseconds. */
+    public val elapsedTime: Long
+
+    /** Number of response body bytes sent, or -1 when it is not known. */
+    public val contentLength: Long
+
+    /**
+     * IP address of the connection peer as reported by the server, before any forwarded-header
+     * resolution, or null when it is not known.
+     */
+    public val remoteAddr: String?
+
+    /**
+     * Returns the first value of the request header called [name] (case-insensitive), or null when
+     * the request does not carry it. Only the requested header is read.
+     */
+    public fun requestHeader(name: String): String?
+}
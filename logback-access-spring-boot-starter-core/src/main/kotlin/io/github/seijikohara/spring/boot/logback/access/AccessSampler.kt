@@ -0,0 +1,107 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent.NA
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.SamplingProperties
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * Decides which requests accepted by the URL filters are logged under [SamplingProperties].
+ *
+ * Each check reads one value from the [AccessRequestView]: the status code and elapsed time for
+ * the always-keep rules, the URI for the rule rates, and the key header in deterministic mode.
+ * Kept statuses are looked up in a [StatusTable], so none of the checks allocate.
+ *
+ * Deterministic decisions hash the key with FNV-1a followed by the MurmurHash3 finalizer. Both are
+ * fixed functions of the key's characters, so every node and every restart keeps the same requests.
+ */
+internal class AccessSampler(
+    properties: SamplingProperties,
+) {
+    private val keptStatuses: StatusTable = StatusTable.compile(properties.keepStatuses, "sampling keep status")
+
+    private val keepSlowerThanMillis: Long = properties.keepSlowerThan?.toMillis() ?: Long.MAX_VALUE
+
+    private val rules: Array<CompiledRule> =
+        properties.rules
+            .map { CompiledRule(it.urlPattern.toValidRegex("sampling"), it.rate.toValidRate(it.urlPattern)) }
+            .toTypedArray()
+
+    private val defaultRate: Double = properties.defaultRate.toValidRate("default-rate")
+
+    private val keyHeader: String? = properties.keyHeader?.takeIf { it.isNotBlank() }
+
+    private val keyIsTraceParent: Boolean = keyHeader.equals(TRACEPARENT_HEADER, ignoreCase = true)
+
+    /** Returns true if [request] should be logged. */
+    fun shouldSample(request: AccessRequestView): Boolean =
+        request.statusCode in keptStatuses ||
+            request.elapsedTime >= keepSlowerThanMillis ||
+            isSampled(request, rateFor(request.requestURI ?: NA))
+
+    private fun rateFor(uri: String): Double {
+        for (rule in rules) {
+            if (rule.pattern.containsMatchIn(uri)) return rule.rate
+        }
+        return defaultRate
+    }
+
+    private fun isSampled(
+        request: AccessRequestView,
+        rate: Double,
+    ): Boolean =
+        when {
+            rate >= 1.0 -> true
+            rate <= 0.0 -> false
+            else -> (samplingBits(request) ushr DOUBLE_SHIFT) * DOUBLE_UNIT < rate
+        }
+
+    /** Uniformly distributed bits derived from the key header, or random bits when there is no key. */
+    private fun samplingBits(request: AccessRequestView): Long {
+        val key = keyHeader?.let { request.requestHeader(it) }
+        return when {
+            key == null -> ThreadLocalRandom.current().nextLong()
+            keyIsTraceParent -> hashTraceId(key)
+            else -> hash(key, 0, key.length)
+        }
+    }
+
+    /** Hashes the trace-id field of a W3C traceparent value, which unlike the parent-id is the same on every hop. */
+    private fun hashTraceId(traceParent: String): Long {
+        val start = traceParent.indexOf('-') + 1
+        val end = traceParent.indexOf('-', start)
+        return if (start > 0 && end > start) hash(traceParent, start, end) else hash(traceParent, 0, traceParent.length)
+    }
+
+    private class CompiledRule(
+        val pattern: Regex,
+        val rate: Double,
+    )
+
+    private companion object {
+        private const val TRACEPARENT_HEADER = "traceparent"
+        private const val DOUBLE_SHIFT = 11
+        private const val DOUBLE_UNIT = 0x1.0p-53
+        private const val FNV_OFFSET_BASIS = -0x340d631b7bdddcdbL
+        private const val FNV_PRIME = 0x100000001b3L
+        private const val MIX_SHIFT = 33
+        private const val MIX_MULTIPLIER_1 = -0xae502812aa7333L
+        private const val MIX_MULTIPLIER_2 = -0x3b314601e57a13adL
+
+        private fun hash(
+            value: String,
+            start: Int,
+            end: Int,
+        ): Long {
+            var hash = FNV_OFFSET_BASIS
+            for (i in start..<end) {
+                hash = (hash xor value[i].code.toLong()) * FNV_PRIME
+            }
+            hash = (hash xor (hash ushr MIX_SHIFT)) * MIX_MULTIPLIER_1
+            hash = (hash xor (hash ushr MIX_SHIFT)) * MIX_MULTIPLIER_2
+            return hash xor (hash ushr MIX_SHIFT)
+        }
+
+        private fun Double.toValidRate(source: String): Double =
+            also { require(it in 0.0..1.0) { "Invalid sampling rate for '$source': $it (expected 0.0 to 1.0)" } }
+    }
+}
@@ -0,0 +1,180 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import io.github.oshai.kotlinlogging.KotlinLogging
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.AsyncProperties
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Hands access events from request threads to a dedicated writer thread.
+ *
+ * A request thread pays for one [MpscRingBuffer.offer] (plus an unpark call when the
+ * [AsyncWaitStrategy.BLOCKING] writer is idle); the filter chain and appenders run on the writer
+ * thread through [deliver], which receives the events in batches bounded by [AsyncProperties.batch].
+ * The batch list is reused, so [deliver] must not keep it. When the buffer is full,
+ * [AsyncProperties.overflowPolicy] decides whether the event is discarded or the request thread
+ * waits up to [AsyncProperties.blockTimeout].
+ *
+ * [close] stops accepting events and waits up to [AsyncProperties.shutdownTimeout] for the
+ * writer to drain everything already buffered.
+ */
+internal class AsyncDispatcher(
+    private val properties: AsyncProperties,
+    private val deliver: (List<IAccessEvent>) -> Unit,
+) : AutoCloseable {
+    private val buffer = MpscRingBuffer<IAccessEvent>(properties.bufferSize)
+
+    private val maxBatchSize = properties.batch.maxSize.coerceAtLeast(1)
+
+    private val maxBatchDelayNanos = properties.batch.maxDelay.toNanos()
+
+    /** Events collected for the next [deliver] call. Only touched by the writer thread. */
+    private val batch = ArrayList<IAccessEvent>(maxBatchSize)
+
+    private val droppedEvents = AtomicLong()
+
+    @Volatile
+    private var running = true
+
+    /** Set by a [AsyncWaitStrategy.BLOCKING] writer right before it parks. */
+    @Volatile
+    private var writerParked = false
+
+    private val writer: Thread =
+        Thread
+            .ofPlatform()
+            .name(WRITER_THREAD_NAME)
+            .daemon(true)
+            .unstarted(::drainLoop)
+            .also(Thread::start)
+
+    /** Number of events discarded because the buffer was full or the dispatcher was closed. */
+    val droppedEventCount: Long
+        get() = droppedEvents.get()
+
+    /**
+     * Queues [event] for the writer thread.
+     *
+     * The event must already be safe for deferred processing.
+     */
+    fun enqueue(event: IAccessEvent) {
+        val accepted = running && (buffer.offer(event) || offerOnOverflow(event))
+        when {
+            !accepted -> recordDrop()
+            writerParked -> LockSupport.unpark(writer)
+        }
+    }
+
+    private fun offerOnOverflow(event: IAccessEvent): Boolean =
+        when (properties.overflowPolicy) {
+            AsyncOverflowPolicy.DROP_NEWEST -> false
+            AsyncOverflowPolicy.DROP_NON_ERRORS -> event.statusCode >= ERROR_STATUS_THRESHOLD && offerUntilTimeout(event)
+            AsyncOverflowPolicy.BLOCK -> offerUntilTimeout(event)
+        }
+
+    private fun offerUntilTimeout(event: IAccessEvent): Boolean {
+        val deadline = System.nanoTime() + properties.blockTimeout.toNanos()
+        while (running && System.nanoTime() - deadline < 0) {
+            if (writerParked) LockSupport.unpark(writer)
+            LockSupport.parkNanos(PRODUCER_BACKOFF_NANOS)
+            if (buffer.offer(event)) return true
+        }
+        return false
+    }
+
+    private fun recordDrop() {
+        if (droppedEvents.getAndIncrement() == 0L) {
+            logger.warn { "Dropping access events: the asynchronous buffer of ${buffer.capacity} events is full" }
+        }
+    }
+
+    private fun drainLoop() {
+        var idleRounds = 0
+        var flushDeadline = 0L
+        while (running || !buffer.isEmpty() || batch.isNotEmpty()) {
+            val event = buffer.poll()
+            when {
+                event != null -> {
+                    if (batch.isEmpty()) flushDeadline = System.nanoTime() + maxBatchDelayNanos
+                    batch += event
+                    idleRounds = 0
+                    if (batch.size >= maxBatchSize) flush()
+                }
+
+                batch.isNotEmpty() && (!running || System.nanoTime() - flushDeadline >= 0) -> {
+                    flush()
+                }
+
+                else -> {
+                    val parkLimit = if (batch.isEmpty()) MAX_PARK_NANOS else (flushDeadline - System.nanoTime()).coerceIn(0, MAX_PARK_NANOS)
+                    idle(idleRounds++, parkLimit)
+                }
+            }
+        }
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun flush() {
+        try {
+            deliver(batch)
+        } catch (e: Exception) {
+            logger.error(e) { "Failed to deliver ${batch.size} access events" }
+        } finally {
+            batch.clear()
+        }
+    }
+
+    private fun idle(
+        round: Int,
+        parkLimitNanos: Long,
+    ) {
+        when (properties.waitStrategy) {
+            AsyncWaitStrategy.BUSY_SPIN -> {
+                Thread.onSpinWait()
+            }
+
+            AsyncWaitStrategy.YIELDING -> {
+                if (round < SPIN_ROUNDS) Thread.onSpinWait() else Thread.yield()
+            }
+
+            AsyncWaitStrategy.SLEEPING -> {
+                when {
+                    round < SPIN_ROUNDS -> Thread.onSpinWait()
+                    round < SPIN_ROUNDS + YIELD_ROUNDS -> Thread.yield()
+                    else -> LockSupport.parkNanos(minOf(SLEEP_NANOS, parkLimitNanos))
+                }
+            }
+
+            AsyncWaitStrategy.BLOCKING -> {
+                writerParked = true
+                // Re-check after publishing the flag: a producer that published before seeing it
+                // would not unpark us. The bounded park covers any remaining race.
+                if (running && buffer.isEmpty()) LockSupport.parkNanos(this, parkLimitNanos)
+                writerParked = false
+            }
+        }
+    }
+
+    override fun close() {
+        running = false
+        LockSupport.unpark(writer)
+        writer.join(properties.shutdownTimeout)
+        if (writer.isAlive) {
+            logger.warn { "Access event writer did not drain within ${properties.shutdownTimeout}; ${buffer.size} events discarded" }
+        }
+        droppedEvents.get().takeIf { it > 0 }?.let { logger.warn { "Dropped $it access events while the asynchronous buffer was full" } }
+    }
+
+    private companion object {
+        private val logger = KotlinLogging.logger {}
+
+        private const val WRITER_THREAD_NAME = "logback-access-writer"
+        private const val ERROR_STATUS_THRESHOLD = 400
+        private const val SPIN_ROUNDS = 100
+        private const val YIELD_ROUNDS = 100
+        private const val SLEEP_NANOS = 100_000L
+        private const val MAX_PARK_NANOS = 10_000_000L
+        private const val PRODUCER_BACKOFF_NANOS = 10_000L
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * What a request thread does with an access event when the asynchronous buffer is full.
+ */
+public enum class AsyncOverflowPolicy {
+    /** Discards the event that did not fit, so request threads never wait. */
+    DROP_NEWEST,
+
+    /**
+     * Discards the event unless its status code is 400 or above. Client and server error events
+     * wait for space like [BLOCK].
+     */
+    DROP_NON_ERRORS,
+
+    /** Waits for space up to the configured block timeout, then discards the event. */
+    BLOCK,
+}
@@ -0,0 +1,26 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * How the asynchronous writer thread waits for new access events when its buffer is empty.
+ *
+ * Strategies further down trade CPU time on the writer thread for lower hand-off latency.
+ */
+public enum class AsyncWaitStrategy {
+    /**
+     * Parks the writer thread until a request thread wakes it. Uses no CPU while idle; a request
+     * thread pays for an unpark call only when it finds the writer parked.
+     */
+    BLOCKING,
+
+    /**
+     * Spins briefly, then yields, then parks for short fixed intervals. Request threads never
+     * signal the writer, at the cost of up to a fraction of a millisecond of extra latency.
+     */
+    SLEEPING,
+
+    /** Spins briefly, then yields the processor between polls. Keeps one core partially busy. */
+    YIELDING,
+
+    /** Polls continuously. Lowest latency, but keeps one core fully busy. */
+    BUSY_SPIN,
+}
@@ -0,0 +1,24 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.core.Appender
+
+/**
+ * [Appender] that can receive access events in groups.
+ *
+ * When [LogbackAccessProperties.AsyncProperties.enabled] is set, the writer thread collects events
+ * into batches bounded by [LogbackAccessProperties.BatchProperties] and hands each batch to
+ * [doAppendBatch] in a single call, so a sink can write, send, or insert a whole batch at once.
+ * Other appenders attached to the same context keep receiving one [Appender.doAppend] call per event,
+ * and without asynchronous dispatch a batch appender is also called once per event.
+ *
+ * Events in a batch have passed the context-level Logback filters; appender-level filters are the
+ * implementation's responsibility (see [BatchAppenderBase]).
+ */
+public interface BatchAppender<E> : Appender<E> {
+    /**
+     * Appends [events] in order.
+     *
+     * The list is reused by the caller once this method returns; copy it to keep the events.
+     */
+    public fun doAppendBatch(events: List<E>)
+}
@@ -0,0 +1,28 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.core.UnsynchronizedAppenderBase
+import ch.qos.logback.core.spi.FilterReply
+
+/**
+ * Convenience base for [BatchAppender] implementations.
+ *
+ * Applies the appender's own filters to every event of a batch and passes the accepted events to
+ * [appendBatch]. Single events delivered through [doAppend] are passed on as one-element batches,
+ * so implementations only write the batch path.
+ */
+public abstract class BatchAppenderBase<E> :
+    UnsynchronizedAppenderBase<E>(),
+    BatchAppender<E> {
+    override fun doAppendBatch(events: List<E>) {
+        if (!isStarted) return
+        events
+            .filter { getFilterChainDecision(it) != FilterReply.DENY }
+            .takeIf { it.isNotEmpty() }
+            ?.let(::appendBatch)
+    }
+
+    override fun append(event: E): Unit = appendBatch(listOf(event))
+
+    /** Writes [events], which are already filtered and never empty. The list may be kept. */
+    protected abstract fun appendBatch(events: List<E>)
+}
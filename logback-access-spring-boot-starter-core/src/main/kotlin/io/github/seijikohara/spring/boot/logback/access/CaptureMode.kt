@@ -0,0 +1,19 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * Strategy for deciding which optional fields are copied into each [AccessEventData].
+ */
+public enum class CaptureMode {
+    /**
+     * Captures only the fields read by the configured pattern encoders, as described by the
+     * [CapturePlan] built when the context starts. Falls back to [FULL] when any appender,
+     * encoder, or filter cannot be analysed.
+     */
+    AUTO,
+
+    /**
+     * Captures every field on every request, regardless of the configured encoders.
+     * Use this when appenders or filters are attached programmatically after startup.
+     */
+    FULL,
+}
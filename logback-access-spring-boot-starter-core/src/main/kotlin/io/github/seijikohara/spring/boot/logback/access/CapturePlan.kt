@@ -0,0 +1,73 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * Describes which optional [AccessEventData] fields the server integrations populate.
+ *
+ * Built once by [LogbackAccessContext] from the converters of the configured pattern
+ * encoders. Fields that no converter reads are skipped: skipped maps are left empty and
+ * skipped scalars null, so the corresponding [LogbackAccessEvent] accessors return the
+ * logback-access NA marker (or an empty body) instead of a captured value. Core fields
+ * (request line, status, timing, addresses) are always captured.
+ *
+ * @property requestHeaders Request headers to copy into [AccessEventData.requestHeaderMap].
+ * @property cookies Cookies to copy into [AccessEventData.cookieMap].
+ * @property requestParameters Parameters to copy into [AccessEventData.requestParameterMap].
+ * @property attributes Request attributes to copy into [AccessEventData.attributeMap].
+ * @property sessionID Whether to resolve [AccessEventData.sessionID].
+ * @property requestContent Whether to decode [AccessEventData.requestContent].
+ * @property responseHeaders Response headers to copy into [AccessEventData.responseHeaderMap].
+ * @property responseContent Whether to decode [AccessEventData.responseContent].
+ */
+public data class CapturePlan(
+    val requestHeaders: FieldSelection,
+    val cookies: FieldSelection,
+    val requestParameters: FieldSelection,
+    val attributes: FieldSelection,
+    val sessionID: Boolean,
+    val requestContent: Boolean,
+    val responseHeaders: FieldSelection,
+    val responseContent: Boolean,
+) {
+    /** Returns a plan capturing every field captured by either this plan or [other]. */
+    public operator fun plus(other: CapturePlan): CapturePlan =
+        CapturePlan(
+            requestHeaders = requestHeaders + other.requestHeaders,
+            cookies = cookies + other.cookies,
+            requestParameters = requestParameters + other.requestParameters,
+            attributes = attributes + other.attributes,
+            sessionID = sessionID || other.sessionID,
+            requestContent = requestContent || other.requestContent,
+            responseHeaders = responseHeaders + other.responseHeaders,
+            responseContent = responseContent || other.responseContent,
+        )
+
+    public companion object {
+        /** Captures every field; used when the configured encoders cannot be analysed. */
+        @JvmField
+        public val FULL: CapturePlan =
+            CapturePlan(
+                requestHeaders = FieldSelection.ALL,
+                cookies = FieldSelection.ALL,
+                requestParameters = FieldSelection.ALL,
+                attributes = FieldSelection.ALL,
+                sessionID = true,
+                requestContent = true,
+                responseHeaders = FieldSelection.ALL,
+                responseContent = true,
+            )
+
+        /** Captures only the core fields. */
+        @JvmField
+        public val NONE: CapturePlan =
+            CapturePlan(
+                requestHeaders = FieldSelection.NONE,
+                cookies = FieldSelection.NONE,
+                requestParameters = FieldSelection.NONE,
+                attributes = FieldSelection.NONE,
+                sessionID = false,
+                requestContent = false,
+                responseHeaders = FieldSelection.NONE,
+                responseContent = false,
+            )
+    }
+}
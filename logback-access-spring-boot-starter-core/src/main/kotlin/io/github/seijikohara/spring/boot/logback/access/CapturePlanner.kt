@@ -0,0 +1,136 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.pattern.FullRequestConverter
+import ch.qos.logback.access.common.pattern.FullResponseConverter
+import ch.qos.logback.access.common.pattern.RequestAttributeConverter
+import ch.qos.logback.access.common.pattern.RequestContentConverter
+import ch.qos.logback.access.common.pattern.RequestCookieConverter
+import ch.qos.logback.access.common.pattern.RequestHeaderConverter
+import ch.qos.logback.access.common.pattern.RequestParameterConverter
+import ch.qos.logback.access.common.pattern.ResponseContentConverter
+import ch.qos.logback.access.common.pattern.ResponseHeaderConverter
+import ch.qos.logback.access.common.pattern.SessionIDConverter
+import ch.qos.logback.access.common.spi.AccessContext
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.core.Appender
+import ch.qos.logback.core.OutputStreamAppender
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder
+import ch.qos.logback.core.filter.Filter
+import ch.qos.logback.core.pattern.CompositeConverter
+import ch.qos.logback.core.pattern.Converter
+import ch.qos.logback.core.pattern.DynamicConverter
+import ch.qos.logback.core.pattern.PatternLayoutBase
+import ch.qos.logback.core.pattern.parser.Parser
+import ch.qos.logback.core.spi.AppenderAttachable
+import ch.qos.logback.core.spi.FilterAttachable
+import io.github.oshai.kotlinlogging.KotlinLogging
+
+/**
+ * Derives a [CapturePlan] from the appenders attached to an [AccessContext].
+ *
+ * Only pattern-based encoders can be analysed: each pattern is compiled with the layout's
+ * own converter map and the resulting converter chain is inspected. Any appender whose
+ * output cannot be predicted from a pattern (a custom appender, a JSON encoder, a Logback
+ * filter that may read arbitrary fields) forces [CapturePlan.FULL]. An [AccessExpressionFilter]
+ * only adds the fields its expression reads.
+ */
+internal object CapturePlanner {
+    private val logger = KotlinLogging.logger {}
+
+    /** Converter packages whose converters only read the always-captured core fields. */
+    private val CORE_FIELD_CONVERTER_PACKAGES =
+        setOf(
+            "ch.qos.logback.access.common.pattern",
+            "ch.qos.logback.core.pattern",
+            "ch.qos.logback.core.pattern.color",
+        )
+
+    fun plan(context: AccessContext): CapturePlan =
+        context
+            .iteratorForAppenders()
+            .asSequence()
+            .map(::planFor)
+            .fold(planForFilters(context.copyOfAttachedFiltersList), CapturePlan::plus)
+            .also { logger.debug { "Resolved capture plan: $it" } }
+
+    private fun planForFilters(filters: List<Filter<*>>): CapturePlan =
+        filters
+            .map { (it as? AccessExpressionFilter)?.capturePlan ?: CapturePlan.FULL }
+            .fold(CapturePlan.NONE, CapturePlan::plus)
+
+    private fun planFor(appender: Appender<IAccessEvent>): CapturePlan =
+        when (appender) {
+            is FilterAttachable<*> -> planForFilters(appender.copyOfAttachedFiltersList) + planForOutput(appender)
+            else -> planForOutput(appender)
+        }
+
+    private fun planForOutput(appender: Appender<IAccessEvent>): CapturePlan =
+        when {
+            appender is OutputStreamAppender<IAccessEvent> -> {
+                (appender.encoder as? LayoutWrappingEncoder<IAccessEvent>)
+                    ?.layout
+                    ?.let { it as? PatternLayoutBase<IAccessEvent> }
+                    ?.let(::planFor)
+                    ?: CapturePlan.FULL
+            }
+
+            appender is AppenderAttachable<*> -> {
+                @Suppress("UNCHECKED_CAST")
+                (appender as AppenderAttachable<IAccessEvent>)
+                    .iteratorForAppenders()
+                    .asSequence()
+                    .map(::planFor)
+                    .fold(CapturePlan.NONE, CapturePlan::plus)
+            }
+
+            else -> {
+                CapturePlan.FULL
+            }
+        }
+
+    // A pattern the layout itself rejected never produces output, but compiling it again here
+    // must not fail context startup, so any parse problem falls back to full capture.
+    @Suppress("TooGenericExceptionCaught")
+    private fun planFor(layout: PatternLayoutBase<IAccessEvent>): CapturePlan =
+        try {
+            Parser<IAccessEvent>(layout.pattern)
+                .apply { context = layout.context }
+                .let { parser -> parser.compile(parser.parse(), layout.effectiveConverterMap) }
+                .let(::planFor)
+        } catch (e: Exception) {
+            logger.debug(e) { "Falling back to full capture for pattern '${layout.pattern}'" }
+            CapturePlan.FULL
+        }
+
+    private fun planFor(head: Converter<IAccessEvent>?): CapturePlan =
+        generateSequence(head) { it.next }
+            .map { converter ->
+                when (converter) {
+                    is CompositeConverter<IAccessEvent> -> planFor(converter.childConverter)
+                    else -> planForLeaf(converter)
+                }
+            }.fold(CapturePlan.NONE, CapturePlan::plus)
+
+    private fun planForLeaf(converter: Converter<IAccessEvent>): CapturePlan =
+        when (converter) {
+            is RequestHeaderConverter -> CapturePlan.NONE.copy(requestHeaders = converter.headerKeySelection())
+            is RequestCookieConverter -> CapturePlan.NONE.copy(cookies = converter.keySelection())
+            is RequestParameterConverter -> CapturePlan.NONE.copy(requestParameters = converter.keySelection())
+            is RequestAttributeConverter -> CapturePlan.NONE.copy(attributes = converter.keySelection())
+            is ResponseHeaderConverter -> CapturePlan.NONE.copy(responseHeaders = converter.headerKeySelection())
+            is SessionIDConverter -> CapturePlan.NONE.copy(sessionID = true)
+            is RequestContentConverter -> CapturePlan.NONE.copy(requestContent = true)
+            is ResponseContentConverter -> CapturePlan.NONE.copy(responseContent = true)
+            is FullRequestConverter -> CapturePlan.NONE.copy(requestHeaders = FieldSelection.ALL, requestContent = true)
+            is FullResponseConverter -> CapturePlan.NONE.copy(responseHeaders = FieldSelection.ALL, responseContent = true)
+            is RouteConverter -> CapturePlan.NONE
+            else -> if (converter.javaClass.packageName in CORE_FIELD_CONVERTER_PACKAGES) CapturePlan.NONE else CapturePlan.FULL
+        }
+
+    /** Keyed converters (`%i{name}`) read one entry; without a key they render the whole map. */
+    private fun DynamicConverter<*>.keySelection(): FieldSelection =
+        firstOption?.takeIf { it.isNotBlank() }?.let { FieldSelection(setOf(it)) } ?: FieldSelection.ALL
+
+    /** Header names are case-insensitive, so header selections are lower-cased like the configured header lists. */
+    private fun DynamicConverter<*>.headerKeySelection(): FieldSelection = FieldSelection.ofHeaders(keySelection().names, null)
+}
@@ -0,0 +1,46 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import java.io.Serializable
+import java.nio.charset.Charset
+
+/**
+ * Request or response body kept as the captured bytes and decoded to a string on first read.
+ *
+ * An event holds one copy of the body instead of the bytes and their UTF-16 decoding, and a body
+ * no converter renders is never decoded. The decoded string is cached, so every converter reading
+ * the content shares one decoding.
+ */
+public class CapturedContent private constructor(
+    private val bytes: ByteArray,
+    private val charsetName: String,
+) : Serializable {
+    @Transient
+    @Volatile
+    private var decoded: String? = null
+
+    /** Content of [bytes], which must not be modified afterwards, encoded with [charset]. */
+    public constructor(bytes: ByteArray, charset: Charset) : this(bytes, charset.name())
+
+    /** Number of captured bytes. */
+    public val size: Int
+        get() = bytes.size
+
+    /** Returns the content decoded with its charset, decoding it on the first call only. */
+    public fun decode(): String = decoded ?: String(bytes, Charset.forName(charsetName)).also { decoded = it }
+
+    override fun equals(other: Any?): Boolean =
+        this === other || (other is CapturedContent && charsetName == other.charsetName && bytes.contentEquals(other.bytes))
+
+    override fun hashCode(): Int = 31 * charsetName.hashCode() + bytes.contentHashCode()
+
+    override fun toString(): String = "${this::class.simpleName}(${bytes.size} bytes, $charsetName)"
+
+    public companion object {
+        private const val serialVersionUID: Long = 1L
+
+        /** Wraps content that is already text, such as a suppression sentinel. */
+        @JvmStatic
+        public fun ofText(text: String): CapturedContent =
+            CapturedContent(text.toByteArray(Charsets.UTF_8), Charsets.UTF_8).also { it.decoded = text }
+    }
+}
@@ -0,0 +1,341 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * Set of IPv4 and IPv6 CIDR ranges compiled into binary prefix tries.
+ *
+ * [matches] parses the client address straight from the string and walks the trie one bit at a
+ * time, stopping at the first range that covers the address. A lookup therefore allocates nothing
+ * and takes at most 32 (IPv4) or 128 (IPv6) steps, however many ranges are configured.
+ *
+ * Addresses are accepted in the forms servers report them: dotted IPv4, or IPv6 with optional `::`
+ * compression, a trailing embedded IPv4 part, a `%zone` suffix, or enclosing brackets. Anything
+ * else never matches.
+ */
+internal class CidrMatcher private constructor(
+    private val ipv4: BitTrie,
+    private val ipv6: BitTrie,
+) {
+    /** Returns true if [address] lies in one of the ranges. */
+    fun matches(address: String): Boolean {
+        val from = if (address.startsWith('[')) 1 else 0
+        val to = addressEnd(address, from)
+        return if (address.indexOf(':', from) in from..<to) matchesIpv6(address, from, to) else matchesIpv4(address, from, to)
+    }
+
+    private fun matchesIpv4(
+        address: String,
+        from: Int,
+        to: Int,
+    ): Boolean {
+        val value = parseIpv4(address, from, to)
+        return value != INVALID && ipv4.descend(BitTrie.ROOT, value, IPV4_BITS) == BitTrie.MATCHED
+    }
+
+    private fun matchesIpv6(
+        address: String,
+        from: Int,
+        to: Int,
+    ): Boolean {
+        var node = BitTrie.ROOT
+        val valid = forEachIpv6Group(address, from, to) { group -> if (node >= 0) node = ipv6.descend(node, group.toLong(), GROUP_BITS) }
+        return valid && node == BitTrie.MATCHED
+    }
+
+    /**
+     * Binary trie over address bits. Nodes live in parallel arrays that only grow while the
+     * matcher is compiled; afterwards the trie is read-only and safe to share between threads.
+     */
+    private class BitTrie {
+        private var zero = IntArray(INITIAL_CAPACITY) { NONE }
+        private var one = IntArray(INITIAL_CAPACITY) { NONE }
+        private var terminal = BooleanArray(INITIAL_CAPACITY)
+        private var size = 1
+
+        /** Adds the range covering the first [prefixLength] bits, where [bitAt] returns bit `i` (0 = most significant). */
+        fun insert(
+            prefixLength: Int,
+            bitAt: (Int) -> Long,
+        ) {
+            var node = ROOT
+            for (index in 0..<prefixLength) {
+                val set = bitAt(index) != 0L
+                if ((if (set) one else zero)[node] == NONE) {
+                    val child = newNode()
+                    (if (set) one else zero)[node] = child
+                }
+                node = (if (set) one else zero)[node]
+            }
+            terminal[node] = true
+        }
+
+        /**
+         * Walks the [bitCount] low bits of [value] from [node], most significant first.
+         *
+         * @return [MATCHED] once a range covers the bits read so far, [NONE] once no range can,
+         *         or the node reached to continue from with the next bits
+         */
+        fun descend(
+            node: Int,
+            value: Long,
+            bitCount: Int,
+        ): Int {
+            var current = node
+            var bit = bitCount - 1
+            while (current >= 0 && !terminal[current] && bit >= 0) {
+                current = if ((value ushr bit) and 1L == 0L) zero[current] else one[current]
+                bit--
+            }
+            return if (current >= 0 && terminal[current]) MATCHED else current
+        }
+
+        private fun newNode(): Int {
+            if (size == terminal.size) {
+                val capacity = size * 2
+                zero = zero.copyOf(capacity).also { it.fill(NONE, size) }
+                one = one.copyOf(capacity).also { it.fill(NONE, size) }
+                terminal = terminal.copyOf(capacity)
+            }
+            return size++
+        }
+
+        companion object {
+            const val ROOT = 0
+            const val NONE = -1
+            const val MATCHED = -2
+            private const val INITIAL_CAPACITY = 64
+        }
+    }
+
+    companion object {
+        private const val IPV4_BITS = 32
+        private const val IPV6_BITS = 128
+        private const val GROUP_BITS = 16
+        private const val HALF_BITS = 64
+        private const val IPV6_GROUPS = 8
+        private const val OCTET_BITS = 8
+        private const val MAX_OCTET = 255
+        private const val MAX_GROUP_DIGITS = 4
+        private const val GROUP_MASK = 0xffffL
+        private const val HEX_RADIX = 16
+        private const val DECIMAL_RADIX = 10
+        private const val IPV4_DOTS = 3
+        private const val INVALID = -1L
+        private const val NO_COMPRESSION = -1
+
+        /**
+         * Compiles [cidrs], each an address with an optional `/prefix-length`. An address without a
+         * prefix length covers that single address.
+         *
+         * @throws IllegalArgumentException if an entry is not a valid CIDR, naming it as a [kind] client CIDR
+         */
+        fun compile(
+            cidrs: List<String>,
+            kind: String,
+        ): CidrMatcher {
+            val ipv4 = BitTrie()
+            val ipv6 = BitTrie()
+            cidrs.forEach { cidr ->
+                val address = cidr.trim().substringBefore('/')
+                val prefixLength = cidr.trim().substringAfter('/', "").let { if (it.isEmpty()) null else it.toIntOrNull() ?: -1 }
+                val added = if (':' in address) addIpv6(ipv6, address, prefixLength) else addIpv4(ipv4, address, prefixLength)
+                require(added) { "Invalid $kind client CIDR: '$cidr'" }
+            }
+            return CidrMatcher(ipv4, ipv6)
+        }
+
+        private fun addIpv4(
+            trie: BitTrie,
+            address: String,
+            prefixLength: Int?,
+        ): Boolean {
+            val value = parseIpv4(address, 0, address.length)
+            val length = prefixLength ?: IPV4_BITS
+            val valid = value != INVALID && length in 0..IPV4_BITS
+            if (valid) trie.insert(length) { (value ushr (IPV4_BITS - 1 - it)) and 1L }
+            return valid
+        }
+
+        private fun addIpv6(
+            trie: BitTrie,
+            address: String,
+            prefixLength: Int?,
+        ): Boolean {
+            var high = 0L
+            var low = 0L
+            var index = 0
+            val parsed =
+                forEachIpv6Group(address, 0, address.length) { group ->
+                    val shift = (IPV6_GROUPS / 2 - 1 - index % (IPV6_GROUPS / 2)) * GROUP_BITS
+                    if (index < IPV6_GROUPS / 2) high = high or (group.toLong() shl shift) else low = low or (group.toLong() shl shift)
+                    index++
+                }
+            val length = prefixLength ?: IPV6_BITS
+            val valid = parsed && length in 0..IPV6_BITS
+            if (valid) {
+                trie.insert(length) { bit ->
+                    if (bit < HALF_BITS) (high ushr (HALF_BITS - 1 - bit)) and 1L else (low ushr (IPV6_BITS - 1 - bit)) and 1L
+                }
+            }
+            return valid
+        }
+
+        /** End of the address part of [address]: before a `%zone` suffix or a closing bracket. */
+        private fun addressEnd(
+            address: String,
+            from: Int,
+        ): Int {
+            var end = from
+            while (end < address.length && address[end] != '%' && address[end] != ']') end++
+            return end
+        }
+
+        /** Parses dotted IPv4 in `[from, to)` into its 32-bit value, or returns [INVALID]. */
+        private fun parseIpv4(
+            address: String,
+            from: Int,
+            to: Int,
+        ): Long {
+            var value = 0L
+            var octet = -1
+            var dots = 0
+            var index = from
+            var valid = true
+            while (valid && index < to) {
+                val char = address[index++]
+                if (char == '.') {
+                    valid = octet >= 0 && dots < IPV4_DOTS
+                    value = (value shl OCTET_BITS) or octet.toLong()
+                    octet = -1
+                    dots++
+                } else {
+                    val digit = Character.digit(char, DECIMAL_RADIX)
+                    octet = octet.coerceAtLeast(0) * DECIMAL_RADIX + digit
+                    valid = digit >= 0 && octet <= MAX_OCTET
+                }
+            }
+            return if (valid && dots == IPV4_DOTS && octet >= 0) (value shl OCTET_BITS) or octet.toLong() else INVALID
+        }
+
+        /** Parses one hexadecimal IPv6 group in `[from, to)`, or returns -1. */
+        private fun parseHexGroup(
+            address: String,
+            from: Int,
+            to: Int,
+        ): Int {
+            var group = if (to - from in 1..MAX_GROUP_DIGITS) 0 else -1
+            var index = from
+            while (group >= 0 && index < to) {
+                val digit = Character.digit(address[index++], HEX_RADIX)
+                group = if (digit < 0) -1 else group * HEX_RADIX + digit
+            }
+            return group
+        }
+
+        /** End of the IPv6 token starting at [start]: the next colon, or [to]. */
+        private fun tokenEnd(
+            address: String,
+            start: Int,
+            to: Int,
+        ): Int {
+            val colon = address.indexOf(':', start)
+            return if (colon in start..<to) colon else to
+        }
+
+        private fun containsDot(
+            address: String,
+            from: Int,
+            to: Int,
+        ): Boolean = address.indexOf('.', from) in from..<to
+
+        /**
+         * Counts the groups written out in the IPv6 address in `[from, to)`, with an embedded IPv4
+         * part counting as two, or returns -1 when the address is malformed. Empty tokens are only
+         * accepted as part of the single `::` at [compression].
+         */
+        private fun countIpv6Groups(
+            address: String,
+            from: Int,
+            to: Int,
+            compression: Int,
+        ): Int {
+            var groups = 0
+            var tokenStart = from
+            while (groups >= 0 && tokenStart <= to) {
+                val tokenEnd = tokenEnd(address, tokenStart, to)
+                val size =
+                    when {
+                        tokenEnd == tokenStart -> {
+                            if (isCompressionToken(tokenStart, from, to, compression)) 0 else -1
+                        }
+
+                        tokenEnd == to && containsDot(address, tokenStart, tokenEnd) -> {
+                            if (parseIpv4(address, tokenStart, tokenEnd) != INVALID) 2 else -1
+                        }
+
+                        else -> {
+                            if (parseHexGroup(address, tokenStart, tokenEnd) >= 0) 1 else -1
+                        }
+                    }
+                groups = if (size < 0) -1 else groups + size
+                tokenStart = tokenEnd + 1
+            }
+            return groups
+        }
+
+        /** Whether the empty token at [tokenStart] belongs to the `::` at [compression]. */
+        private fun isCompressionToken(
+            tokenStart: Int,
+            from: Int,
+            to: Int,
+            compression: Int,
+        ): Boolean =
+            compression != NO_COMPRESSION &&
+                (
+                    tokenStart == compression + 1 ||
+                        (tokenStart == from && compression == from) ||
+                        (tokenStart == to && compression + 2 == to)
+                )
+
+        /**
+         * Passes the eight 16-bit groups of the IPv6 address in `[from, to)` to [visit] in order,
+         * expanding `::` and an embedded IPv4 part. Returns false, possibly after visiting some
+         * groups, when the address is malformed.
+         */
+        private inline fun forEachIpv6Group(
+            address: String,
+            from: Int,
+            to: Int,
+            visit: (Int) -> Unit,
+        ): Boolean {
+            val compression = address.indexOf("::", from).let { if (it in from..<to) it else NO_COMPRESSION }
+            val explicitGroups = countIpv6Groups(address, from, to, compression)
+            val missing = IPV6_GROUPS - explicitGroups
+            val valid = explicitGroups >= 0 && if (compression == NO_COMPRESSION) missing == 0 else missing > 0
+            var tokenStart = from
+            while (valid && tokenStart <= to) {
+                val tokenEnd = tokenEnd(address, tokenStart, to)
+                when {
+                    compression != NO_COMPRESSION && tokenStart == compression + 1 -> {
+                        repeat(missing) { visit(0) }
+                    }
+
+                    tokenEnd == tokenStart -> {
+                        Unit
+                    }
+
+                    containsDot(address, tokenStart, tokenEnd) -> {
+                        val value = parseIpv4(address, tokenStart, tokenEnd)
+                        visit((value ushr GROUP_BITS).toInt())
+                        visit((value and GROUP_MASK).toInt())
+                    }
+
+                    else -> {
+                        visit(parseHexGroup(address, tokenStart, tokenEnd))
+                    }
+                }
+                tokenStart = tokenEnd + 1
+            }
+            return valid
+        }
+    }
+}
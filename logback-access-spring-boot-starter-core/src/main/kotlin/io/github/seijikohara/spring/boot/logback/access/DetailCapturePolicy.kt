@@ -0,0 +1,23 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.DetailCaptureProperties
+
+/**
+ * Decides which requests get their optional fields captured under [DetailCaptureProperties].
+ *
+ * Both checks read values the server already holds once the response is complete, the final status
+ * and the elapsed time, so the decision is made before any optional field is extracted.
+ */
+internal class DetailCapturePolicy(
+    properties: DetailCaptureProperties,
+) {
+    private val statuses: StatusTable = StatusTable.compile(properties.statuses, "detail capture status")
+
+    private val slowerThanMillis: Long = properties.slowerThan?.toMillis() ?: Long.MAX_VALUE
+
+    /** Returns true if a request that completed with [statusCode] after [elapsedTime] milliseconds gets every optional field. */
+    fun promotes(
+        statusCode: Int,
+        elapsedTime: Long,
+    ): Boolean = statusCode in statuses || elapsedTime >= slowerThanMillis
+}
@@ -0,0 +1,33 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.access.common.spi.IAccessEvent.NA
+
+/**
+ * [AccessRequestView] over an already built event, so [LogbackAccessContext.emit] applies the same
+ * checks as the server integrations, and [AccessRequestFilter] can aggregate a request once the
+ * filter expressions that need the event have accepted it.
+ */
+internal class EventRequestView(
+    private val event: IAccessEvent,
+) : AccessRequestView {
+    override val requestURI: String
+        get() = event.requestURI
+
+    override val method: String
+        get() = event.method
+
+    override val statusCode: Int
+        get() = event.statusCode
+
+    override val elapsedTime: Long
+        get() = event.elapsedTime
+
+    override val contentLength: Long
+        get() = event.contentLength
+
+    override val remoteAddr: String?
+        get() = event.remoteAddr.takeUnless { it == NA }
+
+    override fun requestHeader(name: String): String? = event.getRequestHeader(name).takeUnless { it == NA }
+}
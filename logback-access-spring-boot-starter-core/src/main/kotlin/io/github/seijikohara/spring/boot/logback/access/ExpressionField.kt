@@ -0,0 +1,142 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.access.common.spi.IAccessEvent.NA
+
+/** Reads a number from an evaluation target without boxing it. */
+internal fun interface LongGetter<in T> {
+    fun get(source: T): Long
+}
+
+/** Reads a text value from an evaluation target, or null when the target does not have it. */
+internal fun interface TextGetter<in T> {
+    fun get(source: T): String?
+}
+
+/** Reads the text value stored under a key, such as a header, from an evaluation target. */
+internal fun interface KeyedGetter<in T> {
+    fun get(
+        source: T,
+        key: String,
+    ): String?
+}
+
+/** A compiled [AccessExpression] or one of its parts. */
+internal fun interface Condition<in T> {
+    fun test(source: T): Boolean
+}
+
+/**
+ * Numeric fields of the access expression language.
+ *
+ * @property onView Reader on the live request, or null when the field is only known once the
+ *           event has been extracted.
+ */
+internal enum class NumberField(
+    val fieldName: String,
+    val onView: LongGetter<AccessRequestView>?,
+    val onEvent: LongGetter<IAccessEvent>,
+) {
+    STATUS("status", LongGetter { it.statusCode.toLong() }, LongGetter { it.statusCode.toLong() }),
+    ELAPSED("elapsed", LongGetter { it.elapsedTime }, LongGetter { it.elapsedTime }),
+    CONTENT_LENGTH("contentLength", null, LongGetter { it.contentLength }),
+}
+
+/** Text fields of the access expression language. [onView] is null as in [NumberField]. */
+internal enum class TextField(
+    val fieldName: String,
+    val onView: TextGetter<AccessRequestView>?,
+    val onEvent: TextGetter<IAccessEvent>,
+) {
+    METHOD("method", TextGetter { it.method }, TextGetter { it.method.orMissing() }),
+    URI("uri", TextGetter { it.requestURI }, TextGetter { it.requestURI.orMissing() }),
+    REMOTE_ADDR("remoteAddr", null, TextGetter { it.remoteAddr.orMissing() }),
+    PROTOCOL("protocol", null, TextGetter { it.protocol.orMissing() }),
+    QUERY("query", null, TextGetter { it.queryString.orMissing() }),
+}
+
+/**
+ * Keyed lookups of the access expression language, written as `name('key')`.
+ *
+ * @property capture Capture plan that makes the value under a key available on extracted events.
+ */
+internal enum class KeyedField(
+    val functionName: String,
+    val onView: KeyedGetter<AccessRequestView>?,
+    val onEvent: KeyedGetter<IAccessEvent>,
+    val capture: (String) -> CapturePlan,
+) {
+    HEADER(
+        "header",
+        KeyedGetter { request, name -> request.requestHeader(name) },
+        KeyedGetter { event, name -> event.getRequestHeader(name).orMissing() },
+        { CapturePlan.NONE.copy(requestHeaders = FieldSelection.ofHeaders(listOf(it), null)) },
+    ),
+    RESPONSE_HEADER(
+        "responseHeader",
+        null,
+        KeyedGetter { event, name -> event.getResponseHeader(name).orMissing() },
+        { CapturePlan.NONE.copy(responseHeaders = FieldSelection.ofHeaders(listOf(it), null)) },
+    ),
+    COOKIE(
+        "cookie",
+        null,
+        KeyedGetter { event, name -> event.getCookie(name).orMissing() },
+        { CapturePlan.NONE.copy(cookies = FieldSelection(setOf(it))) },
+    ),
+    PARAM(
+        "param",
+        null,
+        KeyedGetter { event, name -> event.getRequestParameter(name).firstOrNull().orMissing() },
+        { CapturePlan.NONE.copy(requestParameters = FieldSelection(setOf(it))) },
+    ),
+}
+
+/**
+ * Where a compiled expression reads its fields from: the live request before extraction
+ * ([ViewTarget]) or a built event ([EventTarget]).
+ */
+internal sealed interface ExpressionTarget<T> {
+    fun number(field: NumberField): LongGetter<T>
+
+    fun text(field: TextField): TextGetter<T>
+
+    fun keyed(
+        field: KeyedField,
+        key: String,
+    ): TextGetter<T>
+}
+
+/** Reads fields from an [AccessRequestView]; only valid for expressions whose fields all have an `onView` reader. */
+internal object ViewTarget : ExpressionTarget<AccessRequestView> {
+    override fun number(field: NumberField): LongGetter<AccessRequestView> =
+        checkNotNull(field.onView) { "${field.fieldName} is not cheap" }
+
+    override fun text(field: TextField): TextGetter<AccessRequestView> =
+        checkNotNull(field.onView) { "${field.fieldName} is not cheap" }
+
+    override fun keyed(
+        field: KeyedField,
+        key: String,
+    ): TextGetter<AccessRequestView> {
+        val getter = checkNotNull(field.onView) { "${field.functionName} is not cheap" }
+        return TextGetter { getter.get(it, key) }
+    }
+}
+
+/** Reads fields from a built [IAccessEvent], mapping the logback-access NA marker to a missing value. */
+internal object EventTarget : ExpressionTarget<IAccessEvent> {
+    override fun number(field: NumberField): LongGetter<IAccessEvent> = field.onEvent
+
+    override fun text(field: TextField): TextGetter<IAccessEvent> = field.onEvent
+
+    override fun keyed(
+        field: KeyedField,
+        key: String,
+    ): TextGetter<IAccessEvent> {
+        val getter = field.onEvent
+        return TextGetter { getter.get(it, key) }
+    }
+}
+
+private fun String?.orMissing(): String? = takeUnless { it == NA }
@@ -0,0 +1,191 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * Syntax tree of an [AccessExpression], type-checked by [AccessExpressionParser].
+ *
+ * [compile] turns a node into nested [Condition] lambdas for one [ExpressionTarget]; every
+ * operator and operand type is resolved at that point, so evaluation makes no decisions.
+ */
+internal sealed interface ExpressionNode {
+    /** Whether every field read by the node can be read from an [AccessRequestView]. */
+    val isCheap: Boolean
+
+    /** Optional event fields the node reads when compiled for [EventTarget]. */
+    val capturePlan: CapturePlan
+
+    fun <T> compile(target: ExpressionTarget<T>): Condition<T>
+}
+
+internal class OrNode(
+    private val left: ExpressionNode,
+    private val right: ExpressionNode,
+) : ExpressionNode {
+    override val isCheap: Boolean = left.isCheap && right.isCheap
+    override val capturePlan: CapturePlan = left.capturePlan + right.capturePlan
+
+    override fun <T> compile(target: ExpressionTarget<T>): Condition<T> {
+        val first = left.compile(target)
+        val second = right.compile(target)
+        return Condition { first.test(it) || second.test(it) }
+    }
+}
+
+internal class AndNode(
+    private val left: ExpressionNode,
+    private val right: ExpressionNode,
+) : ExpressionNode {
+    override val isCheap: Boolean = left.isCheap && right.isCheap
+    override val capturePlan: CapturePlan = left.capturePlan + right.capturePlan
+
+    override fun <T> compile(target: ExpressionTarget<T>): Condition<T> {
+        val first = left.compile(target)
+        val second = right.compile(target)
+        return Condition { first.test(it) && second.test(it) }
+    }
+}
+
+internal class NotNode(
+    private val operand: ExpressionNode,
+) : ExpressionNode {
+    override val isCheap: Boolean = operand.isCheap
+    override val capturePlan: CapturePlan = operand.capturePlan
+
+    override fun <T> compile(target: ExpressionTarget<T>): Condition<T> {
+        val condition = operand.compile(target)
+        return Condition { !condition.test(it) }
+    }
+}
+
+/** Comparison operators; [MATCH] and [NOT_MATCH] look for a regular expression in a text value. */
+internal enum class ComparisonOperator(
+    val symbol: String,
+) {
+    EQ("=="),
+    NE("!="),
+    LT("<"),
+    LE("<="),
+    GT(">"),
+    GE(">="),
+    MATCH("~"),
+    NOT_MATCH("!~"),
+}
+
+internal class NumberComparison(
+    private val left: NumberOperand,
+    private val operator: ComparisonOperator,
+    private val right: NumberOperand,
+) : ExpressionNode {
+    override val isCheap: Boolean = left.isCheap && right.isCheap
+    override val capturePlan: CapturePlan = CapturePlan.NONE
+
+    override fun <T> compile(target: ExpressionTarget<T>): Condition<T> {
+        val first = left.compile(target)
+        val second = right.compile(target)
+        return when (operator) {
+            ComparisonOperator.EQ -> Condition { first.get(it) == second.get(it) }
+            ComparisonOperator.NE -> Condition { first.get(it) != second.get(it) }
+            ComparisonOperator.LT -> Condition { first.get(it) < second.get(it) }
+            ComparisonOperator.LE -> Condition { first.get(it) <= second.get(it) }
+            ComparisonOperator.GT -> Condition { first.get(it) > second.get(it) }
+            ComparisonOperator.GE -> Condition { first.get(it) >= second.get(it) }
+            ComparisonOperator.MATCH, ComparisonOperator.NOT_MATCH -> error("$operator does not compare numbers")
+        }
+    }
+}
+
+/** Text equality; a missing value equals nothing, so it only satisfies `!=`. */
+internal class TextComparison(
+    private val left: TextOperand,
+    private val negated: Boolean,
+    private val right: TextOperand,
+) : ExpressionNode {
+    override val isCheap: Boolean = left.isCheap && right.isCheap
+    override val capturePlan: CapturePlan = left.capturePlan + right.capturePlan
+
+    override fun <T> compile(target: ExpressionTarget<T>): Condition<T> {
+        val first = left.compile(target)
+        val second = right.compile(target)
+        return Condition {
+            val value = first.get(it)
+            (value != null && value == second.get(it)) != negated
+        }
+    }
+}
+
+/** Partial regex match; a missing value matches no pattern, so it only satisfies `!~`. */
+internal class PatternMatch(
+    private val operand: TextOperand,
+    private val pattern: Regex,
+    private val negated: Boolean,
+) : ExpressionNode {
+    override val isCheap: Boolean = operand.isCheap
+    override val capturePlan: CapturePlan = operand.capturePlan
+
+    override fun <T> compile(target: ExpressionTarget<T>): Condition<T> {
+        val getter = operand.compile(target)
+        return Condition {
+            val value = getter.get(it)
+            (value != null && pattern.containsMatchIn(value)) != negated
+        }
+    }
+}
+
+/** A value compared by an [ExpressionNode]: a literal, a field, or a keyed lookup. */
+internal sealed interface Operand {
+    val isCheap: Boolean
+    val capturePlan: CapturePlan
+}
+
+internal sealed interface NumberOperand : Operand {
+    fun <T> compile(target: ExpressionTarget<T>): LongGetter<T>
+}
+
+internal sealed interface TextOperand : Operand {
+    fun <T> compile(target: ExpressionTarget<T>): TextGetter<T>
+}
+
+internal class NumberLiteral(
+    private val value: Long,
+) : NumberOperand {
+    override val isCheap: Boolean = true
+    override val capturePlan: CapturePlan = CapturePlan.NONE
+
+    override fun <T> compile(target: ExpressionTarget<T>): LongGetter<T> = LongGetter { value }
+}
+
+internal class TextLiteral(
+    val value: String,
+) : TextOperand {
+    override val isCheap: Boolean = true
+    override val capturePlan: CapturePlan = CapturePlan.NONE
+
+    override fun <T> compile(target: ExpressionTarget<T>): TextGetter<T> = TextGetter { value }
+}
+
+internal class NumberFieldOperand(
+    private val field: NumberField,
+) : NumberOperand {
+    override val isCheap: Boolean = field.onView != null
+    override val capturePlan: CapturePlan = CapturePlan.NONE
+
+    override fun <T> compile(target: ExpressionTarget<T>): LongGetter<T> = target.number(field)
+}
+
+internal class TextFieldOperand(
+    private val field: TextField,
+) : TextOperand {
+    override val isCheap: Boolean = field.onView != null
+    override val capturePlan: CapturePlan = CapturePlan.NONE
+
+    override fun <T> compile(target: ExpressionTarget<T>): TextGetter<T> = target.text(field)
+}
+
+internal class KeyedOperand(
+    private val field: KeyedField,
+    private val key: String,
+) : TextOperand {
+    override val isCheap: Boolean = field.onView != null
+    override val capturePlan: CapturePlan = field.capture(key)
+
+    override fun <T> compile(target: ExpressionTarget<T>): TextGetter<T> = target.keyed(field, key)
+}
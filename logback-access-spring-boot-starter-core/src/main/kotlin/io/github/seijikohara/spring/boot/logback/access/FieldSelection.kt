@@ -0,0 +1,87 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * Selection of entries to capture for a map-valued [AccessEventData] field.
+ *
+ * Header selections hold lower-cased names so that extraction can match the server's native
+ * header storage case-insensitively without converting the header names to strings.
+ *
+ * @property names Entry names to capture, or null to capture every entry not in [excludedNames].
+ *           An empty set captures nothing.
+ * @property excludedNames Entry names left out of a full selection. Ignored when [names] is set.
+ */
+public data class FieldSelection(
+    val names: Set<String>?,
+    val excludedNames: Set<String> = emptySet(),
+) {
+    /** Whether at least one entry may be captured. */
+    public val isEnabled: Boolean
+        get() = names == null || names.isNotEmpty()
+
+    /** Returns whether the entry called [name] is selected. */
+    public fun includes(name: String): Boolean = names?.contains(name) ?: (name !in excludedNames)
+
+    /**
+     * Returns the entries produced by [extract], or an empty map without invoking it when
+     * nothing is selected.
+     */
+    public inline fun <V> capture(extract: (FieldSelection) -> Map<String, V>): Map<String, V> =
+        if (isEnabled) extract(this) else emptyMap()
+
+    /** Returns a selection covering the entries of both this selection and [other]. */
+    public operator fun plus(other: FieldSelection): FieldSelection =
+        when {
+            names == null && other.names == null -> FieldSelection(null, excludedNames intersect other.excludedNames)
+            names == null -> FieldSelection(null, excludedNames - checkNotNull(other.names))
+            other.names == null -> FieldSelection(null, other.excludedNames - names)
+            else -> FieldSelection(names + other.names)
+        }
+
+    /** Returns a selection covering only the entries selected by both this selection and [other]. */
+    public infix fun intersect(other: FieldSelection): FieldSelection =
+        when {
+            names == null && other.names == null -> FieldSelection(null, excludedNames + other.excludedNames)
+            names == null -> FieldSelection(checkNotNull(other.names).filterTo(linkedSetOf(), ::includes))
+            else -> FieldSelection(names.filterTo(linkedSetOf(), other::includes))
+        }
+
+    public companion object {
+        /** Captures every entry. */
+        @JvmField
+        public val ALL: FieldSelection = FieldSelection(null)
+
+        /** Captures nothing. */
+        @JvmField
+        public val NONE: FieldSelection = FieldSelection(emptySet())
+
+        /**
+         * Creates a selection from configured allow and deny lists.
+         *
+         * @param include Names to capture, or null to capture every entry.
+         * @param exclude Names never to capture. Takes precedence over [include].
+         */
+        @JvmStatic
+        public fun of(
+            include: Collection<String>?,
+            exclude: Collection<String>?,
+        ): FieldSelection {
+            val excluded = exclude.orEmpty().toHashSet()
+            return include
+                ?.filterNotTo(hashSetOf()) { it in excluded }
+                ?.let(::FieldSelection)
+                ?: FieldSelection(null, excluded)
+        }
+
+        /**
+         * Creates a header selection like [of], lower-casing every name.
+         *
+         * @param include Header names to capture, or null to capture every header.
+         * @param exclude Header names never to capture. Takes precedence over [include].
+         */
+        @JvmStatic
+        public fun ofHeaders(
+            include: Collection<String>?,
+            exclude: Collection<String>?,
+        ): FieldSelection = of(include?.map { it.lowercase() }, exclude?.map { it.lowercase() })
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.HeaderRule
+
+/**
+ * Set of [HeaderRule]s grouped by header name.
+ *
+ * The exact values of each header are kept in a hash set and its prefixes in a [LiteralTrie], so
+ * [matches] reads each configured header once through [AccessRequestView.requestHeader] and checks
+ * it without regexes or allocation. The server views answer that lookup from the server's own
+ * header storage (Tomcat's `MimeHeaders`, Jetty's `HttpFields`), so no header map is built.
+ */
+internal class HeaderMatcher private constructor(
+    private val headers: Array<HeaderRules>,
+) {
+    /** Returns true if one of the headers of [request] satisfies a rule. */
+    fun matches(request: AccessRequestView): Boolean = headers.any { it.matches(request.requestHeader(it.name)) }
+
+    /**
+     * Rules for one header name.
+     *
+     * @property anyValue Whether a rule only requires the header to be present.
+     */
+    private class HeaderRules(
+        val name: String,
+        private val anyValue: Boolean,
+        private val values: Set<String>,
+        private val prefixes: LiteralTrie?,
+    ) {
+        fun matches(value: String?): Boolean =
+            value != null && (anyValue || value in values || (prefixes != null && prefixes.matchesStartOf(value)))
+    }
+
+    companion object {
+        /**
+         * Compiles [rules]. Header names are compared case-insensitively, values case-sensitively.
+         *
+         * @throws IllegalArgumentException if a rule has a blank name or sets both a value and a prefix,
+         *         naming it as a [kind] header rule
+         */
+        fun compile(
+            rules: List<HeaderRule>,
+            kind: String,
+        ): HeaderMatcher {
+            rules.forEach { rule ->
+                require(rule.name.isNotBlank() && (rule.value == null || rule.prefix == null)) {
+                    "Invalid $kind header rule: $rule (expected a name and at most one of value or prefix)"
+                }
+            }
+            val headers =
+                rules.groupBy { it.name.trim().lowercase() }.values.map { sameHeader ->
+                    val prefixes = sameHeader.mapNotNull { it.prefix }
+                    HeaderRules(
+                        name = sameHeader.first().name.trim(),
+                        anyValue = sameHeader.any { it.value == null && it.prefix == null },
+                        values = sameHeader.mapNotNullTo(HashSet()) { it.value },
+                        prefixes = prefixes.takeIf { it.isNotEmpty() }?.let(LiteralTrie::of),
+                    )
+                }
+            return HeaderMatcher(headers.toTypedArray())
+        }
+    }
+}
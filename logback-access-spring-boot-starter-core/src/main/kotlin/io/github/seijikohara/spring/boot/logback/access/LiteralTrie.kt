@@ -0,0 +1,120 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import java.util.Arrays
+
+/**
+ * Character trie over a fixed set of literals, frozen into arrays once built.
+ *
+ * The outgoing edges of each node are kept as a sorted [CharArray] searched with binary search,
+ * so no lookup allocates. [containsAny] runs Aho-Corasick over failure links computed by [of] and
+ * finds any literal in a single pass over the input; [matchesStartOf] and [matchesEndOf] only walk
+ * down from the root.
+ */
+internal class LiteralTrie private constructor(
+    private val edgeChars: Array<CharArray>,
+    private val edgeTargets: Array<IntArray>,
+    /** Whether a literal ends exactly at the node. */
+    private val terminal: BooleanArray,
+    /** Whether a literal ends at the node or at any node on its failure chain. */
+    private val accepting: BooleanArray,
+    private val failure: IntArray,
+) {
+    /** Whether the trie holds no literal, in which case [containsAny] does not need to scan. */
+    private val isEmpty: Boolean = terminal.none { it }
+
+    /** Returns true if [value] starts with one of the literals. */
+    fun matchesStartOf(value: String): Boolean = walk(value.length) { value[it] }
+
+    /** Returns true if [value] ends with one of the literals. Only valid for a trie built from reversed literals. */
+    fun matchesEndOf(value: String): Boolean = walk(value.length) { value[value.length - 1 - it] }
+
+    /** Returns true if one of the literals occurs anywhere in [value]. */
+    fun containsAny(value: String): Boolean = !isEmpty && scan(value)
+
+    private fun scan(value: String): Boolean {
+        var node = ROOT
+        var index = 0
+        while (!accepting[node] && index < value.length) {
+            node = next(node, value[index++])
+        }
+        return accepting[node]
+    }
+
+    private inline fun walk(
+        length: Int,
+        charAt: (Int) -> Char,
+    ): Boolean {
+        var node = ROOT
+        var index = 0
+        while (node != NONE && !terminal[node] && index < length) {
+            node = child(node, charAt(index++))
+        }
+        return node != NONE && terminal[node]
+    }
+
+    /** Follows failure links until [char] can be consumed; falls back to the root. */
+    private fun next(
+        node: Int,
+        char: Char,
+    ): Int {
+        var state = node
+        var target = child(state, char)
+        while (target == NONE && state != ROOT) {
+            state = failure[state]
+            target = child(state, char)
+        }
+        return if (target == NONE) ROOT else target
+    }
+
+    private fun child(
+        node: Int,
+        char: Char,
+    ): Int {
+        val index = Arrays.binarySearch(edgeChars[node], char)
+        return if (index >= 0) edgeTargets[node][index] else NONE
+    }
+
+    companion object {
+        private const val ROOT = 0
+        private const val NONE = -1
+
+        /** Builds a trie over [literals]. */
+        fun of(literals: Collection<String>): LiteralTrie {
+            val children = mutableListOf(HashMap<Char, Int>())
+            val terminal = mutableListOf(false)
+            literals.forEach { literal ->
+                val node =
+                    literal.fold(ROOT) { parent, char ->
+                        children[parent].getOrPut(char) {
+                            children += HashMap()
+                            terminal += false
+                            children.lastIndex
+                        }
+                    }
+                terminal[node] = true
+            }
+            val failure = IntArray(children.size)
+            val accepting = terminal.toBooleanArray()
+            // Breadth-first, so every node's failure target is final before its children need it.
+            val queue = ArrayDeque(children[ROOT].values)
+            while (queue.isNotEmpty()) {
+                val node = queue.removeFirst()
+                children[node].forEach { (char, child) ->
+                    var state = failure[node]
+                    while (state != ROOT && char !in children[state]) state = failure[state]
+                    failure[child] = children[state][char] ?: ROOT
+                    accepting[child] = accepting[child] || accepting[failure[child]]
+                    queue += child
+                }
+            }
+            val edges = children.map { outgoing -> outgoing.entries.sortedBy { it.key } }
+            return LiteralTrie(
+                edgeChars = edges.map { sorted -> CharArray(sorted.size) { sorted[it].key } }.toTypedArray(),
+                edgeTargets = edges.map { sorted -> IntArray(sorted.size) { sorted[it].value } }.toTypedArray(),
+                terminal = terminal.toBooleanArray(),
+                accepting = accepting,
+                failure = failure,
+            )
+        }
+    }
+}
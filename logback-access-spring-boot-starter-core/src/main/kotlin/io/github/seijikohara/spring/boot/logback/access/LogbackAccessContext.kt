@@ -1,10 +1,15 @@
 package io.github.seijikohara.spring.boot.logback.access
 
 import ch.qos.logback.access.common.spi.AccessContext
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.core.Appender
+import ch.qos.logback.core.OutputStreamAppender
 import ch.qos.logback.core.spi.FilterReply
 import io.github.oshai.kotlinlogging.KotlinLogging
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.CaptureProperties
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.Companion.DEFAULT_CONFIGS
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.Companion.FALLBACK_CONFIG
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.HeaderCaptureProperties
 import io.github.seijikohara.spring.boot.logback.access.joran.AccessJoranConfigurator
 import org.springframework.core.env.Environment
 import org.springframework.core.io.Resource
@@ -28,23 +33,46 @@ public class LogbackAccessContext(
     /** The underlying Logback-access context. */
     public val accessContext: AccessContext = AccessContext()
 
+    /** Resolves the route the server integrations copy into each [AccessEventData]. */
+    public val routeResolver: RouteResolver = RouteResolver(properties.route)
+
+    /** Summary stage for the aggregated routes, or null when every accepted request is logged on its own. */
+    private val aggregator: AccessAggregator? = properties.aggregation.takeIf { it.enabled }?.let(::AccessAggregator)
+
+    /** Pre-extraction checks behind [shouldLog], plus the filter expressions that need extracted fields. */
+    private val requestFilter = AccessRequestFilter(properties, aggregator)
+
+    /**
+     * Optional fields the server integrations copy into each [AccessEventData].
+     *
+     * Resolved once after the configuration is loaded: in [CaptureMode.AUTO] it is derived from
+     * the converters of the configured pattern encoders, so appenders or filters attached
+     * programmatically afterwards are not taken into account (use [CaptureMode.FULL] for those).
+     * The configured header and attribute allow and deny lists narrow that plan in both modes; the
+     * fields read by the filter expressions are added afterwards, so the lists never hide a field
+     * an expression tests.
+     * Server integrations read it through [capturePlanFor], which narrows it for the requests
+     * conditional detail capture does not promote.
+     */
+    public val capturePlan: CapturePlan
+
+    /** Promotion rules of conditional detail capture, or null when every request gets [capturePlan]. */
+    private val detailCapture: DetailCapturePolicy? = properties.capture.detail.takeIf { it.enabled }?.let(::DetailCapturePolicy)
+
+    /** Plan of the requests [detailCapture] does not promote: only the fields read by the filter expressions. */
+    private val basicCapturePlan: CapturePlan = requestFilter.capturePlan
+
     /**
-     * Compiled regex patterns for URL filtering, cached for performance.
+     * Whether server integrations may fill recycled event instances instead of allocating one per request.
      *
-     * An empty list is normalized to null (no filtering): relaxed binding produces an
-     * empty, non-null list from an empty property value, and matching against an empty
-     * list would silently drop every event.
+     * True only when [LogbackAccessProperties.EventPoolProperties.enabled] is set, events are delivered
+     * on the request thread, and every appender attached at startup is a synchronous [OutputStreamAppender],
+     * so no appender can still hold an event when [emitAccepted] returns.
      */
-    private val includePatterns: List<Regex>? =
-        properties.filter.includeUrlPatterns
-            ?.takeIf { it.isNotEmpty() }
-            ?.map { it.toValidRegex("include") }
+    public val eventPoolingEnabled: Boolean
 
-    /** Compiled regex patterns for URL exclusion, cached for performance. Empty lists are normalized like [includePatterns]. */
-    private val excludePatterns: List<Regex>? =
-        properties.filter.excludeUrlPatterns
-            ?.takeIf { it.isNotEmpty() }
-            ?.map { it.toValidRegex("exclude") }
+    /** Writer-thread hand-off, or null when events are delivered on the request thread. */
+    private val dispatcher: AsyncDispatcher?
 
     init {
         val (name, resource) = resolveConfig(properties, resourceLoader)
@@ -53,6 +81,15 @@ public class LogbackAccessContext(
         configurator.context = accessContext
         configurator.doConfigure(resource.url)
         accessContext.start()
+        capturePlan =
+            when (properties.capture.mode) {
+                CaptureMode.AUTO -> CapturePlanner.plan(accessContext)
+                CaptureMode.FULL -> CapturePlan.FULL
+            }.restrictHeaders(properties.capture) + requestFilter.capturePlan
+        dispatcher = properties.async.takeIf { it.enabled }?.let { AsyncDispatcher(it, ::deliverBatch) }
+        eventPoolingEnabled =
+            properties.eventPool.enabled && dispatcher == null && accessContext.appendersWriteSynchronously()
+        aggregator?.start { summary -> if (dispatcher == null) deliver(summary) else dispatcher.enqueue(summary) }
         logger.debug { "Initialized LogbackAccessContext: $this" }
     }
 
@@ -60,42 +97,114 @@ public class LogbackAccessContext(
      * Emits an access event through the filter chain and appenders.
      *
      * The processing pipeline is:
-     * 1. URL filtering (include/exclude patterns via [shouldLog])
-     * 2. Logback filter chain evaluation
-     * 3. Appender invocation
+     * 1. Client address, header, URL, and expression filtering (include/exclude CIDRs, header
+     *    rules, patterns, and expressions via [shouldLog])
+     * 2. Aggregation, when [LogbackAccessProperties.AggregationProperties.enabled] is set: requests of
+     *    an aggregated route are counted and only reported through periodic summary events
+     * 3. Sampling, when [LogbackAccessProperties.SamplingProperties.enabled] is set
+     * 4. Filter expressions that read extracted fields (see [emitAccepted])
+     * 5. Logback filter chain evaluation
+     * 6. Appender invocation
      *
      * Only [Exception] subclasses are caught and logged at ERROR level.
      * Fatal errors ([Error]) are propagated to the caller.
      */
-    @Suppress("TooGenericExceptionCaught")
     public fun emit(event: LogbackAccessEvent) {
+        event.takeIf { shouldLog(EventRequestView(it)) }?.let(::emitAccepted)
+    }
+
+    /**
+     * Emits an access event whose request was already accepted by [shouldLog] with an
+     * [AccessRequestView], skipping the URL filtering step of [emit].
+     *
+     * Server integrations use this after the pre-extraction check so accepted requests
+     * are not matched against the URL patterns a second time. Only the filter expressions
+     * that read fields unavailable before extraction are tested here. The event is only used until
+     * this method returns unless an appender calls [IAccessEvent.prepareForDeferredProcessing],
+     * which is what allows pooled events to be recycled afterwards.
+     *
+     * With [LogbackAccessProperties.AsyncProperties.enabled], the event is prepared for deferred
+     * processing and queued; the filter chain and appenders then run on the writer thread.
+     */
+    @Suppress("TooGenericExceptionCaught")
+    public fun emitAccepted(event: IAccessEvent) {
         try {
-            event
-                .takeIf { shouldLog(it.requestURI) }
-                ?.let { accessContext.getFilterChainDecision(it) }
-                ?.takeIf { it != FilterReply.DENY }
-                ?.let { accessContext.callAppenders(event) }
+            val async = dispatcher
+            when {
+                !requestFilter.acceptsEvent(event) -> {
+                    Unit
+                }
+
+                async == null -> {
+                    deliver(event)
+                }
+
+                else -> {
+                    event.prepareForDeferredProcessing()
+                    async.enqueue(event)
+                }
+            }
         } catch (e: Exception) {
             logger.error(e) { "Failed to emit access event: ${event.requestURI}" }
         }
     }
 
+    /** Runs the Logback filter chain and, unless it denies the event, the appenders. */
+    private fun deliver(event: IAccessEvent) {
+        accessContext
+            .getFilterChainDecision(event)
+            .takeIf { it != FilterReply.DENY }
+            ?.let { accessContext.callAppenders(event) }
+    }
+
     /**
-     * Determines whether the request URI should be logged based on include/exclude patterns.
-     *
-     * @param uri the request URI to check
-     * @return true if the URI should be logged, false otherwise
+     * Runs the Logback filter chain over a batch collected by the writer thread, then hands the
+     * accepted events to each appender: in one call for a [BatchAppender], one event at a time
+     * otherwise. A failing appender does not keep the batch from the others.
      */
-    private fun shouldLog(uri: String): Boolean = matchesIncludePatterns(uri) && !matchesExcludePatterns(uri)
+    @Suppress("TooGenericExceptionCaught")
+    private fun deliverBatch(events: List<IAccessEvent>) {
+        val accepted = events.filter { accessContext.getFilterChainDecision(it) != FilterReply.DENY }
+        if (accepted.isEmpty()) return
+        accessContext.iteratorForAppenders().forEach { appender ->
+            try {
+                if (appender is BatchAppender<IAccessEvent>) appender.doAppendBatch(accepted) else accepted.forEach(appender::doAppend)
+            } catch (e: Exception) {
+                logger.error(e) { "Appender '${appender.name}' failed to write ${accepted.size} access events" }
+            }
+        }
+    }
 
-    /** Returns true if URI matches at least one include pattern, or no include patterns are specified. */
-    private fun matchesIncludePatterns(uri: String): Boolean = includePatterns?.any { it.containsMatchIn(uri) } ?: true
+    /**
+     * Decides whether a request should be logged before any event data is extracted.
+     *
+     * Server integrations call this first with a view over the live request, so a
+     * request dropped by the client address, header, URL, or expression filters, folded into an
+     * aggregated summary, or sampled out never pays for copying headers, cookies, parameters, or
+     * attributes. The decision only reads the values it needs from [request]; a rejected request costs
+     * the trie lookups, the pattern match, the compiled expressions, and the aggregation and sampling
+     * checks.
+     *
+     * @param request view over the live server request/response
+     * @return true if an access event should be built and passed to [emitAccepted]
+     */
+    public fun shouldLog(request: AccessRequestView): Boolean = requestFilter.accepts(request)
 
-    /** Returns true if URI matches any exclude pattern. */
-    private fun matchesExcludePatterns(uri: String): Boolean = excludePatterns?.any { it.containsMatchIn(uri) } ?: false
+    /**
+     * Returns the optional fields to capture for a request that completed with [statusCode] after
+     * [elapsedTime] milliseconds: [capturePlan], or only the fields the filter expressions read when
+     * [LogbackAccessProperties.DetailCaptureProperties.enabled] is set and the request is neither
+     * failed nor slow by its rules.
+     */
+    public fun capturePlanFor(
+        statusCode: Int,
+        elapsedTime: Long,
+    ): CapturePlan = if (detailCapture == null || detailCapture.promotes(statusCode, elapsedTime)) capturePlan else basicCapturePlan
 
     override fun close(): Unit =
         logger.debug { "Closing LogbackAccessContext: $this" }.also {
+            aggregator?.close()
+            dispatcher?.close()
             accessContext.run {
                 detachAndStopAllAppenders()
                 copyOfAttachedFiltersList.forEach { it.stop() }
@@ -122,11 +231,34 @@ public class LogbackAccessContext(
                     .firstOrNull { (_, resource) -> resource.exists() }
                 ?: (FALLBACK_CONFIG to resourceLoader.getResource(FALLBACK_CONFIG))
 
-        private fun String.toValidRegex(kind: String): Regex =
-            try {
-                Regex(this)
-            } catch (e: PatternSyntaxException) {
-                throw IllegalArgumentException("Invalid $kind URL pattern: '$this'", e)
-            }
+        private fun CapturePlan.restrictHeaders(capture: CaptureProperties): CapturePlan =
+            copy(
+                requestHeaders = requestHeaders intersect capture.requestHeaders.toSelection(),
+                responseHeaders = responseHeaders intersect capture.responseHeaders.toSelection(),
+                attributes = attributes intersect FieldSelection.of(capture.attributes.include, capture.attributes.exclude),
+            )
+
+        private fun AccessContext.appendersWriteSynchronously(): Boolean =
+            iteratorForAppenders()
+                .asSequence()
+                .filterNot { it is OutputStreamAppender<IAccessEvent> }
+                .map(Appender<IAccessEvent>::getName)
+                .toList()
+                .also { retaining ->
+                    if (retaining.isNotEmpty()) {
+                        logger.info { "Event pooling disabled: appenders $retaining may retain events after doAppend returns" }
+                    }
+                }.isEmpty()
+
+        private fun HeaderCaptureProperties.toSelection(): FieldSelection =
+            FieldSelection.ofHeaders(include, exclude)
     }
 }
+
+/** Compiles a configured URL pattern, reporting a syntax error with the property group it came from. */
+internal fun String.toValidRegex(kind: String): Regex =
+    try {
+        Regex(this)
+    } catch (e: PatternSyntaxException) {
+        throw IllegalArgumentException("Invalid $kind URL pattern: '$this'", e)
+    }
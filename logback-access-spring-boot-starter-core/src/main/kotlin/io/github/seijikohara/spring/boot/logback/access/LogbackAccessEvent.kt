@@ -16,6 +16,7 @@ import java.util.concurrent.TimeUnit.MILLISECONDS
  *
  * Since all data is captured eagerly in [AccessEventData],
  * [prepareForDeferredProcessing] is a no-op and serialization works naturally.
+ * Captured bodies are the exception that is decoded lazily, from bytes the snapshot already owns.
  */
 public class LogbackAccessEvent
     @JvmOverloads
@@ -23,7 +24,7 @@ public class LogbackAccessEvent
         private val data: AccessEventData,
         @Transient private val httpRequest: HttpServletRequest? = null,
         @Transient private val httpResponse: HttpServletResponse? = null,
-    ) : IAccessEvent,
+    ) : RoutedAccessEvent,
         Serializable {
         @Transient
         private var cachedParameterArrayMap: Map<String, Array<String>>? = null
@@ -91,7 +92,7 @@ public class LogbackAccessEvent
 
         override fun getSessionID(): String = data.sessionID ?: NA
 
-        override fun getRequestContent(): String = data.requestContent.orEmpty()
+        override fun getRequestContent(): String = data.requestContent ?: data.capturedRequestContent?.decode().orEmpty()
 
         override fun getStatusCode(): Int = data.statusCode
 
@@ -103,7 +104,9 @@ public class LogbackAccessEvent
 
         override fun getContentLength(): Long = data.contentLength
 
-        override fun getResponseContent(): String = data.responseContent.orEmpty()
+        override fun getResponseContent(): String = data.responseContent ?: data.capturedResponseContent?.decode().orEmpty()
+
+        override fun getRoute(): String = data.route ?: NA
 
         override fun prepareForDeferredProcessing(): Unit =
             Unit // No-op: AccessEventData is already an eagerly-evaluated immutable snapshot.
@@ -3,6 +3,7 @@ package io.github.seijikohara.spring.boot.logback.access
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.boot.context.properties.bind.ConstructorBinding
 import org.springframework.boot.context.properties.bind.DefaultValue
+import java.time.Duration
 
 /**
  * Configuration properties for Logback-access.
@@ -15,6 +16,12 @@ import org.springframework.boot.context.properties.bind.DefaultValue
  * @property tomcat Tomcat-specific properties.
  * @property teeFilter TeeFilter properties for capturing request/response bodies.
  * @property filter URL filtering properties.
+ * @property capture Properties controlling which optional fields are captured per request.
+ * @property eventPool Properties for reusing pooled access event instances.
+ * @property async Properties for handing events to a dedicated writer thread.
+ * @property sampling Properties for logging only a share of the accepted requests.
+ * @property aggregation Properties for replacing per-request events with periodic summaries.
+ * @property route Properties for the route template recorded with each event.
  */
 @ConfigurationProperties("logback.access")
 public data class LogbackAccessProperties
@@ -31,15 +38,31 @@ public data class LogbackAccessProperties
         val teeFilter: TeeFilterProperties,
         @DefaultValue
         val filter: FilterProperties,
+        @DefaultValue
+        val capture: CaptureProperties = CaptureProperties(),
+        @DefaultValue
+        val eventPool: EventPoolProperties = EventPoolProperties(),
+        @DefaultValue
+        val async: AsyncProperties = AsyncProperties(),
+        @DefaultValue
+        val sampling: SamplingProperties = SamplingProperties(),
+        @DefaultValue
+        val aggregation: AggregationProperties = AggregationProperties(),
+        @DefaultValue
+        val route: RouteProperties = RouteProperties(),
     ) {
         /**
          * Tomcat-specific properties.
          *
          * @property requestAttributesEnabled Whether to enable request attributes for use with RemoteIpValve.
          *           Defaults to the presence of RemoteIpValve when not specified.
+         * @property parameterCapture How request parameters are captured. [ParameterCaptureMode.IF_PARSED]
+         *           never makes Tomcat parse the query string or form body from the access-log valve.
          */
         public data class TomcatProperties(
             val requestAttributesEnabled: Boolean?,
+            @DefaultValue("PARSE")
+            val parameterCapture: ParameterCaptureMode = ParameterCaptureMode.PARSE,
         )
 
         /**
@@ -51,14 +74,28 @@ public data class LogbackAccessProperties
          *           header), so it acts as a global on/off switch. All hosts when not specified.
          * @property excludeHosts Comma-separated host names that deactivate the filter, matched the same way as
          *           [includeHosts] (against the server's resolved local host name, evaluated once at init).
-         * @property maxPayloadSize Maximum payload size in bytes to include in log output.
-         *           Bodies exceeding this size are replaced with a sentinel value.
-         *           Note: This does not limit TeeFilter's internal buffering — the full body
-         *           is still buffered in memory by the upstream TeeFilter.
+         * @property maxPayloadSize Maximum payload size in bytes to buffer and include in log output.
+         *           Bodies exceeding this size are replaced with a sentinel value; the filter stops
+         *           copying a body at this size and only counts the remaining bytes.
          * @property allowedContentTypes Content-Type patterns allowed for body capture.
          *           Supports type wildcards (e.g. "text/\*") and suffix patterns (e.g. "application/\*+json").
          *           When null, uses built-in defaults (text types, application/json, etc.).
          *           When specified, completely replaces the defaults (override mode).
+         * @property maxInFlightBytes Maximum number of body bytes held by all requests being captured at
+         *           once. Buffers are taken from a shared pool in fixed-size 8 KiB chunks, so the budget
+         *           is counted in whole chunks: it is rounded down to a multiple of the chunk size, must
+         *           hold at least one chunk, and every body being captured reserves at least one chunk,
+         *           even a 10-byte one. A body that finds the budget used up is logged as a sentinel
+         *           value instead of being buffered.
+         * @property directBuffers Whether pooled capture buffers are allocated outside the Java heap.
+         * @property oversizedPayload How a body larger than [maxPayloadSize] is logged. [OversizedPayloadMode.TRUNCATE]
+         *           keeps its first [maxPayloadSize] bytes instead of replacing it with a sentinel value.
+         * @property rules Body capture rules checked in order before a request's streams are wrapped. The first
+         *           matching rule applies; requests no rule matches are not captured at all. All requests
+         *           are captured with the settings above when empty.
+         * @property redactedFields JSON keys and form parameter names whose values are replaced with `***` in
+         *           captured JSON and `application/x-www-form-urlencoded` bodies, compared case-insensitively.
+         *           Keys match at any nesting depth, and a matching object or array is replaced as a whole.
          */
         public data class TeeFilterProperties
             @ConstructorBinding
@@ -70,26 +107,374 @@ public data class LogbackAccessProperties
                 @DefaultValue("65536")
                 val maxPayloadSize: Long,
                 val allowedContentTypes: List<String>?,
+                @DefaultValue("67108864")
+                val maxInFlightBytes: Long = 67108864L,
+                @DefaultValue("false")
+                val directBuffers: Boolean = false,
+                @DefaultValue("SUPPRESS")
+                val oversizedPayload: OversizedPayloadMode = OversizedPayloadMode.SUPPRESS,
+                val rules: List<BodyCaptureRule> = emptyList(),
+                val redactedFields: List<String> = emptyList(),
             )
 
+        /**
+         * Body capture settings for the requests matching a URL pattern and method.
+         *
+         * @property urlPattern Regex pattern matched against the request URI, like the URL filter patterns.
+         * @property methods HTTP methods the rule applies to, compared case-insensitively. All methods when not specified.
+         * @property maxPayloadSize Maximum payload size in bytes for the matching requests.
+         *           [TeeFilterProperties.maxPayloadSize] when not specified.
+         * @property allowedContentTypes Content-Type patterns captured for the matching requests, in the format of
+         *           [TeeFilterProperties.allowedContentTypes]. The filter's list when not specified.
+         */
+        public data class BodyCaptureRule(
+            val urlPattern: String,
+            val methods: List<String>? = null,
+            val maxPayloadSize: Long? = null,
+            val allowedContentTypes: List<String>? = null,
+        )
+
         /**
          * URL pattern filtering properties for access logging.
          *
-         * Patterns are compiled as regular expressions and matched using partial matching
+         * URL patterns are compiled as regular expressions and matched using partial matching
          * ([Regex.containsMatchIn]). For example, the pattern `/health` matches any URI
          * containing "/health", including "/api/health-check".
          * Use anchored patterns (e.g., `^/health$`) for exact matching.
          *
+         * Path patterns are parsed once with Spring's `PathPatternParser` and match the whole
+         * path, as in Spring MVC request mappings.
+         *
+         * Client CIDRs are compiled into a binary prefix trie and checked against the address of the
+         * connection peer, before any `X-Forwarded-For` resolution, so they select traffic by the
+         * network it arrives from (for example load balancer health checks).
+         *
+         * Expressions use the typed language described on `AccessExpression`, for example
+         * `status >= 500 || header('User-Agent') ~ 'kube-probe'`. They are compiled at startup, and an
+         * expression that only reads status, elapsed time, method, URI, and request headers is tested
+         * before any event data is extracted. `remoteAddr` in an expression is the logged client
+         * address, after forwarded-header resolution, unlike the client CIDRs.
+         *
+         * Header rules are compiled into a set of literal values and a prefix trie per header name,
+         * and each configured header is read on its own from the server's header storage, so a
+         * request they drop never has its header map built.
+         *
          * @property includeUrlPatterns Regex patterns for URLs to include in access logging.
          *           All URLs are included when not specified.
          * @property excludeUrlPatterns Regex patterns for URLs to exclude from access logging.
          *           No URLs are excluded when not specified.
+         * @property includePathPatterns Spring path patterns (for example `/users/{id}`)
+         *           for URLs to include, matched against the whole request path. Combined with
+         *           [includeUrlPatterns]: a URL is included when it matches a pattern of either kind.
+         *           Requires spring-web on the classpath.
+         * @property excludePathPatterns Spring path patterns for URLs to exclude, combined with
+         *           [excludeUrlPatterns] the same way. Requires spring-web on the classpath.
+         * @property includeClientCidrs IPv4 or IPv6 CIDRs (for example `10.0.0.0/8` or `fd00::/8`) of
+         *           clients to include. All clients are included when not specified.
+         * @property excludeClientCidrs IPv4 or IPv6 CIDRs of clients to exclude.
+         *           No clients are excluded when not specified.
+         * @property includeExpression Expression a request must match to be logged.
+         *           All requests are included when not specified.
+         * @property excludeExpression Expression whose matching requests are not logged.
+         * @property includeHeaders Header rules a request must match at least one of to be logged.
+         *           All requests are included when not specified.
+         * @property excludeHeaders Header rules whose matching requests are not logged, for example
+         *           synthetic monitoring identified by `User-Agent`.
          */
         public data class FilterProperties(
             val includeUrlPatterns: List<String>?,
             val excludeUrlPatterns: List<String>?,
+            val includePathPatterns: List<String>? = null,
+            val excludePathPatterns: List<String>? = null,
+            val includeClientCidrs: List<String>? = null,
+            val excludeClientCidrs: List<String>? = null,
+            val includeExpression: String? = null,
+            val excludeExpression: String? = null,
+            val includeHeaders: List<HeaderRule>? = null,
+            val excludeHeaders: List<HeaderRule>? = null,
         )
 
+        /**
+         * Rule matching the first value of a request header.
+         *
+         * @property name Header name, matched case-insensitively.
+         * @property value Value the header must equal exactly. Cannot be combined with [prefix].
+         * @property prefix Value the header must start with. When neither [value] nor [prefix] is set,
+         *           the rule matches any request carrying the header.
+         */
+        public data class HeaderRule(
+            val name: String,
+            val value: String? = null,
+            val prefix: String? = null,
+        )
+
+        /**
+         * Properties controlling which optional fields are copied into each access event.
+         *
+         * @property mode How the captured fields are selected. [CaptureMode.AUTO] copies only the headers,
+         *           cookies, parameters, attributes, session ID, and bodies read by the configured pattern
+         *           encoders; [CaptureMode.FULL] always copies everything.
+         * @property requestHeaders Allow and deny lists applied to captured request headers in either mode.
+         * @property responseHeaders Allow and deny lists applied to captured response headers in either mode.
+         * @property attributes Allow and deny lists and a value length cap applied to captured request attributes.
+         * @property detail Restricts the optional fields to failed or slow requests.
+         */
+        public data class CaptureProperties
+            @ConstructorBinding
+            constructor(
+                @DefaultValue("AUTO")
+                val mode: CaptureMode = CaptureMode.AUTO,
+                @DefaultValue
+                val requestHeaders: HeaderCaptureProperties = HeaderCaptureProperties(),
+                @DefaultValue
+                val responseHeaders: HeaderCaptureProperties = HeaderCaptureProperties(),
+                @DefaultValue
+                val attributes: AttributeCaptureProperties = AttributeCaptureProperties(),
+                @DefaultValue
+                val detail: DetailCaptureProperties = DetailCaptureProperties(),
+            )
+
+        /**
+         * Conditional detail capture.
+         *
+         * When enabled, the headers, cookies, parameters, attributes, session ID, and bodies selected by
+         * [CaptureProperties.mode] are only copied into the events of requests whose final status is in
+         * [statuses] or that took at least [slowerThan]. The events of other requests carry the core
+         * fields and the fields read by filter expressions, and their captured bodies are released
+         * without being copied.
+         *
+         * @property enabled Whether to restrict the optional fields to the requests matching [statuses] or [slowerThan].
+         * @property statuses Status codes whose requests get every optional field, as single codes ("429"),
+         *           classes ("5xx"), or inclusive ranges ("400-599").
+         * @property slowerThan Requests taking at least this long get every optional field. Null disables the check.
+         */
+        public data class DetailCaptureProperties
+            @ConstructorBinding
+            constructor(
+                @DefaultValue("false")
+                val enabled: Boolean = false,
+                @DefaultValue("500-599")
+                val statuses: List<String> = listOf("500-599"),
+                val slowerThan: Duration? = null,
+            )
+
+        /**
+         * Header capture allow and deny lists.
+         *
+         * Names are matched case-insensitively. Headers filtered out here are never copied into the
+         * access event, so a converter that references one renders the NA marker.
+         *
+         * @property include Header names to capture. When null, every header not excluded is captured.
+         * @property exclude Header names never to capture. Takes precedence over [include].
+         */
+        public data class HeaderCaptureProperties
+            @ConstructorBinding
+            constructor(
+                val include: List<String>? = null,
+                val exclude: List<String>? = null,
+            )
+
+        /**
+         * Request attribute capture settings.
+         *
+         * Frameworks store large objects in request attributes (handler mappings, security contexts,
+         * CSRF tokens), and each captured attribute is converted with `toString()`. Only attributes
+         * passing these lists are ever converted, so an allow list keeps that cost bounded.
+         *
+         * @property include Attribute names to capture (case-sensitive). When null, every attribute not
+         *           excluded is captured.
+         * @property exclude Attribute names never to capture. Takes precedence over [include].
+         * @property maxValueLength Maximum length of a captured attribute value in characters. Longer values
+         *           are truncated and suffixed with `...`. Unlimited when not specified.
+         */
+        public data class AttributeCaptureProperties
+            @ConstructorBinding
+            constructor(
+                val include: List<String>? = null,
+                val exclude: List<String>? = null,
+                val maxValueLength: Int? = null,
+            )
+
+        /**
+         * Event pooling properties.
+         *
+         * When enabled, the server integrations fill recycled event instances instead of allocating a
+         * snapshot per request. An event is returned to the pool as soon as the appenders return, so
+         * pooling only takes effect when every configured appender writes synchronously (an
+         * `OutputStreamAppender` such as the console, file, or rolling file appender); otherwise it is
+         * turned off at startup with an INFO message. Code that keeps an event after
+         * `Appender.doAppend` returns must call `IAccessEvent.prepareForDeferredProcessing()` first,
+         * which transfers ownership of that instance away from the pool.
+         *
+         * @property enabled Whether to reuse pooled event instances.
+         * @property maxSize Maximum number of idle events kept for reuse. Events released while the pool
+         *           is full are left to the garbage collector.
+         */
+        public data class EventPoolProperties
+            @ConstructorBinding
+            constructor(
+                @DefaultValue("false")
+                val enabled: Boolean = false,
+                @DefaultValue("256")
+                val maxSize: Int = 256,
+            )
+
+        /**
+         * Asynchronous dispatch properties.
+         *
+         * When enabled, request threads only queue each event in a lock-free ring buffer, and a dedicated
+         * writer thread runs the Logback filter chain and appenders. Event pooling is not used in this mode.
+         *
+         * @property enabled Whether to deliver events on a dedicated writer thread.
+         * @property bufferSize Number of events the buffer holds, rounded up to a power of two.
+         * @property waitStrategy How the writer thread waits for events while the buffer is empty.
+         * @property overflowPolicy What a request thread does with an event when the buffer is full.
+         * @property blockTimeout Longest time a request thread waits for buffer space when
+         *           [overflowPolicy] makes it wait. The event is discarded afterwards.
+         * @property shutdownTimeout Longest time closing the context waits for buffered events to be written.
+         * @property batch Thresholds for grouping events handed to [BatchAppender]s.
+         */
+        public data class AsyncProperties
+            @ConstructorBinding
+            constructor(
+                @DefaultValue("false")
+                val enabled: Boolean = false,
+                @DefaultValue("8192")
+                val bufferSize: Int = 8192,
+                @DefaultValue("BLOCKING")
+                val waitStrategy: AsyncWaitStrategy = AsyncWaitStrategy.BLOCKING,
+                @DefaultValue("DROP_NON_ERRORS")
+                val overflowPolicy: AsyncOverflowPolicy = AsyncOverflowPolicy.DROP_NON_ERRORS,
+                @DefaultValue("100ms")
+                val blockTimeout: Duration = Duration.ofMillis(100),
+                @DefaultValue("5s")
+                val shutdownTimeout: Duration = Duration.ofSeconds(5),
+                @DefaultValue
+                val batch: BatchProperties = BatchProperties(),
+            )
+
+        /**
+         * Batch delivery thresholds for the asynchronous writer thread.
+         *
+         * The writer collects events into a batch and delivers it once it holds [maxSize] events or
+         * [maxDelay] has passed since its first event, whichever comes first; closing the context
+         * delivers a partial batch immediately. [BatchAppender]s receive each batch in one call;
+         * other appenders receive its events one at a time.
+         *
+         * @property maxSize Maximum number of events per batch. 1 disables batching.
+         * @property maxDelay Longest time an event waits in a partial batch.
+         */
+        public data class BatchProperties
+            @ConstructorBinding
+            constructor(
+                @DefaultValue("128")
+                val maxSize: Int = 128,
+                @DefaultValue("100ms")
+                val maxDelay: Duration = Duration.ofMillis(100),
+            )
+
+        /**
+         * Sampling properties.
+         *
+         * Sampling runs after the URL filters and before any event data is extracted, so a request that
+         * is sampled out costs a few comparisons. Requests whose status is in [keepStatuses] or that took
+         * at least [keepSlowerThan] are always logged; the others are logged at the rate of the first rule
+         * whose URL pattern matches, or at [defaultRate] when none does.
+         *
+         * @property enabled Whether to sample requests.
+         * @property defaultRate Share of requests logged when no rule matches, from 0.0 to 1.0.
+         * @property rules Per-URL rates, checked in order. The first matching rule applies.
+         * @property keepStatuses Status codes always logged, as single codes ("429"), classes ("5xx"),
+         *           or inclusive ranges ("400-599").
+         * @property keepSlowerThan Requests taking at least this long are always logged. Null disables the check.
+         * @property keyHeader Request header whose value decides the sampling, so every node keeps the same
+         *           requests for a given value. For "traceparent", only the trace ID is used. When null, or when
+         *           a request lacks the header, requests are sampled at random.
+         */
+        public data class SamplingProperties
+            @ConstructorBinding
+            constructor(
+                @DefaultValue("false")
+                val enabled: Boolean = false,
+                @DefaultValue("1.0")
+                val defaultRate: Double = 1.0,
+                val rules: List<SamplingRule> = emptyList(),
+                @DefaultValue("400-599")
+                val keepStatuses: List<String> = listOf("400-599"),
+                val keepSlowerThan: Duration? = null,
+                val keyHeader: String? = null,
+            )
+
+        /**
+         * Sampling rate for the requests matching a URL pattern.
+         *
+         * @property urlPattern Regex pattern matched against the request URI, like the URL filter patterns.
+         * @property rate Share of matching requests logged, from 0.0 to 1.0.
+         */
+        public data class SamplingRule(
+            val urlPattern: String,
+            val rate: Double,
+        )
+
+        /**
+         * Aggregation properties.
+         *
+         * A request accepted by the filters whose URI matches one of the [routes] is not logged on its
+         * own: it is counted under its method, route, and status, and once per [window] one summary event
+         * per key goes through the Logback filter chain and appenders. Aggregation runs before sampling,
+         * so every accepted request is counted, and before any event data is extracted. A filter
+         * expression that reads fields only known after extraction moves it after extraction: those
+         * requests are then extracted and counted only when the expression accepts them.
+         *
+         * @property enabled Whether to aggregate the requests matching [routes].
+         * @property window Length of the period each summary covers.
+         * @property routes Routes aggregated instead of logged per request, checked in order. The first
+         *           matching route applies.
+         */
+        public data class AggregationProperties
+            @ConstructorBinding
+            constructor(
+                @DefaultValue("false")
+                val enabled: Boolean = false,
+                @DefaultValue("1m")
+                val window: Duration = Duration.ofMinutes(1),
+                val routes: List<AggregationRoute> = emptyList(),
+            )
+
+        /**
+         * Requests aggregated together.
+         *
+         * @property urlPattern Regex pattern matched against the request URI, like the URL filter patterns.
+         * @property name Route reported as the request URI of the summary events. Defaults to [urlPattern].
+         */
+        public data class AggregationRoute(
+            val urlPattern: String,
+            val name: String? = null,
+        )
+
+        /**
+         * Route properties.
+         *
+         * The route of a request is the handler pattern Spring MVC or WebFlux matched it with, such as
+         * `/api/users/{id}`. A request no handler matched (a static resource, a 404, a servlet outside the
+         * dispatcher) falls back to its URI with the numeric and UUID segments replaced by placeholders.
+         *
+         * @property normalize Whether to derive a route from the URI when no handler pattern is available.
+         *           When false, such requests have no route.
+         * @property numberPlaceholder Replacement for a path segment made only of decimal digits.
+         * @property uuidPlaceholder Replacement for a path segment in the canonical 8-4-4-4-12 hexadecimal UUID form.
+         */
+        public data class RouteProperties
+            @ConstructorBinding
+            constructor(
+                @DefaultValue("true")
+                val normalize: Boolean = true,
+                @DefaultValue("{id}")
+                val numberPlaceholder: String = "{id}",
+                @DefaultValue("{uuid}")
+                val uuidPlaceholder: String = "{uuid}",
+            )
+
         public companion object {
             /** Default configuration file locations searched in order. */
             @JvmField
@@ -0,0 +1,71 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * Bounded, lock-free multi-producer/single-consumer ring buffer.
+ *
+ * Each slot carries a sequence number (Vyukov's bounded queue): a producer claims the next
+ * position with a single CAS on the shared cursor, writes the element, and publishes it by
+ * advancing the slot sequence; the single consumer reads slots in order without any CAS.
+ * Neither side allocates or takes a lock.
+ *
+ * [poll] and [isEmpty] must only be called from the one consumer thread.
+ *
+ * @param requestedCapacity minimum number of slots; rounded up to the next power of two
+ */
+internal class MpscRingBuffer<E : Any>(
+    requestedCapacity: Int,
+) {
+    val capacity: Int = Integer.highestOneBit((requestedCapacity.coerceAtLeast(2) - 1) shl 1)
+
+    private val mask = capacity - 1L
+    private val elements = AtomicReferenceArray<E?>(capacity)
+    private val sequences = AtomicLongArray(capacity).apply { for (i in 0 until capacity) set(i, i.toLong()) }
+    private val producerCursor = AtomicLong()
+
+    /** Next position to read. Written only by the consumer thread. */
+    @Volatile
+    private var consumerCursor = 0L
+
+    /** Adds [element], or returns false without waiting when every slot is taken. */
+    fun offer(element: E): Boolean {
+        var position = producerCursor.get()
+        while (true) {
+            val index = (position and mask).toInt()
+            val available = sequences.get(index) - position
+            when {
+                available == 0L && producerCursor.compareAndSet(position, position + 1) -> {
+                    elements.lazySet(index, element)
+                    sequences.set(index, position + 1)
+                    return true
+                }
+
+                available < 0L -> return false
+
+                else -> position = producerCursor.get()
+            }
+        }
+    }
+
+    /** Removes and returns the oldest element, or null when none has been published yet. */
+    fun poll(): E? {
+        val position = consumerCursor
+        val index = (position and mask).toInt()
+        if (sequences.get(index) != position + 1) return null
+        val element = elements.get(index)
+        elements.lazySet(index, null)
+        sequences.set(index, position + capacity)
+        consumerCursor = position + 1
+        return element
+    }
+
+    /** Whether no published element is waiting for the consumer. */
+    fun isEmpty(): Boolean = sequences.get((consumerCursor and mask).toInt()) != consumerCursor + 1
+
+    /** Approximate number of claimed slots, for diagnostics. */
+    val size: Int
+        get() = (producerCursor.get() - consumerCursor).coerceIn(0, capacity.toLong()).toInt()
+}
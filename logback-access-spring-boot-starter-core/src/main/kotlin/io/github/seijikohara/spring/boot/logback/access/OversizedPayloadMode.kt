@@ -0,0 +1,15 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * How a captured body larger than the tee filter's maximum payload size is logged.
+ */
+public enum class OversizedPayloadMode {
+    /** Replaces the body with the `[CONTENT TOO LARGE]` sentinel. */
+    SUPPRESS,
+
+    /**
+     * Logs the first maximum-payload-size bytes, cut back to the last complete character in the body's
+     * charset, followed by a `[TRUNCATED: <size> BYTES]` marker holding the size of the whole body.
+     */
+    TRUNCATE,
+}
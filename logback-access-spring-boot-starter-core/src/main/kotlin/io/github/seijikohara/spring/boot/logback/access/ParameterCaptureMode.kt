@@ -0,0 +1,18 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * Strategy for capturing request parameters on Tomcat.
+ */
+public enum class ParameterCaptureMode {
+    /**
+     * Reads the parameters through the servlet API, which makes Tomcat parse the query string
+     * (and a form body for POST requests) at log time if the application never did.
+     */
+    PARSE,
+
+    /**
+     * Snapshots the parameters only if Tomcat has already parsed them while the application
+     * handled the request. Requests whose parameters were never read log an empty parameter map.
+     */
+    IF_PARSED,
+}
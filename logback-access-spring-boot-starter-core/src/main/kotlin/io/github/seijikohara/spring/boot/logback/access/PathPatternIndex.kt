@@ -0,0 +1,76 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import org.springframework.http.server.PathContainer
+import org.springframework.web.util.pattern.PathPattern
+import org.springframework.web.util.pattern.PathPatternParser
+import org.springframework.web.util.pattern.PatternParseException
+
+/**
+ * Spring [PathPattern]s parsed once and grouped by their literal leading segment.
+ *
+ * A pattern such as `/api/{version}/users` is only tried against paths whose first segment is
+ * `api`, so a request is checked against the few patterns sharing its first segment plus those
+ * whose first segment is a variable or wildcard, such as `/{tenant}/orders`. The request path
+ * is parsed into a [PathContainer] once by [parse] and shared by every index consulted for the
+ * request.
+ *
+ * spring-web is an optional dependency of the core module; its classes are only loaded once
+ * path patterns are configured.
+ */
+internal class PathPatternIndex private constructor(
+    private val byLeadingSegment: Map<String, Array<PathPattern>>,
+    private val unkeyed: Array<PathPattern>,
+) {
+    /** Returns true if at least one pattern matches the whole of [path]. */
+    fun matches(path: PathContainer): Boolean {
+        val candidates = leadingSegment(path)?.let(byLeadingSegment::get)
+        return (candidates != null && candidates.any { it.matches(path) }) || unkeyed.any { it.matches(path) }
+    }
+
+    companion object {
+        private const val SEPARATOR = '/'
+        private val WILDCARD_CHARS = charArrayOf('*', '?', '{')
+
+        /** Parses a request URI once for every index consulted for the request. */
+        fun parse(uri: String): PathContainer = PathContainer.parsePath(uri)
+
+        /**
+         * Parses [patterns] with the default [PathPatternParser].
+         *
+         * @throws IllegalArgumentException if a pattern cannot be parsed, naming it as a [kind] path pattern
+         */
+        fun compile(
+            patterns: List<String>,
+            kind: String,
+        ): PathPatternIndex {
+            val parsed = patterns.map { it to it.toPathPattern(kind) }
+            val (keyed, unkeyed) = parsed.partition { (pattern, _) -> literalLeadingSegment(pattern) != null }
+            return PathPatternIndex(
+                byLeadingSegment =
+                    keyed
+                        .groupBy({ (pattern, _) -> checkNotNull(literalLeadingSegment(pattern)) }, { it.second })
+                        .mapValues { (_, group) -> group.toTypedArray() },
+                unkeyed = unkeyed.map { it.second }.toTypedArray(),
+            )
+        }
+
+        /** First path segment of [path], decoded as [PathPattern] compares it, or null for the root path. */
+        private fun leadingSegment(path: PathContainer): String? =
+            (path.elements().getOrNull(1) as? PathContainer.PathSegment)?.valueToMatch()
+
+        /** First segment of [pattern] when it is plain text, or null when it can match more than one value. */
+        private fun literalLeadingSegment(pattern: String): String? =
+            pattern
+                .takeIf { it.startsWith(SEPARATOR) }
+                ?.substring(1)
+                ?.substringBefore(SEPARATOR)
+                ?.takeIf { it.isNotEmpty() && it.indexOfAny(WILDCARD_CHARS) < 0 }
+
+        private fun String.toPathPattern(kind: String): PathPattern =
+            try {
+                PathPatternParser.defaultInstance.parse(this)
+            } catch (e: PatternParseException) {
+                throw IllegalArgumentException("Invalid $kind path pattern: '$this'", e)
+            }
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.pattern.AccessConverter
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.access.common.spi.IAccessEvent.NA
+
+/**
+ * Outputs the route of a [RoutedAccessEvent], or "-" for any other event.
+ *
+ * Register it under a conversion word in the Logback-access configuration:
+ * ```xml
+ * <conversionRule conversionWord="route"
+ *                 converterClass="io.github.seijikohara.spring.boot.logback.access.RouteConverter"/>
+ * ```
+ * The route is always captured, so using `%route` does not widen the [CapturePlan].
+ */
+public class RouteConverter : AccessConverter() {
+    override fun convert(event: IAccessEvent): String = (event as? RoutedAccessEvent)?.getRoute() ?: NA
+}
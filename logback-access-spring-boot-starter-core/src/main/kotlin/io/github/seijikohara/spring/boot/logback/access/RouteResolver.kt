@@ -0,0 +1,74 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.RouteProperties
+
+/**
+ * Resolves the [AccessEventData.route] of a request from its handler pattern or its URI.
+ *
+ * The fallback normalization scans the URI once, segment by segment, and only allocates when a
+ * segment is replaced, so requests whose URI holds no identifier keep the server's own string.
+ */
+public class RouteResolver(
+    properties: RouteProperties,
+) {
+    private val normalize = properties.normalize
+    private val numberPlaceholder = properties.numberPlaceholder
+    private val uuidPlaceholder = properties.uuidPlaceholder
+
+    /**
+     * Returns [handlerPattern] when a handler matched the request. Otherwise returns [requestURI] with
+     * its numeric and UUID segments replaced by the configured placeholders, or null when
+     * [RouteProperties.normalize] is disabled or the URI is unknown.
+     */
+    public fun resolve(
+        handlerPattern: String?,
+        requestURI: String?,
+    ): String? = handlerPattern ?: requestURI?.takeIf { normalize }?.let(::normalize)
+
+    private fun normalize(uri: String): String {
+        var normalized: StringBuilder? = null
+        var copied = 0
+        var start = 0
+        while (start <= uri.length) {
+            val slash = uri.indexOf('/', start)
+            val end = if (slash < 0) uri.length else slash
+            val placeholder = placeholderFor(uri, start, end)
+            if (placeholder != null) {
+                val builder = normalized ?: StringBuilder(uri.length).also { normalized = it }
+                builder.append(uri, copied, start).append(placeholder)
+                copied = end
+            }
+            start = end + 1
+        }
+        return normalized?.append(uri, copied, uri.length)?.toString() ?: uri
+    }
+
+    private fun placeholderFor(
+        uri: String,
+        start: Int,
+        end: Int,
+    ): String? =
+        when {
+            start == end -> null
+            (start until end).all { uri[it] in '0'..'9' } -> numberPlaceholder
+            isUuid(uri, start, end) -> uuidPlaceholder
+            else -> null
+        }
+
+    /** Returns true if the segment is a UUID in the canonical 8-4-4-4-12 form, in either case. */
+    private fun isUuid(
+        uri: String,
+        start: Int,
+        end: Int,
+    ): Boolean =
+        end - start == UUID_LENGTH &&
+            (0 until UUID_LENGTH).all { offset ->
+                val char = uri[start + offset]
+                if (offset in UUID_DASHES) char == '-' else char in '0'..'9' || char in 'a'..'f' || char in 'A'..'F'
+            }
+
+    private companion object {
+        private const val UUID_LENGTH = 36
+        private val UUID_DASHES = intArrayOf(8, 13, 18, 23)
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+
+/**
+ * [IAccessEvent] that carries the route of its request, as resolved into [AccessEventData.route].
+ *
+ * Declared as a Java-style getter so that it reads like the [IAccessEvent] accessors and can be
+ * implemented next to a mutable field of the same name.
+ */
+public interface RoutedAccessEvent : IAccessEvent {
+    /** Route template of the request (e.g. "/api/users/{id}"), or "-" when none was resolved. */
+    public fun getRoute(): String
+}
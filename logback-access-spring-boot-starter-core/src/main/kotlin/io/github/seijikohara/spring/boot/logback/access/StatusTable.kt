@@ -0,0 +1,45 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+/**
+ * Set of HTTP status codes, looked up in a table indexed by status code so that a check does not allocate.
+ */
+internal class StatusTable private constructor(
+    private val table: BooleanArray,
+) {
+    /** Returns true if [status] is in the set. */
+    operator fun contains(status: Int): Boolean = status in 0..<STATUS_LIMIT && table[status]
+
+    companion object {
+        private const val STATUS_LIMIT = 1000
+        private const val STATUS_CLASS_SIZE = 100
+
+        private val STATUS_CLASS = Regex("""([1-9])xx""", RegexOption.IGNORE_CASE)
+        private val STATUS_RANGE = Regex("""(\d{3})(?:\s*-\s*(\d{3}))?""")
+
+        /**
+         * Compiles [specs] given as single codes ("429"), classes ("5xx"), or inclusive ranges ("400-599").
+         *
+         * @throws IllegalArgumentException if a spec matches none of these forms, naming it as a [kind]
+         */
+        fun compile(
+            specs: List<String>,
+            kind: String,
+        ): StatusTable =
+            StatusTable(
+                BooleanArray(STATUS_LIMIT).also { table ->
+                    specs.forEach { spec -> spec.toStatusRange(kind).forEach { table[it] = true } }
+                },
+            )
+
+        private fun String.toStatusRange(kind: String): IntRange {
+            val value = trim()
+            val statusClass = STATUS_CLASS.matchEntire(value)
+            val statusRange = STATUS_RANGE.matchEntire(value)
+            return when {
+                statusClass != null -> statusClass.groupValues[1].toInt().let { it * STATUS_CLASS_SIZE..<(it + 1) * STATUS_CLASS_SIZE }
+                statusRange != null -> statusRange.groupValues.let { (_, first, last) -> first.toInt()..last.ifEmpty { first }.toInt() }
+                else -> IntRange.EMPTY
+            }.also { require(!it.isEmpty()) { "Invalid $kind: '$this'" } }
+        }
+    }
+}
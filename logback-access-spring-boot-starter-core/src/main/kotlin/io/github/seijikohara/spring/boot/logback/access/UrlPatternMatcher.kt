@@ -0,0 +1,126 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import java.util.regex.PatternSyntaxException
+
+/**
+ * Matches a request URI against a set of URL patterns with the partial-match semantics of
+ * [Regex.containsMatchIn], without running one regex per pattern.
+ *
+ * [compile] sorts the patterns by what they actually need. Literal patterns anchored at both ends
+ * go to a hash set, literals anchored at the start or the end go to a prefix or suffix [LiteralTrie],
+ * and unanchored literals go to an Aho-Corasick [LiteralTrie]. A literal may escape metacharacters
+ * (`\.`), and a leading or trailing `.*` is dropped because it cannot change whether a partial match
+ * exists. Only the remaining true regexes are run, combined into a single alternation.
+ *
+ * Request URIs never contain line terminators, which is what makes treating `$` as the end of input
+ * and dropping `.*` exact.
+ */
+internal class UrlPatternMatcher private constructor(
+    private val exact: Set<String>,
+    private val prefixes: LiteralTrie,
+    /** Built from reversed literals, as [LiteralTrie.matchesEndOf] requires. */
+    private val suffixes: LiteralTrie,
+    private val infixes: LiteralTrie,
+    private val regexes: Array<Regex>,
+) {
+    /** Returns true if at least one pattern is found in [uri]. */
+    fun containsMatchIn(uri: String): Boolean =
+        uri in exact ||
+            prefixes.matchesStartOf(uri) ||
+            suffixes.matchesEndOf(uri) ||
+            infixes.containsAny(uri) ||
+            regexes.any { it.containsMatchIn(uri) }
+
+    /** A pattern that turned out to be a plain string, with the anchors it was written with. */
+    private class LiteralPattern(
+        val text: String,
+        val anchoredAtStart: Boolean,
+        val anchoredAtEnd: Boolean,
+    )
+
+    companion object {
+        private const val ANY_RUN = ".*"
+
+        /** A regex body made only of ordinary characters and escaped non-alphanumeric characters. */
+        private val LITERAL_BODY = Regex("""(?:[^\\.\[\]{}()*+?|^$]|\\[^\p{Alnum}])*""")
+        private val ESCAPED_CHAR = Regex("""\\(.)""")
+
+        /** Constructs whose meaning changes inside a combined alternation: backreferences and quoting. */
+        private val STANDALONE_CONSTRUCT = Regex("""\\(?:[1-9]|k<|Q)""")
+
+        /**
+         * Compiles [patterns] into one matcher.
+         *
+         * Every pattern is also compiled on its own first, so a syntax error is reported for the
+         * offending pattern, as [kind] URL pattern.
+         *
+         * @throws IllegalArgumentException if a pattern is not a valid regex
+         */
+        fun compile(
+            patterns: List<String>,
+            kind: String,
+        ): UrlPatternMatcher {
+            val exact = hashSetOf<String>()
+            val prefixes = mutableListOf<String>()
+            val suffixes = mutableListOf<String>()
+            val infixes = mutableListOf<String>()
+            val regexes = mutableListOf<Pair<String, Regex>>()
+            patterns.forEach { pattern ->
+                val regex = pattern.toValidRegex(kind)
+                val literal = pattern.toLiteralPattern()
+                when {
+                    literal == null -> regexes += pattern to regex
+                    literal.anchoredAtStart && literal.anchoredAtEnd -> exact += literal.text
+                    literal.anchoredAtStart -> prefixes += literal.text
+                    literal.anchoredAtEnd -> suffixes += literal.text.reversed()
+                    else -> infixes += literal.text
+                }
+            }
+            return UrlPatternMatcher(
+                exact = exact,
+                prefixes = LiteralTrie.of(prefixes),
+                suffixes = LiteralTrie.of(suffixes),
+                infixes = LiteralTrie.of(infixes),
+                regexes = combine(regexes),
+            )
+        }
+
+        private fun String.toLiteralPattern(): LiteralPattern? {
+            var anchoredAtStart = startsWith('^')
+            var anchoredAtEnd = endsWith('$')
+            var body = substring(if (anchoredAtStart) 1 else 0, if (anchoredAtEnd) length - 1 else length)
+            if (body.startsWith(ANY_RUN)) {
+                body = body.removePrefix(ANY_RUN)
+                anchoredAtStart = false
+            }
+            if (body.endsWith(ANY_RUN)) {
+                body = body.removeSuffix(ANY_RUN)
+                anchoredAtEnd = false
+            }
+            // An escaped "$" or "." stripped above leaves a dangling backslash, which LITERAL_BODY rejects.
+            return body
+                .takeIf(LITERAL_BODY::matches)
+                ?.let { LiteralPattern(ESCAPED_CHAR.replace(it) { match -> match.groupValues[1] }, anchoredAtStart, anchoredAtEnd) }
+        }
+
+        /**
+         * Joins [patterns] into one alternation. Patterns using constructs that depend on their
+         * position stay separate, as do all of them when the alternation does not compile
+         * (for example, two patterns declaring the same named group).
+         */
+        private fun combine(patterns: List<Pair<String, Regex>>): Array<Regex> {
+            val (standalone, combinable) = patterns.partition { (pattern, _) -> STANDALONE_CONSTRUCT.containsMatchIn(pattern) }
+            val combined =
+                when (combinable.size) {
+                    0, 1 -> combinable.map { it.second }
+                    else ->
+                        try {
+                            listOf(Regex(combinable.joinToString("|") { "(?:${it.first})" }))
+                        } catch (_: PatternSyntaxException) {
+                            combinable.map { it.second }
+                        }
+                }
+            return (combined + standalone.map { it.second }).toTypedArray()
+        }
+    }
+}
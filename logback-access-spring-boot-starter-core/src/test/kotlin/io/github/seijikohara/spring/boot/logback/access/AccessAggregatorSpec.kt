@@ -0,0 +1,161 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import io.github.seijikohara.spring.boot.logback.access.AccessAggregator.Companion.BYTES_ATTRIBUTE
+import io.github.seijikohara.spring.boot.logback.access.AccessAggregator.Companion.COUNT_ATTRIBUTE
+import io.github.seijikohara.spring.boot.logback.access.AccessAggregator.Companion.ELAPSED_MAX_ATTRIBUTE
+import io.github.seijikohara.spring.boot.logback.access.AccessAggregator.Companion.HISTOGRAM_ATTRIBUTE
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.AggregationProperties
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.AggregationRoute
+import io.kotest.assertions.assertSoftly
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class AccessAggregatorSpec :
+    FunSpec({
+        test("folds requests into one summary per method, route, and status") {
+            val aggregator = aggregator(AggregationRoute("^/api/users/", "/api/users/{id}"), AggregationRoute("^/internal/"))
+            val summaries = CopyOnWriteArrayList<IAccessEvent>()
+            aggregator.start(summaries::add)
+
+            try {
+                assertSoftly {
+                    aggregator.aggregate(request("/api/users/1", elapsedTime = 4L, contentLength = 100L)) shouldBe true
+                    aggregator.aggregate(request("/api/users/2", elapsedTime = 40L, contentLength = 50L)) shouldBe true
+                    aggregator.aggregate(request("/api/users/3", statusCode = 404, contentLength = -1L)) shouldBe true
+                    aggregator.aggregate(request("/internal/metrics", method = "POST")) shouldBe true
+                    aggregator.aggregate(request("/public")) shouldBe false
+                }
+                aggregator.flush()
+
+                summaries shouldHaveSize 3
+                val users = summaries.single { it.requestURI == "/api/users/{id}" && it.statusCode == 200 }
+                assertSoftly {
+                    users.method shouldBe "GET"
+                    users.contentLength shouldBe 150L
+                    users.elapsedTime shouldBe 22L
+                    users.getAttribute(COUNT_ATTRIBUTE) shouldBe "2"
+                    users.getAttribute(BYTES_ATTRIBUTE) shouldBe "150"
+                    users.getAttribute(ELAPSED_MAX_ATTRIBUTE) shouldBe "40"
+                    users.getAttribute(HISTOGRAM_ATTRIBUTE) shouldBe
+                        "5=1,10=0,25=0,50=1,100=0,250=0,500=0,1000=0,2500=0,5000=0,10000=0,+Inf=0"
+                    summaries.single { it.statusCode == 404 }.getAttribute(BYTES_ATTRIBUTE) shouldBe "0"
+                    summaries.single { it.method == "POST" }.requestURI shouldBe "^/internal/"
+                }
+            } finally {
+                aggregator.close()
+            }
+        }
+
+        test("starts every window from zero and skips keys without traffic") {
+            val aggregator = aggregator(AggregationRoute("^/api/"))
+            val summaries = CopyOnWriteArrayList<IAccessEvent>()
+            aggregator.start(summaries::add)
+
+            try {
+                aggregator.aggregate(request("/api/a"))
+                aggregator.flush()
+                summaries.clear()
+                aggregator.flush()
+
+                summaries.shouldBeEmpty()
+            } finally {
+                aggregator.close()
+            }
+        }
+
+        test("counts every request recorded concurrently") {
+            val aggregator = aggregator(AggregationRoute("^/api/"))
+            val summaries = CopyOnWriteArrayList<IAccessEvent>()
+            aggregator.start(summaries::add)
+            val executor = Executors.newFixedThreadPool(8)
+
+            try {
+                repeat(8) { executor.execute { repeat(10_000) { aggregator.aggregate(request("/api/a", contentLength = 2L)) } } }
+                executor.shutdown()
+                executor.awaitTermination(10, TimeUnit.SECONDS) shouldBe true
+                aggregator.flush()
+
+                assertSoftly {
+                    summaries.single().getAttribute(COUNT_ATTRIBUTE) shouldBe "80000"
+                    summaries.single().contentLength shouldBe 160_000L
+                }
+            } finally {
+                aggregator.close()
+            }
+        }
+
+        test("emits the partial window on close") {
+            val aggregator = aggregator(AggregationRoute("^/api/"))
+            val summaries = CopyOnWriteArrayList<IAccessEvent>()
+            aggregator.start(summaries::add)
+
+            aggregator.aggregate(request("/api/a"))
+            aggregator.close()
+
+            summaries shouldHaveSize 1
+        }
+
+        test("folds methods beyond the per-route limit into one key") {
+            val aggregator = aggregator(AggregationRoute("^/api/"))
+            val summaries = CopyOnWriteArrayList<IAccessEvent>()
+            aggregator.start(summaries::add)
+
+            try {
+                (1..40).forEach { aggregator.aggregate(request("/api/a", method = "M$it")) }
+                aggregator.flush()
+
+                assertSoftly {
+                    summaries shouldHaveSize 33
+                    summaries.single { it.method == AccessAggregator.OTHER_METHOD }.getAttribute(COUNT_ATTRIBUTE) shouldBe "8"
+                }
+            } finally {
+                aggregator.close()
+            }
+        }
+
+        test("rejects an invalid route pattern or window") {
+            assertSoftly {
+                shouldThrow<IllegalArgumentException> {
+                    aggregator(AggregationRoute("[oops"))
+                }.message shouldContain "Invalid aggregation URL pattern: '[oops'"
+                shouldThrow<IllegalArgumentException> {
+                    AccessAggregator(AggregationProperties(enabled = true, window = Duration.ZERO))
+                }.message shouldContain "Invalid aggregation window"
+            }
+        }
+    })
+
+private fun aggregator(vararg routes: AggregationRoute): AccessAggregator =
+    AccessAggregator(AggregationProperties(enabled = true, window = Duration.ofHours(1), routes = routes.toList()))
+
+private fun request(
+    requestURI: String,
+    method: String = "GET",
+    statusCode: Int = 200,
+    elapsedTime: Long = 10L,
+    contentLength: Long = 0L,
+): AccessRequestView =
+    object : AccessRequestView {
+        override val requestURI: String = requestURI
+
+        override val method: String = method
+
+        override val statusCode: Int = statusCode
+
+        override val elapsedTime: Long = elapsedTime
+
+        override val contentLength: Long = contentLength
+
+        override val remoteAddr: String = "127.0.0.1"
+
+        override fun requestHeader(name: String): String? = null
+    }
@@ -90,6 +90,27 @@ class AccessEventDataSpec :
             deserialized.requestParameterArrayMap["key"] shouldBe arrayOf("v1", "v2")
         }
 
+        test("captured content is serialized as decoded text") {
+            val original =
+                TestAccessEventDataFactory.createMinimalData().copy(
+                    capturedRequestContent = CapturedContent("テスト".toByteArray(Charsets.UTF_8), Charsets.UTF_8),
+                    capturedResponseContent = CapturedContent.ofText("response body"),
+                )
+
+            val baos = ByteArrayOutputStream()
+            ObjectOutputStream(baos).use { it.writeObject(original) }
+
+            val bais = ByteArrayInputStream(baos.toByteArray())
+            val deserialized = ObjectInputStream(bais).use { it.readObject() as AccessEventData }
+
+            assertSoftly {
+                deserialized.requestContent shouldBe "テスト"
+                deserialized.responseContent shouldBe "response body"
+                deserialized.capturedRequestContent shouldBe null
+                deserialized.capturedResponseContent shouldBe null
+            }
+        }
+
         test("copy creates independent instance") {
             val original = TestAccessEventDataFactory.createTestData()
             val copied = original.copy(statusCode = 404)
@@ -0,0 +1,45 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.AccessContext
+import ch.qos.logback.core.spi.FilterReply
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+
+class AccessExpressionFilterSpec :
+    FunSpec({
+        test("replies onMatch to matching events and onMismatch to the others") {
+            val filter =
+                filter("uri ~ '^/test' && contentLength > 10").apply {
+                    onMatch = FilterReply.DENY
+                    onMismatch = FilterReply.ACCEPT
+                    start()
+                }
+
+            assertSoftly {
+                filter.isStarted shouldBe true
+                filter.decide(LogbackAccessEvent(TestAccessEventDataFactory.createTestData())) shouldBe FilterReply.DENY
+                filter.decide(LogbackAccessEvent(TestAccessEventDataFactory.createMinimalData())) shouldBe FilterReply.ACCEPT
+            }
+        }
+
+        test("stays stopped and reports an invalid expression") {
+            val filter = filter("status >").apply { start() }
+
+            assertSoftly {
+                filter.isStarted shouldBe false
+                filter.decide(LogbackAccessEvent(TestAccessEventDataFactory.createTestData())) shouldBe FilterReply.NEUTRAL
+                val errors = filter.context.statusManager.copyOfStatusList
+                errors shouldHaveSize 1
+                errors.single().message shouldContain "Invalid access expression 'status >'"
+            }
+        }
+    })
+
+private fun filter(expression: String): AccessExpressionFilter =
+    AccessExpressionFilter().also {
+        it.context = AccessContext()
+        it.expression = expression
+    }
@@ -0,0 +1,133 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.kotest.assertions.assertSoftly
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.assertions.withClue
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+
+class AccessExpressionSpec :
+    FunSpec({
+        context("on the live request") {
+            test("combines numeric, text, and pattern comparisons") {
+                val expression = AccessExpression.compile("status >= 500 || elapsed > 1000 || header('User-Agent') ~ 'kube-probe'")
+
+                assertSoftly {
+                    expression.isCheap shouldBe true
+                    expression.test(view(statusCode = 503)) shouldBe true
+                    expression.test(view(elapsedTime = 1001L)) shouldBe true
+                    expression.test(view(headers = mapOf("User-Agent" to "kube-probe/1.30"))) shouldBe true
+                    expression.test(view(headers = mapOf("User-Agent" to "curl/8.0"))) shouldBe false
+                    expression.test(view()) shouldBe false
+                }
+            }
+
+            test("applies precedence, negation, and parentheses") {
+                val cases =
+                    mapOf(
+                        "status == 200 || status == 404 && method == 'POST'" to true,
+                        "(status == 200 || status == 404) && method == 'POST'" to false,
+                        "!(method == 'POST') && !status != 200" to true,
+                        "uri ~ '^/api/' && uri !~ '/internal'" to true,
+                        "200 == status" to true,
+                    )
+
+                assertSoftly {
+                    cases.forEach { (source, expected) ->
+                        withClue(source) { AccessExpression.compile(source).test(view()) shouldBe expected }
+                    }
+                }
+            }
+
+            test("treats a missing value as equal to nothing and matching no pattern") {
+                assertSoftly {
+                    AccessExpression.compile("header('X-Synthetic') == 'true'").test(view()) shouldBe false
+                    AccessExpression.compile("header('X-Synthetic') != 'true'").test(view()) shouldBe true
+                    AccessExpression.compile("header('X-Synthetic') ~ '.*'").test(view()) shouldBe false
+                    AccessExpression.compile("header('X-Synthetic') !~ 'x'").test(view()) shouldBe true
+                }
+            }
+        }
+
+        context("on extracted events") {
+            test("reads every field, including those not available before extraction") {
+                val event = LogbackAccessEvent(TestAccessEventDataFactory.createTestData())
+                val expression =
+                    AccessExpression.compile(
+                        "protocol == 'HTTP/1.1' && query ~ 'foo=bar' && contentLength == 13 && " +
+                            "responseHeader('Content-Type') ~ '^text/' && cookie('session') == 'abc123' && param('foo') == 'bar'",
+                    )
+
+                assertSoftly {
+                    expression.isCheap shouldBe false
+                    expression.test(event) shouldBe true
+                    AccessExpression.compile("header('Host') == 'localhost' && status == 200").test(event) shouldBe true
+                    AccessExpression.compile("cookie('missing') == '-'").test(event) shouldBe false
+                    AccessExpression.compile("remoteAddr == \"127.0.0.1\"").test(event) shouldBe true
+                }
+            }
+
+            test("reads remoteAddr from the event, as the logged client address") {
+                AccessExpression.compile("remoteAddr == '10.0.0.1' && status == 200").isCheap shouldBe false
+            }
+
+            test("lists the event fields it reads") {
+                val expression = AccessExpression.compile("header('X-Trace') == 'a' || cookie('id') ~ 'b' || param('q') != 'c'")
+
+                expression.capturePlan shouldBe
+                    CapturePlan.NONE.copy(
+                        requestHeaders = FieldSelection(setOf("x-trace")),
+                        cookies = FieldSelection(setOf("id")),
+                        requestParameters = FieldSelection(setOf("q")),
+                    )
+            }
+        }
+
+        context("reports invalid expressions with their position") {
+            val cases =
+                mapOf(
+                    "status > 'x'" to "cannot compare a number with text at position 8",
+                    "uri < 'b'" to "'<' cannot compare text at position 5",
+                    "status ~ '5..'" to "'~' needs a text value on the left",
+                    "uri ~ method" to "'~' needs a text value on the left",
+                    "uri ~ '[oops'" to "invalid pattern '[oops'",
+                    "bytes > 10" to "unknown field 'bytes' at position 1",
+                    "status" to "expected a comparison operator but found 'end of expression' at position 7",
+                    "(status == 200" to "expected ')' but found 'end of expression'",
+                    "header(Host) == 'a'" to "expected a quoted name but found 'Host'",
+                    "uri == 'open" to "unterminated string at position 8",
+                    "status = 200" to "unexpected '=' at position 8",
+                    "status == 200 status" to "unexpected 'status' at position 15",
+                    "status == 99999999999999999999" to "number '99999999999999999999' is too large",
+                )
+            cases.forEach { (source, message) ->
+                test(source) {
+                    shouldThrow<IllegalArgumentException> {
+                        AccessExpression.compile(source)
+                    }.message shouldContain message
+                }
+            }
+        }
+    })
+
+private fun view(
+    statusCode: Int = 200,
+    elapsedTime: Long = 10L,
+    headers: Map<String, String> = emptyMap(),
+): AccessRequestView =
+    object : AccessRequestView {
+        override val requestURI: String = "/api/users"
+
+        override val method: String = "GET"
+
+        override val statusCode: Int = statusCode
+
+        override val elapsedTime: Long = elapsedTime
+
+        override val contentLength: Long = 0L
+
+        override val remoteAddr: String = "127.0.0.1"
+
+        override fun requestHeader(name: String): String? = headers[name]
+    }
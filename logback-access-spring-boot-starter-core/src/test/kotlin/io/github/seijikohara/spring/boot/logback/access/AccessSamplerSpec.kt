@@ -0,0 +1,120 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.SamplingProperties
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.SamplingRule
+import io.kotest.assertions.assertSoftly
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.doubles.plusOrMinus
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import java.time.Duration
+
+class AccessSamplerSpec :
+    FunSpec({
+        test("keeps the configured status codes, classes, and ranges at any rate") {
+            val sampler = AccessSampler(SamplingProperties(defaultRate = 0.0, keepStatuses = listOf("302", "4xx", "500-502")))
+
+            assertSoftly {
+                sampler.shouldSample(request(statusCode = 302)) shouldBe true
+                sampler.shouldSample(request(statusCode = 404)) shouldBe true
+                sampler.shouldSample(request(statusCode = 502)) shouldBe true
+                sampler.shouldSample(request(statusCode = 503)) shouldBe false
+                sampler.shouldSample(request(statusCode = 200)) shouldBe false
+            }
+        }
+
+        test("keeps requests at or above the latency threshold") {
+            val sampler = AccessSampler(SamplingProperties(defaultRate = 0.0, keepSlowerThan = Duration.ofMillis(250)))
+
+            assertSoftly {
+                sampler.shouldSample(request(elapsedTime = 250L)) shouldBe true
+                sampler.shouldSample(request(elapsedTime = 249L)) shouldBe false
+            }
+        }
+
+        test("uses the rate of the first matching rule and the default rate otherwise") {
+            val sampler =
+                AccessSampler(
+                    SamplingProperties(
+                        defaultRate = 1.0,
+                        rules = listOf(SamplingRule("^/health", 0.0), SamplingRule("^/", 0.5)),
+                    ),
+                )
+
+            assertSoftly {
+                sampler.shouldSample(request(requestURI = "/health/live")) shouldBe false
+                sampler.shouldSample(request(requestURI = "other")) shouldBe true
+            }
+        }
+
+        test("samples at roughly the configured rate") {
+            val sampler = AccessSampler(SamplingProperties(defaultRate = 0.25))
+
+            val kept = (1..20_000).count { sampler.shouldSample(request()) }
+
+            kept / 20_000.0 shouldBe (0.25 plusOrMinus 0.02)
+        }
+
+        test("makes the same decision for the same key header value") {
+            val properties = SamplingProperties(defaultRate = 0.5, keyHeader = "X-Request-Id")
+            val first = AccessSampler(properties)
+            val second = AccessSampler(properties)
+
+            val requests = (1..200).map { request(headers = mapOf("X-Request-Id" to "request-$it")) }
+            val decisions = requests.map(first::shouldSample)
+
+            requests.map(second::shouldSample) shouldBe decisions
+            decisions.count { it } / 200.0 shouldBe (0.5 plusOrMinus 0.1)
+        }
+
+        test("keys traceparent on the trace ID so every hop decides alike") {
+            val sampler = AccessSampler(SamplingProperties(defaultRate = 0.5, keyHeader = "traceparent"))
+
+            val decisions =
+                (1..100).map { traceId ->
+                    val id = traceId.toString().padStart(32, '0')
+                    listOf("00-$id-00f067aa0ba902b7-01", "00-$id-53995c3f42cd8ad8-01")
+                        .map { sampler.shouldSample(request(headers = mapOf("traceparent" to it))) }
+                        .distinct()
+                }
+
+            decisions.all { it.size == 1 } shouldBe true
+        }
+
+        test("rejects malformed keep statuses and rule rates") {
+            assertSoftly {
+                shouldThrow<IllegalArgumentException> {
+                    AccessSampler(SamplingProperties(keepStatuses = listOf("5x")))
+                }.message shouldContain "5x"
+                shouldThrow<IllegalArgumentException> {
+                    AccessSampler(SamplingProperties(keepStatuses = listOf("599-500")))
+                }.message shouldContain "599-500"
+                shouldThrow<IllegalArgumentException> {
+                    AccessSampler(SamplingProperties(rules = listOf(SamplingRule("/api", -0.1))))
+                }.message shouldContain "/api"
+            }
+        }
+    })
+
+private fun request(
+    requestURI: String = "/api/users",
+    statusCode: Int = 200,
+    elapsedTime: Long = 10L,
+    headers: Map<String, String> = emptyMap(),
+): AccessRequestView =
+    object : AccessRequestView {
+        override val requestURI: String = requestURI
+
+        override val method: String = "GET"
+
+        override val statusCode: Int = statusCode
+
+        override val elapsedTime: Long = elapsedTime
+
+        override val contentLength: Long = 0L
+
+        override val remoteAddr: String = "127.0.0.1"
+
+        override fun requestHeader(name: String): String? = headers[name]
+    }
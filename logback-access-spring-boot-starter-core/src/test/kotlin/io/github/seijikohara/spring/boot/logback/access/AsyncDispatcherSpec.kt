@@ -0,0 +1,161 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.AsyncProperties
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.BatchProperties
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.shouldBe
+import java.time.Duration
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class AsyncDispatcherSpec :
+    FunSpec({
+        AsyncWaitStrategy.entries.forEach { strategy ->
+            test("delivers every queued event on the writer thread with the $strategy strategy") {
+                val threads = Collections.synchronizedSet(mutableSetOf<String>())
+                val delivered = Collections.synchronizedList(mutableListOf<String>())
+                val dispatcher =
+                    AsyncDispatcher(
+                        AsyncProperties(
+                            enabled = true,
+                            bufferSize = 64,
+                            waitStrategy = strategy,
+                            overflowPolicy = AsyncOverflowPolicy.BLOCK,
+                            blockTimeout = Duration.ofSeconds(10),
+                        ),
+                    ) { batch ->
+                        threads += Thread.currentThread().name
+                        batch.forEach { delivered += it.requestURI }
+                    }
+
+                (1..500).forEach { dispatcher.enqueue(event("/api/$it", 200)) }
+                dispatcher.close()
+
+                delivered shouldContainExactly (1..500).map { "/api/$it" }
+                threads shouldBe setOf("logback-access-writer")
+            }
+        }
+
+        test("drops the newest event when the buffer is full") {
+            val writer = BlockedWriter()
+            val dispatcher =
+                AsyncDispatcher(
+                    AsyncProperties(enabled = true, bufferSize = 2, overflowPolicy = AsyncOverflowPolicy.DROP_NEWEST),
+                    writer::deliver,
+                )
+
+            // The writer takes the first event and blocks, so the next two fill the buffer.
+            dispatcher.enqueue(event("/first", 200))
+            writer.awaitFirstEvent()
+            (1..10).forEach { dispatcher.enqueue(event("/$it", 200)) }
+            writer.release()
+            dispatcher.close()
+
+            writer.delivered shouldHaveSize 3
+            dispatcher.droppedEventCount shouldBe 8L
+        }
+
+        test("keeps error events and drops successful ones when the buffer is full") {
+            val writer = BlockedWriter()
+            val dispatcher =
+                AsyncDispatcher(
+                    AsyncProperties(
+                        enabled = true,
+                        bufferSize = 2,
+                        overflowPolicy = AsyncOverflowPolicy.DROP_NON_ERRORS,
+                        blockTimeout = Duration.ofSeconds(10),
+                    ),
+                    writer::deliver,
+                )
+
+            dispatcher.enqueue(event("/first", 200))
+            writer.awaitFirstEvent()
+            dispatcher.enqueue(event("/a", 200))
+            dispatcher.enqueue(event("/b", 200))
+            dispatcher.enqueue(event("/dropped", 200))
+            val errorThread = Thread.ofPlatform().start { dispatcher.enqueue(event("/error", 503)) }
+            Thread.sleep(100)
+            writer.release()
+            errorThread.join()
+            dispatcher.close()
+
+            writer.delivered shouldContainExactly listOf(200, 200, 200, 503)
+            dispatcher.droppedEventCount shouldBe 1L
+        }
+
+        test("delivers batches of at most the configured size") {
+            val sizes = Collections.synchronizedList(mutableListOf<Int>())
+            val dispatcher =
+                AsyncDispatcher(
+                    AsyncProperties(
+                        enabled = true,
+                        overflowPolicy = AsyncOverflowPolicy.BLOCK,
+                        batch = BatchProperties(maxSize = 10, maxDelay = Duration.ofSeconds(10)),
+                    ),
+                ) { batch -> sizes += batch.size }
+
+            repeat(95) { dispatcher.enqueue(event("/api/$it", 200)) }
+            dispatcher.close()
+
+            sizes.sum() shouldBe 95
+            sizes.max() shouldBe 10
+        }
+
+        test("delivers a partial batch once the maximum delay has passed") {
+            val delivered = CountDownLatch(1)
+            val dispatcher =
+                AsyncDispatcher(
+                    AsyncProperties(enabled = true, batch = BatchProperties(maxSize = 100, maxDelay = Duration.ofMillis(50))),
+                ) { delivered.countDown() }
+
+            try {
+                dispatcher.enqueue(event("/api/users", 200))
+
+                delivered.await(5, TimeUnit.SECONDS) shouldBe true
+            } finally {
+                dispatcher.close()
+            }
+        }
+
+        test("discards events enqueued after close") {
+            val delivered = Collections.synchronizedList(mutableListOf<String>())
+            val dispatcher = AsyncDispatcher(AsyncProperties(enabled = true)) { batch -> batch.forEach { delivered += it.requestURI } }
+
+            dispatcher.close()
+            dispatcher.enqueue(event("/late", 200))
+
+            delivered shouldHaveSize 0
+            dispatcher.droppedEventCount shouldBe 1L
+        }
+    })
+
+/** Appender stand-in that blocks on its first batch until [release] is called. */
+private class BlockedWriter {
+    private val firstEvent = CountDownLatch(1)
+    private val gate = CountDownLatch(1)
+    val delivered: MutableList<Int> = Collections.synchronizedList(mutableListOf())
+
+    fun deliver(batch: List<IAccessEvent>) {
+        firstEvent.countDown()
+        gate.await(10, TimeUnit.SECONDS)
+        batch.forEach { delivered += it.statusCode }
+    }
+
+    fun awaitFirstEvent() {
+        firstEvent.await(10, TimeUnit.SECONDS)
+    }
+
+    fun release() = gate.countDown()
+}
+
+private fun event(
+    requestURI: String,
+    statusCode: Int,
+): IAccessEvent =
+    LogbackAccessEvent(
+        TestAccessEventDataFactory.createMinimalData().copy(requestURI = requestURI, statusCode = statusCode),
+    )
@@ -0,0 +1,68 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.core.filter.Filter
+import ch.qos.logback.core.spi.FilterReply
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.shouldBe
+
+class BatchAppenderBaseSpec :
+    FunSpec({
+        test("passes a filtered batch to appendBatch in one call") {
+            val appender =
+                RecordingBatchAppender().apply {
+                    addFilter(denyStatus(404))
+                    start()
+                }
+
+            appender.doAppendBatch(listOf(event(200), event(404), event(500)))
+
+            appender.batches.map { batch -> batch.map { it.statusCode } } shouldContainExactly listOf(listOf(200, 500))
+        }
+
+        test("skips appendBatch when every event is filtered out") {
+            val appender =
+                RecordingBatchAppender().apply {
+                    addFilter(denyStatus(404))
+                    start()
+                }
+
+            appender.doAppendBatch(listOf(event(404)))
+
+            appender.batches.shouldBeEmpty()
+        }
+
+        test("ignores batches until started") {
+            val appender = RecordingBatchAppender()
+
+            appender.doAppendBatch(listOf(event(200)))
+
+            appender.batches.shouldBeEmpty()
+        }
+
+        test("passes single events on as one-element batches") {
+            val appender = RecordingBatchAppender().apply { start() }
+
+            appender.doAppend(event(200))
+
+            appender.batches.single().size shouldBe 1
+        }
+    })
+
+private class RecordingBatchAppender : BatchAppenderBase<IAccessEvent>() {
+    val batches = mutableListOf<List<IAccessEvent>>()
+
+    override fun appendBatch(events: List<IAccessEvent>) {
+        batches += events
+    }
+}
+
+private fun denyStatus(status: Int): Filter<IAccessEvent> =
+    object : Filter<IAccessEvent>() {
+        override fun decide(event: IAccessEvent): FilterReply = if (event.statusCode == status) FilterReply.DENY else FilterReply.NEUTRAL
+    }.apply { start() }
+
+private fun event(statusCode: Int): IAccessEvent =
+    LogbackAccessEvent(TestAccessEventDataFactory.createMinimalData().copy(statusCode = statusCode))
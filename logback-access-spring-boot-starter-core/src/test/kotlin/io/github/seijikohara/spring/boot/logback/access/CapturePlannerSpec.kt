@@ -0,0 +1,124 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import ch.qos.logback.access.common.PatternLayoutEncoder
+import ch.qos.logback.access.common.spi.AccessContext
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.core.ConsoleAppender
+import ch.qos.logback.core.filter.Filter
+import ch.qos.logback.core.read.ListAppender
+import ch.qos.logback.core.spi.FilterReply
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class CapturePlannerSpec :
+    FunSpec({
+        test("captures only core fields for the common pattern") {
+            val context = accessContextWith("""%h %l %u [%t] "%r" %s %b""")
+
+            CapturePlanner.plan(context) shouldBe CapturePlan.NONE
+        }
+
+        test("selects only the headers referenced by keyed converters") {
+            val context = accessContextWith("%h %i{User-Agent} %header{X-Request-Id}")
+
+            CapturePlanner.plan(context).requestHeaders shouldBe FieldSelection(setOf("user-agent", "x-request-id"))
+        }
+
+        test("selects every header when a header converter has no key") {
+            val context = accessContextWith("%h %i")
+
+            CapturePlanner.plan(context).requestHeaders shouldBe FieldSelection.ALL
+        }
+
+        test("inspects converters nested inside composite converters") {
+            val context = accessContextWith("%replace(%i{X-Trace-Id}){'-', ''}")
+
+            CapturePlanner.plan(context).requestHeaders shouldBe FieldSelection(setOf("x-trace-id"))
+        }
+
+        test("enables body capture only when a content converter is present") {
+            val plan = CapturePlanner.plan(accessContextWith("%requestContent"))
+
+            assertSoftly {
+                plan.requestContent shouldBe true
+                plan.responseContent shouldBe false
+            }
+        }
+
+        test("merges the selections of every appender") {
+            val context = accessContextWith("%i{User-Agent}", "%i{Referer} %responseContent")
+
+            val plan = CapturePlanner.plan(context)
+
+            assertSoftly {
+                plan.requestHeaders shouldBe FieldSelection(setOf("user-agent", "referer"))
+                plan.responseContent shouldBe true
+            }
+        }
+
+        test("falls back to full capture for appenders without a pattern encoder") {
+            val context =
+                AccessContext().apply {
+                    addAppender(
+                        ListAppender<IAccessEvent>().also {
+                            it.context = this
+                            it.start()
+                        },
+                    )
+                }
+
+            CapturePlanner.plan(context) shouldBe CapturePlan.FULL
+        }
+
+        test("falls back to full capture when a filter is attached") {
+            val context = accessContextWith("%h").apply { addFilter(acceptAllFilter()) }
+
+            CapturePlanner.plan(context) shouldBe CapturePlan.FULL
+        }
+
+        test("falls back to full capture when an appender has its own filter") {
+            val context = accessContextWith("%h")
+            context.iteratorForAppenders().forEach { (it as ConsoleAppender<IAccessEvent>).addFilter(acceptAllFilter()) }
+
+            CapturePlanner.plan(context) shouldBe CapturePlan.FULL
+        }
+
+        test("adds only the fields read by an expression filter") {
+            val context = accessContextWith("%h")
+            val filter =
+                AccessExpressionFilter().also {
+                    it.context = context
+                    it.expression = "status >= 500 || responseHeader('X-Cache') == 'MISS'"
+                    it.start()
+                }
+            context.addFilter(filter)
+
+            CapturePlanner.plan(context) shouldBe CapturePlan.NONE.copy(responseHeaders = FieldSelection(setOf("x-cache")))
+        }
+    })
+
+private fun accessContextWith(vararg patterns: String): AccessContext =
+    AccessContext().apply {
+        patterns.forEachIndexed { index, pattern ->
+            val encoder =
+                PatternLayoutEncoder().also {
+                    it.context = this
+                    it.pattern = pattern
+                    it.start()
+                }
+            addAppender(
+                ConsoleAppender<IAccessEvent>().also {
+                    it.context = this
+                    it.name = "console-$index"
+                    it.encoder = encoder
+                    it.start()
+                },
+            )
+        }
+    }
+
+private fun acceptAllFilter(): Filter<IAccessEvent> =
+    object : Filter<IAccessEvent>() {
+        override fun decide(event: IAccessEvent): FilterReply = FilterReply.NEUTRAL
+    }
@@ -0,0 +1,107 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.kotest.assertions.assertSoftly
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.assertions.withClue
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.longs.shouldBeLessThan
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import java.lang.management.ManagementFactory
+import com.sun.management.ThreadMXBean as AllocationMXBean
+
+class CidrMatcherSpec :
+    FunSpec({
+        test("matches IPv4 addresses by prefix") {
+            val matcher = CidrMatcher.compile(listOf("10.0.0.0/8", "192.168.1.0/24", "203.0.113.7"), "include")
+
+            assertSoftly {
+                matcher.matches("10.255.0.1") shouldBe true
+                matcher.matches("11.0.0.1") shouldBe false
+                matcher.matches("192.168.1.200") shouldBe true
+                matcher.matches("192.168.2.1") shouldBe false
+                matcher.matches("203.0.113.7") shouldBe true
+                matcher.matches("203.0.113.8") shouldBe false
+            }
+        }
+
+        test("matches IPv6 addresses in every textual form") {
+            val matcher = CidrMatcher.compile(listOf("2001:db8::/32", "::1", "fe80::/10"), "include")
+
+            assertSoftly {
+                listOf(
+                    "2001:db8::1",
+                    "2001:0db8:0000:0000:0000:0000:0000:0001",
+                    "[2001:db8:ffff::]",
+                    "0:0:0:0:0:0:0:1",
+                    "::1",
+                    "fe80::1%eth0",
+                    "febf::",
+                ).forEach { address -> withClue(address) { matcher.matches(address) shouldBe true } }
+                listOf("2001:db9::1", "::2", "fec0::1", "::").forEach { address ->
+                    withClue(address) { matcher.matches(address) shouldBe false }
+                }
+            }
+        }
+
+        test("expands an embedded IPv4 part") {
+            val matcher = CidrMatcher.compile(listOf("::ffff:10.0.0.0/104"), "include")
+
+            assertSoftly {
+                matcher.matches("::ffff:10.1.2.3") shouldBe true
+                matcher.matches("0:0:0:0:0:ffff:a01:203") shouldBe true
+                matcher.matches("::ffff:11.1.2.3") shouldBe false
+                matcher.matches("10.1.2.3") shouldBe false
+            }
+        }
+
+        test("matches everything of one family for a zero-length prefix") {
+            val matcher = CidrMatcher.compile(listOf("0.0.0.0/0"), "include")
+
+            assertSoftly {
+                matcher.matches("8.8.8.8") shouldBe true
+                matcher.matches("::1") shouldBe false
+            }
+        }
+
+        test("never matches malformed addresses") {
+            val matcher = CidrMatcher.compile(listOf("0.0.0.0/0", "::/0"), "include")
+
+            assertSoftly {
+                listOf("", "unknown", "1.2.3", "1.2.3.4.5", "256.0.0.1", "1..2.3", "1:2:3:4:5:6:7", "1::2::3", ":::", "12345::")
+                    .forEach { address -> withClue(address) { matcher.matches(address) shouldBe false } }
+            }
+        }
+
+        test("reports the invalid CIDR with its kind") {
+            assertSoftly {
+                listOf("10.0.0.0/33", "10.0.0/8", "fd00::/129", "example.com", "10.0.0.0/x", "1::2::3/64").forEach { cidr ->
+                    shouldThrow<IllegalArgumentException> {
+                        CidrMatcher.compile(listOf(cidr), "exclude")
+                    }.message shouldContain "Invalid exclude client CIDR: '$cidr'"
+                }
+            }
+        }
+
+        test("lookups do not allocate") {
+            val matcher = CidrMatcher.compile(listOf("10.0.0.0/8", "172.16.0.0/12", "fd00::/8"), "exclude")
+            val addresses = listOf("10.1.2.3", "192.168.0.10", "fd00::1", "2001:db8::1%eth0")
+            val allocation = ManagementFactory.getThreadMXBean() as AllocationMXBean
+            var matched = 0
+
+            repeat(WARMUP_LOOKUPS) { matched += addresses.count(matcher::matches) }
+            val before = allocation.currentThreadAllocatedBytes
+            repeat(MEASURED_LOOKUPS) { matched += if (matcher.matches(addresses[it and 3])) 1 else 0 }
+            val bytes = allocation.currentThreadAllocatedBytes - before
+
+            matched shouldBe WARMUP_LOOKUPS * 2 + MEASURED_LOOKUPS / 2
+            bytes shouldBeLessThan MAX_MEASURED_BYTES
+        }
+    })
+
+private const val WARMUP_LOOKUPS = 50_000
+private const val MEASURED_LOOKUPS = 100_000
+
+// A single allocating lookup would cost at least 16 bytes each, over a megabyte in total; the bound
+// only leaves room for the measurement itself.
+private const val MAX_MEASURED_BYTES = 4_096L
@@ -0,0 +1,63 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class FieldSelectionSpec :
+    FunSpec({
+        context("ofHeaders") {
+            test("lower-cases allow-listed names and drops denied ones") {
+                FieldSelection.ofHeaders(listOf("User-Agent", "Authorization"), listOf("AUTHORIZATION")) shouldBe
+                    FieldSelection(setOf("user-agent"))
+            }
+
+            test("keeps every header except denied ones when no allow list is given") {
+                FieldSelection.ofHeaders(null, listOf("Cookie")) shouldBe FieldSelection(null, setOf("cookie"))
+            }
+
+            test("selects every header when neither list is given") {
+                FieldSelection.ofHeaders(null, null) shouldBe FieldSelection.ALL
+            }
+        }
+
+        context("includes") {
+            test("matches named selections exactly") {
+                val selection = FieldSelection(setOf("user-agent"))
+
+                selection.includes("user-agent") shouldBe true
+                selection.includes("accept") shouldBe false
+            }
+
+            test("matches everything but the excluded names in a full selection") {
+                val selection = FieldSelection(null, setOf("cookie"))
+
+                selection.includes("accept") shouldBe true
+                selection.includes("cookie") shouldBe false
+            }
+        }
+
+        context("plus") {
+            test("unions named selections") {
+                FieldSelection(setOf("a")) + FieldSelection(setOf("b")) shouldBe FieldSelection(setOf("a", "b"))
+            }
+
+            test("keeps only exclusions not selected by the other side") {
+                FieldSelection(null, setOf("a", "b")) + FieldSelection(setOf("a")) shouldBe FieldSelection(null, setOf("b"))
+            }
+        }
+
+        context("intersect") {
+            test("filters named selections by the other side's exclusions") {
+                FieldSelection(setOf("a", "b")) intersect FieldSelection(null, setOf("b")) shouldBe FieldSelection(setOf("a"))
+            }
+
+            test("combines exclusions of two full selections") {
+                FieldSelection(null, setOf("a")) intersect FieldSelection(null, setOf("b")) shouldBe
+                    FieldSelection(null, setOf("a", "b"))
+            }
+
+            test("narrows a full selection to the other side's names") {
+                FieldSelection.ALL intersect FieldSelection(setOf("a")) shouldBe FieldSelection(setOf("a"))
+            }
+        }
+    })
@@ -0,0 +1,66 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.HeaderRule
+import io.kotest.assertions.assertSoftly
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+
+class HeaderMatcherSpec :
+    FunSpec({
+        test("matches exact values, prefixes, and bare presence") {
+            val matcher =
+                HeaderMatcher.compile(
+                    listOf(
+                        HeaderRule("User-Agent", prefix = "kube-probe/"),
+                        HeaderRule("User-Agent", prefix = "ELB-HealthChecker/"),
+                        HeaderRule("User-Agent", value = "Pingdom"),
+                        HeaderRule("X-Synthetic", value = "true"),
+                        HeaderRule("X-Monitor"),
+                    ),
+                    "exclude",
+                )
+
+            assertSoftly {
+                matcher.matches(view("User-Agent" to "kube-probe/1.30")) shouldBe true
+                matcher.matches(view("User-Agent" to "ELB-HealthChecker/2.0")) shouldBe true
+                matcher.matches(view("User-Agent" to "Pingdom")) shouldBe true
+                matcher.matches(view("User-Agent" to "Pingdom/2")) shouldBe false
+                matcher.matches(view("User-Agent" to "curl/8.0 kube-probe/1.30")) shouldBe false
+                matcher.matches(view("X-Synthetic" to "true")) shouldBe true
+                matcher.matches(view("X-Synthetic" to "TRUE")) shouldBe false
+                matcher.matches(view("X-Monitor" to "")) shouldBe true
+                matcher.matches(view()) shouldBe false
+            }
+        }
+
+        test("rejects a rule with both a value and a prefix") {
+            shouldThrow<IllegalArgumentException> {
+                HeaderMatcher.compile(listOf(HeaderRule("User-Agent", value = "a", prefix = "b")), "include")
+            }.message shouldContain "Invalid include header rule"
+        }
+
+        test("rejects a rule without a header name") {
+            shouldThrow<IllegalArgumentException> {
+                HeaderMatcher.compile(listOf(HeaderRule(" ", value = "a")), "exclude")
+            }.message shouldContain "Invalid exclude header rule"
+        }
+    })
+
+private fun view(vararg headers: Pair<String, String>): AccessRequestView =
+    object : AccessRequestView {
+        override val requestURI: String = "/api/users"
+
+        override val method: String = "GET"
+
+        override val statusCode: Int = 200
+
+        override val elapsedTime: Long = 10L
+
+        override val contentLength: Long = 0L
+
+        override val remoteAddr: String = "127.0.0.1"
+
+        override fun requestHeader(name: String): String? = headers.firstOrNull { it.first.equals(name, ignoreCase = true) }?.second
+    }
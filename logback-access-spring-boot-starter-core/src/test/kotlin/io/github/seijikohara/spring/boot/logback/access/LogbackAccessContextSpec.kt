@@ -6,12 +6,14 @@ import io.kotest.assertions.assertSoftly
 import io.kotest.assertions.throwables.shouldNotThrowAny
 import io.kotest.assertions.throwables.shouldThrow
 import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldBeEmpty
 import io.kotest.matchers.collections.shouldHaveSize
 import io.kotest.matchers.shouldBe
 import io.kotest.matchers.string.shouldContain
 import io.kotest.matchers.throwable.shouldHaveCauseInstanceOf
 import org.springframework.core.io.DefaultResourceLoader
 import org.springframework.mock.env.MockEnvironment
+import java.time.Duration
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
@@ -60,6 +62,137 @@ class LogbackAccessContextSpec :
             }
         }
 
+        context("capturePlan") {
+            test("applies the configured header and attribute lists on top of the resolved plan") {
+                val capture =
+                    LogbackAccessProperties.CaptureProperties(
+                        mode = CaptureMode.FULL,
+                        requestHeaders = LogbackAccessProperties.HeaderCaptureProperties(include = listOf("X-Request-Id")),
+                        responseHeaders = LogbackAccessProperties.HeaderCaptureProperties(exclude = listOf("Set-Cookie")),
+                        attributes = LogbackAccessProperties.AttributeCaptureProperties(include = listOf("traceId")),
+                    )
+                val context = createContext(createProperties(capture = capture))
+
+                try {
+                    assertSoftly(context.capturePlan) {
+                        requestHeaders shouldBe FieldSelection(setOf("x-request-id"))
+                        responseHeaders shouldBe FieldSelection(null, setOf("set-cookie"))
+                        attributes shouldBe FieldSelection(setOf("traceId"))
+                        cookies shouldBe FieldSelection.ALL
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("keeps the fields filter expressions read even when the header lists exclude them") {
+                val capture =
+                    LogbackAccessProperties.CaptureProperties(
+                        mode = CaptureMode.FULL,
+                        requestHeaders = LogbackAccessProperties.HeaderCaptureProperties(include = listOf("X-Request-Id")),
+                    )
+                val context =
+                    createContext(createProperties(includeExpression = "header('X-Tenant') == 'a' && param('p') == 'b'", capture = capture))
+
+                try {
+                    assertSoftly(context.capturePlan) {
+                        requestHeaders.includes("x-request-id") shouldBe true
+                        requestHeaders.includes("x-tenant") shouldBe true
+                        requestHeaders.includes("user-agent") shouldBe false
+                        requestParameters.includes("p") shouldBe true
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+        }
+
+        context("capturePlanFor") {
+            test("returns the full plan for every request when conditional detail capture is disabled") {
+                val context = createContext(createProperties(capture = LogbackAccessProperties.CaptureProperties(mode = CaptureMode.FULL)))
+
+                try {
+                    context.capturePlanFor(200, 5L) shouldBe context.capturePlan
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("keeps only the fields filter expressions read unless the request failed or was slow") {
+                val capture =
+                    LogbackAccessProperties.CaptureProperties(
+                        mode = CaptureMode.FULL,
+                        detail =
+                            LogbackAccessProperties.DetailCaptureProperties(
+                                enabled = true,
+                                statuses = listOf("5xx", "429"),
+                                slowerThan = Duration.ofSeconds(1),
+                            ),
+                    )
+                val context = createContext(createProperties(excludeExpression = "responseHeader('X-Cache') == 'HIT'", capture = capture))
+
+                try {
+                    assertSoftly {
+                        context.capturePlanFor(503, 5L) shouldBe context.capturePlan
+                        context.capturePlanFor(429, 5L) shouldBe context.capturePlan
+                        context.capturePlanFor(200, 1000L) shouldBe context.capturePlan
+                    }
+                    assertSoftly(context.capturePlanFor(200, 5L)) {
+                        responseHeaders.includes("x-cache") shouldBe true
+                        responseHeaders.includes("set-cookie") shouldBe false
+                        cookies shouldBe FieldSelection.NONE
+                        requestContent shouldBe false
+                        responseContent shouldBe false
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("throws IllegalArgumentException for an invalid detail status") {
+                val detail = LogbackAccessProperties.DetailCaptureProperties(enabled = true, statuses = listOf("5x"))
+
+                shouldThrow<IllegalArgumentException> {
+                    createContext(createProperties(capture = LogbackAccessProperties.CaptureProperties(detail = detail)))
+                }.message shouldContain "Invalid detail capture status: '5x'"
+            }
+        }
+
+        context("eventPoolingEnabled") {
+            test("is disabled by default") {
+                val context = LogbackAccessContext(createProperties(), createResourceLoaderWithOnlyFallback(), MockEnvironment())
+
+                try {
+                    context.eventPoolingEnabled shouldBe false
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("is enabled when every appender writes synchronously") {
+                val properties = createProperties(eventPool = LogbackAccessProperties.EventPoolProperties(enabled = true))
+                val context = LogbackAccessContext(properties, createResourceLoaderWithOnlyFallback(), MockEnvironment())
+
+                try {
+                    context.eventPoolingEnabled shouldBe true
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("stays disabled when an appender may retain events") {
+                // The test configuration attaches a ListAppender, which keeps every event it receives.
+                val properties = createProperties(eventPool = LogbackAccessProperties.EventPoolProperties(enabled = true))
+                val context = createContext(properties)
+
+                try {
+                    context.eventPoolingEnabled shouldBe false
+                } finally {
+                    context.close()
+                }
+            }
+        }
+
         context("emit") {
             test("logs event when no filters configured") {
                 val properties = createProperties()
@@ -211,6 +344,328 @@ class LogbackAccessContextSpec :
             }
         }
 
+        context("shouldLog") {
+            test("accepts every request when no URL patterns are configured") {
+                val context = createContext(createProperties())
+
+                try {
+                    context.shouldLog(createRequestView("/api/users")) shouldBe true
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("applies include and exclude patterns before extraction") {
+                val properties =
+                    createProperties(
+                        includeUrlPatterns = listOf("/api/.*"),
+                        excludeUrlPatterns = listOf("/api/internal/.*"),
+                    )
+                val context = createContext(properties)
+
+                try {
+                    assertSoftly {
+                        context.shouldLog(createRequestView("/api/users")) shouldBe true
+                        context.shouldLog(createRequestView("/api/internal/debug")) shouldBe false
+                        context.shouldLog(createRequestView("/health")) shouldBe false
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("applies path patterns together with URL patterns") {
+                val properties =
+                    createProperties(
+                        includeUrlPatterns = listOf("^/legacy/"),
+                        includePathPatterns = listOf("/api/**"),
+                        excludePathPatterns = listOf("/api/{version}/internal/**"),
+                    )
+                val context = createContext(properties)
+
+                try {
+                    assertSoftly {
+                        context.shouldLog(createRequestView("/api/v1/users")) shouldBe true
+                        context.shouldLog(createRequestView("/legacy/report")) shouldBe true
+                        context.shouldLog(createRequestView("/api/v1/internal/cache")) shouldBe false
+                        context.shouldLog(createRequestView("/health")) shouldBe false
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("matches a missing request URI as the NA marker, like emit") {
+                val context = createContext(createProperties(excludeUrlPatterns = listOf("^-$")))
+
+                try {
+                    context.shouldLog(createRequestView(null)) shouldBe false
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("emitAccepted delivers the event without re-applying URL patterns") {
+                val context = createContext(createProperties(excludeUrlPatterns = listOf("/health")))
+
+                try {
+                    context.emitAccepted(createTestEvent("/health"))
+
+                    getListAppender(context).list shouldHaveSize 1
+                } finally {
+                    context.close()
+                }
+            }
+        }
+
+        context("client CIDR filtering") {
+            test("filters by the raw client address before the URL filters") {
+                val context =
+                    createContext(
+                        createProperties(
+                            includeClientCidrs = listOf("10.0.0.0/8", "fd00::/8"),
+                            excludeClientCidrs = listOf("10.0.0.0/24"),
+                        ),
+                    )
+
+                try {
+                    assertSoftly {
+                        context.shouldLog(createRequestView("/api/users", remoteAddr = "10.1.2.3")) shouldBe true
+                        context.shouldLog(createRequestView("/api/users", remoteAddr = "fd12::1")) shouldBe true
+                        context.shouldLog(createRequestView("/api/users", remoteAddr = "10.0.0.7")) shouldBe false
+                        context.shouldLog(createRequestView("/api/users", remoteAddr = "192.168.0.1")) shouldBe false
+                        context.shouldLog(createRequestView("/api/users", remoteAddr = null)) shouldBe false
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("keeps requests with an unknown client address when only excluding") {
+                val context = createContext(createProperties(excludeClientCidrs = listOf("0.0.0.0/0")))
+
+                try {
+                    assertSoftly {
+                        context.shouldLog(createRequestView("/api/users", remoteAddr = "127.0.0.1")) shouldBe false
+                        context.shouldLog(createRequestView("/api/users", remoteAddr = null)) shouldBe true
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("throws IllegalArgumentException for an invalid CIDR") {
+                shouldThrow<IllegalArgumentException> {
+                    createContext(createProperties(excludeClientCidrs = listOf("10.0.0.0/33")))
+                }.message shouldContain "Invalid exclude client CIDR: '10.0.0.0/33'"
+            }
+        }
+
+        context("header filtering") {
+            test("drops synthetic traffic identified by request headers") {
+                val context =
+                    createContext(
+                        createProperties(
+                            excludeHeaders =
+                                listOf(
+                                    LogbackAccessProperties.HeaderRule("User-Agent", prefix = "kube-probe/"),
+                                    LogbackAccessProperties.HeaderRule("X-Synthetic", value = "true"),
+                                ),
+                        ),
+                    )
+
+                val logs = { header: Pair<String, String> -> context.shouldLog(createRequestView("/api/users", headers = mapOf(header))) }
+
+                try {
+                    assertSoftly {
+                        logs("User-Agent" to "kube-probe/1.30") shouldBe false
+                        logs("X-Synthetic" to "true") shouldBe false
+                        logs("X-Synthetic" to "false") shouldBe true
+                        logs("User-Agent" to "curl/8.0") shouldBe true
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("keeps only requests matching an include rule") {
+                val context =
+                    createContext(
+                        createProperties(includeHeaders = listOf(LogbackAccessProperties.HeaderRule("X-Debug"))),
+                    )
+
+                try {
+                    assertSoftly {
+                        context.shouldLog(createRequestView("/api/users", headers = mapOf("X-Debug" to "1"))) shouldBe true
+                        context.shouldLog(createRequestView("/api/users")) shouldBe false
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+        }
+
+        context("expression filtering") {
+            test("tests cheap expressions before extraction") {
+                val context =
+                    createContext(
+                        createProperties(
+                            includeExpression = "status >= 400 || elapsed > 1000",
+                            excludeExpression = "header('User-Agent') ~ 'kube-probe'",
+                        ),
+                    )
+
+                try {
+                    assertSoftly {
+                        context.shouldLog(createRequestView("/api/users", statusCode = 500)) shouldBe true
+                        context.shouldLog(createRequestView("/api/users", elapsedTime = 1500L)) shouldBe true
+                        context.shouldLog(createRequestView("/api/users")) shouldBe false
+                        context.shouldLog(
+                            createRequestView("/api/users", statusCode = 500, headers = mapOf("User-Agent" to "kube-probe/1.30")),
+                        ) shouldBe false
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("tests expressions reading extracted fields on the event and captures those fields") {
+                val context = createContext(createProperties(excludeExpression = "responseHeader('X-Cache') == 'HIT'"))
+
+                try {
+                    context.shouldLog(createRequestView("/api/users")) shouldBe true
+                    context.capturePlan.responseHeaders.includes("x-cache") shouldBe true
+                    context.emitAccepted(createTestEvent("/api/users", responseHeaders = mapOf("X-Cache" to "HIT")))
+                    context.emitAccepted(createTestEvent("/api/users", responseHeaders = mapOf("X-Cache" to "MISS")))
+
+                    getListAppender(context).list.map { it.getResponseHeader("X-Cache") } shouldBe listOf("MISS")
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("throws IllegalArgumentException for an invalid expression") {
+                shouldThrow<IllegalArgumentException> {
+                    createContext(createProperties(includeExpression = "status >> 1"))
+                }.message shouldContain "Invalid access expression 'status >> 1'"
+            }
+        }
+
+        context("sampling") {
+            test("drops sampled-out requests before extraction but keeps errors and slow requests") {
+                val sampling =
+                    LogbackAccessProperties.SamplingProperties(
+                        enabled = true,
+                        defaultRate = 0.0,
+                        keepSlowerThan = Duration.ofSeconds(1),
+                    )
+                val context = createContext(createProperties(sampling = sampling))
+
+                try {
+                    assertSoftly {
+                        context.shouldLog(createRequestView("/api/users")) shouldBe false
+                        context.shouldLog(createRequestView("/api/users", statusCode = 503)) shouldBe true
+                        context.shouldLog(createRequestView("/api/users", elapsedTime = 1500L)) shouldBe true
+                    }
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("applies the URL filters before sampling") {
+                val sampling = LogbackAccessProperties.SamplingProperties(enabled = true)
+                val context = createContext(createProperties(excludeUrlPatterns = listOf("/health"), sampling = sampling))
+
+                try {
+                    context.shouldLog(createRequestView("/health", statusCode = 500)) shouldBe false
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("samples events passed to emit") {
+                val sampling = LogbackAccessProperties.SamplingProperties(enabled = true, defaultRate = 0.0)
+                val context = createContext(createProperties(sampling = sampling))
+
+                try {
+                    context.emit(createTestEvent("/api/users"))
+
+                    getListAppender(context).list shouldHaveSize 0
+                } finally {
+                    context.close()
+                }
+            }
+
+            test("throws IllegalArgumentException for a rate outside 0.0 to 1.0") {
+                val sampling = LogbackAccessProperties.SamplingProperties(enabled = true, defaultRate = 1.5)
+
+                shouldThrow<IllegalArgumentException> {
+                    createContext(createProperties(sampling = sampling))
+                }.message shouldContain "default-rate"
+            }
+        }
+
+        context("aggregation") {
+            test("counts aggregated routes before sampling and emits their summaries on close") {
+                val aggregation =
+                    LogbackAccessProperties.AggregationProperties(
+                        enabled = true,
+                        routes = listOf(LogbackAccessProperties.AggregationRoute("^/internal/", "internal")),
+                    )
+                val sampling = LogbackAccessProperties.SamplingProperties(enabled = true, defaultRate = 0.0)
+                val context =
+                    createContext(createProperties(excludeUrlPatterns = listOf("/health"), sampling = sampling, aggregation = aggregation))
+                val appender = getListAppender(context)
+
+                assertSoftly {
+                    context.shouldLog(createRequestView("/internal/a", contentLength = 10L)) shouldBe false
+                    context.shouldLog(createRequestView("/internal/b", contentLength = 20L)) shouldBe false
+                    context.shouldLog(createRequestView("/internal/health")) shouldBe false
+                    context.shouldLog(createRequestView("/api/users")) shouldBe false
+                }
+                context.close()
+
+                val summary = appender.list.single()
+                assertSoftly {
+                    summary.requestURI shouldBe "internal"
+                    summary.contentLength shouldBe 30L
+                    summary.getAttribute(AccessAggregator.COUNT_ATTRIBUTE) shouldBe "2"
+                }
+            }
+
+            test("counts only the requests an expression reading extracted fields accepts") {
+                val aggregation =
+                    LogbackAccessProperties.AggregationProperties(
+                        enabled = true,
+                        routes = listOf(LogbackAccessProperties.AggregationRoute("^/internal/", "internal")),
+                    )
+                val sampling = LogbackAccessProperties.SamplingProperties(enabled = true, defaultRate = 0.0)
+                val context =
+                    createContext(
+                        createProperties(
+                            excludeExpression = "responseHeader('X-Cache') == 'HIT'",
+                            sampling = sampling,
+                            aggregation = aggregation,
+                        ),
+                    )
+                val appender = getListAppender(context)
+
+                assertSoftly {
+                    context.shouldLog(createRequestView("/internal/a")) shouldBe true
+                    context.shouldLog(createRequestView("/api/users")) shouldBe false
+                }
+                context.emitAccepted(createTestEvent("/internal/a", responseHeaders = mapOf("X-Cache" to "HIT")))
+                context.emitAccepted(createTestEvent("/internal/b", responseHeaders = mapOf("X-Cache" to "MISS")))
+                appender.list.shouldBeEmpty()
+                context.close()
+
+                assertSoftly(appender.list.single()) {
+                    requestURI shouldBe "internal"
+                    getAttribute(AccessAggregator.COUNT_ATTRIBUTE) shouldBe "1"
+                }
+            }
+        }
+
         context("invalid URL patterns") {
             test("throws IllegalArgumentException for invalid include regex pattern") {
                 val properties =
@@ -241,6 +696,17 @@ class LogbackAccessContextSpec :
             }
         }
 
+        context("invalid path patterns") {
+            test("throws IllegalArgumentException for an unparsable exclude path pattern") {
+                val exception =
+                    shouldThrow<IllegalArgumentException> {
+                        createContext(createProperties(excludePathPatterns = listOf("/api/{unclosed")))
+                    }
+
+                exception.message shouldContain "Invalid exclude path pattern: '/api/{unclosed'"
+            }
+        }
+
         context("close") {
             test("stops and resets access context") {
                 val properties = createProperties()
@@ -306,6 +772,69 @@ class LogbackAccessContextSpec :
             }
         }
 
+        context("async") {
+            test("delivers every event on the writer thread and drains the buffer on close") {
+                val async =
+                    LogbackAccessProperties.AsyncProperties(
+                        enabled = true,
+                        overflowPolicy = AsyncOverflowPolicy.BLOCK,
+                        blockTimeout = Duration.ofSeconds(10),
+                    )
+                val context = createContext(createProperties(async = async))
+                val appender = getListAppender(context)
+
+                repeat(100) { context.emit(createTestEvent("/api/users/$it")) }
+                context.close()
+
+                appender.list.map { it.requestURI } shouldBe (0 until 100).map { "/api/users/$it" }
+            }
+
+            test("hands batch appenders whole batches and other appenders single events") {
+                val async =
+                    LogbackAccessProperties.AsyncProperties(
+                        enabled = true,
+                        overflowPolicy = AsyncOverflowPolicy.BLOCK,
+                        blockTimeout = Duration.ofSeconds(10),
+                        batch = LogbackAccessProperties.BatchProperties(maxSize = 10, maxDelay = Duration.ofSeconds(10)),
+                    )
+                val context = createContext(createProperties(async = async))
+                val batches = mutableListOf<Int>()
+                context.accessContext.addAppender(
+                    object : BatchAppenderBase<IAccessEvent>() {
+                        override fun appendBatch(events: List<IAccessEvent>) {
+                            batches += events.size
+                        }
+                    }.also {
+                        it.context = context.accessContext
+                        it.start()
+                    },
+                )
+                val listAppender = getListAppender(context)
+
+                repeat(25) { context.emit(createTestEvent("/api/users/$it")) }
+                context.close()
+
+                batches.sum() shouldBe 25
+                batches.max() shouldBe 10
+                listAppender.list shouldHaveSize 25
+            }
+
+            test("disables event pooling") {
+                val properties =
+                    createProperties(
+                        eventPool = LogbackAccessProperties.EventPoolProperties(enabled = true),
+                        async = LogbackAccessProperties.AsyncProperties(enabled = true),
+                    )
+                val context = LogbackAccessContext(properties, createResourceLoaderWithOnlyFallback(), MockEnvironment())
+
+                try {
+                    context.eventPoolingEnabled shouldBe false
+                } finally {
+                    context.close()
+                }
+            }
+        }
+
         context("toString") {
             test("includes context name") {
                 val properties = createProperties()
@@ -324,6 +853,19 @@ private fun createProperties(
     configLocation: String? = null,
     includeUrlPatterns: List<String>? = null,
     excludeUrlPatterns: List<String>? = null,
+    includePathPatterns: List<String>? = null,
+    excludePathPatterns: List<String>? = null,
+    includeClientCidrs: List<String>? = null,
+    excludeClientCidrs: List<String>? = null,
+    includeExpression: String? = null,
+    excludeExpression: String? = null,
+    includeHeaders: List<LogbackAccessProperties.HeaderRule>? = null,
+    excludeHeaders: List<LogbackAccessProperties.HeaderRule>? = null,
+    capture: LogbackAccessProperties.CaptureProperties = LogbackAccessProperties.CaptureProperties(),
+    eventPool: LogbackAccessProperties.EventPoolProperties = LogbackAccessProperties.EventPoolProperties(),
+    async: LogbackAccessProperties.AsyncProperties = LogbackAccessProperties.AsyncProperties(),
+    sampling: LogbackAccessProperties.SamplingProperties = LogbackAccessProperties.SamplingProperties(),
+    aggregation: LogbackAccessProperties.AggregationProperties = LogbackAccessProperties.AggregationProperties(),
 ): LogbackAccessProperties =
     LogbackAccessProperties(
         enabled = true,
@@ -345,7 +887,20 @@ private fun createProperties(
             LogbackAccessProperties.FilterProperties(
                 includeUrlPatterns = includeUrlPatterns,
                 excludeUrlPatterns = excludeUrlPatterns,
+                includePathPatterns = includePathPatterns,
+                excludePathPatterns = excludePathPatterns,
+                includeClientCidrs = includeClientCidrs,
+                excludeClientCidrs = excludeClientCidrs,
+                includeExpression = includeExpression,
+                excludeExpression = excludeExpression,
+                includeHeaders = includeHeaders,
+                excludeHeaders = excludeHeaders,
             ),
+        capture = capture,
+        eventPool = eventPool,
+        async = async,
+        sampling = sampling,
+        aggregation = aggregation,
     )
 
 private fun createContext(properties: LogbackAccessProperties): LogbackAccessContext {
@@ -386,7 +941,10 @@ private fun createNonExistentResource(location: String): org.springframework.cor
         override fun exists() = false
     }
 
-private fun createTestEvent(requestURI: String): LogbackAccessEvent =
+private fun createTestEvent(
+    requestURI: String,
+    responseHeaders: Map<String, String> = emptyMap(),
+): LogbackAccessEvent =
     LogbackAccessEvent(
         AccessEventData(
             timeStamp = System.currentTimeMillis(),
@@ -410,12 +968,36 @@ private fun createTestEvent(requestURI: String): LogbackAccessEvent =
             sessionID = null,
             requestContent = null,
             statusCode = 200,
-            responseHeaderMap = emptyMap(),
+            responseHeaderMap = responseHeaders,
             contentLength = 0L,
             responseContent = null,
         ),
     )
 
+private fun createRequestView(
+    requestURI: String?,
+    statusCode: Int = 200,
+    elapsedTime: Long = 10L,
+    headers: Map<String, String> = emptyMap(),
+    remoteAddr: String? = "127.0.0.1",
+    contentLength: Long = 0L,
+): AccessRequestView =
+    object : AccessRequestView {
+        override val requestURI: String? = requestURI
+
+        override val method: String = "GET"
+
+        override val statusCode: Int = statusCode
+
+        override val elapsedTime: Long = elapsedTime
+
+        override val contentLength: Long = contentLength
+
+        override val remoteAddr: String? = remoteAddr
+
+        override fun requestHeader(name: String): String? = headers[name]
+    }
+
 @Suppress("UNCHECKED_CAST")
 private fun getListAppender(context: LogbackAccessContext): ListAppender<IAccessEvent> =
     context.accessContext.getAppender("list") as ListAppender<IAccessEvent>
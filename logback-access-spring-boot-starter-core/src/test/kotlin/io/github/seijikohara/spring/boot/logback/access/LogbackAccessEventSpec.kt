@@ -8,6 +8,7 @@ import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.collections.shouldContain
 import io.kotest.matchers.shouldBe
 import io.kotest.matchers.string.shouldContain
+import io.kotest.matchers.types.shouldBeSameInstanceAs
 import java.io.ByteArrayInputStream
 import java.io.ByteArrayOutputStream
 import java.io.ObjectInputStream
@@ -52,9 +53,16 @@ class LogbackAccessEventSpec :
                 event.remoteUser shouldBe NA
                 event.requestURI shouldBe NA
                 event.sessionID shouldBe NA
+                event.getRoute() shouldBe NA
             }
         }
 
+        test("renders the route through RouteConverter") {
+            val event = LogbackAccessEvent(TestAccessEventDataFactory.createMinimalData().copy(route = "/api/users/{id}"))
+
+            RouteConverter().convert(event) shouldBe "/api/users/{id}"
+        }
+
         test("returns NA when remoteAddr and remoteHost are null") {
             val data = TestAccessEventDataFactory.createMinimalData().copy(remoteAddr = null, remoteHost = null)
             val event = LogbackAccessEvent(data)
@@ -86,6 +94,25 @@ class LogbackAccessEventSpec :
             }
         }
 
+        test("decodes captured content once on first read") {
+            val captured = CapturedContent("テスト".toByteArray(Charsets.UTF_16BE), Charsets.UTF_16BE)
+            val data = TestAccessEventDataFactory.createMinimalData().copy(capturedRequestContent = captured)
+            val event = LogbackAccessEvent(data)
+
+            assertSoftly {
+                event.requestContent shouldBe "テスト"
+                event.requestContent shouldBeSameInstanceAs event.requestContent
+                event.responseContent shouldBe ""
+            }
+        }
+
+        test("prefers text content over captured content") {
+            val data =
+                TestAccessEventDataFactory.createTestData().copy(capturedRequestContent = CapturedContent.ofText("captured"))
+
+            LogbackAccessEvent(data).requestContent shouldBe "request body"
+        }
+
         test("getRequestHeader returns NA for missing header") {
             val event = LogbackAccessEvent(TestAccessEventDataFactory.createMinimalData())
 
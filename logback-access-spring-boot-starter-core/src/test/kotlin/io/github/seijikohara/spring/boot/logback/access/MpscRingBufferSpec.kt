@@ -0,0 +1,71 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.collections.shouldHaveSize
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class MpscRingBufferSpec :
+    FunSpec({
+        test("rounds the capacity up to a power of two") {
+            MpscRingBuffer<String>(5).capacity shouldBe 8
+            MpscRingBuffer<String>(8).capacity shouldBe 8
+        }
+
+        test("returns elements in insertion order") {
+            val buffer = MpscRingBuffer<String>(4)
+
+            buffer.offer("a")
+            buffer.offer("b")
+
+            listOf(buffer.poll(), buffer.poll()) shouldContainExactly listOf("a", "b")
+            buffer.poll().shouldBeNull()
+        }
+
+        test("rejects offers once every slot is taken and accepts them again after a poll") {
+            val buffer = MpscRingBuffer<Int>(2)
+
+            buffer.offer(1) shouldBe true
+            buffer.offer(2) shouldBe true
+            buffer.offer(3) shouldBe false
+
+            buffer.poll() shouldBe 1
+            buffer.offer(3) shouldBe true
+            buffer.isEmpty() shouldBe false
+        }
+
+        test("delivers every element from concurrent producers exactly once") {
+            val producers = 8
+            val perProducer = 10_000
+            val buffer = MpscRingBuffer<Int>(1024)
+            val pool = Executors.newFixedThreadPool(producers)
+            val startGate = CountDownLatch(1)
+            val received = mutableListOf<Int>()
+            try {
+                val futures =
+                    (0 until producers).map { producer ->
+                        pool.submit {
+                            startGate.await()
+                            repeat(perProducer) { index ->
+                                while (!buffer.offer(producer * perProducer + index)) Thread.onSpinWait()
+                            }
+                        }
+                    }
+                startGate.countDown()
+                while (received.size < producers * perProducer) {
+                    buffer.poll()?.let(received::add) ?: Thread.onSpinWait()
+                }
+                futures.forEach { it.get(30, TimeUnit.SECONDS) }
+            } finally {
+                pool.shutdown()
+            }
+
+            received shouldHaveSize producers * perProducer
+            received.toSet() shouldHaveSize producers * perProducer
+            buffer.isEmpty() shouldBe true
+        }
+    })
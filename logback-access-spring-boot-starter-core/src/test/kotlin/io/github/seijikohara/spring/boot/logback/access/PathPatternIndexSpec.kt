@@ -0,0 +1,44 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class PathPatternIndexSpec :
+    FunSpec({
+        fun PathPatternIndex.matches(uri: String): Boolean = matches(PathPatternIndex.parse(uri))
+
+        test("matches whole paths like Spring MVC request mappings") {
+            val index = PathPatternIndex.compile(listOf("/api/**", "/users/{id}", "/actuator/health"), "include")
+
+            assertSoftly {
+                index.matches("/api") shouldBe true
+                index.matches("/api/v1/orders") shouldBe true
+                index.matches("/users/42") shouldBe true
+                index.matches("/users/42/avatar") shouldBe false
+                index.matches("/actuator/health") shouldBe true
+                index.matches("/actuator/health/liveness") shouldBe false
+                index.matches("/v2/api/orders") shouldBe false
+            }
+        }
+
+        test("tries patterns without a literal leading segment against every path") {
+            val index = PathPatternIndex.compile(listOf("/{tenant}/orders", "/*.css", "/"), "include")
+
+            assertSoftly {
+                index.matches("/acme/orders") shouldBe true
+                index.matches("/site.css") shouldBe true
+                index.matches("/") shouldBe true
+                index.matches("/acme/invoices") shouldBe false
+            }
+        }
+
+        test("compares the leading segment after decoding and removing matrix variables") {
+            val index = PathPatternIndex.compile(listOf("/my app/**"), "include")
+
+            assertSoftly {
+                index.matches("/my%20app/page") shouldBe true
+                index.matches("/my%20app;jsessionid=abc/page") shouldBe true
+            }
+        }
+    })
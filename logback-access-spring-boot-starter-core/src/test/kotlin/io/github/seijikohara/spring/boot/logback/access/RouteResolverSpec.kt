@@ -0,0 +1,51 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.RouteProperties
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+
+class RouteResolverSpec :
+    FunSpec({
+        val resolver = RouteResolver(RouteProperties())
+
+        test("prefers the handler pattern over the request URI") {
+            resolver.resolve("/api/users/{id}", "/api/users/42") shouldBe "/api/users/{id}"
+        }
+
+        test("replaces numeric and UUID segments of the request URI") {
+            assertSoftly {
+                resolver.resolve(null, "/api/users/42") shouldBe "/api/users/{id}"
+                resolver.resolve(null, "/api/users/42/orders/7") shouldBe "/api/users/{id}/orders/{id}"
+                resolver.resolve(null, "/files/123E4567-e89b-12d3-a456-426614174000") shouldBe "/files/{uuid}"
+                resolver.resolve(null, "/42") shouldBe "/{id}"
+                resolver.resolve(null, "/api/v2/users/") shouldBe "/api/v2/users/"
+                resolver.resolve(null, "/api/users/42abc") shouldBe "/api/users/42abc"
+                resolver.resolve(null, "/files/123e4567-e89b-12d3-a456-42661417400g") shouldBe
+                    "/files/123e4567-e89b-12d3-a456-42661417400g"
+            }
+        }
+
+        test("returns the request URI itself when no segment is replaced") {
+            val uri = "/api/users/me"
+
+            resolver.resolve(null, uri) shouldBeSameInstanceAs uri
+        }
+
+        test("uses the configured placeholders") {
+            val custom = RouteResolver(RouteProperties(numberPlaceholder = ":n", uuidPlaceholder = ":uuid"))
+
+            custom.resolve(null, "/a/1/b/00000000-0000-0000-0000-000000000000") shouldBe "/a/:n/b/:uuid"
+        }
+
+        test("resolves no route without a handler pattern when normalization is disabled") {
+            val disabled = RouteResolver(RouteProperties(normalize = false))
+
+            assertSoftly {
+                disabled.resolve(null, "/api/users/42") shouldBe null
+                disabled.resolve("/api/users/{id}", "/api/users/42") shouldBe "/api/users/{id}"
+                resolver.resolve(null, null) shouldBe null
+            }
+        }
+    })
@@ -0,0 +1,106 @@
+package io.github.seijikohara.spring.boot.logback.access
+
+import io.kotest.assertions.assertSoftly
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.assertions.withClue
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+
+class UrlPatternMatcherSpec :
+    FunSpec({
+        test("matches exactly like containsMatchIn over every pattern") {
+            val patterns =
+                listOf(
+                    "^/actuator/health$",
+                    "^/static/",
+                    "\\.css$",
+                    "\\.js$",
+                    "/favicon.ico",
+                    "/metrics",
+                    "^/api/v[0-9]+/internal",
+                    "/users/\\d+/avatar",
+                    "^.*\\.png$",
+                    "/assets/.*",
+                    "(?i)/ADMIN",
+                    "/(a)\\1/",
+                )
+            val uris =
+                listOf(
+                    "/actuator/health",
+                    "/actuator/health/liveness",
+                    "/static/app.css",
+                    "/app.css.map",
+                    "/bundle.js",
+                    "/favicon.ico",
+                    "/faviconXico",
+                    "/prometheus/metrics",
+                    "/api/v2/internal/cache",
+                    "/api/vX/internal",
+                    "/users/42/avatar",
+                    "/logo.png",
+                    "/assets",
+                    "/assets/",
+                    "/admin/users",
+                    "/aa/",
+                    "/ab/",
+                    "/",
+                    "",
+                )
+            val matcher = UrlPatternMatcher.compile(patterns, "exclude")
+            val regexes = patterns.map(::Regex)
+
+            assertSoftly {
+                uris.forEach { uri ->
+                    withClue(uri) {
+                        matcher.containsMatchIn(uri) shouldBe regexes.any { it.containsMatchIn(uri) }
+                    }
+                }
+            }
+        }
+
+        test("finds unanchored literals that overlap one another") {
+            val matcher = UrlPatternMatcher.compile(listOf("abcd", "bce", "cex"), "include")
+
+            assertSoftly {
+                matcher.containsMatchIn("/abcex") shouldBe true
+                matcher.containsMatchIn("/abcd") shouldBe true
+                matcher.containsMatchIn("/abc") shouldBe false
+            }
+        }
+
+        test("treats escaped anchors and dots as literal characters") {
+            val matcher = UrlPatternMatcher.compile(listOf("price\\$", "^a\\.b"), "include")
+
+            assertSoftly {
+                matcher.containsMatchIn("/price$/list") shouldBe true
+                matcher.containsMatchIn("/price") shouldBe false
+                matcher.containsMatchIn("a.b") shouldBe true
+                matcher.containsMatchIn("axb") shouldBe false
+            }
+        }
+
+        test("matches every URI for an empty or anchor-only pattern") {
+            assertSoftly {
+                listOf("", "^", "$", "^.*").forEach { pattern ->
+                    UrlPatternMatcher.compile(listOf(pattern), "include").containsMatchIn("/any") shouldBe true
+                }
+            }
+        }
+
+        test("keeps patterns whose named groups collide working on their own") {
+            val matcher = UrlPatternMatcher.compile(listOf("/(?<id>[0-9]+)$", "/x/(?<id>[a-z]+)$"), "include")
+
+            assertSoftly {
+                matcher.containsMatchIn("/123") shouldBe true
+                matcher.containsMatchIn("/x/abc") shouldBe true
+                matcher.containsMatchIn("/x/ABC") shouldBe false
+            }
+        }
+
+        test("reports the invalid pattern with its kind") {
+            shouldThrow<IllegalArgumentException> {
+                UrlPatternMatcher.compile(listOf("/ok", "[invalid"), "exclude")
+            }.message shouldContain "Invalid exclude URL pattern: '[invalid'"
+        }
+    })
@@ -4,6 +4,7 @@ plugins {
     // released artifact's dependencies, not the example apps' test dependencies.
     alias(libs.plugins.cyclonedx)
     alias(libs.plugins.detekt)
+    alias(libs.plugins.jmh)
     alias(libs.plugins.spotless)
     `java-library`
 }
@@ -28,6 +29,11 @@ dependencies {
     compileOnly(libs.spring.boot.starter.tomcat)
     compileOnly(libs.spring.boot.starter.jetty)
     compileOnly(libs.spring.boot.starter.security)
+    compileOnly(libs.spring.webflux)
+    compileOnly(libs.micrometer.core)
+
+    jmh(libs.spring.boot.starter.tomcat)
+    jmh(libs.spring.boot.starter.jetty)
 }
 
 java {
@@ -49,6 +55,21 @@ tasks.jar {
     }
 }
 
+// Benchmarks exercise the internal extractors directly, so the jmh compilation is associated
+// with main to see internal declarations. Allocation figures come from the GC profiler.
+// Run with ./gradlew :logback-access-spring-boot-starter:jmh -Pjmh.includes=<BenchmarkClass>
+kotlin {
+    target.compilations.named("jmh") {
+        associateWith(target.compilations.getByName("main"))
+    }
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    profilers = listOf("gc")
+    includes = providers.gradleProperty("jmh.includes").map { listOf(it) }.orElse(emptyList())
+}
+
 spotless {
     kotlin {
         ktlint()
@@ -74,6 +95,7 @@ testing {
                 implementation(libs.spring.boot.starter.jetty)
                 implementation(libs.spring.boot.starter.webflux)
                 implementation(libs.spring.boot.starter.security)
+                implementation(libs.micrometer.core)
             }
         }
     }
@@ -0,0 +1,100 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures the throughput of masking `password`, `cardNumber`, and `token` in captured bodies.
+ *
+ * The JSON body is an API response listing user records. Each record has nested objects, a masked
+ * string, a masked number, and a masked object. It is repeated up to `payloadSize` bytes, from a
+ * small request at 1 KiB to the default `max-payload-size` of 64 KiB. The form body is a login-style
+ * submission of the same size. `json` and `form` run the byte scan. `jsonRegex` is the converter-side
+ * alternative it replaces: decode the body to a `String` and mask it with a regex. Multiply
+ * operations per millisecond by `payloadSize` for bytes per millisecond, and compare
+ * `gc.alloc.rate.norm`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class BodyRedactionBenchmark {
+    @Param("1024", "16384", "65536")
+    var payloadSize: Int = 0
+
+    private val redactor =
+        checkNotNull(
+            BodyRedactor.of(
+                TeeFilterProperties(
+                    enabled = true,
+                    includeHosts = null,
+                    excludeHosts = null,
+                    maxPayloadSize = 65536L,
+                    allowedContentTypes = null,
+                    redactedFields = listOf("password", "cardNumber", "token"),
+                ),
+            ),
+        )
+
+    private lateinit var json: ByteArray
+    private lateinit var form: ByteArray
+
+    @Setup
+    fun setUp() {
+        json = repeatUpTo("[", USER_RECORD, ",", "]")
+        form = repeatUpTo("", FORM_FIELDS, "&", "")
+    }
+
+    @Benchmark
+    fun json(): ByteArray? = redactor.redact(json, JSON, Charsets.UTF_8)
+
+    @Benchmark
+    fun form(): ByteArray? = redactor.redact(form, FORM, Charsets.UTF_8)
+
+    @Benchmark
+    fun jsonRegex(): String = JSON_PATTERN.replace(json.decodeToString(), "\"$1\":\"***\"")
+
+    private fun repeatUpTo(
+        prefix: String,
+        element: String,
+        separator: String,
+        suffix: String,
+    ): ByteArray =
+        buildString {
+            append(prefix)
+            var index = 0
+            while (length + element.length + suffix.length < payloadSize) {
+                if (index > 0) append(separator)
+                append(element.replace("#", index++.toString()))
+            }
+            append(suffix)
+        }.toByteArray()
+
+    private companion object {
+        const val JSON = "application/json"
+        const val FORM = "application/x-www-form-urlencoded"
+
+        const val USER_RECORD =
+            """{"id":#,"name":"User #","email":"user#@example.com","password":"pa55-word-#",""" +
+                """"profile":{"locale":"en_US","tags":["admin","beta"],"address":{"city":"Tokyo","zip":"100-0001"}},""" +
+                """"payment":{"cardNumber":4111111111111111,"expiry":"12/30"},"token":{"access":"eyJhbGciOi.#","ttl":3600}}"""
+
+        const val FORM_FIELDS = "username=user%40example.com&password=pa55-word-%23&remember=on&token=csrf-#&redirect=%2Fhome"
+
+        /** Masks only string values, as a typical hand-written converter does. */
+        val JSON_PATTERN = Regex(""""(password|cardNumber|token)"\s*:\s*"(?:[^"\\]|\\.)*"""", RegexOption.IGNORE_CASE)
+    }
+}
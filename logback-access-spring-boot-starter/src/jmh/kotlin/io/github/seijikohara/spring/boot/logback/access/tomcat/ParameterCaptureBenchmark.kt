@@ -0,0 +1,72 @@
+package io.github.seijikohara.spring.boot.logback.access.tomcat
+
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
+import io.github.seijikohara.spring.boot.logback.access.ParameterCaptureMode
+import org.apache.catalina.connector.Connector
+import org.apache.catalina.connector.Request
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.Collections.unmodifiableList
+import java.util.Collections.unmodifiableMap
+import java.util.concurrent.TimeUnit
+import org.apache.coyote.Request as CoyoteRequest
+
+/**
+ * Compares request parameter capture on a request with a 12-parameter query string.
+ *
+ * Each invocation gets a fresh request. With `parsedByApplication=false` the application never
+ * read the parameters, so `legacy` (the previous extraction) and `parse` pay for query-string
+ * parsing at log time while `ifParsed` does not. With `parsedByApplication=true`, parsing happens
+ * during setup and the benchmarks measure only the snapshot: `legacy` still allocates one
+ * `unmodifiableList` wrapper per entry. Compare `gc.alloc.rate.norm` (bytes per operation).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class ParameterCaptureBenchmark {
+    @Param("false", "true")
+    var parsedByApplication: Boolean = false
+
+    private val connector = Connector("HTTP/1.1").apply { parseBodyMethods = "POST" }
+    private lateinit var request: Request
+
+    @Setup(Level.Invocation)
+    fun setUp() {
+        request = Request(connector, CoyoteRequest())
+        request.coyoteRequest.queryString().setString(QUERY)
+        if (parsedByApplication) request.getParameter("page")
+    }
+
+    @Benchmark
+    fun legacy(): Map<String, List<String>> =
+        request.parameterMap
+            .mapValuesTo(linkedMapOf()) { unmodifiableList(it.value.asList()) }
+            .let(::unmodifiableMap)
+
+    @Benchmark
+    fun parse(): Map<String, List<String>> =
+        TomcatRequestDataExtractor.extractParameters(request, FieldSelection.ALL, ParameterCaptureMode.PARSE)
+
+    @Benchmark
+    fun ifParsed(): Map<String, List<String>> =
+        TomcatRequestDataExtractor.extractParameters(request, FieldSelection.ALL, ParameterCaptureMode.IF_PARSED)
+
+    private companion object {
+        const val QUERY =
+            "page=3&size=50&sort=createdAt%2Cdesc&q=spring+boot&filter=active&lang=en" +
+                "&utm_source=newsletter&utm_medium=email&utm_campaign=fall&tag=java&tag=kotlin&debug=false"
+    }
+}
@@ -4,6 +4,7 @@ import io.github.oshai.kotlinlogging.KotlinLogging
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties
 import io.github.seijikohara.spring.boot.logback.access.jetty.JettyConfiguration
+import io.github.seijikohara.spring.boot.logback.access.route.RouteConfiguration
 import io.github.seijikohara.spring.boot.logback.access.security.SecurityConfiguration
 import io.github.seijikohara.spring.boot.logback.access.tee.TeeFilterConfiguration
 import io.github.seijikohara.spring.boot.logback.access.tomcat.TomcatConfiguration
@@ -40,6 +41,7 @@ import org.springframework.core.io.ResourceLoader
     JettyConfiguration::class,
     SecurityConfiguration::class,
     TeeFilterConfiguration::class,
+    RouteConfiguration::class,
 )
 @ImportRuntimeHints(LogbackAccessRuntimeHints::class)
 class LogbackAccessAutoConfiguration {
@@ -12,6 +12,8 @@ import org.springframework.aot.hint.TypeReference
  * The Joran model, action, and handler classes are referenced by type during rule registration and
  * model processing, and the bundled fallback configuration is loaded as a classpath resource. Types
  * are registered by name because the Joran extension types are `internal` to the core module.
+ * Tomcat's `parametersParsed` request field is registered for the `IF_PARSED` parameter capture,
+ * which reads it reflectively.
  */
 internal class LogbackAccessRuntimeHints : RuntimeHintsRegistrar {
     override fun registerHints(
@@ -25,6 +27,7 @@ internal class LogbackAccessRuntimeHints : RuntimeHintsRegistrar {
                 MemberCategory.INVOKE_PUBLIC_METHODS,
             )
         }
+        hints.reflection().registerType(TypeReference.of(TOMCAT_REQUEST)) { it.withField(PARAMETERS_PARSED_FIELD) }
         hints.resources().registerPattern(FALLBACK_CONFIG_RESOURCE)
     }
 
@@ -42,6 +45,9 @@ internal class LogbackAccessRuntimeHints : RuntimeHintsRegistrar {
                 "$JORAN_PACKAGE.SpringProfileModelHandler",
             )
 
+        private const val TOMCAT_REQUEST = "org.apache.catalina.connector.Request"
+        private const val PARAMETERS_PARSED_FIELD = "parametersParsed"
+
         private const val FALLBACK_CONFIG_RESOURCE =
             "io/github/seijikohara/spring/boot/logback/access/logback-access-spring.xml"
     }
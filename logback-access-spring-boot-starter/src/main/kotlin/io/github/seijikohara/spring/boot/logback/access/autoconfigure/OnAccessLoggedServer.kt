@@ -0,0 +1,21 @@
+package io.github.seijikohara.spring.boot.logback.access.autoconfigure
+
+import org.apache.catalina.startup.Tomcat
+import org.eclipse.jetty.server.Server
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
+
+/**
+ * Matches when Tomcat or Jetty, the servers with an access log integration, is on the classpath.
+ *
+ * Gates the reactive filters, which only hand their data to those servers' access logs and would
+ * otherwise run on servers such as Reactor Netty, where neither the Servlet nor the Jetty request
+ * types they check for can be loaded.
+ */
+internal class OnAccessLoggedServer : AnyNestedCondition(ConfigurationPhase.PARSE_CONFIGURATION) {
+    @ConditionalOnClass(Tomcat::class)
+    internal class OnTomcat
+
+    @ConditionalOnClass(Server::class)
+    internal class OnJetty
+}
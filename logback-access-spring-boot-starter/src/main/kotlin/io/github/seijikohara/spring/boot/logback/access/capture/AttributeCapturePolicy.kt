@@ -0,0 +1,36 @@
+package io.github.seijikohara.spring.boot.logback.access.capture
+
+/**
+ * Converts captured request attribute values to the strings stored in the access event.
+ *
+ * Only attributes that passed the capture selection reach this policy, so unselected
+ * attributes are never converted. The resulting string holds no reference to the
+ * attribute object and is safe for deferred processing.
+ */
+internal object AttributeCapturePolicy {
+    private const val TRUNCATION_MARKER = "..."
+
+    /**
+     * Converts [value] to a string of at most [maxValueLength] characters plus the truncation marker.
+     *
+     * [CharSequence] values are cut before conversion, so a large builder is never copied in full.
+     * A cut never splits a surrogate pair.
+     *
+     * @param maxValueLength maximum number of characters to keep, or null for no limit
+     */
+    fun format(
+        value: Any,
+        maxValueLength: Int?,
+    ): String {
+        val text: CharSequence = value as? CharSequence ?: value.toString()
+        return when {
+            maxValueLength == null || text.length <= maxValueLength -> text.toString()
+            else -> text.subSequence(0, safeCutIndex(text, maxValueLength.coerceAtLeast(0))).toString() + TRUNCATION_MARKER
+        }
+    }
+
+    private fun safeCutIndex(
+        text: CharSequence,
+        index: Int,
+    ): Int = if (index > 0 && Character.isHighSurrogate(text[index - 1])) index - 1 else index
+}
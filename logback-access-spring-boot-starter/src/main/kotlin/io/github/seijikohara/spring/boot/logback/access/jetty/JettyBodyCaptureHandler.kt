@@ -0,0 +1,90 @@
+package io.github.seijikohara.spring.boot.logback.access.jetty
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.tee.BodyCapturePolicy
+import io.github.seijikohara.spring.boot.logback.access.tee.BodyCaptureRules
+import io.github.seijikohara.spring.boot.logback.access.tee.BoundedTeeFilter
+import io.github.seijikohara.spring.boot.logback.access.tee.CaptureBufferPool
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
+import org.eclipse.jetty.http.HttpHeader
+import org.eclipse.jetty.io.Content
+import org.eclipse.jetty.server.Handler
+import org.eclipse.jetty.server.Request
+import org.eclipse.jetty.server.Response
+import org.eclipse.jetty.util.Callback
+import java.nio.ByteBuffer
+
+/**
+ * Jetty core [Handler.Wrapper] that captures request and response bodies into [TeeBuffer]s, the
+ * counterpart of the Servlet [BoundedTeeFilter] for the native [JettyRequestLog].
+ *
+ * The same host lists, [TeeFilterProperties.rules], size limit, and content-type allowlist apply.
+ * Request content chunks are retained and kept as views rather than copied when Jetty allows it,
+ * so a captured request body usually costs no copy at all. Response writes are copied into pooled
+ * chunks, since the writer may reuse its buffer as soon as the write completes.
+ *
+ * The buffers are stored under [TeeBuffer.REQUEST_ATTR] and [TeeBuffer.RESPONSE_ATTR], and the
+ * properties they were captured with under [BodyCaptureRules.ATTR]. [JettyRequestLog] hands the
+ * chunks back through [releaseAll] once the request is logged. Unlike the Servlet filter, form
+ * submissions are teed like any other body, because Jetty parses them from the same chunks; the
+ * default allowlist still leaves them out of the log.
+ */
+internal class JettyBodyCaptureHandler(
+    properties: TeeFilterProperties,
+    private val pool: CaptureBufferPool,
+    hostName: String = BoundedTeeFilter.localHostName(),
+) : Handler.Wrapper() {
+    /** Whether this host captures bodies at all. */
+    val isActive: Boolean = BoundedTeeFilter.capturesOn(hostName, properties)
+
+    private val rules = BodyCaptureRules(properties)
+
+    override fun handle(
+        request: Request,
+        response: Response,
+        callback: Callback,
+    ): Boolean {
+        val captureProperties = if (isActive) rules.resolve(request.method, request.httpURI.path) else null
+        if (captureProperties == null) return super.handle(request, response, callback)
+        val requestBody = TeeBuffer(pool) { BodyCapturePolicy.captureLimit(request.headers[HttpHeader.CONTENT_TYPE], captureProperties) }
+        val responseBody = TeeBuffer(pool) { BodyCapturePolicy.captureLimit(response.headers[HttpHeader.CONTENT_TYPE], captureProperties) }
+        request.setAttribute(BodyCaptureRules.ATTR, captureProperties)
+        request.setAttribute(TeeBuffer.REQUEST_ATTR, requestBody)
+        request.setAttribute(TeeBuffer.RESPONSE_ATTR, responseBody)
+        val teeRequest = TeeRequest(request, requestBody)
+        return super.handle(teeRequest, TeeResponse(teeRequest, response, responseBody), callback)
+    }
+
+    private class TeeRequest(
+        request: Request,
+        private val buffer: TeeBuffer,
+    ) : Request.Wrapper(request) {
+        override fun read(): Content.Chunk? =
+            super.read()?.also { chunk ->
+                if (chunk.canRetain()) buffer.write(chunk.byteBuffer, chunk::retain) { chunk.release() } else buffer.write(chunk.byteBuffer)
+            }
+    }
+
+    private class TeeResponse(
+        request: Request,
+        response: Response,
+        private val buffer: TeeBuffer,
+    ) : Response.Wrapper(request, response) {
+        override fun write(
+            last: Boolean,
+            byteBuffer: ByteBuffer?,
+            callback: Callback,
+        ) {
+            if (byteBuffer != null) buffer.write(byteBuffer)
+            super.write(last, byteBuffer, callback)
+        }
+    }
+
+    companion object {
+        /** Returns the chunks of the buffers the handler stored on [request] to their pool, and the retained ones to Jetty. */
+        fun releaseAll(request: Request) {
+            (request.getAttribute(TeeBuffer.REQUEST_ATTR) as? TeeBuffer)?.release()
+            (request.getAttribute(TeeBuffer.RESPONSE_ATTR) as? TeeBuffer)?.release()
+        }
+    }
+}
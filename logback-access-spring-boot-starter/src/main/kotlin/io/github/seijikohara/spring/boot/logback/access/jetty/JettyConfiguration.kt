@@ -2,7 +2,9 @@ package io.github.seijikohara.spring.boot.logback.access.jetty
 
 import io.github.oshai.kotlinlogging.KotlinLogging
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
+import io.github.seijikohara.spring.boot.logback.access.tee.CaptureBufferPool
 import org.eclipse.jetty.server.Server
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication
@@ -15,7 +17,8 @@ import org.springframework.context.annotation.Configuration
  * Registers Jetty-specific access logging infrastructure.
  *
  * The customizer assigns the [JettyRequestLog] to Jetty's single [org.eclipse.jetty.server.Server.setRequestLog]
- * slot, so the starter takes ownership of the Jetty request log. Supply your own
+ * slot, so the starter takes ownership of the Jetty request log. When the tee filter is enabled, it also
+ * inserts the [JettyBodyCaptureHandler] below the server, in front of the application handlers. Supply your own
  * `logbackAccessJettyCustomizer` bean to override this behavior.
  */
 @Configuration(proxyBeanMethods = false)
@@ -26,10 +29,14 @@ internal class JettyConfiguration {
     @ConditionalOnMissingBean(name = ["logbackAccessJettyCustomizer"])
     fun logbackAccessJettyCustomizer(
         logbackAccessContext: LogbackAccessContext,
+        logbackAccessCaptureBufferPool: ObjectProvider<CaptureBufferPool>,
     ): WebServerFactoryCustomizer<ConfigurableJettyWebServerFactory> =
         WebServerFactoryCustomizer { factory ->
             factory.addServerCustomizers({ server ->
                 server.requestLog = JettyRequestLog(logbackAccessContext)
+                logbackAccessCaptureBufferPool.ifAvailable { pool ->
+                    server.insertHandler(JettyBodyCaptureHandler(logbackAccessContext.properties.teeFilter, pool))
+                }
             })
             logger.debug { "Added JettyRequestLog to $factory" }
         }
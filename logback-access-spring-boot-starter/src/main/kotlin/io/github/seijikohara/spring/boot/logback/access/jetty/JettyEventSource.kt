@@ -1,7 +1,9 @@
 package io.github.seijikohara.spring.boot.logback.access.jetty
 
 import io.github.seijikohara.spring.boot.logback.access.AccessEventData
+import io.github.seijikohara.spring.boot.logback.access.CapturePlan
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
+import io.github.seijikohara.spring.boot.logback.access.pool.PooledAccessEvent
 import org.eclipse.jetty.server.Request
 import org.eclipse.jetty.server.Response
 import java.util.concurrent.TimeUnit.NANOSECONDS
@@ -11,24 +13,23 @@ import java.util.concurrent.TimeUnit.NANOSECONDS
  *
  * All values are extracted eagerly so the returned data is safe for
  * deferred processing without holding references to Jetty objects.
+ * Optional fields are copied only when the plan [resolveCapturePlan] returns selects them.
+ * Bodies come from the [JettyBodyCaptureHandler], which is installed when the tee filter is enabled.
  *
  * Jetty-specific limitations:
  * - [AccessEventData.remoteHost] equals [AccessEventData.remoteAddr] (no reverse DNS lookup)
  * - [AccessEventData.requestParameterMap] is always empty to avoid consuming the request body
- * - [AccessEventData.requestContent] and [AccessEventData.responseContent] are always null
- *   (TeeFilter is not supported on the Jetty native RequestLog API)
  */
 internal fun createAccessEventData(
     context: LogbackAccessContext,
     request: Request,
     response: Response,
-): AccessEventData =
-    AccessEventData(
+): AccessEventData {
+    val elapsedTime = elapsedMillis(request)
+    val plan = resolveCapturePlan(context, request, response, elapsedTime)
+    return AccessEventData(
         timeStamp = System.currentTimeMillis(),
-        // beginNanoTime is a raw System.nanoTime() reading, which may legitimately be negative or
-        // zero. A valid request always has it set by the time RequestLog.log fires, so compute the
-        // duration directly rather than treating the raw clock value as a positivity flag.
-        elapsedTime = NANOSECONDS.toMillis(System.nanoTime() - request.beginNanoTime).coerceAtLeast(0),
+        elapsedTime = elapsedTime,
         sequenceNumber = context.accessContext.sequenceNumberGenerator?.nextSequenceNumber(),
         threadName = Thread.currentThread().name,
         serverName = Request.getServerName(request),
@@ -44,19 +45,96 @@ internal fun createAccessEventData(
                 ?.let { "?$it" }
                 .orEmpty(),
         requestURL = JettyRequestDataExtractor.buildRequestURL(request),
-        requestHeaderMap = JettyRequestDataExtractor.extractHeaders(request),
-        cookieMap = JettyRequestDataExtractor.extractCookies(request),
+        requestHeaderMap = plan.requestHeaders.capture { JettyRequestDataExtractor.extractHeaders(request, it) },
+        cookieMap = plan.cookies.capture { JettyRequestDataExtractor.extractCookies(request, it) },
         requestParameterMap = emptyMap(),
-        attributeMap = JettyRequestDataExtractor.extractAttributes(request),
-        sessionID =
-            try {
-                request.getSession(false)?.id
-            } catch (_: Exception) {
-                null
+        attributeMap =
+            plan.attributes.capture {
+                JettyRequestDataExtractor.extractAttributes(request, it, context.properties.capture.attributes.maxValueLength)
             },
+        sessionID = if (plan.sessionID) resolveSessionId(request) else null,
         requestContent = null,
         statusCode = response.status,
-        responseHeaderMap = JettyResponseDataExtractor.extractHeaders(response),
+        responseHeaderMap = plan.responseHeaders.capture { JettyResponseDataExtractor.extractHeaders(response, it) },
         contentLength = Response.getContentBytesWritten(response),
         responseContent = null,
+        route = JettyRequestDataExtractor.resolveRoute(context, request),
+        capturedRequestContent =
+            if (plan.requestContent) JettyRequestDataExtractor.extractContent(request, context.properties.teeFilter) else null,
+        capturedResponseContent =
+            if (plan.responseContent) {
+                JettyResponseDataExtractor.extractContent(request, response, context.properties.teeFilter)
+            } else {
+                null
+            },
     )
+}
+
+/**
+ * Fills a pooled [event] in place with the same values [createAccessEventData] would capture.
+ *
+ * The query string and request line are left for the event to derive on demand, and the
+ * optional fields follow [resolveCapturePlan].
+ */
+internal fun PooledAccessEvent.populate(
+    context: LogbackAccessContext,
+    request: Request,
+    response: Response,
+) {
+    val elapsed = elapsedMillis(request)
+    val plan = resolveCapturePlan(context, request, response, elapsed)
+    timeStamp = System.currentTimeMillis()
+    elapsedTime = elapsed
+    context.accessContext.sequenceNumberGenerator?.let { sequenceNumber = it.nextSequenceNumber() }
+    threadName = Thread.currentThread().name
+    serverName = Request.getServerName(request)
+    localPort = JettyRequestDataExtractor.resolveLocalPort(context, request)
+    remoteAddr = Request.getRemoteAddr(request)
+    remoteHost = remoteAddr
+    remoteUser = JettyRequestDataExtractor.resolveRemoteUser(request)
+    protocol = request.connectionMetaData.protocol
+    method = request.method
+    requestURI = request.httpURI.path
+    rawQueryString = request.httpURI.query
+    requestHeaderMap = plan.requestHeaders.capture { JettyRequestDataExtractor.extractHeaders(request, it) }
+    cookieMap = plan.cookies.capture { JettyRequestDataExtractor.extractCookies(request, it) }
+    attributeMap =
+        plan.attributes.capture {
+            JettyRequestDataExtractor.extractAttributes(request, it, context.properties.capture.attributes.maxValueLength)
+        }
+    sessionID = if (plan.sessionID) resolveSessionId(request) else null
+    requestContent = if (plan.requestContent) JettyRequestDataExtractor.extractContent(request, context.properties.teeFilter) else null
+    statusCode = response.status
+    responseHeaderMap = plan.responseHeaders.capture { JettyResponseDataExtractor.extractHeaders(response, it) }
+    contentLength = Response.getContentBytesWritten(response)
+    responseContent =
+        if (plan.responseContent) JettyResponseDataExtractor.extractContent(request, response, context.properties.teeFilter) else null
+    route = JettyRequestDataExtractor.resolveRoute(context, request)
+}
+
+/**
+ * Returns [LogbackAccessContext.capturePlanFor] the completed request. When the plan captures no body,
+ * as for a request conditional detail capture does not promote, the captured chunks are released at once
+ * instead of after the event is emitted.
+ */
+internal fun resolveCapturePlan(
+    context: LogbackAccessContext,
+    request: Request,
+    response: Response,
+    elapsedTime: Long,
+): CapturePlan =
+    context.capturePlanFor(response.status, elapsedTime).also { plan ->
+        if (!plan.requestContent && !plan.responseContent) JettyBodyCaptureHandler.releaseAll(request)
+    }
+
+// beginNanoTime is a raw System.nanoTime() reading, which may legitimately be negative or
+// zero. A valid request always has it set by the time RequestLog.log fires, so compute the
+// duration directly rather than treating the raw clock value as a positivity flag.
+internal fun elapsedMillis(request: Request): Long = NANOSECONDS.toMillis(System.nanoTime() - request.beginNanoTime).coerceAtLeast(0)
+
+private fun resolveSessionId(request: Request): String? =
+    try {
+        request.getSession(false)?.id
+    } catch (_: Exception) {
+        null
+    }
@@ -1,16 +1,28 @@
 package io.github.seijikohara.spring.boot.logback.access.jetty
 
+import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.MVC_ROUTE_ATTR
 import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.REMOTE_USER_ATTR
+import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.ROUTE_ATTR
+import io.github.seijikohara.spring.boot.logback.access.CapturedContent
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
 import io.github.seijikohara.spring.boot.logback.access.LocalPortStrategy
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.capture.AttributeCapturePolicy
+import io.github.seijikohara.spring.boot.logback.access.tee.BodyCapturePolicy
+import io.github.seijikohara.spring.boot.logback.access.tee.BodyCaptureRules
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
+import org.eclipse.jetty.http.HttpHeader
+import org.eclipse.jetty.http.MimeTypes
 import org.eclipse.jetty.server.Request
+import java.nio.charset.Charset
 import java.util.Collections.unmodifiableMap
 
 /**
  * Extracts and resolves request data from Jetty [Request].
  *
  * Provides extraction of headers, cookies, and attributes, as well as resolution
- * of local port, remote user, and request URL.
+ * of local port, remote user, route, and request URL.
  */
 internal object JettyRequestDataExtractor {
     fun resolveLocalPort(
@@ -24,26 +36,89 @@ internal object JettyRequestDataExtractor {
 
     fun resolveRemoteUser(request: Request): String? = request.getAttribute(REMOTE_USER_ATTR) as? String
 
+    fun resolveRoute(
+        context: LogbackAccessContext,
+        request: Request,
+    ): String? =
+        context.routeResolver.resolve(
+            request.getAttribute(ROUTE_ATTR) as? String ?: request.getAttribute(MVC_ROUTE_ATTR) as? String,
+            request.httpURI.path,
+        )
+
     fun buildRequestURL(request: Request): String =
         "${request.method} ${request.httpURI.path}${request.httpURI.query?.let { "?$it" }.orEmpty()} ${request.connectionMetaData.protocol}"
 
-    fun extractHeaders(request: Request): Map<String, String> =
+    /**
+     * Copies the selected headers in a single pass over the native [org.eclipse.jetty.http.HttpFields],
+     * matching the lower-case name Jetty already holds for well-known headers.
+     */
+    fun extractHeaders(
+        request: Request,
+        selection: FieldSelection = FieldSelection.ALL,
+    ): Map<String, String> =
         sortedMapOf<String, String>(String.CASE_INSENSITIVE_ORDER)
-            .apply { request.headers.forEach { field -> putIfAbsent(field.name, field.value) } }
-            .let(::unmodifiableMap)
+            .apply {
+                for (field in request.headers) {
+                    if (selection.includes(field.lowerCaseName)) putIfAbsent(field.name, field.value)
+                }
+            }.let(::unmodifiableMap)
 
-    fun extractCookies(request: Request): Map<String, String> =
+    fun extractCookies(
+        request: Request,
+        selection: FieldSelection = FieldSelection.ALL,
+    ): Map<String, String> =
         try {
             Request.getCookies(request)
         } catch (_: Exception) {
             emptyList()
-        }.associateTo(linkedMapOf()) { it.name to it.value }
+        }.filter { selection.names?.contains(it.name) ?: true }
+            .associateTo(linkedMapOf()) { it.name to it.value }
             .let(::unmodifiableMap)
 
-    fun extractAttributes(request: Request): Map<String, String> =
-        request.attributeNameSet
+    /**
+     * Named selections read each attribute directly, and excluded names are skipped before their value
+     * is read, so unselected attribute values are never stringified.
+     */
+    fun extractAttributes(
+        request: Request,
+        selection: FieldSelection = FieldSelection.ALL,
+        maxValueLength: Int? = null,
+    ): Map<String, String> =
+        (selection.names ?: request.attributeNameSet.filter(selection::includes))
+            .filter { it !in BODY_CAPTURE_ATTRIBUTES }
             .mapNotNull { name ->
-                request.getAttribute(name)?.let { name to it.toString() }
+                request.getAttribute(name)?.let { name to AttributeCapturePolicy.format(it, maxValueLength) }
             }.toMap(linkedMapOf())
             .let(::unmodifiableMap)
+
+    /**
+     * Extracts the request body captured by the [JettyBodyCaptureHandler].
+     *
+     * Returns `null` when the tee filter is disabled or the request was not captured. The body capture
+     * policy is evaluated with the properties the handler captured the request with, and the bytes are
+     * decoded only when the content is read, with the charset of the Content-Type, falling back to UTF-8.
+     */
+    fun extractContent(
+        request: Request,
+        teeFilterProperties: TeeFilterProperties,
+    ): CapturedContent? =
+        teeFilterProperties
+            .takeIf { it.enabled }
+            ?.let { request.getAttribute(BodyCaptureRules.ATTR) as? TeeFilterProperties }
+            ?.let { properties ->
+                (request.getAttribute(TeeBuffer.REQUEST_ATTR) as? TeeBuffer)?.let { buffer ->
+                    val contentType = request.headers[HttpHeader.CONTENT_TYPE]
+                    BodyCapturePolicy.capture(contentType, buffer, contentCharset(contentType), properties)
+                }
+            }
+
+    /** Resolves the charset of the `charset` parameter of [contentType], falling back to UTF-8. */
+    fun contentCharset(contentType: String?): Charset =
+        BodyCapturePolicy.resolveCharset(contentType?.let(MimeTypes::getCharsetFromContentType))
+
+    /**
+     * Request attributes holding captured bodies, which are logged as request and response content instead,
+     * and the properties they were captured with.
+     */
+    private val BODY_CAPTURE_ATTRIBUTES = setOf(TeeBuffer.REQUEST_ATTR, TeeBuffer.RESPONSE_ATTR, BodyCaptureRules.ATTR)
 }
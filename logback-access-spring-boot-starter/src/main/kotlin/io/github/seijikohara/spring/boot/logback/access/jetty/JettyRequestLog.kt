@@ -3,6 +3,7 @@ package io.github.seijikohara.spring.boot.logback.access.jetty
 import io.github.oshai.kotlinlogging.KotlinLogging
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessEvent
+import io.github.seijikohara.spring.boot.logback.access.pool.AccessEventPool
 import org.eclipse.jetty.server.Request
 import org.eclipse.jetty.server.RequestLog
 import org.eclipse.jetty.server.Response
@@ -16,19 +17,30 @@ import org.eclipse.jetty.server.Response
  *
  * This class operates at the Jetty core server level, not the Servlet level.
  * TeeFilter attributes (LB_INPUT_BUFFER/LB_OUTPUT_BUFFER) set on the Servlet
- * request are not visible from this API.
+ * request are not visible from this API; bodies are captured by the
+ * [JettyBodyCaptureHandler] instead.
  *
  * This class is auto-configured by the starter. Direct instantiation is not needed.
  */
 internal class JettyRequestLog(
     private val logbackAccessContext: LogbackAccessContext,
 ) : RequestLog {
+    /** Recycled events, or null when [LogbackAccessContext.eventPoolingEnabled] is false. */
+    private val eventPool: AccessEventPool? =
+        logbackAccessContext
+            .takeIf { it.eventPoolingEnabled }
+            ?.let { AccessEventPool(it.properties.eventPool.maxSize) }
+
     /**
      * Jetty also logs rejected requests through a synthesized placeholder request, so the
-     * inputs are not guaranteed to be fully populated. Extraction runs before
-     * [LogbackAccessContext.emit] (which has its own guard), so wrap it here to ensure an
-     * extraction failure never escapes into Jetty's request-completion path, mirroring the
-     * Tomcat valve.
+     * inputs are not guaranteed to be fully populated. The URL filters and sampling are
+     * consulted through [LogbackAccessContext.shouldLog] before any data is extracted, so
+     * excluded requests skip the header, cookie, and attribute copies. Extraction runs before
+     * [LogbackAccessContext.emitAccepted] (which has its own guard), so wrap it here to ensure
+     * an extraction failure never escapes into Jetty's request-completion path, mirroring the
+     * Tomcat valve. With event pooling enabled, a recycled event is filled in place and released
+     * once the appenders return. The chunks held by the [JettyBodyCaptureHandler] are released
+     * afterwards in any case, since this is the last point that reads them.
      */
     @Suppress("TooGenericExceptionCaught")
     override fun log(
@@ -36,11 +48,22 @@ internal class JettyRequestLog(
         response: Response,
     ) {
         try {
-            createAccessEventData(logbackAccessContext, request, response)
-                .let(::LogbackAccessEvent)
-                .let(logbackAccessContext::emit)
+            if (!logbackAccessContext.shouldLog(JettyRequestView(request, response))) return
+            val pool = eventPool
+            if (pool != null) {
+                pool.borrow { event ->
+                    event.populate(logbackAccessContext, request, response)
+                    logbackAccessContext.emitAccepted(event)
+                }
+            } else {
+                createAccessEventData(logbackAccessContext, request, response)
+                    .let(::LogbackAccessEvent)
+                    .let(logbackAccessContext::emitAccepted)
+            }
         } catch (e: Exception) {
             logger.error(e) { "Failed to capture Jetty access event" }
+        } finally {
+            JettyBodyCaptureHandler.releaseAll(request)
         }
     }
 
@@ -0,0 +1,44 @@
+package io.github.seijikohara.spring.boot.logback.access.jetty
+
+import io.github.seijikohara.spring.boot.logback.access.AccessRequestView
+import org.eclipse.jetty.server.Request
+import org.eclipse.jetty.server.Response
+import java.net.InetSocketAddress
+
+/**
+ * [AccessRequestView] over a Jetty [Request]/[Response] pair.
+ *
+ * Reads the path and method from Jetty's already-parsed [org.eclipse.jetty.http.HttpURI]
+ * and request metadata, and single headers from its header fields, so consulting the view
+ * never copies headers or cookies.
+ *
+ * [remoteAddr] is read from the connection's end point, which request customizers cannot wrap, so
+ * it stays the connection peer when a `ForwardedRequestCustomizer` rewrites the request's client
+ * address, as [AccessRequestView.remoteAddr] requires.
+ */
+internal class JettyRequestView(
+    private val request: Request,
+    private val response: Response,
+) : AccessRequestView {
+    override val requestURI: String?
+        get() = request.httpURI.path
+
+    override val method: String?
+        get() = request.method
+
+    override val statusCode: Int
+        get() = response.status
+
+    override val elapsedTime: Long
+        get() = elapsedMillis(request)
+
+    override val contentLength: Long
+        get() = Response.getContentBytesWritten(response)
+
+    override val remoteAddr: String?
+        get() =
+            (request.connectionMetaData.connection.endPoint.remoteSocketAddress as? InetSocketAddress)
+                ?.let { it.address?.hostAddress ?: it.hostString }
+
+    override fun requestHeader(name: String): String? = request.headers.get(name)
+}
@@ -1,14 +1,47 @@
 package io.github.seijikohara.spring.boot.logback.access.jetty
 
+import io.github.seijikohara.spring.boot.logback.access.CapturedContent
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.tee.BodyCapturePolicy
+import io.github.seijikohara.spring.boot.logback.access.tee.BodyCaptureRules
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
+import org.eclipse.jetty.http.HttpHeader
+import org.eclipse.jetty.server.Request
 import org.eclipse.jetty.server.Response
 import java.util.Collections.unmodifiableMap
 
 /**
- * Extracts response data (headers) from Jetty [Response].
+ * Extracts response data (headers and captured body) from Jetty [Response].
  */
 internal object JettyResponseDataExtractor {
-    fun extractHeaders(response: Response): Map<String, String> =
+    fun extractHeaders(
+        response: Response,
+        selection: FieldSelection = FieldSelection.ALL,
+    ): Map<String, String> =
         sortedMapOf<String, String>(String.CASE_INSENSITIVE_ORDER)
-            .apply { response.headers.forEach { field -> putIfAbsent(field.name, field.value) } }
-            .let(::unmodifiableMap)
+            .apply {
+                for (field in response.headers) {
+                    if (selection.includes(field.lowerCaseName)) putIfAbsent(field.name, field.value)
+                }
+            }.let(::unmodifiableMap)
+
+    /**
+     * Extracts the response body captured by the [JettyBodyCaptureHandler], like
+     * [JettyRequestDataExtractor.extractContent], classified and decoded by the response Content-Type.
+     */
+    fun extractContent(
+        request: Request,
+        response: Response,
+        teeFilterProperties: TeeFilterProperties,
+    ): CapturedContent? =
+        teeFilterProperties
+            .takeIf { it.enabled }
+            ?.let { request.getAttribute(BodyCaptureRules.ATTR) as? TeeFilterProperties }
+            ?.let { properties ->
+                (request.getAttribute(TeeBuffer.RESPONSE_ATTR) as? TeeBuffer)?.let { buffer ->
+                    val contentType = response.headers[HttpHeader.CONTENT_TYPE]
+                    BodyCapturePolicy.capture(contentType, buffer, JettyRequestDataExtractor.contentCharset(contentType), properties)
+                }
+            }
 }
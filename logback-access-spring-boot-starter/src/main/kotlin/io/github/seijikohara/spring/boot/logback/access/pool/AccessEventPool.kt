@@ -0,0 +1,48 @@
+package io.github.seijikohara.spring.boot.logback.access.pool
+
+import java.util.concurrent.ArrayBlockingQueue
+
+/**
+ * Bounded pool of [PooledAccessEvent] instances shared by the request threads of one server integration.
+ *
+ * Backed by an [ArrayBlockingQueue], whose non-blocking [ArrayBlockingQueue.poll] and
+ * [ArrayBlockingQueue.offer] operate on a preallocated array, so borrowing and returning an
+ * event does not allocate. The pool never blocks: an empty pool allocates a new event and a
+ * full pool drops the returned one.
+ *
+ * @param maxSize maximum number of idle events retained for reuse
+ */
+internal class AccessEventPool(
+    maxSize: Int,
+) {
+    private val idle = ArrayBlockingQueue<PooledAccessEvent>(maxSize.coerceAtLeast(1))
+
+    /** Returns an idle event, or a new one when none is available. The caller owns it until [release]. */
+    fun acquire(): PooledAccessEvent = idle.poll() ?: PooledAccessEvent()
+
+    /**
+     * Returns [event] to the pool once the appenders are done with it.
+     *
+     * Events detached through [PooledAccessEvent.prepareForDeferredProcessing] now belong to
+     * whoever detached them and are left untouched.
+     */
+    fun release(event: PooledAccessEvent) {
+        if (event.detached) return
+        event.reset()
+        idle.offer(event)
+    }
+
+    /** Runs [block] with an acquired event and releases it afterwards, even when [block] throws. */
+    inline fun borrow(block: (PooledAccessEvent) -> Unit): Unit =
+        acquire().let { event ->
+            try {
+                block(event)
+            } finally {
+                release(event)
+            }
+        }
+
+    /** Number of idle events currently held. */
+    val size: Int
+        get() = idle.size
+}
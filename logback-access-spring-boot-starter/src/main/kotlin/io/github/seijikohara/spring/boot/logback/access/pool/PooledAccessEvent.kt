@@ -0,0 +1,226 @@
+package io.github.seijikohara.spring.boot.logback.access.pool
+
+import ch.qos.logback.access.common.spi.IAccessEvent
+import ch.qos.logback.access.common.spi.IAccessEvent.NA
+import ch.qos.logback.access.common.spi.IAccessEvent.SENTINEL
+import ch.qos.logback.access.common.spi.ServerAdapter
+import io.github.seijikohara.spring.boot.logback.access.CapturedContent
+import io.github.seijikohara.spring.boot.logback.access.RoutedAccessEvent
+import jakarta.servlet.http.HttpServletRequest
+import jakarta.servlet.http.HttpServletResponse
+import java.util.Collections.enumeration
+import java.util.Enumeration
+import java.util.concurrent.TimeUnit.MILLISECONDS
+
+/**
+ * Mutable [IAccessEvent] filled in place by the server integrations and recycled through an
+ * [AccessEventPool].
+ *
+ * Scalar fields are stored as primitives (with [SENTINEL] for unknown values) and the derived
+ * query string and request line are only built when a converter asks for them, so filling an
+ * event for a pattern that reads core fields allocates nothing beyond the strings the server
+ * already holds. Captured bodies are kept as bytes and decoded when a converter reads them.
+ *
+ * The mutable fields are exposed as [JvmField]s so they do not clash with the [RoutedAccessEvent] getters,
+ * which apply the logback-access NA fallbacks.
+ *
+ * Ownership: the thread that acquired the event owns it until [AccessEventPool.release].
+ * [prepareForDeferredProcessing] transfers ownership to the caller; the event is then never
+ * reset or handed out again, and the pool allocates a replacement instead.
+ */
+internal class PooledAccessEvent : RoutedAccessEvent {
+    /** Set once [prepareForDeferredProcessing] has transferred this instance away from the pool. */
+    var detached: Boolean = false
+        private set
+
+    @JvmField
+    var timeStamp: Long = 0
+
+    @JvmField
+    var elapsedTime: Long = SENTINEL.toLong()
+
+    @JvmField
+    var sequenceNumber: Long = SENTINEL.toLong()
+
+    @JvmField
+    var threadName: String = NA
+
+    @JvmField
+    var serverName: String? = null
+
+    @JvmField
+    var localPort: Int = SENTINEL
+
+    @JvmField
+    var remoteAddr: String? = null
+
+    @JvmField
+    var remoteHost: String? = null
+
+    @JvmField
+    var remoteUser: String? = null
+
+    @JvmField
+    var protocol: String = NA
+
+    @JvmField
+    var method: String = NA
+
+    @JvmField
+    var requestURI: String? = null
+
+    /** Raw query string without the leading "?", or null when the request has none. */
+    @JvmField
+    var rawQueryString: String? = null
+
+    @JvmField
+    var requestHeaderMap: Map<String, String> = emptyMap()
+
+    @JvmField
+    var cookieMap: Map<String, String> = emptyMap()
+
+    @JvmField
+    var requestParameterMap: Map<String, List<String>> = emptyMap()
+
+    @JvmField
+    var attributeMap: Map<String, String> = emptyMap()
+
+    @JvmField
+    var sessionID: String? = null
+
+    @JvmField
+    var requestContent: CapturedContent? = null
+
+    @JvmField
+    var statusCode: Int = SENTINEL
+
+    @JvmField
+    var responseHeaderMap: Map<String, String> = emptyMap()
+
+    @JvmField
+    var contentLength: Long = SENTINEL.toLong()
+
+    @JvmField
+    var responseContent: CapturedContent? = null
+
+    @JvmField
+    var route: String? = null
+
+    private var derivedQueryString: String? = null
+
+    private var derivedRequestURL: String? = null
+
+    /** Clears every field so no value of the previous request leaks into the next one. */
+    fun reset() {
+        timeStamp = 0
+        elapsedTime = SENTINEL.toLong()
+        sequenceNumber = SENTINEL.toLong()
+        threadName = NA
+        serverName = null
+        localPort = SENTINEL
+        remoteAddr = null
+        remoteHost = null
+        remoteUser = null
+        protocol = NA
+        method = NA
+        requestURI = null
+        rawQueryString = null
+        requestHeaderMap = emptyMap()
+        cookieMap = emptyMap()
+        requestParameterMap = emptyMap()
+        attributeMap = emptyMap()
+        sessionID = null
+        requestContent = null
+        statusCode = SENTINEL
+        responseHeaderMap = emptyMap()
+        contentLength = SENTINEL.toLong()
+        responseContent = null
+        route = null
+        derivedQueryString = null
+        derivedRequestURL = null
+    }
+
+    override fun getRequest(): HttpServletRequest? = null
+
+    override fun getResponse(): HttpServletResponse? = null
+
+    override fun getServerAdapter(): ServerAdapter? = null
+
+    override fun getTimeStamp(): Long = timeStamp
+
+    override fun getElapsedTime(): Long = elapsedTime
+
+    override fun getElapsedSeconds(): Long = if (elapsedTime < 0) SENTINEL.toLong() else MILLISECONDS.toSeconds(elapsedTime)
+
+    override fun getSequenceNumber(): Long = sequenceNumber
+
+    override fun getThreadName(): String = threadName
+
+    override fun setThreadName(value: String) = run { threadName = value }
+
+    override fun getServerName(): String = serverName ?: NA
+
+    override fun getLocalPort(): Int = localPort
+
+    override fun getRemoteAddr(): String = remoteAddr ?: NA
+
+    override fun getRemoteHost(): String = remoteHost ?: NA
+
+    override fun getRemoteUser(): String = remoteUser ?: NA
+
+    override fun getProtocol(): String = protocol
+
+    override fun getMethod(): String = method
+
+    override fun getRequestURI(): String = requestURI ?: NA
+
+    override fun getQueryString(): String =
+        derivedQueryString ?: rawQueryString?.let { "?$it" }.orEmpty().also { derivedQueryString = it }
+
+    override fun getRequestURL(): String =
+        derivedRequestURL ?: "$method ${requestURI ?: NA}${getQueryString()} $protocol".also { derivedRequestURL = it }
+
+    override fun getRequestHeaderMap(): Map<String, String> = requestHeaderMap
+
+    override fun getRequestHeaderNames(): Enumeration<String> = enumeration(requestHeaderMap.keys)
+
+    override fun getRequestHeader(key: String): String = requestHeaderMap[key] ?: NA
+
+    override fun getCookie(key: String): String = cookieMap[key] ?: NA
+
+    override fun getRequestParameterMap(): Map<String, Array<String>> =
+        requestParameterMap.mapValues { (_, values) -> values.toTypedArray() }
+
+    override fun getRequestParameter(key: String): Array<String> = requestParameterMap[key]?.toTypedArray() ?: arrayOf(NA)
+
+    override fun getAttribute(key: String): String = attributeMap[key] ?: NA
+
+    override fun getSessionID(): String = sessionID ?: NA
+
+    override fun getRequestContent(): String = requestContent?.decode().orEmpty()
+
+    override fun getStatusCode(): Int = statusCode
+
+    override fun getResponseHeaderMap(): Map<String, String> = responseHeaderMap
+
+    override fun getResponseHeaderNameList(): List<String> = responseHeaderMap.keys.toList()
+
+    override fun getResponseHeader(key: String): String = responseHeaderMap[key] ?: NA
+
+    override fun getContentLength(): Long = contentLength
+
+    override fun getResponseContent(): String = responseContent?.decode().orEmpty()
+
+    override fun getRoute(): String = route ?: NA
+
+    /**
+     * Detaches this event from its pool and materializes the lazily derived fields, so the caller
+     * may keep it after the appenders return.
+     */
+    override fun prepareForDeferredProcessing() {
+        detached = true
+        getRequestURL()
+    }
+
+    override fun toString(): String = "${this::class.simpleName}(${getRequestURL()} $statusCode)"
+}
@@ -0,0 +1,28 @@
+package io.github.seijikohara.spring.boot.logback.access.route
+
+import io.github.seijikohara.spring.boot.logback.access.autoconfigure.OnAccessLoggedServer
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Conditional
+import org.springframework.context.annotation.Configuration
+import org.springframework.web.server.WebFilter
+
+/**
+ * Registers the [RouteWebFilter] in reactive web applications running on Tomcat or Jetty, the
+ * servers whose access logs read the route it records.
+ *
+ * Servlet applications need no filter: Spring MVC already stores the matched handler pattern
+ * as a request attribute that the event sources read directly.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(WebFilter::class)
+@ConditionalOnWebApplication(type = REACTIVE)
+@Conditional(OnAccessLoggedServer::class)
+internal class RouteConfiguration {
+    @Bean
+    @ConditionalOnMissingBean(name = ["logbackAccessRouteWebFilter"])
+    fun logbackAccessRouteWebFilter(): RouteWebFilter = RouteWebFilter()
+}
@@ -0,0 +1,44 @@
+package io.github.seijikohara.spring.boot.logback.access.route
+
+import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.ROUTE_ATTR
+import jakarta.servlet.ServletRequest
+import org.eclipse.jetty.util.Attributes
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator
+import org.springframework.web.reactive.HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE
+import org.springframework.web.server.ServerWebExchange
+import org.springframework.web.server.WebFilter
+import org.springframework.web.server.WebFilterChain
+import org.springframework.web.util.pattern.PathPattern
+import reactor.core.publisher.Mono
+
+/**
+ * Copies the handler pattern WebFlux matched into the [ROUTE_ATTR] attribute of the native server
+ * request, where the access log event sources read it like Spring MVC's servlet request attribute.
+ *
+ * WebFlux keeps the pattern on the [ServerWebExchange], which the server's access log cannot see.
+ * The attribute is set before the completion or error signal reaches the server adapter, which is
+ * where Tomcat and Jetty complete the request and write their access log, and when the exchange
+ * is cancelled because the client went away.
+ * Tomcat exposes a servlet request and Jetty its core request; the Jetty type is only resolved
+ * when the request is not a servlet request, so Tomcat applications do not need Jetty classes.
+ */
+internal class RouteWebFilter : WebFilter {
+    override fun filter(
+        exchange: ServerWebExchange,
+        chain: WebFilterChain,
+    ): Mono<Void> =
+        chain
+            .filter(exchange)
+            .doOnTerminate { recordRoute(exchange) }
+            .doOnCancel { recordRoute(exchange) }
+
+    private fun recordRoute(exchange: ServerWebExchange) {
+        exchange.getAttribute<PathPattern>(BEST_MATCHING_PATTERN_ATTRIBUTE)?.patternString?.let { route ->
+            when (val request = ServerHttpRequestDecorator.getNativeRequest<Any>(exchange.request)) {
+                is ServletRequest -> request.setAttribute(ROUTE_ATTR, route)
+                is Attributes -> request.setAttribute(ROUTE_ATTR, route)
+                else -> Unit
+            }
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package io.github.seijikohara.spring.boot.logback.access.tee
 
+import io.github.seijikohara.spring.boot.logback.access.CapturedContent
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.OversizedPayloadMode
 import java.nio.charset.Charset
 
 /**
- * Evaluates whether captured body content should be included in log output
- * or suppressed based on content type and payload size.
+ * Evaluates whether captured body content should be included in log output,
+ * truncated, or suppressed based on content type and payload size.
  */
 internal object BodyCapturePolicy {
     private const val IMAGE_CONTENTS_SUPPRESSED = "[IMAGE CONTENTS SUPPRESSED]"
     private const val BINARY_CONTENT_SUPPRESSED = "[BINARY CONTENT SUPPRESSED]"
     private const val CONTENT_TOO_LARGE = "[CONTENT TOO LARGE]"
+    private const val CAPTURE_BUDGET_EXHAUSTED = "[CAPTURE BUDGET EXHAUSTED]"
+    private const val CONTENT_REDACTED = "[CONTENT REDACTED]"
+
+    /** Largest array the JVM reliably allocates. */
+    private const val MAX_CAPTURE_SIZE = Int.MAX_VALUE - 8L
 
     /**
      * Form submissions (application/x-www-form-urlencoded) are deliberately excluded:
@@ -32,7 +39,8 @@ internal object BodyCapturePolicy {
      *
      * Empty payloads are always allowed because there is nothing to expose.
      * Non-empty payloads without a Content-Type are suppressed because the
-     * allowlist cannot classify them.
+     * allowlist cannot classify them. Oversized payloads are allowed when
+     * [TeeFilterProperties.oversizedPayload] is [OversizedPayloadMode.TRUNCATE].
      *
      * @return null if capture is allowed, or a sentinel string if suppressed.
      */
@@ -42,12 +50,73 @@ internal object BodyCapturePolicy {
         properties: TeeFilterProperties,
     ): String? =
         when {
-            payloadSize > properties.maxPayloadSize -> CONTENT_TOO_LARGE
+            payloadSize > properties.maxPayloadSize && properties.oversizedPayload == OversizedPayloadMode.SUPPRESS -> CONTENT_TOO_LARGE
             payloadSize == 0L -> null
             !isAllowedContentType(contentType, properties) -> selectBinarySentinel(contentType)
             else -> null
         }
 
+    /**
+     * Snapshots a captured [buffer] for the log: the sentinel of [evaluate] when the body is suppressed,
+     * a budget sentinel when the buffer stopped copying because the in-flight budget was used up,
+     * the truncated start of an oversized body, or the copied bytes, to be decoded with [charset]
+     * only if the content is rendered.
+     *
+     * The bytes of a body that is logged first pass through the [BodyRedactor] of
+     * [TeeFilterProperties.redactedFields]; a body it cannot scan is replaced with a sentinel.
+     */
+    fun capture(
+        contentType: String?,
+        buffer: TeeBuffer,
+        charset: Charset,
+        properties: TeeFilterProperties,
+    ): CapturedContent {
+        val sentinel = evaluate(contentType, buffer.size, properties) ?: CAPTURE_BUDGET_EXHAUSTED.takeIf { buffer.isOverBudget }
+        val bytes = if (sentinel == null) redact(buffer.toByteArray(), contentType, charset, properties) else null
+        return when {
+            sentinel != null -> CapturedContent.ofText(sentinel)
+            bytes == null -> CapturedContent.ofText(CONTENT_REDACTED)
+            buffer.size > properties.maxPayloadSize -> truncate(bytes, buffer.size, charset, properties)
+            else -> CapturedContent(bytes, charset)
+        }
+    }
+
+    private fun redact(
+        bytes: ByteArray,
+        contentType: String?,
+        charset: Charset,
+        properties: TeeFilterProperties,
+    ): ByteArray? {
+        val redactor = BodyRedactor.of(properties) ?: return bytes
+        return redactor.redact(bytes, contentType, charset)
+    }
+
+    /**
+     * Keeps the first [TeeFilterProperties.maxPayloadSize] bytes of [bytes], cut back to a character
+     * boundary of [charset], and appends a marker holding the [size] of the whole body.
+     */
+    private fun truncate(
+        bytes: ByteArray,
+        size: Long,
+        charset: Charset,
+        properties: TeeFilterProperties,
+    ): CapturedContent {
+        val length = CharsetBoundary.prefixLength(bytes, maxCaptureSize(properties), charset)
+        return CapturedContent(bytes.copyOf(length) + "...[TRUNCATED: $size BYTES]".toByteArray(charset), charset)
+    }
+
+    /**
+     * Returns how many bytes of a body with [contentType] the tee should copy: up to
+     * [TeeFilterProperties.maxPayloadSize] for an allowed content type, none otherwise.
+     * A body whose type is not allowed is only counted, since [evaluate] replaces it anyway.
+     */
+    fun captureLimit(
+        contentType: String?,
+        properties: TeeFilterProperties,
+    ): Int = if (isAllowedContentType(contentType, properties)) maxCaptureSize(properties) else 0
+
+    private fun maxCaptureSize(properties: TeeFilterProperties): Int = properties.maxPayloadSize.coerceIn(0L, MAX_CAPTURE_SIZE).toInt()
+
     /**
      * Resolves a [Charset] from the given encoding name, falling back to UTF-8
      * when the encoding is null or unsupported.
@@ -0,0 +1,87 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.BodyCaptureRule
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import jakarta.servlet.ServletRequest
+import java.util.regex.PatternSyntaxException
+
+/**
+ * [TeeFilterProperties.rules] compiled once, deciding per request whether and how its bodies are captured.
+ *
+ * Each rule is resolved into a copy of the filter's [TeeFilterProperties] with the rule's size limit and
+ * content-type allowlist, so [BodyCapturePolicy] applies it without knowing about rules. The
+ * [BoundedTeeFilter] stores the properties it captured a request with under [ATTR], and the extractors
+ * read them back through [propertiesOf] instead of matching the rules a second time.
+ */
+internal class BodyCaptureRules(
+    properties: TeeFilterProperties,
+) {
+    private val rules: Array<CompiledRule> =
+        properties.rules
+            .map { rule -> CompiledRule(rule.urlPattern.toRulePattern(), rule.methodArray(), properties.overriddenBy(rule)) }
+            .toTypedArray()
+
+    /** Properties of the requests no rule needs to match, or null when rules select the requests to capture. */
+    private val fallback: TeeFilterProperties? = properties.takeIf { rules.isEmpty() }
+
+    /** Returns the properties to capture a [method] request to [uri] with, or null when its bodies are not captured. */
+    fun resolve(
+        method: String?,
+        uri: String?,
+    ): TeeFilterProperties? = rules.firstOrNull { it.matches(method, uri) }?.properties ?: fallback
+
+    private class CompiledRule(
+        private val pattern: Regex,
+        /** Methods compared case-insensitively, or null for any method. */
+        private val methods: Array<String>?,
+        val properties: TeeFilterProperties,
+    ) {
+        fun matches(
+            method: String?,
+            uri: String?,
+        ): Boolean =
+            (methods == null || methods.any { it.equals(method, ignoreCase = true) }) &&
+                uri != null &&
+                pattern.containsMatchIn(uri)
+    }
+
+    companion object {
+        /** Request attribute holding the [TeeFilterProperties] the [BoundedTeeFilter] captured the request with. */
+        const val ATTR: String = "io.github.seijikohara.spring.boot.logback.access.tee.captureProperties"
+
+        /**
+         * Returns the properties [request]'s bodies were captured with: those stored under [ATTR], or
+         * [properties] when no rules are configured, for bodies captured by a filter the application
+         * registered itself. Null when rules are configured and none matched the request.
+         */
+        fun propertiesOf(
+            request: ServletRequest,
+            properties: TeeFilterProperties,
+        ): TeeFilterProperties? = request.getAttribute(ATTR) as? TeeFilterProperties ?: properties.takeIf { it.rules.isEmpty() }
+
+        private fun String.toRulePattern(): Regex =
+            try {
+                Regex(this)
+            } catch (e: PatternSyntaxException) {
+                throw IllegalArgumentException("Invalid tee-filter rule URL pattern: '$this'", e)
+            }
+
+        private fun BodyCaptureRule.methodArray(): Array<String>? =
+            methods
+                ?.map { it.trim() }
+                ?.filter { it.isNotEmpty() }
+                ?.takeIf { it.isNotEmpty() }
+                ?.toTypedArray()
+
+        private fun TeeFilterProperties.overriddenBy(rule: BodyCaptureRule): TeeFilterProperties {
+            require((rule.maxPayloadSize ?: 0L) >= 0L) {
+                "Invalid tee-filter rule max-payload-size: ${rule.maxPayloadSize} (pattern '${rule.urlPattern}')"
+            }
+            return copy(
+                maxPayloadSize = rule.maxPayloadSize ?: maxPayloadSize,
+                allowedContentTypes = rule.allowedContentTypes ?: allowedContentTypes,
+                rules = emptyList(),
+            )
+        }
+    }
+}
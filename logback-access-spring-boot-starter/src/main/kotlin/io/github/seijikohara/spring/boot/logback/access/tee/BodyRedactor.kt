@@ -0,0 +1,163 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import java.nio.charset.Charset
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Masks the values of [TeeFilterProperties.redactedFields] in captured JSON and form-urlencoded bodies.
+ *
+ * The captured bytes are scanned once, without decoding them or building a tree: a JSON string
+ * followed by a colon is a key, and the value after it is skipped with [JsonTokens]. Form bodies
+ * are split at `&` and `=`. Keys are compared byte by byte, ASCII case-insensitively,
+ * without unescaping. The values found are recorded as ranges, and a redacted body is assembled
+ * into one new array; a body with nothing to mask is returned as is. A body cut off by the size
+ * limit is scanned up to its end, so a value it cuts is still masked.
+ *
+ * The scan relies on the structural characters being single ASCII bytes, which holds for UTF-8,
+ * US-ASCII, and ISO-8859-1. [redact] returns null for bodies in other charsets, which are then
+ * suppressed rather than logged unmasked.
+ */
+internal class BodyRedactor private constructor(
+    fields: List<String>,
+) {
+    /** Lowercased UTF-8 bytes of the field names. */
+    private val keys: Array<ByteArray> = fields.map { it.lowercase().toByteArray() }.toTypedArray()
+
+    /**
+     * Returns [bytes] with the values of the redacted fields masked, [bytes] itself when the content
+     * type is neither JSON nor form-urlencoded or nothing matched, or null when the body would need
+     * masking but its [charset] cannot be scanned.
+     */
+    fun redact(
+        bytes: ByteArray,
+        contentType: String?,
+        charset: Charset,
+    ): ByteArray? {
+        val format = formatOf(contentType) ?: return bytes
+        return when {
+            charset !in SCANNABLE_CHARSETS -> null
+            format == Format.JSON -> applyMask(bytes, jsonValueRanges(bytes), JSON_MASK)
+            else -> applyMask(bytes, formValueRanges(bytes), FORM_MASK)
+        }
+    }
+
+    private fun jsonValueRanges(bytes: ByteArray): Ranges? {
+        var ranges: Ranges? = null
+        var index = 0
+        while (index < bytes.size) {
+            if (bytes[index] != JsonTokens.QUOTE) {
+                index++
+            } else {
+                val keyEnd = JsonTokens.stringEnd(bytes, index)
+                val colon = JsonTokens.skipWhitespace(bytes, keyEnd)
+                if (colon < bytes.size && bytes[colon] == COLON && isRedacted(bytes, index + 1, keyEnd - 1)) {
+                    val valueStart = JsonTokens.skipWhitespace(bytes, colon + 1)
+                    index = JsonTokens.valueEnd(bytes, valueStart)
+                    if (valueStart < index) ranges = (ranges ?: Ranges()).apply { add(valueStart, index) }
+                } else {
+                    index = keyEnd
+                }
+            }
+        }
+        return ranges
+    }
+
+    private fun formValueRanges(bytes: ByteArray): Ranges? {
+        var ranges: Ranges? = null
+        var start = 0
+        while (start < bytes.size) {
+            var end = start
+            var equals = -1
+            while (end < bytes.size && bytes[end] != AMPERSAND) {
+                if (equals < 0 && bytes[end] == EQUALS) equals = end
+                end++
+            }
+            if (equals >= 0 && isRedacted(bytes, start, equals)) ranges = (ranges ?: Ranges()).apply { add(equals + 1, end) }
+            start = end + 1
+        }
+        return ranges
+    }
+
+    /** Whether `bytes[from, to)` equals one of the field names, ignoring ASCII case. */
+    private fun isRedacted(
+        bytes: ByteArray,
+        from: Int,
+        to: Int,
+    ): Boolean =
+        keys.any { key ->
+            key.size == to - from && key.indices.all { asciiLowercase(bytes[from + it]) == key[it] }
+        }
+
+    /** Growable list of `[start, end)` ranges, in ascending order. */
+    private class Ranges {
+        var bounds = IntArray(INITIAL_RANGES * 2)
+        var count = 0
+
+        fun add(
+            start: Int,
+            end: Int,
+        ) {
+            if (count * 2 == bounds.size) bounds = bounds.copyOf(bounds.size * 2)
+            bounds[count * 2] = start
+            bounds[count * 2 + 1] = end
+            count++
+        }
+    }
+
+    private enum class Format { JSON, FORM }
+
+    companion object {
+        private const val COLON = ':'.code.toByte()
+        private const val AMPERSAND = '&'.code.toByte()
+        private const val EQUALS = '='.code.toByte()
+        private const val ASCII_CASE_BIT = 0x20
+        private const val INITIAL_RANGES = 4
+
+        private val JSON_MASK = "\"***\"".toByteArray()
+        private val FORM_MASK = "***".toByteArray()
+        private val SCANNABLE_CHARSETS = setOf(Charsets.UTF_8, Charsets.US_ASCII, Charsets.ISO_8859_1)
+
+        private val instances = ConcurrentHashMap<List<String>, BodyRedactor>()
+
+        /** Returns the redactor of [properties], or null when no field is redacted. */
+        fun of(properties: TeeFilterProperties): BodyRedactor? =
+            properties.redactedFields.takeIf { it.isNotEmpty() }?.let { fields -> instances.computeIfAbsent(fields, ::BodyRedactor) }
+
+        private fun formatOf(contentType: String?): Format? {
+            val mimeType = contentType?.substringBefore(';')?.trim()?.lowercase() ?: return null
+            return when {
+                mimeType == "application/json" || mimeType.endsWith("+json") -> Format.JSON
+                mimeType == "application/x-www-form-urlencoded" -> Format.FORM
+                else -> null
+            }
+        }
+
+        private fun asciiLowercase(byte: Byte): Byte = if (byte in 'A'.code..'Z'.code) (byte.toInt() or ASCII_CASE_BIT).toByte() else byte
+
+        /** Copies [bytes] into one new array with each range replaced by [mask], or returns [bytes] when there are no ranges. */
+        private fun applyMask(
+            bytes: ByteArray,
+            ranges: Ranges?,
+            mask: ByteArray,
+        ): ByteArray {
+            if (ranges == null) return bytes
+            val bounds = ranges.bounds
+            var removed = 0
+            for (range in 0..<ranges.count) removed += bounds[range * 2 + 1] - bounds[range * 2]
+            val result = ByteArray(bytes.size - removed + ranges.count * mask.size)
+            var source = 0
+            var target = 0
+            for (range in 0..<ranges.count) {
+                val start = bounds[range * 2]
+                System.arraycopy(bytes, source, result, target, start - source)
+                target += start - source
+                System.arraycopy(mask, 0, result, target, mask.size)
+                target += mask.size
+                source = bounds[range * 2 + 1]
+            }
+            System.arraycopy(bytes, source, result, target, bytes.size - source)
+            return result
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import ch.qos.logback.access.common.servlet.Util.isFormUrlEncoded
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import jakarta.servlet.Filter
+import jakarta.servlet.FilterChain
+import jakarta.servlet.ReadListener
+import jakarta.servlet.ServletInputStream
+import jakarta.servlet.ServletOutputStream
+import jakarta.servlet.ServletRequest
+import jakarta.servlet.ServletResponse
+import jakarta.servlet.WriteListener
+import jakarta.servlet.http.HttpServletRequest
+import jakarta.servlet.http.HttpServletRequestWrapper
+import jakarta.servlet.http.HttpServletResponse
+import jakarta.servlet.http.HttpServletResponseWrapper
+import java.io.BufferedReader
+import java.io.InputStreamReader
+import java.io.OutputStreamWriter
+import java.io.PrintWriter
+import java.net.InetAddress
+import java.net.UnknownHostException
+
+/**
+ * Replacement for the Logback-access `TeeFilter` that copies request and response bodies into
+ * [TeeBuffer]s bounded by [TeeFilterProperties.maxPayloadSize].
+ *
+ * The upstream filter keeps the whole body in memory before the size check of [BodyCapturePolicy]
+ * can discard it. Here the limit is applied while the body streams: a buffer stops copying at the
+ * limit and only counts the rest, and a body whose content type is not allowed is not copied at
+ * all. The request body is classified by its Content-Type up front, the response body by the
+ * content type set when its first byte is written. The buffers are stored under
+ * [TeeBuffer.REQUEST_ATTR] and [TeeBuffer.RESPONSE_ATTR] for the Tomcat extractors.
+ *
+ * The buffers borrow their chunks from [pool] and keep them until the Tomcat access log valve
+ * has logged the request and calls [TeeBuffer.releaseAll].
+ *
+ * Form submissions are not wrapped, like upstream, so that the container can still parse their
+ * parameters; the extractors rebuild their body from the parameters instead.
+ *
+ * [TeeFilterProperties.includeHosts] and [TeeFilterProperties.excludeHosts] are matched once
+ * against [hostName], as the upstream filter does at initialization. [TeeFilterProperties.rules]
+ * are checked per request before anything is wrapped: a request no rule matches passes through
+ * untouched, and a matching one is captured with the rule's limit and allowlist, which are stored
+ * under [BodyCaptureRules.ATTR] for the extractors.
+ */
+internal class BoundedTeeFilter(
+    properties: TeeFilterProperties,
+    private val pool: CaptureBufferPool,
+    hostName: String = localHostName(),
+) : Filter {
+    /** Whether this host captures bodies at all. */
+    val isActive: Boolean = capturesOn(hostName, properties)
+
+    private val rules = BodyCaptureRules(properties)
+
+    override fun doFilter(
+        request: ServletRequest,
+        response: ServletResponse,
+        chain: FilterChain,
+    ) {
+        if (!isActive || request !is HttpServletRequest || response !is HttpServletResponse) {
+            chain.doFilter(request, response)
+            return
+        }
+        val captureProperties = rules.resolve(request.method, request.requestURI)
+        if (captureProperties == null) {
+            chain.doFilter(request, response)
+            return
+        }
+        request.setAttribute(BodyCaptureRules.ATTR, captureProperties)
+        val teeRequest =
+            if (isFormUrlEncoded(request)) {
+                request
+            } else {
+                TeeBuffer(pool) { BodyCapturePolicy.captureLimit(request.contentType, captureProperties) }
+                    .also { request.setAttribute(TeeBuffer.REQUEST_ATTR, it) }
+                    .let { TeeRequest(request, it) }
+            }
+        val teeResponse =
+            TeeBuffer(pool) { BodyCapturePolicy.captureLimit(response.contentType, captureProperties) }
+                .also { request.setAttribute(TeeBuffer.RESPONSE_ATTR, it) }
+                .let { TeeResponse(response, it) }
+        try {
+            chain.doFilter(teeRequest, teeResponse)
+        } finally {
+            teeResponse.finish()
+        }
+    }
+
+    private class TeeRequest(
+        request: HttpServletRequest,
+        private val buffer: TeeBuffer,
+    ) : HttpServletRequestWrapper(request) {
+        private val inputStream: ServletInputStream by lazy { TeeInputStream(super.getInputStream(), buffer) }
+
+        private val reader: BufferedReader by lazy {
+            BufferedReader(InputStreamReader(inputStream, BodyCapturePolicy.resolveCharset(characterEncoding)))
+        }
+
+        override fun getInputStream(): ServletInputStream = inputStream
+
+        override fun getReader(): BufferedReader = reader
+    }
+
+    private class TeeResponse(
+        response: HttpServletResponse,
+        private val buffer: TeeBuffer,
+    ) : HttpServletResponseWrapper(response) {
+        private var outputStream: ServletOutputStream? = null
+        private var writer: PrintWriter? = null
+
+        override fun getOutputStream(): ServletOutputStream =
+            outputStream ?: TeeOutputStream(super.getOutputStream(), buffer).also { outputStream = it }
+
+        override fun getWriter(): PrintWriter =
+            writer ?: PrintWriter(OutputStreamWriter(getOutputStream(), characterEncoding)).also { writer = it }
+
+        override fun flushBuffer() {
+            writer?.flush()
+            super.flushBuffer()
+        }
+
+        /** Flushes the characters still held by the writer, so they reach the client and the buffer. */
+        fun finish() {
+            writer?.flush()
+        }
+    }
+
+    private class TeeInputStream(
+        private val delegate: ServletInputStream,
+        private val buffer: TeeBuffer,
+    ) : ServletInputStream() {
+        override fun read(): Int = delegate.read().also { if (it >= 0) buffer.write(it) }
+
+        override fun read(
+            bytes: ByteArray,
+            offset: Int,
+            length: Int,
+        ): Int = delegate.read(bytes, offset, length).also { if (it > 0) buffer.write(bytes, offset, it) }
+
+        override fun isFinished(): Boolean = delegate.isFinished
+
+        override fun isReady(): Boolean = delegate.isReady
+
+        override fun setReadListener(listener: ReadListener) = delegate.setReadListener(listener)
+
+        override fun available(): Int = delegate.available()
+
+        override fun close() = delegate.close()
+    }
+
+    private class TeeOutputStream(
+        private val delegate: ServletOutputStream,
+        private val buffer: TeeBuffer,
+    ) : ServletOutputStream() {
+        override fun write(byte: Int) {
+            delegate.write(byte)
+            buffer.write(byte)
+        }
+
+        override fun write(
+            bytes: ByteArray,
+            offset: Int,
+            length: Int,
+        ) {
+            delegate.write(bytes, offset, length)
+            buffer.write(bytes, offset, length)
+        }
+
+        override fun isReady(): Boolean = delegate.isReady
+
+        override fun setWriteListener(listener: WriteListener) = delegate.setWriteListener(listener)
+
+        override fun flush() = delegate.flush()
+
+        override fun close() = delegate.close()
+    }
+
+    companion object {
+        /** Returns true if [hostName] passes the [TeeFilterProperties.includeHosts] and [TeeFilterProperties.excludeHosts] lists. */
+        fun capturesOn(
+            hostName: String,
+            properties: TeeFilterProperties,
+        ): Boolean =
+            hostList(properties.includeHosts).let { it.isEmpty() || hostName in it } &&
+                hostName !in hostList(properties.excludeHosts)
+
+        fun localHostName(): String =
+            try {
+                InetAddress.getLocalHost().hostName
+            } catch (_: UnknownHostException) {
+                "localhost"
+            }
+
+        private fun hostList(hosts: String?): List<String> =
+            hosts
+                ?.split(',')
+                ?.map { it.trim() }
+                ?.filter { it.isNotEmpty() }
+                .orEmpty()
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.micrometer.core.instrument.FunctionCounter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.binder.BaseUnits
+import io.micrometer.core.instrument.binder.MeterBinder
+
+/**
+ * Publishes the state of a [CaptureBufferPool]: idle and in-flight bytes, the in-flight budget,
+ * and the number of chunk requests refused because the budget was used up.
+ */
+internal class CaptureBufferMetrics(
+    private val pool: CaptureBufferPool,
+) : MeterBinder {
+    override fun bindTo(registry: MeterRegistry) {
+        Gauge
+            .builder("logback.access.tee.buffer.idle", pool) { it.idleBytes.toDouble() }
+            .description("Bytes held by idle body capture buffers")
+            .baseUnit(BaseUnits.BYTES)
+            .register(registry)
+        Gauge
+            .builder("logback.access.tee.buffer.in.flight", pool) { it.inFlightBytes.toDouble() }
+            .description("Bytes held by body capture buffers of requests in progress")
+            .baseUnit(BaseUnits.BYTES)
+            .register(registry)
+        Gauge
+            .builder("logback.access.tee.buffer.in.flight.max", pool) { it.maxInFlightBytes.toDouble() }
+            .description("Budget of bytes held by body capture buffers of requests in progress")
+            .baseUnit(BaseUnits.BYTES)
+            .register(registry)
+        FunctionCounter
+            .builder("logback.access.tee.buffer.rejected", pool) { it.rejectedCount.toDouble() }
+            .description("Capture buffer requests refused because the in-flight budget was used up")
+            .register(registry)
+    }
+}
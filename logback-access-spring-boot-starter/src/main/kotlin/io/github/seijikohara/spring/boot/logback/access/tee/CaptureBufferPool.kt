@@ -0,0 +1,81 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import java.nio.ByteBuffer
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Pool of fixed-size [ByteBuffer] chunks shared by the [TeeBuffer]s of all requests, with a global
+ * budget of [TeeFilterProperties.maxInFlightBytes] on the chunks borrowed at once.
+ *
+ * Like the access event pool, idle chunks are kept in an [ArrayBlockingQueue], so borrowing and
+ * returning a chunk does not allocate once the pool is warm; a request burst reuses the chunks of
+ * the previous one instead of promoting fresh arrays. The budget is a single counter of borrowed
+ * chunks, reserved before a chunk is handed out, so [acquire] returns null instead of allocating
+ * when the budget is used up. A body being captured holds at least one whole chunk, however small.
+ * Chunks are allocated with [ByteBuffer.allocateDirect] when [TeeFilterProperties.directBuffers]
+ * is set.
+ *
+ * @param chunkSize size of each chunk in bytes
+ */
+internal class CaptureBufferPool(
+    properties: TeeFilterProperties,
+    val chunkSize: Int = DEFAULT_CHUNK_SIZE,
+) {
+    private val direct = properties.directBuffers
+
+    /** Budget in whole chunks, rounded down; a budget below one chunk would reject every body. */
+    private val maxChunks: Long =
+        properties.maxInFlightBytes
+            .also {
+                require(it >= chunkSize) { "Invalid tee-filter max-in-flight-bytes: $it (must be at least one $chunkSize-byte chunk)" }
+            }.div(chunkSize)
+
+    private val idle = ArrayBlockingQueue<ByteBuffer>(maxChunks.coerceIn(1L, MAX_IDLE_CHUNKS).toInt())
+
+    private val borrowed = AtomicLong()
+
+    private val rejected = LongAdder()
+
+    /** Returns an empty chunk, or null when the in-flight budget is used up. The caller owns it until [release]. */
+    fun acquire(): ByteBuffer? {
+        val previous = borrowed.getAndUpdate { if (it < maxChunks) it + 1 else it }
+        if (previous >= maxChunks) {
+            rejected.increment()
+            return null
+        }
+        return idle.poll() ?: if (direct) ByteBuffer.allocateDirect(chunkSize) else ByteBuffer.allocate(chunkSize)
+    }
+
+    /** Returns [chunk], taken from [acquire], to the pool and its bytes to the budget. */
+    fun release(chunk: ByteBuffer) {
+        borrowed.decrementAndGet()
+        idle.offer(chunk.clear())
+    }
+
+    /** Bytes held by idle chunks. */
+    val idleBytes: Long
+        get() = idle.size.toLong() * chunkSize
+
+    /** Bytes held by chunks currently borrowed by requests. */
+    val inFlightBytes: Long
+        get() = borrowed.get() * chunkSize
+
+    /** Budget of [inFlightBytes], rounded down to whole chunks. */
+    val maxInFlightBytes: Long
+        get() = maxChunks * chunkSize
+
+    /** Number of chunk requests refused because the budget was used up. */
+    val rejectedCount: Long
+        get() = rejected.sum()
+
+    companion object {
+        /** Default chunk size, small enough that most bodies fit in one or two chunks. */
+        const val DEFAULT_CHUNK_SIZE: Int = 8192
+
+        /** Caps the idle chunks retained after a burst, at 8 MiB with the default chunk size. */
+        private const val MAX_IDLE_CHUNKS = 1024L
+    }
+}
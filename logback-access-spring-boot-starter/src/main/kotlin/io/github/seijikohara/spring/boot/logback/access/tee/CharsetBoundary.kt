@@ -0,0 +1,79 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.charset.Charset
+import java.nio.charset.CodingErrorAction
+
+/**
+ * Finds where encoded text can be cut without splitting a character.
+ *
+ * The bytes past the cut are never needed, since a captured body ends where the tee stopped
+ * copying. UTF-8 is handled by scanning back from the cut to the lead byte of the last character
+ * and checking whether all of its bytes come before the cut. Other charsets are decoded up to the
+ * cut, which leaves the bytes of an incomplete trailing character unconsumed.
+ */
+internal object CharsetBoundary {
+    private const val UTF8_CONTINUATION_MASK = 0xC0
+    private const val UTF8_CONTINUATION_BITS = 0x80
+    private const val UTF8_MAX_CONTINUATIONS = 3
+    private const val DECODE_CHUNK_SIZE = 1024
+
+    /**
+     * Returns the length of the longest prefix of [bytes], at most [limit] bytes long, that ends
+     * on a character boundary in [charset]. A character whose bytes run past [limit], or past the
+     * end of [bytes] when it is the captured start of a longer body, is left out. Malformed input
+     * is cut at [limit].
+     */
+    fun prefixLength(
+        bytes: ByteArray,
+        limit: Int,
+        charset: Charset,
+    ): Int {
+        val end = limit.coerceAtMost(bytes.size)
+        return when {
+            end <= 0 -> 0
+            charset == Charsets.UTF_8 -> utf8PrefixLength(bytes, end)
+            else -> decodablePrefixLength(bytes, end, charset)
+        }
+    }
+
+    /** Backs off to the lead byte of the last character before [end] if that character does not fit. */
+    private fun utf8PrefixLength(
+        bytes: ByteArray,
+        end: Int,
+    ): Int {
+        var start = end - 1
+        while (start > 0 && end - 1 - start < UTF8_MAX_CONTINUATIONS && isContinuation(bytes[start])) start--
+        return if (start + sequenceLength(bytes[start]) > end) start else end
+    }
+
+    /**
+     * Returns how many bytes the character led by [byte] spans, which is the number of its leading
+     * one bits, or 1 for a byte that cannot lead a multi-byte character.
+     */
+    private fun sequenceLength(byte: Byte): Int {
+        val leadingOnes = Integer.numberOfLeadingZeros(byte.toInt().inv() shl Int.SIZE_BITS - Byte.SIZE_BITS)
+        return if (leadingOnes in 2..UTF8_MAX_CONTINUATIONS + 1) leadingOnes else 1
+    }
+
+    private fun isContinuation(byte: Byte): Boolean = (byte.toInt() and UTF8_CONTINUATION_MASK) == UTF8_CONTINUATION_BITS
+
+    private fun decodablePrefixLength(
+        bytes: ByteArray,
+        limit: Int,
+        charset: Charset,
+    ): Int {
+        val input = ByteBuffer.wrap(bytes, 0, limit)
+        val output = CharBuffer.allocate(DECODE_CHUNK_SIZE)
+        val decoder =
+            charset
+                .newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+        do {
+            output.clear()
+        } while (decoder.decode(input, output, false).isOverflow)
+        return input.position()
+    }
+}
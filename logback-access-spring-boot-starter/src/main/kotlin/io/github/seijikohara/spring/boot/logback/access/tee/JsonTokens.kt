@@ -0,0 +1,96 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+/**
+ * Skips over the tokens of JSON text held as bytes in an ASCII-compatible charset.
+ *
+ * Each function takes the index a token starts at and returns the index after it, or the end of
+ * the bytes when the token is cut off, so a truncated body never reads out of bounds. Nothing is
+ * validated: the functions only find where a token ends, which is all [BodyRedactor] needs.
+ */
+internal object JsonTokens {
+    const val QUOTE: Byte = '"'.code.toByte()
+    private const val BACKSLASH = '\\'.code.toByte()
+    private const val COMMA = ','.code.toByte()
+    private const val OBJECT_START = '{'.code.toByte()
+    private const val OBJECT_END = '}'.code.toByte()
+    private const val ARRAY_START = '['.code.toByte()
+    private const val ARRAY_END = ']'.code.toByte()
+    private const val SPACE = ' '.code.toByte()
+    private const val TAB = '\t'.code.toByte()
+    private const val LINE_FEED = '\n'.code.toByte()
+    private const val CARRIAGE_RETURN = '\r'.code.toByte()
+
+    /** Returns the index after the string whose opening quote is at [start], skipping escaped quotes. */
+    fun stringEnd(
+        bytes: ByteArray,
+        start: Int,
+    ): Int {
+        var index = start + 1
+        while (index < bytes.size) {
+            when (bytes[index]) {
+                BACKSLASH -> index += 2
+                QUOTE -> return index + 1
+                else -> index++
+            }
+        }
+        return bytes.size
+    }
+
+    /** Returns the index after the value starting at [start]: a string, an object or array, or a scalar. */
+    fun valueEnd(
+        bytes: ByteArray,
+        start: Int,
+    ): Int =
+        when {
+            start >= bytes.size -> start
+            bytes[start] == QUOTE -> stringEnd(bytes, start)
+            bytes[start] == OBJECT_START || bytes[start] == ARRAY_START -> containerEnd(bytes, start)
+            else -> scalarEnd(bytes, start)
+        }
+
+    /** Returns the index of the first byte from [start] on that is not whitespace. */
+    fun skipWhitespace(
+        bytes: ByteArray,
+        start: Int,
+    ): Int {
+        var index = start
+        while (index < bytes.size && isWhitespace(bytes[index])) index++
+        return index
+    }
+
+    /** Finds the bracket closing the one at [start], skipping strings so that brackets inside them do not count. */
+    private fun containerEnd(
+        bytes: ByteArray,
+        start: Int,
+    ): Int {
+        var depth = 0
+        var index = start
+        while (index < bytes.size) {
+            val byte = bytes[index]
+            index = if (byte == QUOTE) stringEnd(bytes, index) else index + 1
+            when (byte) {
+                OBJECT_START, ARRAY_START -> depth++
+                OBJECT_END, ARRAY_END -> if (--depth == 0) return index
+            }
+        }
+        return bytes.size
+    }
+
+    /** Finds the end of a number or literal, which runs up to the next separator or whitespace. */
+    private fun scalarEnd(
+        bytes: ByteArray,
+        start: Int,
+    ): Int {
+        var index = start
+        while (index < bytes.size && !isScalarEnd(bytes[index])) index++
+        return index
+    }
+
+    private fun isScalarEnd(byte: Byte): Boolean = byte == COMMA || byte == OBJECT_END || byte == ARRAY_END || isWhitespace(byte)
+
+    private fun isWhitespace(byte: Byte): Boolean =
+        when (byte) {
+            SPACE, TAB, LINE_FEED, CARRIAGE_RETURN -> true
+            else -> false
+        }
+}
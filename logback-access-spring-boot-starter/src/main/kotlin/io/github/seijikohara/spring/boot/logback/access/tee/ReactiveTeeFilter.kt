@@ -0,0 +1,134 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import jakarta.servlet.ServletRequest
+import org.eclipse.jetty.util.Attributes
+import org.reactivestreams.Publisher
+import org.springframework.core.Ordered
+import org.springframework.core.io.buffer.DataBuffer
+import org.springframework.http.HttpHeaders.CONTENT_TYPE
+import org.springframework.http.server.reactive.ServerHttpRequest
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator
+import org.springframework.http.server.reactive.ServerHttpResponse
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator
+import org.springframework.web.server.ServerWebExchange
+import org.springframework.web.server.WebFilter
+import org.springframework.web.server.WebFilterChain
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+
+/**
+ * WebFlux counterpart of the [BoundedTeeFilter], capturing request and response bodies into
+ * [TeeBuffer]s as their [DataBuffer]s pass.
+ *
+ * The same host lists, [TeeFilterProperties.rules], size limit, and content-type allowlist apply.
+ * Each buffer is copied up to the capture limit from its readable bytes, without moving its read
+ * position, and handed on in the same signal. The bodies are never joined or held back, so demand,
+ * backpressure, and flushing stay those of the application's publishers, and a single-buffer
+ * [Mono] response stays a [Mono].
+ *
+ * The buffers are stored as exchange attributes under [TeeBuffer.REQUEST_ATTR] and
+ * [TeeBuffer.RESPONSE_ATTR], with the properties they were captured with under
+ * [BodyCaptureRules.ATTR], and copied to the native server request, where the access log reads
+ * and releases them like the Servlet filter's. A request whose native request already carries a
+ * capture, as on Jetty where the Jetty body capture handler runs first, is left to it.
+ */
+internal class ReactiveTeeFilter(
+    properties: TeeFilterProperties,
+    private val pool: CaptureBufferPool,
+    hostName: String = BoundedTeeFilter.localHostName(),
+) : WebFilter,
+    Ordered {
+    /** Whether this host captures bodies at all. */
+    val isActive: Boolean = BoundedTeeFilter.capturesOn(hostName, properties)
+
+    private val rules = BodyCaptureRules(properties)
+
+    override fun getOrder(): Int = Ordered.HIGHEST_PRECEDENCE + ORDER_OFFSET
+
+    override fun filter(
+        exchange: ServerWebExchange,
+        chain: WebFilterChain,
+    ): Mono<Void> {
+        val request = exchange.request
+        val nativeRequest = ServerHttpRequestDecorator.getNativeRequest<Any>(request)
+        val captureProperties = if (isActive) rules.resolve(request.method.name(), request.path.value()) else null
+        if (captureProperties == null || nativeRequest.readAttribute(BodyCaptureRules.ATTR) != null) return chain.filter(exchange)
+        val response = exchange.response
+        val requestBody = TeeBuffer(pool) { BodyCapturePolicy.captureLimit(request.headers.getFirst(CONTENT_TYPE), captureProperties) }
+        val responseBody = TeeBuffer(pool) { BodyCapturePolicy.captureLimit(response.headers.getFirst(CONTENT_TYPE), captureProperties) }
+
+        fun store(
+            name: String,
+            value: Any,
+        ) {
+            exchange.attributes[name] = value
+            nativeRequest.writeAttribute(name, value)
+        }
+        store(BodyCaptureRules.ATTR, captureProperties)
+        store(TeeBuffer.REQUEST_ATTR, requestBody)
+        store(TeeBuffer.RESPONSE_ATTR, responseBody)
+        return chain.filter(
+            exchange
+                .mutate()
+                .request(TeeRequest(request, requestBody))
+                .response(TeeResponse(response, responseBody))
+                .build(),
+        )
+    }
+
+    private class TeeRequest(
+        request: ServerHttpRequest,
+        private val buffer: TeeBuffer,
+    ) : ServerHttpRequestDecorator(request) {
+        override fun getBody(): Flux<DataBuffer> = super.getBody().doOnNext { buffer.write(it) }
+    }
+
+    private class TeeResponse(
+        response: ServerHttpResponse,
+        private val buffer: TeeBuffer,
+    ) : ServerHttpResponseDecorator(response) {
+        override fun writeWith(body: Publisher<out DataBuffer>): Mono<Void> = super.writeWith(body.teed())
+
+        override fun writeAndFlushWith(body: Publisher<out Publisher<out DataBuffer>>): Mono<Void> =
+            super.writeAndFlushWith(Flux.from(body).map { it.teed() })
+
+        private fun Publisher<out DataBuffer>.teed(): Publisher<DataBuffer> =
+            if (this is Mono<*>) {
+                Mono.from<DataBuffer>(this).doOnNext { buffer.write(it) }
+            } else {
+                Flux.from<DataBuffer>(this).doOnNext { buffer.write(it) }
+            }
+    }
+
+    private companion object {
+        private const val ORDER_OFFSET = 10
+
+        /**
+         * Reads an attribute of the native server request. Tomcat exposes a servlet request and Jetty
+         * its core request; the Jetty type is only resolved when the request is not a servlet request.
+         */
+        private fun Any.readAttribute(name: String): Any? =
+            when (this) {
+                is ServletRequest -> getAttribute(name)
+                is Attributes -> getAttribute(name)
+                else -> null
+            }
+
+        private fun Any.writeAttribute(
+            name: String,
+            value: Any,
+        ) {
+            when (this) {
+                is ServletRequest -> setAttribute(name, value)
+                is Attributes -> setAttribute(name, value)
+                else -> Unit
+            }
+        }
+    }
+}
+
+/** Copies the readable bytes of [dataBuffer], leaving its read position where it was. */
+private fun TeeBuffer.write(dataBuffer: DataBuffer) {
+    dataBuffer.readableByteBuffers().use { buffers -> buffers.forEach { write(it) } }
+}
@@ -0,0 +1,178 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import jakarta.servlet.ServletRequest
+import java.nio.ByteBuffer
+
+/**
+ * Copy of the start of a request or response body, filled while the body streams through the
+ * [BoundedTeeFilter], the [ReactiveTeeFilter], or the Jetty body capture handler.
+ *
+ * Copying stops after the capture limit; later bytes are only counted in [size], so a body costs
+ * at most that many bytes however large it is. The limit is resolved on the first write, once the
+ * response content type is known, through the function passed to the constructor. The bytes are
+ * kept in chunks borrowed from a [CaptureBufferPool] one at a time, so a small body holds a single
+ * chunk. When the pool's budget is used up, copying stops and [isOverBudget] is set. A server
+ * buffer that can be held back from reuse is kept as a view instead of being copied.
+ *
+ * A buffer is written by the thread that streams the body and read by the access log after the
+ * request completes; the server's request lifecycle orders the two. The access log then returns
+ * the chunks through [release].
+ */
+internal class TeeBuffer(
+    private val pool: CaptureBufferPool?,
+    private val captureLimit: () -> Int,
+) {
+    private var limit = UNRESOLVED
+    private val chunks = ArrayList<ByteBuffer>(1)
+
+    /** Release functions of the read-only views among [chunks], which belong to the server rather than the pool. */
+    private val views = ArrayList<() -> Unit>(0)
+
+    private var count = 0
+
+    /** Total number of body bytes that passed through, including the bytes that were not copied. */
+    var size: Long = 0L
+        private set
+
+    /** Whether copying stopped early because the pool's in-flight budget was used up. */
+    var isOverBudget: Boolean = false
+        private set
+
+    fun write(byte: Int) {
+        size++
+        if (count < limit()) {
+            val chunk = writableChunk() ?: return
+            chunk.put(byte.toByte())
+            count++
+        }
+    }
+
+    fun write(
+        source: ByteArray,
+        offset: Int,
+        length: Int,
+    ) = copy(length) { chunk, copied, part -> chunk.put(source, offset + copied, part) }
+
+    /** Copies the remaining bytes of [source] without moving its position. */
+    fun write(source: ByteBuffer) =
+        copy(source.remaining()) { chunk, copied, part ->
+            chunk.put(chunk.position(), source, source.position() + copied, part).position(chunk.position() + part)
+        }
+
+    /**
+     * Keeps the remaining bytes of [source] as a read-only view instead of copying them, for a buffer
+     * its owner can hold back from reuse: [retain] is called when the view is taken, and [release]
+     * when this buffer is released. Views hold memory the server already allocated, so they are not
+     * charged to the pool's budget. A view that would keep a buffer more than [RETAIN_RATIO] times
+     * the size of the bytes it captures is copied instead, and so are bytes past the capture limit.
+     */
+    fun write(
+        source: ByteBuffer,
+        retain: () -> Unit,
+        release: () -> Unit,
+    ) {
+        val length = minOf(source.remaining(), limit() - count)
+        if (length <= 0 || length.toLong() * RETAIN_RATIO < source.capacity()) {
+            write(source)
+            return
+        }
+        size += source.remaining()
+        retain()
+        views += release
+        chunks += source.slice(source.position(), length).asReadOnlyBuffer().position(length)
+        count += length
+    }
+
+    /**
+     * Returns the copied bytes in an array of their own, since pooled chunks are reused once released.
+     * A complete body wrapped by [of] is returned as is.
+     */
+    fun toByteArray(): ByteArray =
+        chunks.singleOrNull()?.takeIf { pool == null }?.array()
+            ?: ByteArray(count).also { bytes ->
+                chunks.fold(0) { position, chunk ->
+                    chunk.get(0, bytes, position, chunk.position())
+                    position + chunk.position()
+                }
+            }
+
+    /** Returns the chunks to the pool and the viewed buffers to their owners. Bytes written afterwards are only counted. */
+    fun release() {
+        pool?.let { pool -> chunks.forEach { if (!it.isReadOnly) pool.release(it) } }
+        views.forEach { it() }
+        views.clear()
+        chunks.clear()
+        count = 0
+        limit = 0
+    }
+
+    /** Copies [length] bytes up to the capture limit, one chunk at a time, through [put] (chunk, bytes copied so far, part length). */
+    private inline fun copy(
+        length: Int,
+        put: (ByteBuffer, Int, Int) -> Unit,
+    ) {
+        size += length
+        val wanted = minOf(length, limit() - count)
+        var copied = 0
+        while (copied < wanted) {
+            val chunk = writableChunk() ?: break
+            val part = minOf(wanted - copied, chunk.remaining())
+            put(chunk, copied, part)
+            copied += part
+        }
+        count += copied
+    }
+
+    private fun limit(): Int {
+        if (limit == UNRESOLVED) limit = captureLimit()
+        return limit
+    }
+
+    private fun writableChunk(): ByteBuffer? = chunks.lastOrNull()?.takeIf { it.hasRemaining() } ?: borrowChunk()
+
+    private fun borrowChunk(): ByteBuffer? {
+        if (pool == null || isOverBudget) return null
+        val chunk = pool.acquire()
+        if (chunk == null) isOverBudget = true else chunks += chunk
+        return chunk
+    }
+
+    companion object {
+        /** Request attribute holding the [TeeBuffer] of the request body. */
+        const val REQUEST_ATTR: String = "io.github.seijikohara.spring.boot.logback.access.tee.requestBody"
+
+        /** Request attribute holding the [TeeBuffer] of the response body. */
+        const val RESPONSE_ATTR: String = "io.github.seijikohara.spring.boot.logback.access.tee.responseBody"
+
+        private const val UNRESOLVED = -1
+
+        /** Largest ratio of a viewed buffer's capacity to the bytes captured from it. */
+        private const val RETAIN_RATIO = 2
+
+        /**
+         * Returns the body captured under [attribute], or the complete body a Logback-access
+         * `TeeFilter` stored under [legacyAttribute] when the application registers that filter itself.
+         */
+        fun from(
+            request: ServletRequest,
+            attribute: String,
+            legacyAttribute: String,
+        ): TeeBuffer? =
+            request.getAttribute(attribute) as? TeeBuffer
+                ?: (request.getAttribute(legacyAttribute) as? ByteArray)?.let(::of)
+
+        /** Wraps a complete [body] without copying it. */
+        fun of(body: ByteArray): TeeBuffer =
+            TeeBuffer(null) { body.size }.apply {
+                chunks += ByteBuffer.wrap(body).position(body.size)
+                count = body.size
+                size = body.size.toLong()
+            }
+
+        /** Returns the chunks of the buffers the [BoundedTeeFilter] stored on [request] to their pool. */
+        fun releaseAll(request: ServletRequest) {
+            (request.getAttribute(REQUEST_ATTR) as? TeeBuffer)?.release()
+            (request.getAttribute(RESPONSE_ATTR) as? TeeBuffer)?.release()
+        }
+    }
+}
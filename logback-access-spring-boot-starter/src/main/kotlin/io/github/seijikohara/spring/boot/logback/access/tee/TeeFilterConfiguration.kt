@@ -1,43 +1,80 @@
 package io.github.seijikohara.spring.boot.logback.access.tee
 
-import ch.qos.logback.access.common.AccessConstants.TEE_FILTER_EXCLUDES_PARAM
-import ch.qos.logback.access.common.AccessConstants.TEE_FILTER_INCLUDES_PARAM
-import ch.qos.logback.access.common.servlet.TeeFilter
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties
+import io.github.seijikohara.spring.boot.logback.access.autoconfigure.OnAccessLoggedServer
+import io.micrometer.core.instrument.binder.MeterBinder
 import org.apache.catalina.startup.Tomcat
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET
 import org.springframework.boot.web.servlet.FilterRegistrationBean
 import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Conditional
 import org.springframework.context.annotation.Configuration
 import org.springframework.core.Ordered
+import org.springframework.web.server.WebFilter
 
 /**
- * Registers the Logback-access [TeeFilter] for capturing request/response bodies.
+ * Registers the body capture infrastructure when `logback.access.tee-filter.enabled` is `true`.
  *
- * Activated when `logback.access.tee-filter.enabled` is `true` and Tomcat is on the classpath.
- * TeeFilter is not supported on Jetty because the Jetty event source uses the native
- * [org.eclipse.jetty.server.RequestLog] API, which does not expose Servlet filter attributes.
+ * The buffers come from one [CaptureBufferPool] bean, whose state is published through Micrometer
+ * when it is on the classpath. On Tomcat, the [BoundedTeeFilter] fills them from the Servlet
+ * streams. On Jetty, the starter's Jetty configuration wraps the server handler instead, because
+ * the Jetty event source uses the native [org.eclipse.jetty.server.RequestLog] API, which does not
+ * expose Servlet filter attributes. Reactive applications get the [ReactiveTeeFilter], which tees
+ * the body buffers on Tomcat and leaves requests the Jetty handler already captures to it.
  */
 @Configuration(proxyBeanMethods = false)
 @ConditionalOnBooleanProperty(prefix = "logback.access.tee-filter", name = ["enabled"])
-@ConditionalOnWebApplication(type = SERVLET)
-@ConditionalOnClass(Tomcat::class)
+@ConditionalOnWebApplication
 internal class TeeFilterConfiguration {
     @Bean
-    fun logbackAccessTeeFilter(properties: LogbackAccessProperties): FilterRegistrationBean<TeeFilter> =
-        FilterRegistrationBean(TeeFilter()).apply {
-            order = Ordered.HIGHEST_PRECEDENCE + ORDER_OFFSET
-            addUrlPatterns("/*")
-            with(properties.teeFilter) {
-                includeHosts?.takeIf { it.isNotBlank() }?.let { addInitParameter(TEE_FILTER_INCLUDES_PARAM, it) }
-                excludeHosts?.takeIf { it.isNotBlank() }?.let { addInitParameter(TEE_FILTER_EXCLUDES_PARAM, it) }
+    fun logbackAccessCaptureBufferPool(properties: LogbackAccessProperties): CaptureBufferPool = CaptureBufferPool(properties.teeFilter)
+
+    /** Registers the [BoundedTeeFilter], activated for Servlet applications with Tomcat on the classpath. */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = SERVLET)
+    @ConditionalOnClass(Tomcat::class)
+    internal class ServletConfiguration {
+        @Bean
+        fun logbackAccessTeeFilter(
+            properties: LogbackAccessProperties,
+            logbackAccessCaptureBufferPool: CaptureBufferPool,
+        ): FilterRegistrationBean<BoundedTeeFilter> =
+            FilterRegistrationBean(BoundedTeeFilter(properties.teeFilter, logbackAccessCaptureBufferPool)).apply {
+                order = Ordered.HIGHEST_PRECEDENCE + ORDER_OFFSET
+                addUrlPatterns("/*")
             }
+
+        private companion object {
+            private const val ORDER_OFFSET = 10
         }
+    }
+
+    /**
+     * Registers the [ReactiveTeeFilter], activated for reactive applications with Tomcat or Jetty on
+     * the classpath. Only their access logs read and release the captured buffers, so the filter is
+     * left out on other servers such as Reactor Netty.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = REACTIVE)
+    @ConditionalOnClass(WebFilter::class)
+    @Conditional(OnAccessLoggedServer::class)
+    internal class ReactiveConfiguration {
+        @Bean
+        fun logbackAccessReactiveTeeFilter(
+            properties: LogbackAccessProperties,
+            logbackAccessCaptureBufferPool: CaptureBufferPool,
+        ): ReactiveTeeFilter = ReactiveTeeFilter(properties.teeFilter, logbackAccessCaptureBufferPool)
+    }
 
-    private companion object {
-        private const val ORDER_OFFSET = 10
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterBinder::class)
+    internal class MetricsConfiguration {
+        @Bean
+        fun logbackAccessCaptureBufferMetrics(logbackAccessCaptureBufferPool: CaptureBufferPool): CaptureBufferMetrics =
+            CaptureBufferMetrics(logbackAccessCaptureBufferPool)
     }
 }
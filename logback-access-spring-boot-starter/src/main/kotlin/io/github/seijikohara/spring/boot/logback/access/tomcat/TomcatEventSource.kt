@@ -1,7 +1,10 @@
 package io.github.seijikohara.spring.boot.logback.access.tomcat
 
 import io.github.seijikohara.spring.boot.logback.access.AccessEventData
+import io.github.seijikohara.spring.boot.logback.access.CapturePlan
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
+import io.github.seijikohara.spring.boot.logback.access.pool.PooledAccessEvent
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
 import org.apache.catalina.connector.Request
 import org.apache.catalina.connector.Response
 import java.util.concurrent.TimeUnit
@@ -11,6 +14,7 @@ import java.util.concurrent.TimeUnit
  *
  * All values are extracted eagerly so the returned data is safe for
  * deferred processing without holding references to Tomcat objects.
+ * Optional fields are copied only when the plan [resolveCapturePlan] returns selects them.
  *
  * @param elapsedTimeNanos the processing time in nanoseconds provided by the Tomcat AccessLog contract.
  *                         Converted to milliseconds before storing.
@@ -25,13 +29,11 @@ internal fun createAccessEventData(
     elapsedTimeNanos: Long,
 ): AccessEventData =
     TomcatRequestAttributeResolver(context, requestAttributesEnabled).let { resolver ->
+        val elapsedTime = elapsedMillis(request, elapsedTimeNanos)
+        val plan = resolveCapturePlan(context, request, response, elapsedTime)
         AccessEventData(
             timeStamp = System.currentTimeMillis(),
-            elapsedTime =
-                elapsedTimeNanos
-                    .takeIf { it > 0 }
-                    ?.let { TimeUnit.NANOSECONDS.toMillis(it) }
-                    ?: (System.currentTimeMillis() - request.coyoteRequest.startTime).coerceAtLeast(0),
+            elapsedTime = elapsedTime,
             sequenceNumber = context.accessContext.sequenceNumberGenerator?.nextSequenceNumber(),
             threadName = Thread.currentThread().name,
             serverName = resolver.resolveServerName(request),
@@ -44,15 +46,105 @@ internal fun createAccessEventData(
             requestURI = resolver.resolveRequestURI(request),
             queryString = request.queryString?.let { "?$it" }.orEmpty(),
             requestURL = resolver.buildRequestURL(request),
-            requestHeaderMap = TomcatRequestDataExtractor.extractHeaders(request),
-            cookieMap = TomcatRequestDataExtractor.extractCookies(request),
-            requestParameterMap = TomcatRequestDataExtractor.extractParameters(request),
-            attributeMap = TomcatRequestDataExtractor.extractAttributes(request),
-            sessionID = request.getSession(false)?.id,
-            requestContent = TomcatRequestDataExtractor.extractContent(request, context.properties.teeFilter),
+            requestHeaderMap = plan.requestHeaders.capture { TomcatRequestDataExtractor.extractHeaders(request, it) },
+            cookieMap = plan.cookies.capture { TomcatRequestDataExtractor.extractCookies(request, it) },
+            requestParameterMap =
+                plan.requestParameters.capture {
+                    TomcatRequestDataExtractor.extractParameters(request, it, context.properties.tomcat.parameterCapture)
+                },
+            attributeMap =
+                plan.attributes.capture {
+                    TomcatRequestDataExtractor.extractAttributes(request, it, context.properties.capture.attributes.maxValueLength)
+                },
+            sessionID = if (plan.sessionID) request.getSession(false)?.id else null,
+            requestContent = null,
             statusCode = response.status,
-            responseHeaderMap = TomcatResponseDataExtractor.extractHeaders(response),
+            responseHeaderMap = plan.responseHeaders.capture { TomcatResponseDataExtractor.extractHeaders(response, it) },
             contentLength = response.getBytesWritten(false),
-            responseContent = TomcatResponseDataExtractor.extractContent(request, response, context.properties.teeFilter),
+            responseContent = null,
+            route = resolver.resolveRoute(request),
+            capturedRequestContent =
+                if (plan.requestContent) TomcatRequestDataExtractor.extractContent(request, context.properties.teeFilter) else null,
+            capturedResponseContent =
+                if (plan.responseContent) {
+                    TomcatResponseDataExtractor.extractContent(request, response, context.properties.teeFilter)
+                } else {
+                    null
+                },
         )
     }
+
+/**
+ * Fills a pooled [event] in place with the same values [createAccessEventData] would capture.
+ *
+ * The query string and request line are left for the event to derive on demand, and the
+ * optional fields follow [resolveCapturePlan], so a plan selecting nothing
+ * copies only references and primitives.
+ */
+internal fun PooledAccessEvent.populate(
+    context: LogbackAccessContext,
+    resolver: TomcatRequestAttributeResolver,
+    request: Request,
+    response: Response,
+    elapsedTimeNanos: Long,
+) {
+    val elapsed = elapsedMillis(request, elapsedTimeNanos)
+    val plan = resolveCapturePlan(context, request, response, elapsed)
+    timeStamp = System.currentTimeMillis()
+    elapsedTime = elapsed
+    context.accessContext.sequenceNumberGenerator?.let { sequenceNumber = it.nextSequenceNumber() }
+    threadName = Thread.currentThread().name
+    serverName = resolver.resolveServerName(request)
+    localPort = resolver.resolveLocalPort(request)
+    remoteAddr = resolver.resolveRemoteAddr(request)
+    remoteHost = resolver.resolveRemoteHost(request)
+    remoteUser = resolver.resolveRemoteUser(request)
+    protocol = resolver.resolveProtocol(request)
+    method = resolver.resolveMethod(request)
+    requestURI = resolver.resolveRequestURI(request)
+    rawQueryString = request.queryString
+    requestHeaderMap = plan.requestHeaders.capture { TomcatRequestDataExtractor.extractHeaders(request, it) }
+    cookieMap = plan.cookies.capture { TomcatRequestDataExtractor.extractCookies(request, it) }
+    requestParameterMap =
+        plan.requestParameters.capture {
+            TomcatRequestDataExtractor.extractParameters(request, it, context.properties.tomcat.parameterCapture)
+        }
+    attributeMap =
+        plan.attributes.capture {
+            TomcatRequestDataExtractor.extractAttributes(request, it, context.properties.capture.attributes.maxValueLength)
+        }
+    sessionID = if (plan.sessionID) request.getSession(false)?.id else null
+    requestContent = if (plan.requestContent) TomcatRequestDataExtractor.extractContent(request, context.properties.teeFilter) else null
+    statusCode = response.status
+    responseHeaderMap = plan.responseHeaders.capture { TomcatResponseDataExtractor.extractHeaders(response, it) }
+    contentLength = response.getBytesWritten(false)
+    responseContent =
+        if (plan.responseContent) TomcatResponseDataExtractor.extractContent(request, response, context.properties.teeFilter) else null
+    route = resolver.resolveRoute(request)
+}
+
+/**
+ * Returns [LogbackAccessContext.capturePlanFor] the completed request. When the plan captures no body,
+ * as for a request conditional detail capture does not promote, the tee buffers are released at once
+ * instead of after the event is emitted.
+ */
+internal fun resolveCapturePlan(
+    context: LogbackAccessContext,
+    request: Request,
+    response: Response,
+    elapsedTime: Long,
+): CapturePlan =
+    context.capturePlanFor(response.status, elapsedTime).also { plan ->
+        if (!plan.requestContent && !plan.responseContent) TeeBuffer.releaseAll(request)
+    }
+
+// Written with a plain branch rather than takeIf/let so the pooled path does not box the value.
+internal fun elapsedMillis(
+    request: Request,
+    elapsedTimeNanos: Long,
+): Long =
+    if (elapsedTimeNanos > 0) {
+        TimeUnit.NANOSECONDS.toMillis(elapsedTimeNanos)
+    } else {
+        (System.currentTimeMillis() - request.coyoteRequest.startTime).coerceAtLeast(0)
+    }
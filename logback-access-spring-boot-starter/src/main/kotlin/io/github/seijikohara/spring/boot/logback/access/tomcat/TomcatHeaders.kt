@@ -0,0 +1,28 @@
+package io.github.seijikohara.spring.boot.logback.access.tomcat
+
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
+import org.apache.tomcat.util.buf.MessageBytes
+import org.apache.tomcat.util.http.MimeHeaders
+import java.util.Collections.unmodifiableMap
+
+/**
+ * Copies the headers selected by [selection] in a single pass over Tomcat's native header storage.
+ *
+ * Each name is compared in place, ignoring case, against the lower-case names of the selection,
+ * so a header that is left out never has its name or value converted to a string. The first value
+ * wins for repeated headers, as with [MimeHeaders.getHeader].
+ */
+internal fun MimeHeaders.extractSelected(selection: FieldSelection): Map<String, String> =
+    sortedMapOf<String, String>(String.CASE_INSENSITIVE_ORDER)
+        .apply {
+            for (index in 0 until size()) {
+                val name = getName(index)
+                if (selection.includes(name)) {
+                    getValue(index).toString()?.let { putIfAbsent(name.toString(), it) }
+                }
+            }
+        }.let(::unmodifiableMap)
+
+/** [FieldSelection.includes] for a header name still held as bytes or chars. */
+private fun FieldSelection.includes(name: MessageBytes): Boolean =
+    names?.any(name::equalsIgnoreCase) ?: excludedNames.none(name::equalsIgnoreCase)
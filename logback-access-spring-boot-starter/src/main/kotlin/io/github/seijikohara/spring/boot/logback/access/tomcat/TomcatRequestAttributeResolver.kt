@@ -1,7 +1,9 @@
 package io.github.seijikohara.spring.boot.logback.access.tomcat
 
 import ch.qos.logback.access.common.spi.IAccessEvent.NA
+import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.MVC_ROUTE_ATTR
 import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.REMOTE_USER_ATTR
+import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.ROUTE_ATTR
 import io.github.seijikohara.spring.boot.logback.access.LocalPortStrategy
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import org.apache.catalina.AccessLog.PROTOCOL_ATTRIBUTE
@@ -45,6 +47,12 @@ internal class TomcatRequestAttributeResolver(
 
     fun resolveRequestURI(request: Request): String? = request.requestURI
 
+    fun resolveRoute(request: Request): String? =
+        context.routeResolver.resolve(
+            request.getAttribute(ROUTE_ATTR) as? String ?: request.getAttribute(MVC_ROUTE_ATTR) as? String,
+            request.requestURI,
+        )
+
     fun buildRequestURL(request: Request): String =
         "${resolveMethod(request)} ${resolveRequestURI(request) ?: NA}" +
             "${request.queryString?.let { "?$it" }.orEmpty()} ${resolveProtocol(request)}"
@@ -3,80 +3,146 @@ package io.github.seijikohara.spring.boot.logback.access.tomcat
 import ch.qos.logback.access.common.AccessConstants.LB_INPUT_BUFFER
 import ch.qos.logback.access.common.AccessConstants.LB_OUTPUT_BUFFER
 import ch.qos.logback.access.common.servlet.Util.isFormUrlEncoded
+import io.github.seijikohara.spring.boot.logback.access.CapturedContent
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.ParameterCaptureMode
+import io.github.seijikohara.spring.boot.logback.access.capture.AttributeCapturePolicy
 import io.github.seijikohara.spring.boot.logback.access.tee.BodyCapturePolicy
+import io.github.seijikohara.spring.boot.logback.access.tee.BodyCaptureRules
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
 import org.apache.catalina.connector.Request
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.VarHandle
 import java.net.URLDecoder.decode
 import java.net.URLEncoder.encode
 import java.nio.charset.Charset
-import java.util.Collections.unmodifiableList
 import java.util.Collections.unmodifiableMap
 
 /**
  * Extracts request data (headers, cookies, parameters, attributes, content) from Tomcat [Request].
  */
 internal object TomcatRequestDataExtractor {
-    fun extractHeaders(request: Request): Map<String, String> =
-        sortedMapOf<String, String>(String.CASE_INSENSITIVE_ORDER)
-            .apply { for (name in request.headerNames) putIfAbsent(name, request.getHeader(name)) }
-            .let(::unmodifiableMap)
+    fun extractHeaders(
+        request: Request,
+        selection: FieldSelection = FieldSelection.ALL,
+    ): Map<String, String> = request.coyoteRequest.mimeHeaders.extractSelected(selection)
 
-    fun extractCookies(request: Request): Map<String, String> =
+    fun extractCookies(
+        request: Request,
+        selection: FieldSelection = FieldSelection.ALL,
+    ): Map<String, String> =
         request.cookies
             .orEmpty()
+            .filter { selection.names?.contains(it.name) ?: true }
             .associateTo(linkedMapOf()) { it.name to it.value }
             .let(::unmodifiableMap)
 
-    fun extractParameters(request: Request): Map<String, List<String>> =
-        request.parameterMap
-            .mapValuesTo(linkedMapOf()) { unmodifiableList(it.value.asList()) }
-            .let(::unmodifiableMap)
+    /**
+     * In [ParameterCaptureMode.IF_PARSED] mode the parameters are only read once the application has
+     * made Tomcat parse them, as recorded by the request's `parametersParsed` flag. Otherwise the result
+     * is empty, since even the coyote parameter store decodes the query string on its first lookup.
+     */
+    fun extractParameters(
+        request: Request,
+        selection: FieldSelection = FieldSelection.ALL,
+        mode: ParameterCaptureMode = ParameterCaptureMode.PARSE,
+    ): Map<String, List<String>> {
+        val coyoteParameters = request.coyoteRequest.parameters
+        return when (mode) {
+            ParameterCaptureMode.PARSE -> {
+                selection.names?.let { collectParameters(it, request::getParameterValues) }
+                    ?: request.parameterMap.mapValuesTo(linkedMapOf()) { it.value.asList() }
+            }
 
-    fun extractAttributes(request: Request): Map<String, String> =
-        request.attributeNames
-            .asSequence()
-            .filter { it != LB_INPUT_BUFFER && it != LB_OUTPUT_BUFFER }
+            ParameterCaptureMode.IF_PARSED -> {
+                if (parametersParsed(request)) {
+                    collectParameters(
+                        selection.names ?: coyoteParameters.parameterNames.asSequence().asIterable(),
+                        coyoteParameters::getParameterValues,
+                    )
+                } else {
+                    emptyMap()
+                }
+            }
+        }.let(::unmodifiableMap)
+    }
+
+    /**
+     * Whether Tomcat has parsed [request]'s parameters. The flag is a protected field of the request, read
+     * through a [VarHandle]; when it cannot be read, parameters are treated as unparsed and not captured.
+     */
+    private fun parametersParsed(request: Request): Boolean = PARAMETERS_PARSED?.get(request) as? Boolean ?: false
+
+    /**
+     * Tomcat returns a fresh array per lookup, so values are exposed as list views without copying.
+     */
+    private fun collectParameters(
+        names: Iterable<String>,
+        valuesOf: (String) -> Array<String>?,
+    ): Map<String, List<String>> =
+        names
+            .mapNotNull { name -> valuesOf(name)?.let { name to it.asList() } }
+            .toMap(linkedMapOf())
+
+    /**
+     * Named selections read each attribute directly, and excluded names are skipped before their value
+     * is read, so unselected attribute values are never stringified.
+     */
+    fun extractAttributes(
+        request: Request,
+        selection: FieldSelection = FieldSelection.ALL,
+        maxValueLength: Int? = null,
+    ): Map<String, String> =
+        (selection.names?.asSequence() ?: request.attributeNames.asSequence().filter(selection::includes))
+            .filter { it !in BODY_CAPTURE_ATTRIBUTES }
             .mapNotNull { name ->
-                request.getAttribute(name)?.let { name to it.toString() }
+                request.getAttribute(name)?.let { name to AttributeCapturePolicy.format(it, maxValueLength) }
             }.toMap(linkedMapOf())
             .let(::unmodifiableMap)
 
     private fun decodeBufferContent(
         request: Request,
         teeFilterProperties: TeeFilterProperties,
-    ): String? =
-        (request.getAttribute(LB_INPUT_BUFFER) as? ByteArray)?.let { buffer ->
-            BodyCapturePolicy.evaluate(request.contentType, buffer.size.toLong(), teeFilterProperties)
-                ?: String(buffer, BodyCapturePolicy.resolveCharset(request.characterEncoding))
+    ): CapturedContent? =
+        TeeBuffer.from(request, TeeBuffer.REQUEST_ATTR, LB_INPUT_BUFFER)?.let { buffer ->
+            BodyCapturePolicy.capture(
+                request.contentType,
+                buffer,
+                BodyCapturePolicy.resolveCharset(request.characterEncoding),
+                teeFilterProperties,
+            )
         }
 
     private fun decodeFormDataContent(
         request: Request,
         teeFilterProperties: TeeFilterProperties,
-    ): String? =
+    ): CapturedContent? =
         encodeFormDataIfApplicable(request)?.let { formData ->
             val charset = BodyCapturePolicy.resolveCharset(request.characterEncoding)
-            BodyCapturePolicy.evaluate(request.contentType, formData.toByteArray(charset).size.toLong(), teeFilterProperties)
-                ?: formData
+            BodyCapturePolicy.capture(request.contentType, TeeBuffer.of(formData.toByteArray(charset)), charset, teeFilterProperties)
         }
 
     /**
-     * Extracts request body content captured by TeeFilter.
+     * Extracts request body content captured by the tee filter.
      *
-     * Returns `null` immediately when TeeFilter is disabled to prevent
+     * Returns `null` immediately when the tee filter is disabled to prevent
      * unintended exposure of form data (e.g. login credentials).
      *
      * Evaluates body capture policy (content type and size) before conversion
-     * for both TeeFilter-captured buffers and form data fallback paths.
-     * Uses the request's character encoding for byte-to-string conversion,
-     * falling back to UTF-8 when the encoding is not specified or unsupported.
+     * for both tee-captured buffers and form data fallback paths.
+     * Captured bytes are copied out of the tee buffer and decoded only when the content is read,
+     * with the request's character encoding, falling back to UTF-8 when the encoding is not
+     * specified or unsupported. The policy uses the properties of the body capture rule the
+     * request matched, and a request no rule matched has no content.
      */
     fun extractContent(
         request: Request,
         teeFilterProperties: TeeFilterProperties,
-    ): String? =
+    ): CapturedContent? =
         teeFilterProperties
             .takeIf { it.enabled }
+            ?.let { BodyCaptureRules.propertiesOf(request, it) }
             ?.let { decodeBufferContent(request, it) ?: decodeFormDataContent(request, it) }
 
     private fun encodeFormDataIfApplicable(request: Request): String? =
@@ -123,4 +189,21 @@ internal object TomcatRequestDataExtractor {
         } catch (_: IllegalArgumentException) {
             emptyList()
         }
+
+    /**
+     * Request attributes holding captured bodies, which are logged as request and response content instead,
+     * and the properties they were captured with.
+     */
+    private val BODY_CAPTURE_ATTRIBUTES =
+        setOf(LB_INPUT_BUFFER, LB_OUTPUT_BUFFER, TeeBuffer.REQUEST_ATTR, TeeBuffer.RESPONSE_ATTR, BodyCaptureRules.ATTR)
+
+    /** Handle of `Request.parametersParsed`, or null when this Tomcat version does not have the field. */
+    private val PARAMETERS_PARSED: VarHandle? =
+        try {
+            MethodHandles
+                .privateLookupIn(Request::class.java, MethodHandles.lookup())
+                .findVarHandle(Request::class.java, "parametersParsed", Boolean::class.javaPrimitiveType)
+        } catch (_: ReflectiveOperationException) {
+            null
+        }
 }
@@ -0,0 +1,41 @@
+package io.github.seijikohara.spring.boot.logback.access.tomcat
+
+import io.github.seijikohara.spring.boot.logback.access.AccessRequestView
+import org.apache.catalina.connector.Request
+import org.apache.catalina.connector.Response
+
+/**
+ * [AccessRequestView] over a Tomcat [Request]/[Response] pair.
+ *
+ * Reads the request URI and method from the coyote request's already-parsed request line and
+ * single headers from its header list, so consulting the view never triggers cookie or
+ * parameter parsing. [remoteAddr] is the connection peer: `RemoteIpValve` has already restored
+ * it by the time the access log runs, so forwarded addresses are not taken into account.
+ *
+ * @param elapsedTimeNanos the processing time passed to [org.apache.catalina.AccessLog.log]
+ */
+internal class TomcatRequestView(
+    private val request: Request,
+    private val response: Response,
+    private val elapsedTimeNanos: Long,
+) : AccessRequestView {
+    override val requestURI: String?
+        get() = request.requestURI
+
+    override val method: String?
+        get() = request.method
+
+    override val statusCode: Int
+        get() = response.status
+
+    override val elapsedTime: Long
+        get() = elapsedMillis(request, elapsedTimeNanos)
+
+    override val contentLength: Long
+        get() = response.getBytesWritten(false)
+
+    override val remoteAddr: String?
+        get() = request.remoteAddr
+
+    override fun requestHeader(name: String): String? = request.getHeader(name)
+}
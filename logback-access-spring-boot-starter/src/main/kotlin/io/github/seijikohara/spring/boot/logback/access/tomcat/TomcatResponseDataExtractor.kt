@@ -1,27 +1,32 @@
 package io.github.seijikohara.spring.boot.logback.access.tomcat
 
 import ch.qos.logback.access.common.AccessConstants.LB_OUTPUT_BUFFER
+import io.github.seijikohara.spring.boot.logback.access.CapturedContent
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
 import io.github.seijikohara.spring.boot.logback.access.tee.BodyCapturePolicy
+import io.github.seijikohara.spring.boot.logback.access.tee.BodyCaptureRules
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
 import org.apache.catalina.connector.Request
 import org.apache.catalina.connector.Response
-import java.util.Collections.unmodifiableMap
 
 /**
  * Extracts response data (headers, content) from Tomcat [Response].
  */
 internal object TomcatResponseDataExtractor {
-    fun extractHeaders(response: Response): Map<String, String> =
-        sortedMapOf<String, String>(String.CASE_INSENSITIVE_ORDER)
-            .apply { response.headerNames.forEach { name -> putIfAbsent(name, response.getHeader(name)) } }
-            .let(::unmodifiableMap)
+    fun extractHeaders(
+        response: Response,
+        selection: FieldSelection = FieldSelection.ALL,
+    ): Map<String, String> = response.coyoteResponse.mimeHeaders.extractSelected(selection)
 
     /**
-     * Extracts response body content captured by TeeFilter.
+     * Extracts response body content captured by the tee filter.
      *
-     * Returns `null` immediately when TeeFilter is disabled.
+     * Returns `null` immediately when the tee filter is disabled.
      *
-     * Evaluates body capture policy (content type and size) before conversion.
+     * Evaluates body capture policy (content type and size) before conversion. The bytes are
+     * decoded only when the content is read. The policy uses the properties of the body capture
+     * rule the request matched.
      * Resolves the charset from the explicit `charset` parameter of the Content-Type header.
      * Falls back to UTF-8 when no charset is specified, because RFC 8259 §8.1 mandates UTF-8
      * for JSON and Tomcat returns ISO-8859-1 (the HTTP/1.1 default) from
@@ -31,15 +36,20 @@ internal object TomcatResponseDataExtractor {
         request: Request,
         response: Response,
         teeFilterProperties: TeeFilterProperties,
-    ): String? =
-        if (!teeFilterProperties.enabled) {
-            null
-        } else {
-            (request.getAttribute(LB_OUTPUT_BUFFER) as? ByteArray)?.let { buffer ->
-                BodyCapturePolicy.evaluate(response.contentType, buffer.size.toLong(), teeFilterProperties)
-                    ?: String(buffer, BodyCapturePolicy.resolveCharset(resolveContentTypeCharset(response.contentType)))
+    ): CapturedContent? =
+        teeFilterProperties
+            .takeIf { it.enabled }
+            ?.let { BodyCaptureRules.propertiesOf(request, it) }
+            ?.let { properties ->
+                TeeBuffer.from(request, TeeBuffer.RESPONSE_ATTR, LB_OUTPUT_BUFFER)?.let { buffer ->
+                    BodyCapturePolicy.capture(
+                        response.contentType,
+                        buffer,
+                        BodyCapturePolicy.resolveCharset(resolveContentTypeCharset(response.contentType)),
+                        properties,
+                    )
+                }
             }
-        }
 
     private fun resolveContentTypeCharset(contentType: String?): String? =
         contentType
@@ -3,6 +3,8 @@ package io.github.seijikohara.spring.boot.logback.access.tomcat
 import io.github.oshai.kotlinlogging.KotlinLogging
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessEvent
+import io.github.seijikohara.spring.boot.logback.access.pool.AccessEventPool
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
 import org.apache.catalina.AccessLog
 import org.apache.catalina.connector.Request
 import org.apache.catalina.connector.Response
@@ -25,9 +27,23 @@ internal class TomcatValve(
     @Volatile
     private var requestAttributesEnabledValue: Boolean = false
 
+    /** Resolver matching [requestAttributesEnabledValue], replaced with it so the pooled path does not create one per request. */
+    @Volatile
+    private var resolver: TomcatRequestAttributeResolver = TomcatRequestAttributeResolver(logbackAccessContext, false)
+
+    /** Recycled events, or null when [LogbackAccessContext.eventPoolingEnabled] is false. */
+    private val eventPool: AccessEventPool? =
+        logbackAccessContext
+            .takeIf { it.eventPoolingEnabled }
+            ?.let { AccessEventPool(it.properties.eventPool.maxSize) }
+
     override fun getRequestAttributesEnabled(): Boolean = requestAttributesEnabledValue
 
-    override fun setRequestAttributesEnabled(value: Boolean) = run { requestAttributesEnabledValue = value }
+    override fun setRequestAttributesEnabled(value: Boolean) =
+        run {
+            requestAttributesEnabledValue = value
+            resolver = TomcatRequestAttributeResolver(logbackAccessContext, value)
+        }
 
     override fun initInternal(): Unit =
         super.initInternal().also {
@@ -46,9 +62,14 @@ internal class TomcatValve(
      * Tomcat's [AccessLog] contract requires implementations to tolerate null or
      * malformed request/response objects from early-rejected requests. Parameters are
      * declared nullable so the guard is reached instead of Kotlin's generated
-     * parameter null-check throwing first. Extraction runs before
-     * [LogbackAccessContext.emit] (which has its own guard), so wrap it here to
-     * ensure an extraction failure never escapes into the Tomcat engine.
+     * parameter null-check throwing first. The URL filters and sampling are consulted through
+     * [LogbackAccessContext.shouldLog] before any data is extracted, so excluded requests
+     * never pay for the header, cookie, parameter, and attribute copies. Extraction runs
+     * before [LogbackAccessContext.emitAccepted] (which has its own guard), so wrap it here
+     * to ensure an extraction failure never escapes into the Tomcat engine. With event pooling
+     * enabled, a recycled event is filled in place and released once the appenders return.
+     * The body buffers of the tee filter are returned to their pool afterwards in any case,
+     * since this is the last point that reads them.
      */
     @Suppress("TooGenericExceptionCaught")
     override fun log(
@@ -61,11 +82,22 @@ internal class TomcatValve(
             return
         }
         try {
-            createAccessEventData(logbackAccessContext, request, response, requestAttributesEnabled, time)
-                .let(::LogbackAccessEvent)
-                .let(logbackAccessContext::emit)
+            if (!logbackAccessContext.shouldLog(TomcatRequestView(request, response, time))) return
+            val pool = eventPool
+            if (pool != null) {
+                pool.borrow { event ->
+                    event.populate(logbackAccessContext, resolver, request, response, time)
+                    logbackAccessContext.emitAccepted(event)
+                }
+            } else {
+                createAccessEventData(logbackAccessContext, request, response, requestAttributesEnabled, time)
+                    .let(::LogbackAccessEvent)
+                    .let(logbackAccessContext::emitAccepted)
+            }
         } catch (e: Exception) {
             logger.error(e) { "Failed to capture Tomcat access event" }
+        } finally {
+            TeeBuffer.releaseAll(request)
         }
     }
 
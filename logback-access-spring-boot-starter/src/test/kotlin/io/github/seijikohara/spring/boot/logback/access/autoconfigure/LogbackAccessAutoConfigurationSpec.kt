@@ -2,6 +2,7 @@ package io.github.seijikohara.spring.boot.logback.access.autoconfigure
 
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties
+import io.github.seijikohara.spring.boot.logback.access.route.RouteWebFilter
 import io.kotest.core.spec.style.FunSpec
 import org.apache.catalina.startup.Tomcat
 import org.assertj.core.api.Assertions.assertThat
@@ -185,6 +186,15 @@ class LogbackAccessAutoConfigurationSpec :
                         assertThat(context).doesNotHaveBean("logbackAccessTeeFilter")
                     }
             }
+
+            test("creates the capture buffer pool for the Jetty handler when Tomcat is absent") {
+                baseRunner()
+                    .withPropertyValues("logback.access.tee-filter.enabled=true")
+                    .withClassLoader(FilteredClassLoader(Tomcat::class.java))
+                    .run { context ->
+                        assertThat(context).hasBean("logbackAccessCaptureBufferPool")
+                    }
+            }
         }
 
         context("reactive web application") {
@@ -212,6 +222,64 @@ class LogbackAccessAutoConfigurationSpec :
                         assertThat(context).doesNotHaveBean("logbackAccessTeeFilter")
                     }
             }
+
+            test("creates the reactive tee filter in reactive web context") {
+                ReactiveWebApplicationContextRunner()
+                    .withConfiguration(autoConfiguration)
+                    .withPropertyValues(
+                        "logback.access.config-location=${LogbackAccessProperties.FALLBACK_CONFIG}",
+                        "logback.access.tee-filter.enabled=true",
+                    ).run { context ->
+                        assertThat(context).hasBean("logbackAccessReactiveTeeFilter")
+                        assertThat(context).hasBean("logbackAccessCaptureBufferPool")
+                    }
+            }
+
+            test("creates the reactive tee filter on Jetty without Tomcat") {
+                ReactiveWebApplicationContextRunner()
+                    .withConfiguration(autoConfiguration)
+                    .withClassLoader(FilteredClassLoader(Tomcat::class.java))
+                    .withPropertyValues(
+                        "logback.access.config-location=${LogbackAccessProperties.FALLBACK_CONFIG}",
+                        "logback.access.tee-filter.enabled=true",
+                    ).run { context ->
+                        assertThat(context).hasBean("logbackAccessReactiveTeeFilter")
+                    }
+            }
+
+            test("does not create the reactive tee filter without Tomcat or Jetty") {
+                ReactiveWebApplicationContextRunner()
+                    .withConfiguration(autoConfiguration)
+                    // Reactor Netty has no access log integration to read and release the captured buffers.
+                    .withClassLoader(FilteredClassLoader(Tomcat::class.java, Server::class.java))
+                    .withPropertyValues(
+                        "logback.access.config-location=${LogbackAccessProperties.FALLBACK_CONFIG}",
+                        "logback.access.tee-filter.enabled=true",
+                    ).run { context ->
+                        assertThat(context).doesNotHaveBean("logbackAccessReactiveTeeFilter")
+                    }
+            }
+
+            test("creates the route filter in reactive web context") {
+                ReactiveWebApplicationContextRunner()
+                    .withConfiguration(autoConfiguration)
+                    .withPropertyValues(
+                        "logback.access.config-location=${LogbackAccessProperties.FALLBACK_CONFIG}",
+                    ).run { context ->
+                        assertThat(context).hasSingleBean(RouteWebFilter::class.java)
+                    }
+            }
+
+            test("does not create the route filter on a Reactor Netty application without Tomcat or Jetty") {
+                ReactiveWebApplicationContextRunner()
+                    .withConfiguration(autoConfiguration)
+                    .withClassLoader(FilteredClassLoader(Tomcat::class.java, Server::class.java))
+                    .withPropertyValues(
+                        "logback.access.config-location=${LogbackAccessProperties.FALLBACK_CONFIG}",
+                    ).run { context ->
+                        assertThat(context).doesNotHaveBean(RouteWebFilter::class.java)
+                    }
+            }
         }
     })
 
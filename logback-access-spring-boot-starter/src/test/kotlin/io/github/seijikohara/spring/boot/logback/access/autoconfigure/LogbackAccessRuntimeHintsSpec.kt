@@ -2,6 +2,7 @@ package io.github.seijikohara.spring.boot.logback.access.autoconfigure
 
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.shouldBe
+import org.apache.catalina.connector.Request
 import org.springframework.aot.hint.RuntimeHints
 import org.springframework.aot.hint.TypeReference
 import org.springframework.aot.hint.predicate.RuntimeHintsPredicates
@@ -17,6 +18,13 @@ class LogbackAccessRuntimeHintsSpec :
                 .test(hints) shouldBe true
         }
 
+        test("registers a reflection hint for the Tomcat request read by the if-parsed parameter capture") {
+            RuntimeHintsPredicates
+                .reflection()
+                .onType(Request::class.java)
+                .test(hints) shouldBe true
+        }
+
         test("registers a resource hint for the bundled fallback configuration") {
             RuntimeHintsPredicates
                 .resource()
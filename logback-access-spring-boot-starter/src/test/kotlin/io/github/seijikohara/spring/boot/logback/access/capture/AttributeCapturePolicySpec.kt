@@ -0,0 +1,36 @@
+package io.github.seijikohara.spring.boot.logback.access.capture
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class AttributeCapturePolicySpec :
+    FunSpec({
+        test("returns the value unchanged when no limit is set") {
+            AttributeCapturePolicy.format("x".repeat(10_000), null).length shouldBe 10_000
+        }
+
+        test("returns short values unchanged") {
+            AttributeCapturePolicy.format("REQUEST", 16) shouldBe "REQUEST"
+        }
+
+        test("truncates long values and appends the marker") {
+            AttributeCapturePolicy.format("abcdefghij", 4) shouldBe "abcd..."
+        }
+
+        test("converts non-string values with toString") {
+            AttributeCapturePolicy.format(42, 16) shouldBe "42"
+        }
+
+        test("cuts a CharSequence before converting it") {
+            val builder =
+                object : CharSequence by "abcdef" {
+                    override fun toString(): String = error("converted in full")
+                }
+
+            AttributeCapturePolicy.format(builder, 3) shouldBe "abc..."
+        }
+
+        test("does not split a surrogate pair") {
+            AttributeCapturePolicy.format("a😀b", 2) shouldBe "a..."
+        }
+    })
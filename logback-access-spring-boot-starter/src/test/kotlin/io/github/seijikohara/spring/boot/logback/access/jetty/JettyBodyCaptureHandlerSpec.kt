@@ -0,0 +1,148 @@
+package io.github.seijikohara.spring.boot.logback.access.jetty
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.BodyCaptureRule
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.tee.CaptureBufferPool
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import io.mockk.every
+import io.mockk.mockk
+import org.eclipse.jetty.http.HttpFields
+import org.eclipse.jetty.http.HttpHeader
+import org.eclipse.jetty.http.HttpURI
+import org.eclipse.jetty.io.Content
+import org.eclipse.jetty.io.Retainable
+import org.eclipse.jetty.server.Handler
+import org.eclipse.jetty.server.Request
+import org.eclipse.jetty.server.Response
+import org.eclipse.jetty.util.Callback
+import java.nio.ByteBuffer
+import java.util.concurrent.atomic.AtomicInteger
+
+class JettyBodyCaptureHandlerSpec :
+    FunSpec({
+        fun properties(rules: List<BodyCaptureRule> = emptyList()): TeeFilterProperties =
+            TeeFilterProperties(
+                enabled = true,
+                includeHosts = null,
+                excludeHosts = null,
+                maxPayloadSize = 65536L,
+                allowedContentTypes = null,
+                rules = rules,
+            )
+
+        fun request(chunk: Content.Chunk): Request {
+            val attributes = mutableMapOf<String, Any?>()
+            return mockk(relaxed = true) {
+                every { method } returns "POST"
+                every { httpURI } returns HttpURI.from("/api/users")
+                every { headers } returns HttpFields.build().add(HttpHeader.CONTENT_TYPE, "application/json")
+                every { read() } returns chunk
+                every { getAttribute(any()) } answers { attributes[firstArg()] }
+                every { setAttribute(any(), any()) } answers { attributes.put(firstArg(), secondArg()) }
+            }
+        }
+
+        fun response(): Response =
+            mockk(relaxed = true) {
+                every { headers } returns HttpFields.build().add(HttpHeader.CONTENT_TYPE, "application/json")
+            }
+
+        /** Reads one chunk without releasing it, as an application still holding it would, and echoes it. */
+        fun echo(): Handler =
+            object : Handler.Abstract() {
+                override fun handle(
+                    request: Request,
+                    response: Response,
+                    callback: Callback,
+                ): Boolean {
+                    val body = checkNotNull(request.read()).byteBuffer.slice()
+                    response.write(true, body, callback)
+                    return true
+                }
+            }
+
+        fun handler(
+            properties: TeeFilterProperties,
+            pool: CaptureBufferPool,
+            next: Handler = echo(),
+        ): JettyBodyCaptureHandler = JettyBodyCaptureHandler(properties, pool, "app").apply { handler = next }
+
+        test("keeps a retainable request chunk as a view and copies the response writes") {
+            val references = AtomicInteger(1)
+            val retainable =
+                object : Retainable {
+                    override fun canRetain(): Boolean = true
+
+                    override fun retain() {
+                        references.incrementAndGet()
+                    }
+
+                    override fun release(): Boolean = references.decrementAndGet() == 0
+                }
+            val properties = properties()
+            val pool = CaptureBufferPool(properties)
+            val request = request(Content.Chunk.from(ByteBuffer.wrap("""{"name":"test"}""".toByteArray()), true, retainable))
+            val response = response()
+
+            handler(properties, pool).handle(request, response, Callback.NOOP) shouldBe true
+
+            assertSoftly {
+                references.get() shouldBe 2
+                pool.inFlightBytes shouldBe CaptureBufferPool.DEFAULT_CHUNK_SIZE.toLong()
+                JettyRequestDataExtractor.extractContent(request, properties)?.decode() shouldBe """{"name":"test"}"""
+                JettyResponseDataExtractor.extractContent(request, response, properties)?.decode() shouldBe """{"name":"test"}"""
+            }
+            JettyBodyCaptureHandler.releaseAll(request)
+            assertSoftly {
+                references.get() shouldBe 1
+                pool.inFlightBytes shouldBe 0L
+            }
+        }
+
+        test("copies a request chunk that cannot be retained") {
+            val properties = properties()
+            val pool = CaptureBufferPool(properties)
+            val request = request(Content.Chunk.from(ByteBuffer.wrap("""{"id":1}""".toByteArray()), true, object : Retainable {}))
+
+            handler(properties, pool).handle(request, response(), Callback.NOOP)
+
+            assertSoftly {
+                pool.inFlightBytes shouldBe 2L * CaptureBufferPool.DEFAULT_CHUNK_SIZE
+                JettyRequestDataExtractor.extractContent(request, properties)?.decode() shouldBe """{"id":1}"""
+            }
+            JettyBodyCaptureHandler.releaseAll(request)
+            pool.inFlightBytes shouldBe 0L
+        }
+
+        test("passes requests no capture rule matches through untouched") {
+            val properties = properties(rules = listOf(BodyCaptureRule("^/upload")))
+            val request = request(Content.Chunk.from(ByteBuffer.wrap("{}".toByteArray()), true))
+            val response = response()
+            var forwarded: Pair<Request, Response>? = null
+            val next =
+                object : Handler.Abstract() {
+                    override fun handle(
+                        request: Request,
+                        response: Response,
+                        callback: Callback,
+                    ): Boolean {
+                        forwarded = request to response
+                        return true
+                    }
+                }
+
+            handler(properties, CaptureBufferPool(properties), next).handle(request, response, Callback.NOOP)
+
+            assertSoftly {
+                forwarded?.first shouldBeSameInstanceAs request
+                forwarded?.second shouldBeSameInstanceAs response
+                request.getAttribute(TeeBuffer.REQUEST_ATTR).shouldBeNull()
+                JettyRequestDataExtractor.extractContent(request, properties).shouldBeNull()
+            }
+        }
+    })
@@ -2,9 +2,11 @@ package io.github.seijikohara.spring.boot.logback.access.jetty
 
 import ch.qos.logback.access.common.spi.AccessContext
 import ch.qos.logback.core.spi.SequenceNumberGenerator
+import io.github.seijikohara.spring.boot.logback.access.CapturePlan
 import io.github.seijikohara.spring.boot.logback.access.LocalPortStrategy
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties
+import io.github.seijikohara.spring.boot.logback.access.RouteResolver
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.longs.shouldBeGreaterThanOrEqual
 import io.kotest.matchers.nulls.shouldBeNull
@@ -31,6 +33,8 @@ class JettyEventSourceSpec :
         fun context(generator: SequenceNumberGenerator? = null): LogbackAccessContext =
             mockk {
                 every { properties } returns properties()
+                every { capturePlanFor(any(), any()) } returns CapturePlan.FULL
+                every { routeResolver } returns RouteResolver(LogbackAccessProperties.RouteProperties())
                 every { accessContext } returns
                     mockk<AccessContext>(relaxed = true) {
                         every { sequenceNumberGenerator } returns generator
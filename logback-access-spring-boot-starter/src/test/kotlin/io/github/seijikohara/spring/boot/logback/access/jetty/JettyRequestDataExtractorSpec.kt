@@ -1,9 +1,13 @@
 package io.github.seijikohara.spring.boot.logback.access.jetty
 
+import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.MVC_ROUTE_ATTR
 import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.REMOTE_USER_ATTR
+import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.ROUTE_ATTR
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
 import io.github.seijikohara.spring.boot.logback.access.LocalPortStrategy
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties
+import io.github.seijikohara.spring.boot.logback.access.RouteResolver
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.maps.shouldBeEmpty
 import io.kotest.matchers.maps.shouldContainExactly
@@ -12,6 +16,7 @@ import io.mockk.every
 import io.mockk.mockk
 import io.mockk.mockkStatic
 import io.mockk.unmockkStatic
+import io.mockk.verify
 import org.eclipse.jetty.http.HttpField
 import org.eclipse.jetty.http.HttpFields
 import org.eclipse.jetty.http.HttpURI
@@ -44,16 +49,8 @@ class JettyRequestDataExtractorSpec :
 
         context("extractHeaders") {
             test("returns case-insensitive sorted header map") {
-                val field1 =
-                    mockk<HttpField> {
-                        every { name } returns "Content-Type"
-                        every { value } returns "text/html"
-                    }
-                val field2 =
-                    mockk<HttpField> {
-                        every { name } returns "Accept"
-                        every { value } returns "application/json"
-                    }
+                val field1 = HttpField("Content-Type", "text/html")
+                val field2 = HttpField("Accept", "application/json")
                 val headers =
                     mockk<HttpFields> {
                         every { iterator() } returns mutableListOf(field1, field2).iterator()
@@ -69,11 +66,7 @@ class JettyRequestDataExtractorSpec :
             }
 
             test("preserves unicode and special-character header values") {
-                val field =
-                    mockk<HttpField> {
-                        every { name } returns "X-Note"
-                        every { value } returns "café/日本語; q=0.9"
-                    }
+                val field = HttpField("X-Note", "café/日本語; q=0.9")
                 val headers =
                     mockk<HttpFields> {
                         every { iterator() } returns mutableListOf(field).iterator()
@@ -89,16 +82,8 @@ class JettyRequestDataExtractorSpec :
             }
 
             test("keeps first value for duplicate header names") {
-                val field1 =
-                    mockk<HttpField> {
-                        every { name } returns "X-Custom"
-                        every { value } returns "first"
-                    }
-                val field2 =
-                    mockk<HttpField> {
-                        every { name } returns "X-Custom"
-                        every { value } returns "second"
-                    }
+                val field1 = HttpField("X-Custom", "first")
+                val field2 = HttpField("X-Custom", "second")
                 val headers =
                     mockk<HttpFields> {
                         every { iterator() } returns mutableListOf(field1, field2).iterator()
@@ -127,6 +112,22 @@ class JettyRequestDataExtractorSpec :
 
                 result.shouldBeEmpty()
             }
+
+            test("copies only allow-listed headers regardless of case") {
+                val headers =
+                    mockk<HttpFields> {
+                        every { iterator() } returns
+                            mutableListOf(HttpField("User-Agent", "curl/8.0"), HttpField("Accept", "*/*")).iterator()
+                    }
+                val request =
+                    mockk<Request> {
+                        every { this@mockk.headers } returns headers
+                    }
+
+                val result = JettyRequestDataExtractor.extractHeaders(request, FieldSelection.ofHeaders(listOf("USER-AGENT"), null))
+
+                result shouldContainExactly mapOf("User-Agent" to "curl/8.0")
+            }
         }
 
         context("extractAttributes") {
@@ -153,6 +154,19 @@ class JettyRequestDataExtractorSpec :
 
                 result.shouldBeEmpty()
             }
+
+            test("never reads excluded attributes and truncates long values") {
+                val request =
+                    mockk<Request> {
+                        every { attributeNameSet } returns setOf("handler", "traceId")
+                        every { getAttribute("traceId") } returns "0123456789abcdef"
+                    }
+
+                val result = JettyRequestDataExtractor.extractAttributes(request, FieldSelection.of(null, listOf("handler")), 8)
+
+                result shouldContainExactly mapOf("traceId" to "01234567...")
+                verify(exactly = 0) { request.getAttribute("handler") }
+            }
         }
 
         context("resolveRemoteUser") {
@@ -175,6 +189,33 @@ class JettyRequestDataExtractorSpec :
             }
         }
 
+        context("resolveRoute") {
+            val context =
+                mockk<LogbackAccessContext> {
+                    every { routeResolver } returns RouteResolver(LogbackAccessProperties.RouteProperties())
+                }
+
+            fun request(
+                route: String?,
+                mvcRoute: String?,
+            ): Request =
+                mockk {
+                    every { getAttribute(ROUTE_ATTR) } returns route
+                    every { getAttribute(MVC_ROUTE_ATTR) } returns mvcRoute
+                    every { httpURI } returns HttpURI.from("/api/users/42")
+                }
+
+            test("prefers the route attribute over the Spring MVC handler pattern") {
+                JettyRequestDataExtractor.resolveRoute(context, request("/api/users/{userId}", "/api/users/{id}")) shouldBe
+                    "/api/users/{userId}"
+                JettyRequestDataExtractor.resolveRoute(context, request(null, "/api/users/{id}")) shouldBe "/api/users/{id}"
+            }
+
+            test("normalizes the path when no handler pattern is set") {
+                JettyRequestDataExtractor.resolveRoute(context, request(null, null)) shouldBe "/api/users/{id}"
+            }
+        }
+
         context("resolveLocalPort") {
             test("returns local port for LOCAL strategy") {
                 val context = mockContext(LocalPortStrategy.LOCAL)
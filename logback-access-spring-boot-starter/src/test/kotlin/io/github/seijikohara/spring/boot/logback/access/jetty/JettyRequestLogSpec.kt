@@ -1,10 +1,12 @@
 package io.github.seijikohara.spring.boot.logback.access.jetty
 
 import ch.qos.logback.access.common.spi.AccessContext
+import io.github.seijikohara.spring.boot.logback.access.CapturePlan
 import io.github.seijikohara.spring.boot.logback.access.LocalPortStrategy
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessEvent
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties
+import io.github.seijikohara.spring.boot.logback.access.RouteResolver
 import io.kotest.assertions.throwables.shouldNotThrowAny
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.shouldBe
@@ -14,6 +16,7 @@ import io.mockk.mockk
 import io.mockk.mockkStatic
 import io.mockk.runs
 import io.mockk.slot
+import io.mockk.verify
 import org.eclipse.jetty.server.Request
 import org.eclipse.jetty.server.Response
 
@@ -30,7 +33,7 @@ class JettyRequestLogSpec :
             )
 
         test("log does not propagate exceptions thrown while extracting access-event data") {
-            val context = mockk<LogbackAccessContext>(relaxed = true)
+            val context = mockk<LogbackAccessContext>(relaxed = true) { every { shouldLog(any()) } returns true }
             val request =
                 mockk<Request>(relaxed = true) {
                     // Simulate a request whose extraction fails mid-flight.
@@ -46,12 +49,16 @@ class JettyRequestLogSpec :
                 val emitted = slot<LogbackAccessEvent>()
                 val context =
                     mockk<LogbackAccessContext> {
+                        every { eventPoolingEnabled } returns false
                         every { properties } returns properties()
+                        every { capturePlanFor(any(), any()) } returns CapturePlan.FULL
+                        every { routeResolver } returns RouteResolver(LogbackAccessProperties.RouteProperties())
                         every { accessContext } returns
                             mockk<AccessContext>(relaxed = true) {
                                 every { sequenceNumberGenerator } returns null
                             }
-                        every { emit(capture(emitted)) } just runs
+                        every { shouldLog(any()) } returns true
+                        every { emitAccepted(capture(emitted)) } just runs
                     }
                 val request =
                     mockk<Request>(relaxed = true) {
@@ -72,4 +79,19 @@ class JettyRequestLogSpec :
                 emitted.captured.statusCode shouldBe 200
             }
         }
+
+        test("log skips extraction when the request is rejected before extraction") {
+            val context =
+                mockk<LogbackAccessContext> {
+                    every { eventPoolingEnabled } returns false
+                    every { shouldLog(any()) } returns false
+                }
+            val request = mockk<Request>()
+            val response = mockk<Response>()
+
+            JettyRequestLog(context).log(request, response)
+
+            verify(exactly = 0) { context.emitAccepted(any()) }
+            verify(exactly = 0) { request.headers }
+        }
     })
@@ -0,0 +1,46 @@
+package io.github.seijikohara.spring.boot.logback.access.jetty
+
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.mockk.every
+import io.mockk.mockk
+import org.eclipse.jetty.io.Connection
+import org.eclipse.jetty.io.EndPoint
+import org.eclipse.jetty.server.ConnectionMetaData
+import org.eclipse.jetty.server.Request
+import org.eclipse.jetty.server.Response
+import java.net.InetSocketAddress
+import java.net.SocketAddress
+
+class JettyRequestViewSpec :
+    FunSpec({
+        // Mirrors ForwardedRequestCustomizer, which reports the forwarded client on the request's
+        // connection metadata while the end point still holds the connection peer.
+        fun forwardedRequest(peer: SocketAddress?): Request {
+            val endPoint = mockk<EndPoint> { every { remoteSocketAddress } returns peer }
+            val connectionMetaData =
+                mockk<ConnectionMetaData> {
+                    every { remoteSocketAddress } returns InetSocketAddress.createUnresolved("203.0.113.7", 0)
+                    every { connection } returns mockk<Connection> { every { this@mockk.endPoint } returns endPoint }
+                }
+            return mockk { every { this@mockk.connectionMetaData } returns connectionMetaData }
+        }
+
+        context("remoteAddr") {
+            test("reports the connection peer rather than the forwarded client address") {
+                val view = JettyRequestView(forwardedRequest(InetSocketAddress("10.0.0.1", 43210)), mockk<Response>())
+
+                view.remoteAddr shouldBe "10.0.0.1"
+            }
+
+            test("reports an unresolved peer by its host string and an unknown peer as null") {
+                assertSoftly {
+                    JettyRequestView(forwardedRequest(InetSocketAddress.createUnresolved("fd12::1", 0)), mockk()).remoteAddr shouldBe
+                        "fd12::1"
+                    JettyRequestView(forwardedRequest(null), mockk()).remoteAddr.shouldBeNull()
+                }
+            }
+        }
+    })
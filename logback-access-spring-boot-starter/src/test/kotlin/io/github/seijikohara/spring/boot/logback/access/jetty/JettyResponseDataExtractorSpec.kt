@@ -1,5 +1,6 @@
 package io.github.seijikohara.spring.boot.logback.access.jetty
 
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.maps.shouldBeEmpty
 import io.kotest.matchers.shouldBe
@@ -13,16 +14,8 @@ class JettyResponseDataExtractorSpec :
     FunSpec({
         context("extractHeaders") {
             test("returns case-insensitive sorted header map") {
-                val field1 =
-                    mockk<HttpField> {
-                        every { name } returns "Content-Type"
-                        every { value } returns "application/json"
-                    }
-                val field2 =
-                    mockk<HttpField> {
-                        every { name } returns "X-Request-Id"
-                        every { value } returns "abc-123"
-                    }
+                val field1 = HttpField("Content-Type", "application/json")
+                val field2 = HttpField("X-Request-Id", "abc-123")
                 val headers =
                     mockk<HttpFields.Mutable> {
                         every { iterator() } returns mutableListOf(field1, field2).iterator()
@@ -39,16 +32,8 @@ class JettyResponseDataExtractorSpec :
             }
 
             test("keeps first value for duplicate header names") {
-                val field1 =
-                    mockk<HttpField> {
-                        every { name } returns "Set-Cookie"
-                        every { value } returns "a=1"
-                    }
-                val field2 =
-                    mockk<HttpField> {
-                        every { name } returns "Set-Cookie"
-                        every { value } returns "b=2"
-                    }
+                val field1 = HttpField("Set-Cookie", "a=1")
+                val field2 = HttpField("Set-Cookie", "b=2")
                 val headers =
                     mockk<HttpFields.Mutable> {
                         every { iterator() } returns mutableListOf(field1, field2).iterator()
@@ -77,5 +62,21 @@ class JettyResponseDataExtractorSpec :
 
                 result.shouldBeEmpty()
             }
+
+            test("skips deny-listed headers") {
+                val headers =
+                    mockk<HttpFields.Mutable> {
+                        every { iterator() } returns
+                            mutableListOf(HttpField("Content-Type", "text/plain"), HttpField("Set-Cookie", "id=1")).iterator()
+                    }
+                val response =
+                    mockk<Response> {
+                        every { this@mockk.headers } returns headers
+                    }
+
+                val result = JettyResponseDataExtractor.extractHeaders(response, FieldSelection.ofHeaders(null, listOf("set-cookie")))
+
+                result shouldBe mapOf("Content-Type" to "text/plain")
+            }
         }
     })
@@ -0,0 +1,87 @@
+package io.github.seijikohara.spring.boot.logback.access.pool
+
+import ch.qos.logback.access.common.spi.IAccessEvent.NA
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.maps.shouldBeEmpty
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import io.kotest.matchers.types.shouldNotBeSameInstanceAs
+
+class AccessEventPoolSpec :
+    FunSpec({
+        test("hands out a released event again") {
+            val pool = AccessEventPool(maxSize = 4)
+            val event = pool.acquire()
+
+            pool.release(event)
+
+            pool.acquire() shouldBeSameInstanceAs event
+        }
+
+        test("clears every field of a released event") {
+            val pool = AccessEventPool(maxSize = 4)
+            val event =
+                pool.acquire().apply {
+                    requestURI = "/api/users"
+                    rawQueryString = "page=1"
+                    statusCode = 200
+                    requestHeaderMap = mapOf("Host" to "localhost")
+                }
+            event.getRequestURL()
+
+            pool.release(event)
+
+            assertSoftly(pool.acquire()) {
+                requestURI.shouldBeNull()
+                rawQueryString.shouldBeNull()
+                getRequestURL() shouldBe "$NA $NA $NA"
+                requestHeaderMap.shouldBeEmpty()
+            }
+        }
+
+        test("never reuses an event detached by prepareForDeferredProcessing") {
+            val pool = AccessEventPool(maxSize = 4)
+            val event = pool.acquire().apply { requestURI = "/kept" }
+
+            event.prepareForDeferredProcessing()
+            pool.release(event)
+
+            pool.size shouldBe 0
+            event.requestURI shouldBe "/kept"
+            pool.acquire() shouldNotBeSameInstanceAs event
+        }
+
+        test("drops released events once the pool is full") {
+            val pool = AccessEventPool(maxSize = 1)
+
+            pool.release(PooledAccessEvent())
+            pool.release(PooledAccessEvent())
+
+            pool.size shouldBe 1
+        }
+
+        test("releases the event when the borrowing block throws") {
+            val pool = AccessEventPool(maxSize = 4)
+
+            runCatching { pool.borrow { error("appender failure") } }
+
+            pool.size shouldBe 1
+        }
+
+        test("derives the query string and request line like the snapshot events") {
+            val event =
+                PooledAccessEvent().apply {
+                    method = "GET"
+                    requestURI = "/search"
+                    rawQueryString = "q=kotlin"
+                    protocol = "HTTP/1.1"
+                }
+
+            assertSoftly {
+                event.getQueryString() shouldBe "?q=kotlin"
+                event.getRequestURL() shouldBe "GET /search?q=kotlin HTTP/1.1"
+            }
+        }
+    })
@@ -0,0 +1,69 @@
+package io.github.seijikohara.spring.boot.logback.access.route
+
+import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.ROUTE_ATTR
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.mockk.every
+import io.mockk.mockk
+import org.springframework.http.server.reactive.AbstractServerHttpRequest
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.web.reactive.HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE
+import org.springframework.web.server.ServerWebExchange
+import org.springframework.web.server.WebFilterChain
+import org.springframework.web.util.pattern.PathPatternParser
+import reactor.core.publisher.Mono
+
+class RouteWebFilterSpec :
+    FunSpec({
+        fun exchange(
+            nativeRequest: MockHttpServletRequest,
+            pattern: String?,
+        ): ServerWebExchange {
+            val request = mockk<AbstractServerHttpRequest> { every { getNativeRequest<Any>() } returns nativeRequest }
+            return mockk {
+                every { this@mockk.request } returns request
+                every { getAttribute<Any>(BEST_MATCHING_PATTERN_ATTRIBUTE) } returns
+                    pattern?.let { PathPatternParser.defaultInstance.parse(it) }
+            }
+        }
+
+        // The server adapter completes the request, and writes the access log, in its onComplete.
+        test("records the matched pattern before completion reaches the server") {
+            val nativeRequest = MockHttpServletRequest()
+            var routeOnComplete: Any? = null
+
+            RouteWebFilter()
+                .filter(exchange(nativeRequest, "/api/users/{id}"), WebFilterChain { Mono.empty() })
+                .subscribe(null, null) { routeOnComplete = nativeRequest.getAttribute(ROUTE_ATTR) }
+
+            routeOnComplete shouldBe "/api/users/{id}"
+        }
+
+        test("records the matched pattern before an error reaches the server") {
+            val nativeRequest = MockHttpServletRequest()
+            var routeOnError: Any? = null
+
+            RouteWebFilter()
+                .filter(exchange(nativeRequest, "/api/users/{id}"), WebFilterChain { Mono.error(IllegalStateException("boom")) })
+                .subscribe(null) { routeOnError = nativeRequest.getAttribute(ROUTE_ATTR) }
+
+            routeOnError shouldBe "/api/users/{id}"
+        }
+
+        test("records the matched pattern when the client disconnects before the response completes") {
+            val nativeRequest = MockHttpServletRequest()
+
+            RouteWebFilter().filter(exchange(nativeRequest, "/api/stream"), WebFilterChain { Mono.never() }).subscribe().dispose()
+
+            nativeRequest.getAttribute(ROUTE_ATTR) shouldBe "/api/stream"
+        }
+
+        test("leaves the native request untouched when no handler pattern matched") {
+            val nativeRequest = MockHttpServletRequest()
+
+            RouteWebFilter().filter(exchange(nativeRequest, null), WebFilterChain { Mono.empty() }).block()
+
+            nativeRequest.getAttribute(ROUTE_ATTR).shouldBeNull()
+        }
+    })
@@ -1,6 +1,7 @@
 package io.github.seijikohara.spring.boot.logback.access.tee
 
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.OversizedPayloadMode
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.shouldBe
 
@@ -140,6 +141,56 @@ class BodyCapturePolicySpec :
             }
         }
 
+        context("capture — oversized payload truncation") {
+            val truncating = defaultProperties.copy(maxPayloadSize = 8L, oversizedPayload = OversizedPayloadMode.TRUNCATE)
+
+            test("allows an oversized payload of an allowed type") {
+                BodyCapturePolicy.evaluate("text/plain", 70000L, truncating) shouldBe null
+            }
+
+            test("still suppresses an oversized payload of a disallowed type") {
+                BodyCapturePolicy.evaluate("application/octet-stream", 70000L, truncating) shouldBe
+                    "[BINARY CONTENT SUPPRESSED]"
+            }
+
+            test("keeps the start of the body and appends the original size") {
+                val buffer = TeeBuffer.of("0123456789abcdef".toByteArray())
+
+                BodyCapturePolicy.capture("text/plain", buffer, Charsets.UTF_8, truncating).decode() shouldBe
+                    "01234567...[TRUNCATED: 16 BYTES]"
+            }
+
+            test("cuts before a character the limit splits") {
+                val buffer = TeeBuffer.of("abcdefgテスト".toByteArray())
+
+                BodyCapturePolicy.capture("text/plain", buffer, Charsets.UTF_8, truncating).decode() shouldBe
+                    "abcdefg...[TRUNCATED: 16 BYTES]"
+            }
+
+            test("keeps a body within the limit whole") {
+                val buffer = TeeBuffer.of("01234567".toByteArray())
+
+                BodyCapturePolicy.capture("text/plain", buffer, Charsets.UTF_8, truncating).decode() shouldBe "01234567"
+            }
+        }
+
+        context("capture — redacted fields") {
+            val redacting = defaultProperties.copy(redactedFields = listOf("password"))
+
+            test("masks the values of redacted fields in a logged body") {
+                val buffer = TeeBuffer.of("""{"user":"alice","password":"s3cret"}""".toByteArray())
+
+                BodyCapturePolicy.capture("application/json", buffer, Charsets.UTF_8, redacting).decode() shouldBe
+                    """{"user":"alice","password":"***"}"""
+            }
+
+            test("suppresses a body whose charset cannot be scanned") {
+                val buffer = TeeBuffer.of("""{"password":"s3cret"}""".toByteArray(Charsets.UTF_16))
+
+                BodyCapturePolicy.capture("application/json", buffer, Charsets.UTF_16, redacting).decode() shouldBe "[CONTENT REDACTED]"
+            }
+        }
+
         context("resolveCharset") {
             test("resolves Shift_JIS") {
                 BodyCapturePolicy.resolveCharset("Shift_JIS").name() shouldBe "Shift_JIS"
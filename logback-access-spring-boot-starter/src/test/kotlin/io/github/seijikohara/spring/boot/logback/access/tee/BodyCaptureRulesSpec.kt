@@ -0,0 +1,73 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.BodyCaptureRule
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.kotest.assertions.assertSoftly
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import org.springframework.mock.web.MockHttpServletRequest
+
+class BodyCaptureRulesSpec :
+    FunSpec({
+        val defaultProperties =
+            TeeFilterProperties(
+                enabled = true,
+                includeHosts = null,
+                excludeHosts = null,
+                maxPayloadSize = 65536L,
+                allowedContentTypes = null,
+            )
+
+        test("captures every request with the filter's properties when no rules are configured") {
+            BodyCaptureRules(defaultProperties).resolve("GET", "/anything") shouldBeSameInstanceAs defaultProperties
+        }
+
+        test("applies the first rule matching the method and URI") {
+            val rules =
+                BodyCaptureRules(
+                    defaultProperties.copy(
+                        rules =
+                            listOf(
+                                BodyCaptureRule("^/api/payments", methods = listOf("POST", " put "), maxPayloadSize = 1024L),
+                                BodyCaptureRule("^/api/", allowedContentTypes = listOf("application/json")),
+                            ),
+                    ),
+                )
+
+            assertSoftly {
+                rules.resolve("post", "/api/payments/1")?.maxPayloadSize shouldBe 1024L
+                rules.resolve("PUT", "/api/payments/1")?.maxPayloadSize shouldBe 1024L
+                rules.resolve("GET", "/api/payments/1")?.maxPayloadSize shouldBe 65536L
+                rules.resolve("GET", "/api/payments/1")?.allowedContentTypes shouldBe listOf("application/json")
+                rules.resolve("GET", "/health") shouldBe null
+                rules.resolve("GET", null) shouldBe null
+            }
+        }
+
+        test("reads the properties a request was captured with") {
+            val captured = defaultProperties.copy(maxPayloadSize = 16L)
+            val withRules = defaultProperties.copy(rules = listOf(BodyCaptureRule("^/api/")))
+            val request = MockHttpServletRequest()
+
+            assertSoftly {
+                BodyCaptureRules.propertiesOf(request, defaultProperties) shouldBeSameInstanceAs defaultProperties
+                BodyCaptureRules.propertiesOf(request, withRules) shouldBe null
+                request.setAttribute(BodyCaptureRules.ATTR, captured)
+                BodyCaptureRules.propertiesOf(request, withRules) shouldBeSameInstanceAs captured
+            }
+        }
+
+        test("rejects an invalid rule") {
+            assertSoftly {
+                shouldThrow<IllegalArgumentException> {
+                    BodyCaptureRules(defaultProperties.copy(rules = listOf(BodyCaptureRule("[oops"))))
+                }.message shouldContain "Invalid tee-filter rule URL pattern: '[oops'"
+                shouldThrow<IllegalArgumentException> {
+                    BodyCaptureRules(defaultProperties.copy(rules = listOf(BodyCaptureRule("^/api/", maxPayloadSize = -1L))))
+                }.message shouldContain "Invalid tee-filter rule max-payload-size"
+            }
+        }
+    })
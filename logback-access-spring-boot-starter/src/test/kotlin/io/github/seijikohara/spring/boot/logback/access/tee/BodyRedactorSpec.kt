@@ -0,0 +1,84 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+
+class BodyRedactorSpec :
+    FunSpec({
+        val redactor =
+            checkNotNull(
+                BodyRedactor.of(
+                    TeeFilterProperties(
+                        enabled = true,
+                        includeHosts = null,
+                        excludeHosts = null,
+                        maxPayloadSize = 65536L,
+                        allowedContentTypes = null,
+                        redactedFields = listOf("password", "cardNumber", "token"),
+                    ),
+                ),
+            )
+
+        fun redact(
+            body: String,
+            contentType: String = "application/json",
+        ): String? = redactor.redact(body.toByteArray(), contentType, Charsets.UTF_8)?.decodeToString()
+
+        context("JSON") {
+            test("masks string, number, and literal values at any depth, ignoring key case") {
+                redact("""{"user":{"Password":"s3cret","cardNumber":4111111111111111},"token" : null,"id":1}""") shouldBe
+                    """{"user":{"Password":"***","cardNumber":"***"},"token" : "***","id":1}"""
+            }
+
+            test("masks an object or array value as a whole") {
+                redact("""{"token":{"access":"a","refresh":["b","c"]},"name":"x"}""") shouldBe """{"token":"***","name":"x"}"""
+            }
+
+            test("skips escaped quotes and brackets inside strings") {
+                redact("""{"note":"say \"password\": [","password":"p]\"w"}""") shouldBe
+                    """{"note":"say \"password\": [","password":"***"}"""
+            }
+
+            test("leaves string values that match a field name alone") {
+                redact("""["password","token"]""") shouldBe """["password","token"]"""
+            }
+
+            test("masks a value cut off at the end of a truncated body") {
+                redact("""{"id":7,"password":"s3c""") shouldBe """{"id":7,"password":"***""""
+            }
+
+            test("matches +json content types") {
+                redact("""{"token":"t"}""", "application/vnd.api+json; charset=UTF-8") shouldBe """{"token":"***"}"""
+            }
+        }
+
+        context("form-urlencoded") {
+            test("masks the values of matching parameters") {
+                redact("user=alice&password=s3cret&token=&remember=on", "application/x-www-form-urlencoded") shouldBe
+                    "user=alice&password=***&token=***&remember=on"
+            }
+
+            test("leaves parameters without a value alone") {
+                redact("password&user=alice", "application/x-www-form-urlencoded") shouldBe "password&user=alice"
+            }
+        }
+
+        test("returns the captured array itself when nothing is masked") {
+            val body = """{"user":"alice"}""".toByteArray()
+
+            redactor.redact(body, "application/json", Charsets.UTF_8) shouldBeSameInstanceAs body
+        }
+
+        test("returns bodies of other content types unchanged") {
+            val body = "password=s3cret".toByteArray()
+
+            redactor.redact(body, "text/plain", Charsets.UTF_8) shouldBeSameInstanceAs body
+        }
+
+        test("refuses to scan a body in a charset that is not ASCII-compatible") {
+            redactor.redact("""{"password":"x"}""".toByteArray(Charsets.UTF_16), "application/json", Charsets.UTF_16).shouldBeNull()
+        }
+    })
@@ -0,0 +1,191 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.BodyCaptureRule
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.OversizedPayloadMode
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import jakarta.servlet.FilterChain
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+
+class BoundedTeeFilterSpec :
+    FunSpec({
+        fun properties(
+            maxPayloadSize: Long = 65536L,
+            includeHosts: String? = null,
+            excludeHosts: String? = null,
+        ): TeeFilterProperties =
+            TeeFilterProperties(
+                enabled = true,
+                includeHosts = includeHosts,
+                excludeHosts = excludeHosts,
+                maxPayloadSize = maxPayloadSize,
+                allowedContentTypes = null,
+            )
+
+        fun filter(properties: TeeFilterProperties): BoundedTeeFilter = BoundedTeeFilter(properties, CaptureBufferPool(properties), "app")
+
+        fun request(
+            contentType: String,
+            body: String,
+        ): MockHttpServletRequest =
+            MockHttpServletRequest("POST", "/api").apply {
+                this.contentType = contentType
+                setContent(body.toByteArray())
+            }
+
+        fun echo(responseContentType: String): FilterChain =
+            FilterChain { request, response ->
+                val body = request.inputStream.readAllBytes()
+                response.contentType = responseContentType
+                response.outputStream.write(body)
+            }
+
+        test("copies bodies up to max-payload-size and counts every byte") {
+            val request = request("text/plain", "0123456789")
+            val response = MockHttpServletResponse()
+
+            filter(properties(maxPayloadSize = 4L)).doFilter(request, response, echo("text/plain"))
+
+            val requestBuffer = request.getAttribute(TeeBuffer.REQUEST_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            val responseBuffer = request.getAttribute(TeeBuffer.RESPONSE_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            assertSoftly {
+                requestBuffer.size shouldBe 10L
+                requestBuffer.toByteArray().decodeToString() shouldBe "0123"
+                responseBuffer.size shouldBe 10L
+                responseBuffer.toByteArray().decodeToString() shouldBe "0123"
+                response.contentAsString shouldBe "0123456789"
+            }
+        }
+
+        test("truncates a captured body before a character split by max-payload-size") {
+            val properties = properties(maxPayloadSize = 8L).copy(oversizedPayload = OversizedPayloadMode.TRUNCATE)
+            val request = request("text/plain;charset=UTF-8", "abcdefgテスト")
+
+            filter(properties).doFilter(request, MockHttpServletResponse(), echo("text/plain"))
+
+            val requestBuffer = request.getAttribute(TeeBuffer.REQUEST_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            assertSoftly {
+                requestBuffer.toByteArray().size shouldBe 8
+                BodyCapturePolicy.capture("text/plain", requestBuffer, Charsets.UTF_8, properties).decode() shouldBe
+                    "abcdefg...[TRUNCATED: 16 BYTES]"
+            }
+        }
+
+        test("stops copying when the in-flight budget is used up and returns chunks on release") {
+            val properties = properties(maxPayloadSize = 65536L).copy(maxInFlightBytes = 16384L)
+            val pool = CaptureBufferPool(properties)
+            val request = request("text/plain", "a".repeat(10000))
+            val response = MockHttpServletResponse()
+
+            BoundedTeeFilter(properties, pool, "app").doFilter(request, response, echo("text/plain"))
+
+            val requestBuffer = request.getAttribute(TeeBuffer.REQUEST_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            val responseBuffer = request.getAttribute(TeeBuffer.RESPONSE_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            assertSoftly {
+                requestBuffer.isOverBudget shouldBe false
+                responseBuffer.isOverBudget shouldBe true
+                responseBuffer.size shouldBe 10000L
+                response.contentAsString shouldBe "a".repeat(10000)
+                pool.inFlightBytes shouldBe 16384L
+                pool.rejectedCount shouldBe 1L
+            }
+
+            TeeBuffer.releaseAll(request)
+
+            assertSoftly {
+                pool.inFlightBytes shouldBe 0L
+                pool.idleBytes shouldBe 16384L
+            }
+        }
+
+        test("counts but does not copy bodies whose content type is not allowed") {
+            val request = request("application/octet-stream", "binary")
+            val response = MockHttpServletResponse()
+
+            filter(properties()).doFilter(request, response, echo("image/png"))
+
+            val requestBuffer = request.getAttribute(TeeBuffer.REQUEST_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            val responseBuffer = request.getAttribute(TeeBuffer.RESPONSE_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            assertSoftly {
+                requestBuffer.size shouldBe 6L
+                requestBuffer.toByteArray().decodeToString() shouldBe ""
+                responseBuffer.size shouldBe 6L
+                responseBuffer.toByteArray().decodeToString() shouldBe ""
+            }
+        }
+
+        test("captures characters written through the response writer") {
+            val request = request("application/json", "")
+            val response = MockHttpServletResponse()
+            val chain =
+                FilterChain { _, filteredResponse ->
+                    filteredResponse.contentType = "application/json"
+                    filteredResponse.characterEncoding = "UTF-8"
+                    filteredResponse.writer.print("""{"name":"テスト"}""")
+                }
+
+            filter(properties()).doFilter(request, response, chain)
+
+            val responseBuffer = request.getAttribute(TeeBuffer.RESPONSE_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            assertSoftly {
+                responseBuffer.toByteArray().decodeToString() shouldBe """{"name":"テスト"}"""
+                response.contentAsString shouldBe """{"name":"テスト"}"""
+            }
+        }
+
+        test("leaves form submissions unwrapped so the container can parse their parameters") {
+            val request = request("application/x-www-form-urlencoded", "user=alice")
+            val response = MockHttpServletResponse()
+
+            filter(properties()).doFilter(request, response, echo("text/plain"))
+
+            request.getAttribute(TeeBuffer.REQUEST_ATTR) shouldBe null
+        }
+
+        test("activates only on included hosts that are not excluded") {
+            assertSoftly {
+                filter(properties()).isActive shouldBe true
+                filter(properties(includeHosts = "app, other")).isActive shouldBe true
+                filter(properties(includeHosts = "other")).isActive shouldBe false
+                filter(properties(excludeHosts = "app")).isActive shouldBe false
+                filter(properties(includeHosts = " ", excludeHosts = "")).isActive shouldBe true
+            }
+        }
+
+        test("passes requests through untouched on an inactive host") {
+            val request = request("text/plain", "body")
+            val response = MockHttpServletResponse()
+
+            filter(properties(excludeHosts = "app")).doFilter(request, response, echo("text/plain"))
+
+            assertSoftly {
+                request.getAttribute(TeeBuffer.REQUEST_ATTR) shouldBe null
+                request.getAttribute(TeeBuffer.RESPONSE_ATTR) shouldBe null
+                response.contentAsString shouldBe "body"
+            }
+        }
+
+        test("captures only requests matching a body capture rule, with the rule's limit") {
+            val properties = properties().copy(rules = listOf(BodyCaptureRule("^/api/payments", listOf("post"), maxPayloadSize = 4L)))
+            val matched = MockHttpServletRequest("POST", "/api/payments/1").apply { contentType = "text/plain" }
+            matched.setContent("0123456789".toByteArray())
+            val unmatched = MockHttpServletRequest("GET", "/api/payments/1").apply { contentType = "text/plain" }
+            val response = MockHttpServletResponse()
+
+            filter(properties).doFilter(matched, MockHttpServletResponse(), echo("text/plain"))
+            filter(properties).doFilter(unmatched, response, echo("text/plain"))
+
+            val requestBuffer = matched.getAttribute(TeeBuffer.REQUEST_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            assertSoftly {
+                requestBuffer.toByteArray().decodeToString() shouldBe "0123"
+                matched.getAttribute(BodyCaptureRules.ATTR).shouldBeInstanceOf<TeeFilterProperties>().maxPayloadSize shouldBe 4L
+                unmatched.getAttribute(TeeBuffer.REQUEST_ATTR) shouldBe null
+                unmatched.getAttribute(TeeBuffer.RESPONSE_ATTR) shouldBe null
+                unmatched.getAttribute(BodyCaptureRules.ATTR) shouldBe null
+            }
+        }
+    })
@@ -0,0 +1,98 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.kotest.assertions.assertSoftly
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.nulls.shouldNotBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.string.shouldContain
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+
+class CaptureBufferPoolSpec :
+    FunSpec({
+        fun properties(
+            maxInFlightBytes: Long,
+            directBuffers: Boolean = false,
+        ): TeeFilterProperties =
+            TeeFilterProperties(
+                enabled = true,
+                includeHosts = null,
+                excludeHosts = null,
+                maxPayloadSize = 65536L,
+                allowedContentTypes = null,
+                maxInFlightBytes = maxInFlightBytes,
+                directBuffers = directBuffers,
+            )
+
+        test("lends chunks up to the budget rounded down to whole chunks") {
+            val pool = CaptureBufferPool(properties(maxInFlightBytes = 20000L), chunkSize = 8192)
+
+            val first = pool.acquire().shouldNotBeNull()
+            val second = pool.acquire().shouldNotBeNull()
+
+            assertSoftly {
+                pool.acquire().shouldBeNull()
+                pool.maxInFlightBytes shouldBe 16384L
+                pool.inFlightBytes shouldBe 16384L
+                pool.rejectedCount shouldBe 1L
+            }
+
+            pool.release(first)
+            pool.release(second)
+
+            assertSoftly {
+                pool.inFlightBytes shouldBe 0L
+                pool.idleBytes shouldBe 16384L
+            }
+        }
+
+        test("reuses released chunks, cleared for the next body") {
+            val pool = CaptureBufferPool(properties(maxInFlightBytes = 8192L), chunkSize = 8192)
+            val chunk = pool.acquire().shouldNotBeNull().put(1.toByte())
+
+            pool.release(chunk)
+
+            val reused = pool.acquire().shouldNotBeNull()
+            assertSoftly {
+                reused shouldBeSameInstanceAs chunk
+                reused.position() shouldBe 0
+            }
+        }
+
+        test("allocates direct chunks when configured") {
+            val pool = CaptureBufferPool(properties(maxInFlightBytes = 8192L, directBuffers = true))
+
+            pool.acquire().shouldNotBeNull().isDirect shouldBe true
+        }
+
+        test("rejects a negative budget") {
+            shouldThrow<IllegalArgumentException> {
+                CaptureBufferPool(properties(maxInFlightBytes = -1L))
+            }.message shouldContain "Invalid tee-filter max-in-flight-bytes"
+        }
+
+        test("rejects a budget smaller than one chunk") {
+            shouldThrow<IllegalArgumentException> {
+                CaptureBufferPool(properties(maxInFlightBytes = 4096L), chunkSize = 8192)
+            }.message shouldContain "must be at least one 8192-byte chunk"
+        }
+
+        test("publishes pool and budget meters") {
+            val pool = CaptureBufferPool(properties(maxInFlightBytes = 8192L), chunkSize = 8192)
+            val registry = SimpleMeterRegistry()
+            CaptureBufferMetrics(pool).bindTo(registry)
+
+            pool.acquire()
+            pool.acquire()
+
+            assertSoftly {
+                registry.get("logback.access.tee.buffer.in.flight").gauge().value() shouldBe 8192.0
+                registry.get("logback.access.tee.buffer.in.flight.max").gauge().value() shouldBe 8192.0
+                registry.get("logback.access.tee.buffer.idle").gauge().value() shouldBe 0.0
+                registry.get("logback.access.tee.buffer.rejected").functionCounter().count() shouldBe 1.0
+            }
+        }
+    })
@@ -0,0 +1,53 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+
+class CharsetBoundarySpec :
+    FunSpec({
+        test("cuts UTF-8 before a split multi-byte character") {
+            val bytes = "aé€😀".toByteArray(Charsets.UTF_8)
+
+            assertSoftly {
+                (0..bytes.size).map { CharsetBoundary.prefixLength(bytes, it, Charsets.UTF_8) } shouldBe
+                    listOf(0, 1, 1, 3, 3, 3, 6, 6, 6, 6, 10)
+            }
+        }
+
+        test("cuts UTF-8 before a character split by the end of the captured bytes") {
+            val bytes = "aé€😀".toByteArray(Charsets.UTF_8)
+
+            assertSoftly {
+                (1..bytes.size).map { CharsetBoundary.prefixLength(bytes.copyOf(it), it, Charsets.UTF_8) } shouldBe
+                    listOf(1, 1, 3, 3, 3, 6, 6, 6, 6, 10)
+            }
+        }
+
+        test("cuts UTF-16 before a split surrogate pair") {
+            val bytes = "a😀".toByteArray(Charsets.UTF_16BE)
+
+            assertSoftly {
+                CharsetBoundary.prefixLength(bytes, 3, Charsets.UTF_16BE) shouldBe 2
+                CharsetBoundary.prefixLength(bytes, 4, Charsets.UTF_16BE) shouldBe 2
+                CharsetBoundary.prefixLength(bytes, 5, Charsets.UTF_16BE) shouldBe 2
+            }
+        }
+
+        test("cuts Shift_JIS before a split double-byte character") {
+            val charset = charset("Shift_JIS")
+            val bytes = "aテスト".toByteArray(charset)
+
+            assertSoftly {
+                CharsetBoundary.prefixLength(bytes, 2, charset) shouldBe 1
+                CharsetBoundary.prefixLength(bytes, 4, charset) shouldBe 3
+                CharsetBoundary.prefixLength(bytes.copyOf(4), 4, charset) shouldBe 3
+            }
+        }
+
+        test("cuts malformed UTF-8 at the limit") {
+            val bytes = byteArrayOf(0x61, 0x80.toByte(), 0x80.toByte(), 0x80.toByte(), 0x80.toByte(), 0x62)
+
+            CharsetBoundary.prefixLength(bytes, 4, Charsets.UTF_8) shouldBe 4
+        }
+    })
@@ -0,0 +1,99 @@
+package io.github.seijikohara.spring.boot.logback.access.tee
+
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.BodyCaptureRule
+import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.kotest.assertions.assertSoftly
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.nulls.shouldBeNull
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeInstanceOf
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import org.springframework.core.io.buffer.DefaultDataBufferFactory
+import org.springframework.http.MediaType
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest
+import org.springframework.mock.web.server.MockServerWebExchange
+import org.springframework.web.server.ServerWebExchange
+import org.springframework.web.server.WebFilterChain
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+
+class ReactiveTeeFilterSpec :
+    FunSpec({
+        fun properties(
+            maxPayloadSize: Long = 65536L,
+            rules: List<BodyCaptureRule> = emptyList(),
+        ): TeeFilterProperties =
+            TeeFilterProperties(
+                enabled = true,
+                includeHosts = null,
+                excludeHosts = null,
+                maxPayloadSize = maxPayloadSize,
+                allowedContentTypes = null,
+                rules = rules,
+            )
+
+        fun filter(properties: TeeFilterProperties): ReactiveTeeFilter = ReactiveTeeFilter(properties, CaptureBufferPool(properties), "app")
+
+        fun exchange(body: String): MockServerWebExchange =
+            MockServerWebExchange.from(MockServerHttpRequest.post("/api").contentType(MediaType.TEXT_PLAIN).body(body))
+
+        fun echo(): WebFilterChain =
+            WebFilterChain { exchange ->
+                exchange.response.headers.contentType = MediaType.TEXT_PLAIN
+                exchange.response.writeWith(exchange.request.body)
+            }
+
+        test("copies bodies up to max-payload-size and passes every buffer on") {
+            val exchange = exchange("0123456789")
+
+            filter(properties(maxPayloadSize = 4L)).filter(exchange, echo()).block()
+
+            val requestBuffer = exchange.getAttribute<Any>(TeeBuffer.REQUEST_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            val responseBuffer = exchange.getAttribute<Any>(TeeBuffer.RESPONSE_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            assertSoftly {
+                requestBuffer.size shouldBe 10L
+                requestBuffer.toByteArray().decodeToString() shouldBe "0123"
+                responseBuffer.size shouldBe 10L
+                responseBuffer.toByteArray().decodeToString() shouldBe "0123"
+                exchange.response.bodyAsString.block() shouldBe "0123456789"
+            }
+        }
+
+        test("tees a streamed response buffer by buffer without joining it") {
+            val exchange = exchange("")
+            val factory = DefaultDataBufferFactory.sharedInstance
+            val chain =
+                WebFilterChain { teed ->
+                    teed.response.headers.contentType = MediaType.TEXT_PLAIN
+                    teed.response.writeAndFlushWith(
+                        Flux.just("ab", "cd", "ef").map { Mono.just(factory.wrap(it.toByteArray())) },
+                    )
+                }
+
+            filter(properties(maxPayloadSize = 3L)).filter(exchange, chain).block()
+
+            val responseBuffer = exchange.getAttribute<Any>(TeeBuffer.RESPONSE_ATTR).shouldBeInstanceOf<TeeBuffer>()
+            assertSoftly {
+                responseBuffer.size shouldBe 6L
+                responseBuffer.toByteArray().decodeToString() shouldBe "abc"
+                exchange.response.bodyAsString.block() shouldBe "abcdef"
+            }
+        }
+
+        test("passes requests no capture rule matches through untouched") {
+            val exchange = exchange("{}")
+            var forwarded: ServerWebExchange? = null
+            val chain =
+                WebFilterChain { next ->
+                    forwarded = next
+                    Mono.empty()
+                }
+
+            filter(properties(rules = listOf(BodyCaptureRule("^/upload")))).filter(exchange, chain).block()
+
+            assertSoftly {
+                forwarded shouldBeSameInstanceAs exchange
+                exchange.getAttribute<Any>(TeeBuffer.REQUEST_ATTR).shouldBeNull()
+            }
+        }
+    })
@@ -4,18 +4,27 @@ import ch.qos.logback.access.common.spi.AccessContext
 import ch.qos.logback.access.common.spi.IAccessEvent.NA
 import ch.qos.logback.core.spi.SequenceNumberGenerator
 import io.github.seijikohara.spring.boot.logback.access.AccessEventData
+import io.github.seijikohara.spring.boot.logback.access.AccessEventData.Companion.MVC_ROUTE_ATTR
+import io.github.seijikohara.spring.boot.logback.access.CapturePlan
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
 import io.github.seijikohara.spring.boot.logback.access.LocalPortStrategy
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties
+import io.github.seijikohara.spring.boot.logback.access.RouteResolver
+import io.github.seijikohara.spring.boot.logback.access.tee.CaptureBufferPool
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.longs.shouldBeGreaterThanOrEqual
+import io.kotest.matchers.maps.shouldBeEmpty
 import io.kotest.matchers.nulls.shouldBeNull
 import io.kotest.matchers.nulls.shouldNotBeNull
 import io.kotest.matchers.shouldBe
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import org.apache.catalina.connector.Request
 import org.apache.catalina.connector.Response
+import org.apache.tomcat.util.http.MimeHeaders
 
 class TomcatEventSourceSpec :
     FunSpec({
@@ -29,9 +38,14 @@ class TomcatEventSourceSpec :
                 filter = LogbackAccessProperties.FilterProperties(null, null),
             )
 
-        fun context(generator: SequenceNumberGenerator? = null): LogbackAccessContext =
+        fun context(
+            generator: SequenceNumberGenerator? = null,
+            plan: CapturePlan = CapturePlan.FULL,
+        ): LogbackAccessContext =
             mockk {
                 every { properties } returns properties()
+                every { capturePlanFor(any(), any()) } returns plan
+                every { routeResolver } returns RouteResolver(LogbackAccessProperties.RouteProperties())
                 every { accessContext } returns
                     mockk<AccessContext>(relaxed = true) {
                         every { sequenceNumberGenerator } returns generator
@@ -113,4 +127,50 @@ class TomcatEventSourceSpec :
             data.requestURL shouldBe "$NA $NA $NA"
             data.statusCode shouldBe 400
         }
+
+        test("copies only the optional fields selected by the capture plan") {
+            val request =
+                request().apply {
+                    every { coyoteRequest.mimeHeaders } returns mimeHeaders("User-Agent" to "curl/8.0", "Accept" to "*/*")
+                }
+            val plan = CapturePlan.NONE.copy(requestHeaders = FieldSelection(setOf("user-agent")))
+
+            val data = event(elapsedTimeNanos = 0L, context = context(plan = plan), request = request)
+
+            data.requestHeaderMap shouldBe mapOf("User-Agent" to "curl/8.0")
+            data.cookieMap.shouldBeEmpty()
+            data.requestParameterMap.shouldBeEmpty()
+            data.attributeMap.shouldBeEmpty()
+            data.sessionID.shouldBeNull()
+            data.responseHeaderMap.shouldBeEmpty()
+            verify(exactly = 0) { request.parameterMap }
+            verify(exactly = 0) { request.cookies }
+            verify(exactly = 0) { request.getSession(any()) }
+        }
+
+        test("returns the teed body chunks to the pool when the capture plan reads no body") {
+            val pool = CaptureBufferPool(LogbackAccessProperties.TeeFilterProperties(true, null, null, 65536L, null))
+            val body = TeeBuffer(pool) { 100 }.apply { write("{\"name\":\"test\"}".toByteArray(), 0, 15) }
+            val request = request().apply { every { getAttribute(TeeBuffer.REQUEST_ATTR) } returns body }
+            pool.inFlightBytes shouldBe CaptureBufferPool.DEFAULT_CHUNK_SIZE.toLong()
+
+            event(elapsedTimeNanos = 0L, context = context(plan = CapturePlan.NONE), request = request)
+
+            pool.inFlightBytes shouldBe 0L
+        }
+
+        test("records the Spring MVC handler pattern as the route") {
+            val request = request().apply { every { getAttribute(MVC_ROUTE_ATTR) } returns "/api/users/{id}" }
+
+            event(elapsedTimeNanos = 0L, request = request).route shouldBe "/api/users/{id}"
+        }
+
+        test("falls back to the normalized request URI when no handler matched") {
+            val request = request().apply { every { requestURI } returns "/files/2024/123e4567-e89b-12d3-a456-426614174000" }
+
+            event(elapsedTimeNanos = 0L, request = request).route shouldBe "/files/{id}/{uuid}"
+        }
     })
+
+private fun mimeHeaders(vararg headers: Pair<String, String>): MimeHeaders =
+    MimeHeaders().apply { headers.forEach { (name, value) -> addValue(name).setString(value) } }
@@ -2,7 +2,11 @@ package io.github.seijikohara.spring.boot.logback.access.tomcat
 
 import ch.qos.logback.access.common.AccessConstants.LB_INPUT_BUFFER
 import ch.qos.logback.access.common.AccessConstants.LB_OUTPUT_BUFFER
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.ParameterCaptureMode
+import io.github.seijikohara.spring.boot.logback.access.tee.CaptureBufferPool
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.maps.shouldBeEmpty
 import io.kotest.matchers.maps.shouldContainExactly
@@ -10,9 +14,13 @@ import io.kotest.matchers.maps.shouldHaveSize
 import io.kotest.matchers.shouldBe
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import jakarta.servlet.http.Cookie
+import org.apache.catalina.connector.Connector
 import org.apache.catalina.connector.Request
+import org.apache.tomcat.util.http.MimeHeaders
 import java.util.Collections
+import org.apache.coyote.Request as CoyoteRequest
 
 class TomcatRequestDataExtractorSpec :
     FunSpec({
@@ -27,20 +35,16 @@ class TomcatRequestDataExtractorSpec :
 
         context("extractHeaders") {
             test("returns case-insensitive sorted header map") {
-                val request = mockk<Request>(relaxed = true)
-                every { request.headerNames } returns Collections.enumeration(listOf("Content-Type", "Accept"))
-                every { request.getHeader("Content-Type") } returns "text/html"
-                every { request.getHeader("Accept") } returns "application/json"
+                val request = requestWithHeaders("Content-Type" to "text/html", "Accept" to "application/json")
 
                 val headers = TomcatRequestDataExtractor.extractHeaders(request)
 
                 headers shouldContainExactly mapOf("Accept" to "application/json", "Content-Type" to "text/html")
+                headers["content-type"] shouldBe "text/html"
             }
 
             test("returns first value for duplicate headers") {
-                val request = mockk<Request>(relaxed = true)
-                every { request.headerNames } returns Collections.enumeration(listOf("X-Forwarded-For"))
-                every { request.getHeader("X-Forwarded-For") } returns "10.0.0.1"
+                val request = requestWithHeaders("X-Forwarded-For" to "10.0.0.1", "X-Forwarded-For" to "10.0.0.2")
 
                 val headers = TomcatRequestDataExtractor.extractHeaders(request)
 
@@ -48,13 +52,42 @@ class TomcatRequestDataExtractorSpec :
             }
 
             test("returns empty map when no headers present") {
-                val request = mockk<Request>(relaxed = true)
-                every { request.headerNames } returns Collections.enumeration(emptyList())
+                val request = requestWithHeaders()
 
                 val headers = TomcatRequestDataExtractor.extractHeaders(request)
 
                 headers.shouldBeEmpty()
             }
+
+            test("copies only allow-listed headers regardless of case") {
+                val request = requestWithHeaders("User-Agent" to "curl/8.0", "Accept" to "*/*", "Cookie" to "a=b")
+
+                val headers = TomcatRequestDataExtractor.extractHeaders(request, FieldSelection.ofHeaders(listOf("user-agent"), null))
+
+                headers shouldContainExactly mapOf("User-Agent" to "curl/8.0")
+            }
+
+            test("skips deny-listed headers") {
+                val request = requestWithHeaders("User-Agent" to "curl/8.0", "Authorization" to "Bearer secret")
+
+                val headers = TomcatRequestDataExtractor.extractHeaders(request, FieldSelection.ofHeaders(null, listOf("AUTHORIZATION")))
+
+                headers shouldContainExactly mapOf("User-Agent" to "curl/8.0")
+            }
+
+            test("matches header names held as raw bytes, as the HTTP/1.1 parser stores them") {
+                val raw = "User-AgentAcceptcurl/8.0*/*".toByteArray()
+                val mimeHeaders =
+                    MimeHeaders().apply {
+                        addValue(raw, 0, 10).setBytes(raw, 16, 8)
+                        addValue(raw, 10, 6).setBytes(raw, 24, 3)
+                    }
+                val request = mockk<Request>(relaxed = true) { every { coyoteRequest.mimeHeaders } returns mimeHeaders }
+
+                val headers = TomcatRequestDataExtractor.extractHeaders(request, FieldSelection.ofHeaders(listOf("user-agent"), null))
+
+                headers shouldContainExactly mapOf("User-Agent" to "curl/8.0")
+            }
         }
 
         context("extractCookies") {
@@ -100,13 +133,45 @@ class TomcatRequestDataExtractorSpec :
 
                 params.shouldBeEmpty()
             }
+
+            test("does not make Tomcat parse parameters in IF_PARSED mode") {
+                val request = requestWithQuery("a=1&b=2")
+
+                val params = TomcatRequestDataExtractor.extractParameters(request, mode = ParameterCaptureMode.IF_PARSED)
+
+                params.shouldBeEmpty()
+                // Tomcat decodes the query string on the first parameter lookup, so a query string
+                // replaced after extraction is only seen if the extraction left it unparsed.
+                request.coyoteRequest.queryString().setString("late=1")
+                request.getParameter("late") shouldBe "1"
+                request.getParameter("a") shouldBe null
+            }
+
+            test("snapshots parameters the application already parsed in IF_PARSED mode") {
+                val request = requestWithQuery("a=1&a=2&b=3").apply { getParameter("a") }
+
+                val params = TomcatRequestDataExtractor.extractParameters(request, mode = ParameterCaptureMode.IF_PARSED)
+
+                params shouldContainExactly mapOf("a" to listOf("1", "2"), "b" to listOf("3"))
+            }
+
+            test("reads only the selected parameters in IF_PARSED mode") {
+                val request = requestWithQuery("a=1&b=2").apply { getParameter("a") }
+
+                val params =
+                    TomcatRequestDataExtractor.extractParameters(request, FieldSelection(setOf("b")), ParameterCaptureMode.IF_PARSED)
+
+                params shouldContainExactly mapOf("b" to listOf("2"))
+            }
         }
 
         context("extractAttributes") {
             test("returns attribute map excluding logback buffer attributes") {
                 val request = mockk<Request>(relaxed = true)
                 every { request.attributeNames } returns
-                    Collections.enumeration(listOf("custom", LB_INPUT_BUFFER, LB_OUTPUT_BUFFER))
+                    Collections.enumeration(
+                        listOf("custom", LB_INPUT_BUFFER, LB_OUTPUT_BUFFER, TeeBuffer.REQUEST_ATTR, TeeBuffer.RESPONSE_ATTR),
+                    )
                 every { request.getAttribute("custom") } returns "customValue"
                 every { request.getAttribute(LB_INPUT_BUFFER) } returns ByteArray(10)
                 every { request.getAttribute(LB_OUTPUT_BUFFER) } returns ByteArray(10)
@@ -137,6 +202,17 @@ class TomcatRequestDataExtractorSpec :
 
                 attributes.shouldBeEmpty()
             }
+
+            test("never reads excluded attributes and truncates long values") {
+                val request = mockk<Request>(relaxed = true)
+                every { request.attributeNames } returns Collections.enumeration(listOf("handler", "traceId"))
+                every { request.getAttribute("traceId") } returns "0123456789abcdef"
+
+                val attributes = TomcatRequestDataExtractor.extractAttributes(request, FieldSelection.of(null, listOf("handler")), 8)
+
+                attributes shouldContainExactly mapOf("traceId" to "01234567...")
+                verify(exactly = 0) { request.getAttribute("handler") }
+            }
         }
 
         context("extractContent — form data normal path") {
@@ -153,7 +229,7 @@ class TomcatRequestDataExtractorSpec :
                         allowedContentTypes = listOf("application/x-www-form-urlencoded"),
                     )
 
-                val content = TomcatRequestDataExtractor.extractContent(request, formAllowed)
+                val content = TomcatRequestDataExtractor.extractContent(request, formAllowed)?.decode()
 
                 content shouldBe "key=value"
             }
@@ -166,7 +242,7 @@ class TomcatRequestDataExtractorSpec :
                 every { request.characterEncoding } returns null
                 every { request.parameterMap } returns mapOf("username" to arrayOf("admin"), "password" to arrayOf("secret"))
 
-                val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)
+                val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
 
                 content shouldBe "[BINARY CONTENT SUPPRESSED]"
             }
@@ -186,7 +262,7 @@ class TomcatRequestDataExtractorSpec :
                         allowedContentTypes = listOf("application/x-www-form-urlencoded"),
                     )
 
-                val content = TomcatRequestDataExtractor.extractContent(request, formAllowed)
+                val content = TomcatRequestDataExtractor.extractContent(request, formAllowed)?.decode()
 
                 content shouldBe "password=secret"
             }
@@ -205,7 +281,7 @@ class TomcatRequestDataExtractorSpec :
                         allowedContentTypes = listOf("application/x-www-form-urlencoded"),
                     )
 
-                val content = TomcatRequestDataExtractor.extractContent(request, formAllowed)
+                val content = TomcatRequestDataExtractor.extractContent(request, formAllowed)?.decode()
 
                 content shouldBe "key=fromBody"
             }
@@ -225,7 +301,7 @@ class TomcatRequestDataExtractorSpec :
                         allowedContentTypes = listOf("application/x-www-form-urlencoded"),
                     )
 
-                val content = TomcatRequestDataExtractor.extractContent(request, formAllowed)
+                val content = TomcatRequestDataExtractor.extractContent(request, formAllowed)?.decode()
 
                 content shouldBe "body=1"
             }
@@ -238,7 +314,7 @@ class TomcatRequestDataExtractorSpec :
             every { request.characterEncoding } returns "Shift_JIS"
             every { request.contentType } returns "text/plain"
 
-            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)
+            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
 
             content shouldBe "テスト"
         }
@@ -250,7 +326,7 @@ class TomcatRequestDataExtractorSpec :
             every { request.characterEncoding } returns null
             every { request.contentType } returns "text/plain"
 
-            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)
+            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
 
             content shouldBe "hello"
         }
@@ -262,7 +338,7 @@ class TomcatRequestDataExtractorSpec :
             every { request.characterEncoding } returns "INVALID-CHARSET-NAME"
             every { request.contentType } returns "application/json"
 
-            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)
+            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
 
             content shouldBe "hello"
         }
@@ -272,7 +348,7 @@ class TomcatRequestDataExtractorSpec :
             every { request.getAttribute(LB_INPUT_BUFFER) } returns null
             every { request.contentType } returns "application/json"
 
-            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)
+            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
 
             content shouldBe null
         }
@@ -283,7 +359,7 @@ class TomcatRequestDataExtractorSpec :
             every { request.getAttribute(LB_INPUT_BUFFER) } returns binaryBytes
             every { request.contentType } returns "application/octet-stream"
 
-            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)
+            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
 
             content shouldBe "[BINARY CONTENT SUPPRESSED]"
         }
@@ -294,18 +370,53 @@ class TomcatRequestDataExtractorSpec :
             every { request.getAttribute(LB_INPUT_BUFFER) } returns largeBytes
             every { request.contentType } returns "text/plain"
 
-            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)
+            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
 
             content shouldBe "[CONTENT TOO LARGE]"
         }
 
+        test("extractContent decodes the bounded tee buffer ahead of the legacy buffer") {
+            val request = mockk<Request>(relaxed = true)
+            val body = "hello".toByteArray()
+            every { request.getAttribute(TeeBuffer.REQUEST_ATTR) } returns teeBuffer(body, CaptureBufferPool(defaultProperties))
+            every { request.getAttribute(LB_INPUT_BUFFER) } returns "legacy".toByteArray()
+            every { request.contentType } returns "text/plain"
+
+            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
+
+            content shouldBe "hello"
+        }
+
+        test("extractContent reports a body that outgrew the bounded tee buffer as too large") {
+            val request = mockk<Request>(relaxed = true)
+            val body = ByteArray(70000) { 'a'.code.toByte() }
+            every { request.getAttribute(TeeBuffer.REQUEST_ATTR) } returns teeBuffer(body, CaptureBufferPool(defaultProperties))
+            every { request.contentType } returns "text/plain"
+
+            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
+
+            content shouldBe "[CONTENT TOO LARGE]"
+        }
+
+        test("extractContent reports a body cut short by the in-flight budget") {
+            val request = mockk<Request>(relaxed = true)
+            val body = ByteArray(10000) { 'a'.code.toByte() }
+            val pool = CaptureBufferPool(defaultProperties.copy(maxInFlightBytes = 8192L))
+            every { request.getAttribute(TeeBuffer.REQUEST_ATTR) } returns teeBuffer(body, pool)
+            every { request.contentType } returns "text/plain"
+
+            val content = TomcatRequestDataExtractor.extractContent(request, defaultProperties)?.decode()
+
+            content shouldBe "[CAPTURE BUDGET EXHAUSTED]"
+        }
+
         test("extractContent returns null when TeeFilter is disabled") {
             val request = mockk<Request>(relaxed = true)
             every { request.getAttribute(LB_INPUT_BUFFER) } returns "hello".toByteArray()
             every { request.contentType } returns "text/plain"
             val disabledProperties = defaultProperties.copy(enabled = false)
 
-            val content = TomcatRequestDataExtractor.extractContent(request, disabledProperties)
+            val content = TomcatRequestDataExtractor.extractContent(request, disabledProperties)?.decode()
 
             content shouldBe null
         }
@@ -317,7 +428,7 @@ class TomcatRequestDataExtractorSpec :
 
             val disabledProperties = defaultProperties.copy(enabled = false)
 
-            val content = TomcatRequestDataExtractor.extractContent(request, disabledProperties)
+            val content = TomcatRequestDataExtractor.extractContent(request, disabledProperties)?.decode()
 
             content shouldBe null
         }
@@ -333,7 +444,7 @@ class TomcatRequestDataExtractorSpec :
 
             val smallLimit = defaultProperties.copy(maxPayloadSize = 100L)
 
-            val content = TomcatRequestDataExtractor.extractContent(request, smallLimit)
+            val content = TomcatRequestDataExtractor.extractContent(request, smallLimit)?.decode()
 
             content shouldBe "[CONTENT TOO LARGE]"
         }
@@ -348,8 +459,24 @@ class TomcatRequestDataExtractorSpec :
 
             val jsonOnly = defaultProperties.copy(allowedContentTypes = listOf("application/json"))
 
-            val content = TomcatRequestDataExtractor.extractContent(request, jsonOnly)
+            val content = TomcatRequestDataExtractor.extractContent(request, jsonOnly)?.decode()
 
             content shouldBe "[BINARY CONTENT SUPPRESSED]"
         }
     })
+
+private fun requestWithHeaders(vararg headers: Pair<String, String>): Request =
+    mockk(relaxed = true) {
+        every { coyoteRequest.mimeHeaders } returns
+            MimeHeaders().apply { headers.forEach { (name, value) -> addValue(name).setString(value) } }
+    }
+
+// A real connector request, so parameter parsing runs exactly as it does in Tomcat.
+private fun requestWithQuery(query: String): Request =
+    Request(Connector("HTTP/1.1").apply { parseBodyMethods = "POST" }, CoyoteRequest())
+        .apply { coyoteRequest.queryString().setString(query) }
+
+private fun teeBuffer(
+    body: ByteArray,
+    pool: CaptureBufferPool,
+): TeeBuffer = TeeBuffer(pool) { 65536 }.apply { write(body, 0, body.size) }
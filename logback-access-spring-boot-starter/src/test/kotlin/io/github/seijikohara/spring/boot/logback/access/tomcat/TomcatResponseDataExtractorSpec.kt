@@ -1,13 +1,17 @@
 package io.github.seijikohara.spring.boot.logback.access.tomcat
 
 import ch.qos.logback.access.common.AccessConstants.LB_OUTPUT_BUFFER
+import io.github.seijikohara.spring.boot.logback.access.FieldSelection
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties.TeeFilterProperties
+import io.github.seijikohara.spring.boot.logback.access.tee.CaptureBufferPool
+import io.github.seijikohara.spring.boot.logback.access.tee.TeeBuffer
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.shouldBe
 import io.mockk.every
 import io.mockk.mockk
 import org.apache.catalina.connector.Request
 import org.apache.catalina.connector.Response
+import org.apache.tomcat.util.http.MimeHeaders
 
 class TomcatResponseDataExtractorSpec :
     FunSpec({
@@ -22,25 +26,29 @@ class TomcatResponseDataExtractorSpec :
 
         context("extractHeaders") {
             test("returns case-insensitive sorted header map") {
-                val response = mockk<Response>(relaxed = true)
-                every { response.headerNames } returns listOf("Content-Type", "X-Request-Id")
-                every { response.getHeader("Content-Type") } returns "application/json"
-                every { response.getHeader("X-Request-Id") } returns "abc-123"
+                val response = responseWithHeaders("Content-Type" to "application/json", "X-Request-Id" to "abc-123")
 
                 val headers = TomcatResponseDataExtractor.extractHeaders(response)
 
                 headers["Content-Type"] shouldBe "application/json"
-                headers["X-Request-Id"] shouldBe "abc-123"
+                headers["x-request-id"] shouldBe "abc-123"
             }
 
             test("returns empty map when no headers") {
-                val response = mockk<Response>(relaxed = true)
-                every { response.headerNames } returns emptyList()
+                val response = responseWithHeaders()
 
                 val headers = TomcatResponseDataExtractor.extractHeaders(response)
 
                 headers.size shouldBe 0
             }
+
+            test("copies only allow-listed headers") {
+                val response = responseWithHeaders("Content-Type" to "application/json", "Set-Cookie" to "id=1")
+
+                val headers = TomcatResponseDataExtractor.extractHeaders(response, FieldSelection.ofHeaders(listOf("Content-Type"), null))
+
+                headers shouldBe mapOf("Content-Type" to "application/json")
+            }
         }
 
         test("extractContent respects explicit charset in Content-Type header") {
@@ -50,7 +58,7 @@ class TomcatResponseDataExtractorSpec :
             every { request.getAttribute(LB_OUTPUT_BUFFER) } returns isoBytes
             every { response.contentType } returns "text/plain; charset=ISO-8859-1"
 
-            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)
+            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)?.decode()
 
             content shouldBe "café"
         }
@@ -62,7 +70,7 @@ class TomcatResponseDataExtractorSpec :
             every { request.getAttribute(LB_OUTPUT_BUFFER) } returns utf8Bytes
             every { response.contentType } returns "text/plain"
 
-            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)
+            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)?.decode()
 
             content shouldBe "hello"
         }
@@ -74,7 +82,7 @@ class TomcatResponseDataExtractorSpec :
             every { request.getAttribute(LB_OUTPUT_BUFFER) } returns imageBytes
             every { response.contentType } returns "image/png"
 
-            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)
+            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)?.decode()
 
             content shouldBe "[IMAGE CONTENTS SUPPRESSED]"
         }
@@ -85,7 +93,7 @@ class TomcatResponseDataExtractorSpec :
             every { request.getAttribute(LB_OUTPUT_BUFFER) } returns null
             every { response.contentType } returns "text/plain"
 
-            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)
+            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)?.decode()
 
             content shouldBe null
         }
@@ -97,7 +105,7 @@ class TomcatResponseDataExtractorSpec :
             every { request.getAttribute(LB_OUTPUT_BUFFER) } returns binaryBytes
             every { response.contentType } returns "video/mp4"
 
-            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)
+            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)?.decode()
 
             content shouldBe "[BINARY CONTENT SUPPRESSED]"
         }
@@ -110,11 +118,24 @@ class TomcatResponseDataExtractorSpec :
             every { response.characterEncoding } returns "UTF-8"
             every { response.contentType } returns "application/json"
 
-            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)
+            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)?.decode()
 
             content shouldBe "[CONTENT TOO LARGE]"
         }
 
+        test("extractContent decodes the bounded tee buffer") {
+            val request = mockk<Request>(relaxed = true)
+            val response = mockk<Response>(relaxed = true)
+            val body = """{"id":1}""".toByteArray()
+            every { request.getAttribute(TeeBuffer.RESPONSE_ATTR) } returns
+                TeeBuffer(CaptureBufferPool(defaultProperties)) { 64 }.apply { write(body, 0, body.size) }
+            every { response.contentType } returns "application/json"
+
+            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)?.decode()
+
+            content shouldBe """{"id":1}"""
+        }
+
         test("extractContent uses UTF-8 for JSON when Tomcat returns ISO-8859-1 as default charset") {
             // Tomcat returns "ISO-8859-1" from response.characterEncoding even when no charset is
             // set in the Content-Type header, because ISO-8859-1 is the HTTP/1.1 default.
@@ -127,7 +148,7 @@ class TomcatResponseDataExtractorSpec :
             every { response.characterEncoding } returns "ISO-8859-1"
             every { response.contentType } returns "application/json"
 
-            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)
+            val content = TomcatResponseDataExtractor.extractContent(request, response, defaultProperties)?.decode()
 
             content shouldBe cyrillicJson
         }
@@ -139,8 +160,14 @@ class TomcatResponseDataExtractorSpec :
             every { response.contentType } returns "text/plain"
             val disabledProperties = defaultProperties.copy(enabled = false)
 
-            val content = TomcatResponseDataExtractor.extractContent(request, response, disabledProperties)
+            val content = TomcatResponseDataExtractor.extractContent(request, response, disabledProperties)?.decode()
 
             content shouldBe null
         }
     })
+
+private fun responseWithHeaders(vararg headers: Pair<String, String>): Response =
+    mockk(relaxed = true) {
+        every { coyoteResponse.mimeHeaders } returns
+            MimeHeaders().apply { headers.forEach { (name, value) -> addValue(name).setString(value) } }
+    }
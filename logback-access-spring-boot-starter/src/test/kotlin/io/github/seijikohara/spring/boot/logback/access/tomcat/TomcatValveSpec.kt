@@ -1,13 +1,19 @@
 package io.github.seijikohara.spring.boot.logback.access.tomcat
 
 import ch.qos.logback.access.common.spi.AccessContext
+import ch.qos.logback.access.common.spi.IAccessEvent
 import ch.qos.logback.access.common.spi.IAccessEvent.NA
+import ch.qos.logback.core.AppenderBase
+import io.github.seijikohara.spring.boot.logback.access.AccessRequestView
+import io.github.seijikohara.spring.boot.logback.access.CapturePlan
 import io.github.seijikohara.spring.boot.logback.access.LocalPortStrategy
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessContext
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessEvent
 import io.github.seijikohara.spring.boot.logback.access.LogbackAccessProperties
+import io.github.seijikohara.spring.boot.logback.access.RouteResolver
 import io.kotest.assertions.throwables.shouldNotThrowAny
 import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.longs.shouldBeLessThan
 import io.kotest.matchers.shouldBe
 import io.mockk.every
 import io.mockk.just
@@ -18,6 +24,10 @@ import io.mockk.verify
 import org.apache.catalina.AccessLog
 import org.apache.catalina.connector.Request
 import org.apache.catalina.connector.Response
+import org.springframework.core.io.DefaultResourceLoader
+import org.springframework.mock.env.MockEnvironment
+import java.lang.management.ManagementFactory
+import com.sun.management.ThreadMXBean as AllocationMXBean
 
 class TomcatValveSpec :
     FunSpec({
@@ -42,7 +52,7 @@ class TomcatValveSpec :
         }
 
         test("log does not propagate exceptions thrown while extracting access-event data") {
-            val context = mockk<LogbackAccessContext>(relaxed = true)
+            val context = mockk<LogbackAccessContext>(relaxed = true) { every { shouldLog(any()) } returns true }
             val request =
                 mockk<Request>(relaxed = true) {
                     // Simulate a malformed/early-rejected request whose getters fail.
@@ -61,12 +71,16 @@ class TomcatValveSpec :
             val emitted = slot<LogbackAccessEvent>()
             val context =
                 mockk<LogbackAccessContext> {
+                    every { eventPoolingEnabled } returns false
                     every { properties } returns properties()
+                    every { capturePlanFor(any(), any()) } returns CapturePlan.FULL
+                    every { routeResolver } returns RouteResolver(LogbackAccessProperties.RouteProperties())
                     every { accessContext } returns
                         mockk<AccessContext>(relaxed = true) {
                             every { sequenceNumberGenerator } returns null
                         }
-                    every { emit(capture(emitted)) } just runs
+                    every { shouldLog(any()) } returns true
+                    every { emitAccepted(capture(emitted)) } just runs
                 }
 
             TomcatValve(context).log(earlyRejectedRequest(), earlyRejectedResponse(), 0L)
@@ -76,4 +90,78 @@ class TomcatValveSpec :
             emitted.captured.protocol shouldBe NA
             emitted.captured.statusCode shouldBe 400
         }
+
+        test("log skips extraction when the request is rejected before extraction") {
+            val view = slot<AccessRequestView>()
+            val context =
+                mockk<LogbackAccessContext> {
+                    every { eventPoolingEnabled } returns false
+                    every { shouldLog(capture(view)) } returns false
+                }
+            val request =
+                mockk<Request> {
+                    every { requestURI } returns "/actuator/health"
+                    every { getAttribute(any()) } returns null
+                }
+            val response = mockk<Response>()
+
+            TomcatValve(context).log(request, response, 0L)
+
+            view.captured.requestURI shouldBe "/actuator/health"
+            verify(exactly = 0) { context.emitAccepted(any()) }
+            verify(exactly = 0) { request.coyoteRequest }
+        }
+
+        test("pooled events allocate close to nothing per request in steady state") {
+            // The built-in configuration logs the common pattern through a console appender, so the
+            // plan captures no optional field and event pooling is allowed.
+            val properties =
+                properties().copy(
+                    configLocation = LogbackAccessProperties.FALLBACK_CONFIG,
+                    eventPool = LogbackAccessProperties.EventPoolProperties(enabled = true),
+                )
+            val context = LogbackAccessContext(properties, DefaultResourceLoader(), MockEnvironment())
+            try {
+                context.eventPoolingEnabled shouldBe true
+                // Swap the console appender for one that formats nothing, so only capture is measured.
+                val appender = StatusCountingAppender().also { it.context = context.accessContext }
+                context.accessContext.detachAndStopAllAppenders()
+                context.accessContext.addAppender(appender.also { it.start() })
+                val valve = TomcatValve(context)
+                val request =
+                    earlyRejectedRequest().apply {
+                        coyoteRequest.requestURI().setString("/api/users")
+                        coyoteRequest.protocol().setString("HTTP/1.1")
+                        coyoteRequest.serverName().setString("localhost")
+                        coyoteRequest.remoteAddr().setString("127.0.0.1")
+                    }
+                val response = earlyRejectedResponse()
+                val allocation = ManagementFactory.getThreadMXBean() as AllocationMXBean
+
+                repeat(WARMUP_REQUESTS) { valve.log(request, response, 1_000_000L) }
+                val before = allocation.currentThreadAllocatedBytes
+                repeat(MEASURED_REQUESTS) { valve.log(request, response, 1_000_000L) }
+                val bytesPerRequest = (allocation.currentThreadAllocatedBytes - before) / MEASURED_REQUESTS
+
+                appender.count shouldBe WARMUP_REQUESTS + MEASURED_REQUESTS
+                bytesPerRequest shouldBeLessThan MAX_BYTES_PER_REQUEST
+            } finally {
+                context.close()
+            }
+        }
     })
+
+private const val WARMUP_REQUESTS = 50_000
+private const val MEASURED_REQUESTS = 10_000
+
+// A snapshot event for the same request allocates several hundred bytes (event, data, request
+// line, query string); the bound leaves room for a small object the JIT may not scalar-replace.
+private const val MAX_BYTES_PER_REQUEST = 64L
+
+private class StatusCountingAppender : AppenderBase<IAccessEvent>() {
+    var count = 0
+
+    override fun append(event: IAccessEvent) {
+        if (event.statusCode > 0) count++
+    }
+}